@@ -0,0 +1,202 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.api.measurement.dataset.Dataset;
+import org.aim.api.measurement.dataset.DatasetCollection;
+import org.aim.artifacts.records.ResponseTimeRecord;
+import org.aim.artifacts.records.ThreadTracingRecord;
+import org.lpe.common.util.NumericPairList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.spotter.ext.detection.appHiccups.utils.StreamingHiccupDetector;
+import org.spotter.ext.detection.edc.utils.DataAnalyzationUtils;
+import org.spotter.ext.detection.edc.utils.MethodCallSet;
+import org.spotter.ext.detection.est.AggTrace;
+import org.spotter.ext.detection.est.Trace;
+import org.spotter.ext.detection.utils.BucketAnalysis;
+import org.spotter.ext.detection.utils.ChangePointDetector;
+import org.spotter.ext.detection.utils.Utils;
+
+/**
+ * Measures the analysis kernels shared by the detection controllers on
+ * synthetic data of a single experiment.
+ *
+ * @author agent
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AnalysisKernelBenchmark {
+	private static final int NUM_OPERATIONS = 10;
+	private static final long SEED = 42L;
+	private static final int WINDOW_SIZE = 100;
+	private static final double PERCENTILE = 0.9;
+	private static final double THRESHOLD = 25.0;
+	private static final long BUCKET_STEP = 5000L;
+	private static final int LOOP_LENGTH = 2;
+
+	/**
+	 * Number of requests of the experiment.
+	 */
+	@Param({ "1000", "10000", "100000" })
+	public int numRequests;
+
+	private NumericPairList<Long, Double> responseTimeSeries;
+	private long[] timestamps;
+	private double[] responseTimes;
+	private Dataset rtDataset;
+	private Dataset ttDataset;
+	private Trace rootTrace;
+
+	/**
+	 * Creates the data.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		List<AbstractRecord> records = new SyntheticMeasurements(SEED, NUM_OPERATIONS).createStep(1, numRequests);
+		responseTimeSeries = new NumericPairList<>();
+		for (AbstractRecord record : records) {
+			if (record instanceof ResponseTimeRecord) {
+				ResponseTimeRecord rtRecord = (ResponseTimeRecord) record;
+				responseTimeSeries.add(rtRecord.getTimeStamp(), (double) rtRecord.getResponseTime());
+			}
+		}
+		responseTimeSeries.sort();
+		timestamps = new long[responseTimeSeries.size()];
+		responseTimes = new double[responseTimeSeries.size()];
+		for (int i = 0; i < timestamps.length; i++) {
+			timestamps[i] = responseTimeSeries.get(i).getKey();
+			responseTimes[i] = responseTimeSeries.get(i).getValue();
+		}
+
+		DatasetCollection data = SyntheticMeasurements.toDatasetCollection(Collections.singletonList(records));
+		rtDataset = data.getDataSet(ResponseTimeRecord.class);
+		ttDataset = data.getDataSet(ThreadTracingRecord.class);
+
+		rootTrace = createTrace(numRequests);
+	}
+
+	/**
+	 * Moving percentile over the whole series as calculated by the percentile
+	 * based strategies.
+	 *
+	 * @param blackhole
+	 *            consumes the results
+	 */
+	@Benchmark
+	public void windowPercentile(Blackhole blackhole) {
+		for (int i = 0; i < responseTimeSeries.size(); i++) {
+			blackhole.consume(Utils.calculateWindowPercentile(responseTimeSeries, PERCENTILE, i, WINDOW_SIZE));
+		}
+	}
+
+	/**
+	 * Bucket statistics as calculated by the bucket strategies.
+	 *
+	 * @return bucket statistics
+	 */
+	@Benchmark
+	public BucketAnalysis bucketAnalysis() {
+		return BucketAnalysis.analyze(timestamps, responseTimes, BUCKET_STEP, THRESHOLD, 3);
+	}
+
+	/**
+	 * Incremental hiccup detection over the whole series.
+	 *
+	 * @return detector holding the hiccups
+	 */
+	@Benchmark
+	public StreamingHiccupDetector streamingHiccups() {
+		StreamingHiccupDetector detector = new StreamingHiccupDetector(WINDOW_SIZE, PERCENTILE, THRESHOLD);
+		for (int i = 0; i < timestamps.length; i++) {
+			detector.addSample("operation", timestamps[i], responseTimes[i]);
+		}
+		detector.finish();
+		return detector;
+	}
+
+	/**
+	 * Change point detection on the response time series.
+	 *
+	 * @return change points
+	 */
+	@Benchmark
+	public int[] changePoints() {
+		return ChangePointDetector.detect(responseTimes, 2.0, WINDOW_SIZE);
+	}
+
+	/**
+	 * Aggregation of a trace with loops as done by the empty semi trucks
+	 * analysis.
+	 *
+	 * @return aggregated trace
+	 */
+	@Benchmark
+	public AggTrace aggregateTrace() {
+		return AggTrace.fromTrace(rootTrace);
+	}
+
+	/**
+	 * Correlation of response times and thread tracing records as done by the
+	 * expensive database call analysis.
+	 *
+	 * @return method call set
+	 */
+	@Benchmark
+	public MethodCallSet methodCallSet() {
+		Set<String> methodNames = DataAnalyzationUtils.extractUniqueMethodNames(rtDataset);
+		return DataAnalyzationUtils.getMethodCallSetOfMethods(methodNames, rtDataset, ttDataset);
+	}
+
+	/**
+	 * Creates a trace whose sub traces consist of loops over sequences of
+	 * calls, each call having a nested call.
+	 */
+	private static Trace createTrace(int numCalls) {
+		Trace root = new Trace("root");
+		for (int i = 0; i < numCalls; i++) {
+			// loops of LOOP_LENGTH different methods, repeated 10 times
+			Trace call = new Trace("method-" + ((i / (10 * LOOP_LENGTH)) % NUM_OPERATIONS) + "-" + (i % LOOP_LENGTH));
+			new Trace(call, "nested");
+			// equal traces are not added by setParent
+			root.getSubTraces().add(call);
+			call.setParent(root);
+		}
+		return root;
+	}
+}
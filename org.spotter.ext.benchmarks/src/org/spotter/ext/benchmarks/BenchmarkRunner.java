@@ -0,0 +1,69 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, so that they can be
+ * compared over time. All JMH command line options are supported; without
+ * options, all benchmarks are run and the results are written to
+ * {@link #DEFAULT_RESULT_FILE}.
+ *
+ * Usage: java -jar target/benchmarks.jar [JMH options]
+ *
+ * @author agent
+ *
+ */
+public final class BenchmarkRunner {
+	/**
+	 * Default result file.
+	 */
+	public static final String DEFAULT_RESULT_FILE = "benchmark-results.json";
+
+	private BenchmarkRunner() {
+
+	}
+
+	/**
+	 * Main method.
+	 *
+	 * @param args
+	 *            JMH command line options
+	 * @throws RunnerException
+	 *             if a benchmark fails
+	 * @throws CommandLineOptionException
+	 *             if the options are invalid
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions cmdOptions = new CommandLineOptions(args);
+		OptionsBuilder builder = new OptionsBuilder();
+		if (!cmdOptions.getResultFormat().hasValue()) {
+			builder.resultFormat(ResultFormatType.JSON);
+		}
+		if (!cmdOptions.getResult().hasValue()) {
+			builder.result(DEFAULT_RESULT_FILE);
+		}
+		Options options = builder.parent(cmdOptions).build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.aim.api.measurement.dataset.DatasetCollection;
+import org.lpe.common.config.GlobalConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spotter.core.detection.AbstractDetectionController;
+import org.spotter.core.detection.AbstractDetectionExtension;
+import org.spotter.ext.detection.appHiccups.AppHiccupsExtension;
+import org.spotter.ext.detection.continuousViolation.ContinuousViolationExtension;
+import org.spotter.ext.detection.dbcongestion.DBCongestionExtension;
+import org.spotter.ext.detection.excessiveMessaging.ExcessiveMessagingExtension;
+import org.spotter.ext.detection.olb.OLBExtension;
+import org.spotter.ext.detection.perfproblem.PerfProblemExtension;
+import org.spotter.ext.detection.ramp.RampExtension;
+import org.spotter.ext.detection.stifle.StifleExtension;
+import org.spotter.ext.detection.trafficJam.TrafficJamExtension;
+import org.spotter.shared.configuration.ConfigKeys;
+import org.spotter.shared.result.model.SpotterResult;
+
+/**
+ * Measures the analysis phase of the detection controllers on synthetic
+ * experiment series. The controllers are created through their extensions
+ * with the default configuration, exactly as DynamicSpotter creates them;
+ * result resources such as charts are written to a temporary result
+ * directory.
+ *
+ * @author agent
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DetectionAnalysisBenchmark {
+	private static final int NUM_STEPS = 4;
+	private static final int NUM_OPERATIONS = 10;
+	private static final long SEED = 42L;
+
+	/**
+	 * Detection controller to benchmark.
+	 */
+	@Param({ "ramp", "trafficJam", "appHiccups", "continuousViolation", "perfProblem", "olb", "stifle",
+			"dbCongestion", "excessiveMessaging" })
+	public String controller;
+
+	/**
+	 * Overall number of requests of the experiment series.
+	 */
+	@Param({ "10000", "100000", "1000000" })
+	public int numRequests;
+
+	private AbstractDetectionController detectionController;
+	private DatasetCollection data;
+	private Method analyzeMethod;
+
+	/**
+	 * Creates the controller and the dataset.
+	 *
+	 * @throws IOException
+	 *             if the result directory cannot be created
+	 * @throws NoSuchMethodException
+	 *             if the analyze method is not available
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException, NoSuchMethodException {
+		File resultDir = Files.createTempDirectory("spotter-benchmark").toFile();
+		Properties globalProperties = new Properties();
+		globalProperties.setProperty(ConfigKeys.RESULT_DIR, resultDir.getAbsolutePath());
+		GlobalConfiguration.initialize(globalProperties);
+
+		detectionController = (AbstractDetectionController) createExtension(controller).createExtensionArtifact();
+		detectionController.setProblemDetectionConfiguration(new Properties());
+		detectionController.loadProperties();
+
+		data = SyntheticMeasurements.toDatasetCollection(new SyntheticMeasurements(SEED, NUM_OPERATIONS)
+				.createSeries(NUM_STEPS, numRequests));
+
+		// analyze is the protected template method of the controllers
+		analyzeMethod = AbstractDetectionController.class.getDeclaredMethod("analyze", DatasetCollection.class);
+		analyzeMethod.setAccessible(true);
+	}
+
+	/**
+	 * Runs the analysis of the controller.
+	 *
+	 * @return analysis result
+	 * @throws IllegalAccessException
+	 *             if the analyze method cannot be accessed
+	 * @throws InvocationTargetException
+	 *             if the analysis fails
+	 */
+	@Benchmark
+	public SpotterResult analyze() throws IllegalAccessException, InvocationTargetException {
+		return (SpotterResult) analyzeMethod.invoke(detectionController, data);
+	}
+
+	private static AbstractDetectionExtension createExtension(String name) {
+		switch (name) {
+		case "ramp":
+			return new RampExtension();
+		case "trafficJam":
+			return new TrafficJamExtension();
+		case "appHiccups":
+			return new AppHiccupsExtension();
+		case "continuousViolation":
+			return new ContinuousViolationExtension();
+		case "perfProblem":
+			return new PerfProblemExtension();
+		case "olb":
+			return new OLBExtension();
+		case "stifle":
+			return new StifleExtension();
+		case "dbCongestion":
+			return new DBCongestionExtension();
+		case "excessiveMessaging":
+			return new ExcessiveMessagingExtension();
+		default:
+			throw new IllegalArgumentException("Unknown detection controller: " + name);
+		}
+	}
+}
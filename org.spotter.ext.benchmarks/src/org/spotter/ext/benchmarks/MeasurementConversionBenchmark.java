@@ -0,0 +1,204 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.api.measurement.MeasurementData;
+import org.aim.api.measurement.dataset.DatasetCollection;
+import org.lpe.common.config.GlobalConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spotter.core.measurement.IMeasurementAdapter;
+import org.spotter.ext.dummy.TestMeasurementExtension;
+import org.spotter.ext.measurement.codec.PipeFormat;
+import org.spotter.ext.measurement.codec.RecordStreams;
+import org.spotter.ext.measurement.codec.RecordWriter;
+
+/**
+ * Measures the conversion of measurement data on the way from the measurement
+ * adapters to the detection controllers: retrieval of records from an
+ * adapter, serialization of records for
+ * {@link IMeasurementAdapter#pipeToOutputStream(OutputStream)} and creation of
+ * datasets from records. The remote adapters serialize records the same way
+ * as the test adapter, thus the synthetic records are serialized directly to
+ * cover the record types of all adapters.
+ *
+ * @author agent
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MeasurementConversionBenchmark {
+	private static final int NUM_OPERATIONS = 10;
+	private static final long SEED = 42L;
+
+	/**
+	 * Number of requests of the experiment.
+	 */
+	@Param({ "10000", "100000", "1000000" })
+	public int numRequests;
+
+	private IMeasurementAdapter testMeasurement;
+	private List<AbstractRecord> records;
+	private List<List<AbstractRecord>> steps;
+
+	/**
+	 * Creates the adapter and the records.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		GlobalConfiguration.initialize(new Properties());
+		testMeasurement = new TestMeasurementExtension().createExtensionArtifact();
+		Properties properties = new Properties();
+		properties.setProperty(TestMeasurementExtension.NUM_RECORDS, String.valueOf(numRequests));
+		testMeasurement.setProperties(properties);
+
+		steps = new ArrayList<>();
+		steps.add(new SyntheticMeasurements(SEED, NUM_OPERATIONS).createStep(1, numRequests));
+		records = SyntheticMeasurements.flatten(steps);
+	}
+
+	/**
+	 * Retrieval of records from the test adapter.
+	 *
+	 * @return measurement data
+	 * @throws MeasurementException
+	 *             if retrieval fails
+	 */
+	@Benchmark
+	public MeasurementData getMeasurementData() throws MeasurementException {
+		return testMeasurement.getMeasurementData();
+	}
+
+	/**
+	 * Retrieval and serialization of records by the test adapter.
+	 *
+	 * @return number of bytes written
+	 * @throws MeasurementException
+	 *             if piping fails
+	 */
+	@Benchmark
+	public long pipeToOutputStream() throws MeasurementException {
+		CountingOutputStream oStream = new CountingOutputStream();
+		testMeasurement.pipeToOutputStream(oStream);
+		return oStream.count;
+	}
+
+	/**
+	 * Serialization of all synthetic record types in the text format of the
+	 * measurement adapters.
+	 *
+	 * @return number of bytes written
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	@Benchmark
+	public long serializeRecords() throws IOException {
+		CountingOutputStream oStream = new CountingOutputStream();
+		BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(oStream));
+		for (AbstractRecord record : records) {
+			writer.write(record.toString());
+			writer.newLine();
+		}
+		writer.close();
+		return oStream.count;
+	}
+
+	private long encode(PipeFormat format) throws IOException {
+		CountingOutputStream oStream = new CountingOutputStream();
+		try (RecordWriter writer = RecordStreams.newWriter(oStream, format)) {
+			for (AbstractRecord record : records) {
+				writer.write(record);
+			}
+		}
+		return oStream.count;
+	}
+
+	/**
+	 * Serialization in the columnar binary format.
+	 *
+	 * @return number of bytes written
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	@Benchmark
+	public long encodeBinary() throws IOException {
+		return encode(PipeFormat.BINARY);
+	}
+
+	/**
+	 * Serialization in the compressed columnar binary format.
+	 *
+	 * @return number of bytes written
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	@Benchmark
+	public long encodeBinaryDeflate() throws IOException {
+		return encode(PipeFormat.BINARY_DEFLATE);
+	}
+
+	/**
+	 * Creation of the datasets handed to the detection controllers.
+	 *
+	 * @return dataset collection
+	 */
+	@Benchmark
+	public DatasetCollection createDatasets() {
+		return SyntheticMeasurements.toDatasetCollection(steps);
+	}
+
+	/**
+	 * Discards all data, counting the bytes.
+	 */
+	private static class CountingOutputStream extends OutputStream {
+		private long count = 0L;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.api.measurement.dataset.DatasetCollection;
+import org.aim.api.measurement.dataset.DatasetCollectionBuilder;
+import org.aim.api.measurement.dataset.Parameter;
+import org.aim.artifacts.records.CPUUtilizationRecord;
+import org.aim.artifacts.records.DBStatisticsRecrod;
+import org.aim.artifacts.records.JmsServerRecord;
+import org.aim.artifacts.records.NetworkInterfaceInfoRecord;
+import org.aim.artifacts.records.NetworkRecord;
+import org.aim.artifacts.records.ResponseTimeRecord;
+import org.aim.artifacts.records.SQLQueryRecord;
+import org.aim.artifacts.records.ThreadTracingRecord;
+import org.spotter.core.detection.AbstractDetectionController;
+
+/**
+ * Generates reproducible measurement data of an experiment series with
+ * increasing load. Each request yields a response time record, a thread
+ * tracing record and the SQL queries issued during the request; resource
+ * records (CPU, network, DB statistics, JMS queues) are sampled every
+ * {@link #RESOURCE_SAMPLING_INTERVAL} requests. Response times grow with the
+ * number of users, so that the step-wise analyses have to evaluate all
+ * steps.
+ *
+ * @author agent
+ *
+ */
+public class SyntheticMeasurements {
+	/**
+	 * Number of requests between two resource samples.
+	 */
+	public static final int RESOURCE_SAMPLING_INTERVAL = 100;
+
+	/**
+	 * Parameter of the experiment step as used by the ramp time windows
+	 * analysis.
+	 */
+	public static final String STEP_KEY = "step";
+
+	private static final String APP_NODE = "app-server";
+	private static final String DB_NODE = "db-server";
+	private static final String NETWORK_INTERFACE = "eth0";
+	private static final long INTERFACE_SPEED = 1000L * 1000L * 1000L;
+	private static final long START_TIMESTAMP = 1000000L;
+	private static final long INTER_REQUEST_TIME = 5L;
+	private static final int NUM_CPUS = 4;
+	private static final String[] QUERIES = { "SELECT * FROM ITEM WHERE ID = ?",
+			"SELECT * FROM CUSTOMER WHERE ID = ?", "UPDATE ORDERS SET STATE = ? WHERE ID = ?",
+			"INSERT INTO ORDERLINE VALUES (?, ?, ?)" };
+
+	private final Random random;
+	private final int numOperations;
+	private long callId = 0L;
+	private long receivedBytes = 0L;
+	private long transferredBytes = 0L;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param seed
+	 *            seed of the random generator
+	 * @param numOperations
+	 *            number of distinct operations
+	 */
+	public SyntheticMeasurements(long seed, int numOperations) {
+		this.random = new Random(seed);
+		this.numOperations = numOperations;
+	}
+
+	/**
+	 * Creates the records of an experiment series.
+	 *
+	 * @param numSteps
+	 *            number of experiments
+	 * @param numRequests
+	 *            overall number of requests, distributed equally over the
+	 *            steps
+	 * @return records per step, step i has been executed with i + 1 users
+	 */
+	public List<List<AbstractRecord>> createSeries(int numSteps, int numRequests) {
+		List<List<AbstractRecord>> steps = new ArrayList<>();
+		int requestsPerStep = Math.max(1, numRequests / numSteps);
+		for (int step = 0; step < numSteps; step++) {
+			steps.add(createStep(step + 1, requestsPerStep));
+		}
+		return steps;
+	}
+
+	/**
+	 * Creates the records of a single experiment.
+	 *
+	 * @param numUsers
+	 *            number of users of the experiment
+	 * @param numRequests
+	 *            number of requests
+	 * @return records
+	 */
+	public List<AbstractRecord> createStep(int numUsers, int numRequests) {
+		List<AbstractRecord> records = new ArrayList<>();
+		long timestamp = START_TIMESTAMP;
+		for (int i = 0; i < numRequests; i++) {
+			String operation = "operation-" + (i % numOperations);
+			long responseTime = (long) (10.0 * numUsers + random.nextGaussian() * 2.0) + 1L;
+			long requestCallId = callId++;
+
+			ResponseTimeRecord rtRecord = new ResponseTimeRecord(timestamp, operation, responseTime);
+			rtRecord.setCallId(requestCallId);
+			rtRecord.setProcessId(APP_NODE);
+			records.add(rtRecord);
+
+			ThreadTracingRecord ttRecord = new ThreadTracingRecord();
+			ttRecord.setTimeStamp(timestamp);
+			ttRecord.setProcessId(APP_NODE);
+			ttRecord.setThreadId(i % numUsers);
+			ttRecord.setOperation(operation);
+			ttRecord.setCallId(requestCallId);
+			ttRecord.setEnterNanoTime(timestamp * 1000000L);
+			ttRecord.setExitNanoTime((timestamp + responseTime) * 1000000L);
+			records.add(ttRecord);
+
+			// every other operation issues the same query repeatedly
+			int numQueries = (i % numOperations) % 2 == 0 ? 1 + (i % 3) : 1;
+			for (int q = 0; q < numQueries; q++) {
+				SQLQueryRecord sqlRecord = new SQLQueryRecord();
+				sqlRecord.setTimeStamp(timestamp);
+				sqlRecord.setProcessId(APP_NODE);
+				sqlRecord.setCallId(requestCallId);
+				sqlRecord.setQueryString(QUERIES[i % QUERIES.length]);
+				records.add(sqlRecord);
+			}
+
+			if (i % RESOURCE_SAMPLING_INTERVAL == 0) {
+				addResourceRecords(records, timestamp, numUsers);
+			}
+			timestamp += INTER_REQUEST_TIME;
+		}
+		return records;
+	}
+
+	private void addResourceRecords(List<AbstractRecord> records, long timestamp, int numUsers) {
+		double utilization = Math.min(1.0, 0.1 * numUsers + random.nextDouble() * 0.05);
+		for (String node : new String[] { APP_NODE, DB_NODE }) {
+			for (int cpu = 0; cpu < NUM_CPUS; cpu++) {
+				CPUUtilizationRecord cpuRecord = new CPUUtilizationRecord(timestamp, "CPU-" + cpu, utilization);
+				cpuRecord.setProcessId(node);
+				records.add(cpuRecord);
+			}
+			CPUUtilizationRecord aggRecord = new CPUUtilizationRecord(timestamp,
+					CPUUtilizationRecord.RES_CPU_AGGREGATED, utilization);
+			aggRecord.setProcessId(node);
+			records.add(aggRecord);
+
+			NetworkInterfaceInfoRecord infoRecord = new NetworkInterfaceInfoRecord();
+			infoRecord.setTimeStamp(timestamp);
+			infoRecord.setProcessId(node);
+			infoRecord.setNetworkInterface(NETWORK_INTERFACE);
+			infoRecord.setInterfaceSpeed(INTERFACE_SPEED);
+			records.add(infoRecord);
+
+			receivedBytes += 1000L * numUsers;
+			transferredBytes += 2000L * numUsers;
+			NetworkRecord nwRecord = new NetworkRecord();
+			nwRecord.setTimeStamp(timestamp);
+			nwRecord.setProcessId(node);
+			nwRecord.setNetworkInterface(NETWORK_INTERFACE);
+			nwRecord.setReceivedBytes(receivedBytes);
+			nwRecord.setTransferredBytes(transferredBytes);
+			records.add(nwRecord);
+		}
+
+		DBStatisticsRecrod dbRecord = new DBStatisticsRecrod();
+		dbRecord.setTimeStamp(timestamp);
+		dbRecord.setProcessId(DB_NODE);
+		dbRecord.setNumQueueries(callId * 2L);
+		dbRecord.setNumLockWaits(callId / 10L * numUsers);
+		dbRecord.setLockTime(callId * numUsers);
+		records.add(dbRecord);
+
+		JmsServerRecord jmsRecord = new JmsServerRecord();
+		jmsRecord.setTimeStamp(timestamp);
+		jmsRecord.setQueueName("queue-" + (timestamp % 2L));
+		jmsRecord.setQueueSize(numUsers * 10L + random.nextInt(10));
+		jmsRecord.setEnqueueCount(callId);
+		jmsRecord.setAvgMessageSize(1024L);
+		records.add(jmsRecord);
+	}
+
+	/**
+	 * Creates a dataset collection from the records of an experiment series,
+	 * as the detection controllers get it for analysis.
+	 *
+	 * @param steps
+	 *            records per step, step i has been executed with i + 1 users
+	 * @return dataset collection
+	 */
+	public static DatasetCollection toDatasetCollection(List<List<AbstractRecord>> steps) {
+		DatasetCollectionBuilder builder = new DatasetCollectionBuilder();
+		for (int step = 0; step < steps.size(); step++) {
+			Set<Parameter> parameters = new TreeSet<>();
+			parameters.add(new Parameter(AbstractDetectionController.NUMBER_OF_USERS_KEY, step + 1));
+			parameters.add(new Parameter(STEP_KEY, step + 1));
+			for (AbstractRecord record : steps.get(step)) {
+				builder.addRecord(record, parameters);
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Flattens the records of an experiment series.
+	 *
+	 * @param steps
+	 *            records per step
+	 * @return all records
+	 */
+	public static List<AbstractRecord> flatten(List<List<AbstractRecord>> steps) {
+		List<AbstractRecord> records = new ArrayList<>();
+		for (List<AbstractRecord> step : steps) {
+			records.addAll(step);
+		}
+		return records;
+	}
+}
@@ -6,7 +6,6 @@ import org.aim.api.exceptions.InstrumentationException;
 import org.aim.api.exceptions.MeasurementException;
 import org.aim.api.measurement.dataset.Dataset;
 import org.aim.api.measurement.dataset.DatasetCollection;
-import org.aim.api.measurement.dataset.ParameterSelection;
 import org.aim.artifacts.probes.ResponsetimeProbe;
 import org.aim.artifacts.records.ResponseTimeRecord;
 import org.aim.artifacts.scopes.EntryPointScope;
@@ -17,16 +16,17 @@ import org.lpe.common.extension.IExtension;
 import org.lpe.common.util.NumericPairList;
 import org.spotter.core.ProgressManager;
 import org.spotter.core.chartbuilder.AnalysisChartBuilder;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.core.detection.IExperimentReuser;
 import org.spotter.exceptions.WorkloadException;
 import org.spotter.ext.detection.appHiccups.strategies.BucketStrategy;
 import org.spotter.ext.detection.appHiccups.strategies.DBSCANStrategy;
 import org.spotter.ext.detection.appHiccups.strategies.MovingPercentileStrategy;
+import org.spotter.ext.detection.appHiccups.strategies.StreamingStrategy;
 import org.spotter.ext.detection.appHiccups.utils.Hiccup;
 import org.spotter.ext.detection.appHiccups.utils.HiccupDetectionConfig;
-import org.spotter.ext.detection.utils.Utils;
+import org.spotter.ext.detection.utils.AbstractProfiledDetectionController;
+import org.spotter.ext.detection.utils.ResponseTimeSeries;
 import org.spotter.shared.configuration.ConfigKeys;
 import org.spotter.shared.result.model.SpotterResult;
 
@@ -36,7 +36,7 @@ import org.spotter.shared.result.model.SpotterResult;
  * @author Alexander Wert
  * 
  */
-public class AppHiccupsController extends AbstractDetectionController implements IExperimentReuser {
+public class AppHiccupsController extends AbstractProfiledDetectionController implements IExperimentReuser {
 
 	private String analysisStrategy;
 	private double maxHiccupTimeProportion = AppHiccupsExtension.MAX_HICCUPS_TIME_PROPORTION_DEFAULT;
@@ -77,13 +77,16 @@ public class AppHiccupsController extends AbstractDetectionController implements
 		case AppHiccupsExtension.BUCKET_STRATEGY:
 			analysisStrategyImpl = new BucketStrategy();
 			break;
+		case AppHiccupsExtension.STREAMING_STRATEGY:
+			analysisStrategyImpl = new StreamingStrategy();
+			break;
 		default:
 			analysisStrategyImpl = new MovingPercentileStrategy();
 		}
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 		long perfReqThreshold = GlobalConfiguration.getInstance().getPropertyAsInteger(
 				ConfigKeys.PERFORMANCE_REQUIREMENT_THRESHOLD, ConfigKeys.DEFAULT_PERFORMANCE_REQUIREMENT_THRESHOLD);
 		double perfReqConfidence = GlobalConfiguration.getInstance().getPropertyAsDouble(
@@ -100,17 +103,15 @@ public class AppHiccupsController extends AbstractDetectionController implements
 			return result;
 		}
 
-		for (String operation : rtDataset.getValueSet(ResponseTimeRecord.PAR_OPERATION, String.class)) {
-			ParameterSelection selectOperation = new ParameterSelection().select(ResponseTimeRecord.PAR_OPERATION,
-					operation);
-			Dataset operationSpecificDataset = selectOperation.applyTo(rtDataset);
-
-			NumericPairList<Long, Double> responseTimeSeries = Utils.toTimestampRTPairs(operationSpecificDataset);
-			if (responseTimeSeries.size() <= 5) {
+		startPhase("selection");
+		ResponseTimeSeries rtSeries = ResponseTimeSeries.fromDataset(rtDataset);
+		for (String operation : rtSeries.getOperations()) {
+			if (rtSeries.size(operation) <= 5) {
 				continue;
 			}
-			// sort chronologically
-			responseTimeSeries.sort();
+			// chronologically sorted
+			NumericPairList<Long, Double> responseTimeSeries = rtSeries.getSeries(operation);
+			startPhase("statistics", operation);
 			List<Hiccup> hiccups = analysisStrategyImpl.findHiccups(responseTimeSeries, hiccupDetectionConfig,
 					perfReqThreshold, perfReqConfidence, getResultManager(), result);
 
@@ -123,8 +124,8 @@ public class AppHiccupsController extends AbstractDetectionController implements
 			if (hiccups.size() > 1 && hiccupsDuration < maxHiccupTimeProportion * experimentDuration) {
 				result.addMessage("Detected hiccup behaviour in operation: " + operation);
 				result.setDetected(true);
+				startPhase("charts", operation);
 				createChart(result, operation, responseTimeSeries, hiccups, perfReqThreshold);
-
 			}
 
 		}
@@ -140,10 +141,13 @@ public class AppHiccupsController extends AbstractDetectionController implements
 		chartBuilder.startChart(operationName, "Experiment Time [ms]", "Response Time [ms]");
 		chartBuilder.addTimeSeries(responseTimeSeries, "Response Times");
 		chartBuilder.addHorizontalLine(perfReqThreshold, "Perf. Requirement");
-		long minTimestamp = responseTimeSeries.getKeyMin();
-		long maxTimestamp = responseTimeSeries.getKeyMax();
-		double minRT = responseTimeSeries.getValueMin().doubleValue();
+		addHiccupSeries(chartBuilder, hiccups, responseTimeSeries.getKeyMin(), responseTimeSeries.getKeyMax(),
+				responseTimeSeries.getValueMin().doubleValue());
+		getResultManager().storeImageChartResource(chartBuilder, "Hiccups", result);
+	}
 
+	private void addHiccupSeries(AnalysisChartBuilder chartBuilder, List<Hiccup> hiccups, long minTimestamp,
+			long maxTimestamp, double minRT) {
 		NumericPairList<Long, Double> hiccupSeries = new NumericPairList<>();
 		hiccupSeries.add(minTimestamp, minRT);
 		for (Hiccup hiccup : hiccups) {
@@ -155,7 +159,6 @@ public class AppHiccupsController extends AbstractDetectionController implements
 		hiccupSeries.add(maxTimestamp, minRT);
 
 		chartBuilder.addTimeSeriesWithLine(hiccupSeries, "Hiccups");
-		getResultManager().storeImageChartResource(chartBuilder, "Hiccups", result);
 	}
 
 	@Override
@@ -24,6 +24,7 @@ public class AppHiccupsExtension extends AbstractDetectionExtension {
 	protected static final String MVA_STRATEGY = "moving percentile analysis";
 	protected static final String DBSCAN_STRATEGY = "DBSCAN analysis";
 	protected static final String BUCKET_STRATEGY = "bucket analysis";
+	protected static final String STREAMING_STRATEGY = "streaming moving percentile analysis";
 	protected static final String MAX_HICCUPS_TIME_PROPORTION_KEY = "maxHiccupsTimeProportion";
 	protected static final double MAX_HICCUPS_TIME_PROPORTION_DEFAULT = 0.3;
 
@@ -45,6 +46,7 @@ public class AppHiccupsExtension extends AbstractDetectionExtension {
 		scopeOptions.add(MVA_STRATEGY);
 		scopeOptions.add(BUCKET_STRATEGY);
 		scopeOptions.add(DBSCAN_STRATEGY);
+		scopeOptions.add(STREAMING_STRATEGY);
 		scopeParameter.setOptions(scopeOptions);
 		scopeParameter.setDefaultValue(MVA_STRATEGY);
 		scopeParameter.setDescription("This parameter determines the strategy, "
@@ -0,0 +1,55 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.detection.appHiccups.strategies;
+
+import java.util.List;
+
+import org.lpe.common.util.NumericPair;
+import org.lpe.common.util.NumericPairList;
+import org.spotter.core.detection.DetectionResultManager;
+import org.spotter.ext.detection.appHiccups.IHiccupAnalysisStrategy;
+import org.spotter.ext.detection.appHiccups.utils.Hiccup;
+import org.spotter.ext.detection.appHiccups.utils.HiccupDetectionConfig;
+import org.spotter.ext.detection.appHiccups.utils.StreamingHiccupDetector;
+import org.spotter.shared.result.model.SpotterResult;
+
+/**
+ * Applies the moving percentile analysis by streaming the series through a
+ * {@link StreamingHiccupDetector}. Instead of recalculating the percentile
+ * from the series for each sample, only a ring buffer of the window is kept.
+ * 
+ * @author agent
+ * 
+ */
+public class StreamingStrategy implements IHiccupAnalysisStrategy {
+	private static final String OPERATION = "";
+
+	@Override
+	public List<Hiccup> findHiccups(final NumericPairList<Long, Double> responsetimeSeries,
+			final HiccupDetectionConfig hiccupConfig, double perfReqThreshold, double perfReqConfidence,
+			DetectionResultManager resultManager, SpotterResult result) {
+		// the series is sorted, all hiccups are needed for the overall
+		// hiccups duration
+		StreamingHiccupDetector detector = new StreamingHiccupDetector(hiccupConfig.getMvaWindowSize(),
+				perfReqConfidence, perfReqThreshold, 1, Integer.MAX_VALUE);
+		for (NumericPair<Long, Double> pair : responsetimeSeries) {
+			detector.addSample(OPERATION, pair.getKey(), pair.getValue());
+		}
+		detector.finish();
+		return detector.getHiccups(OPERATION);
+	}
+
+}
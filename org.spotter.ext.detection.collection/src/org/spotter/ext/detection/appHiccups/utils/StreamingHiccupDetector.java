@@ -0,0 +1,337 @@
+package org.spotter.ext.detection.appHiccups.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Incremental hiccup detection. Response time samples are consumed one by one
+ * in the order they arrive; the detector keeps per operation a small reorder
+ * buffer, the window for the moving percentile and the state of the current
+ * hiccup. Memory is bounded independently of the number of samples, so the
+ * result is available as soon as the last sample has been added.
+ *
+ * The detection rule is the one of the moving percentile analysis: a sample
+ * belongs to a hiccup if the percentile of the window centered at the sample
+ * exceeds the performance requirement threshold. Samples may arrive out of
+ * order as long as they are not displaced by more than the reorder capacity.
+ *
+ * @author agent
+ *
+ */
+public class StreamingHiccupDetector {
+	/**
+	 * Number of samples per operation buffered to restore chronological order.
+	 */
+	public static final int DEFAULT_REORDER_CAPACITY = 1024;
+
+	/**
+	 * Default max number of hiccups kept per operation for reporting. Further
+	 * hiccups are counted only.
+	 */
+	public static final int MAX_REPORTED_HICCUPS = 1000;
+
+	private final int halfWindowSize;
+	private final double percentile;
+	private final double threshold;
+	private final int reorderCapacity;
+	private final int maxReportedHiccups;
+	private final Map<String, OperationState> operations = new HashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param windowSize
+	 *            size of the moving percentile window
+	 * @param percentile
+	 *            percentile to calculate on the window
+	 * @param threshold
+	 *            performance requirement threshold
+	 */
+	public StreamingHiccupDetector(int windowSize, double percentile, double threshold) {
+		this(windowSize, percentile, threshold, DEFAULT_REORDER_CAPACITY, MAX_REPORTED_HICCUPS);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param windowSize
+	 *            size of the moving percentile window
+	 * @param percentile
+	 *            percentile to calculate on the window
+	 * @param threshold
+	 *            performance requirement threshold
+	 * @param reorderCapacity
+	 *            number of samples per operation buffered to restore
+	 *            chronological order
+	 * @param maxReportedHiccups
+	 *            max number of hiccups kept per operation for reporting
+	 */
+	public StreamingHiccupDetector(int windowSize, double percentile, double threshold, int reorderCapacity,
+			int maxReportedHiccups) {
+		this.halfWindowSize = Math.max(0, windowSize / 2);
+		this.percentile = percentile;
+		this.threshold = threshold;
+		this.reorderCapacity = Math.max(1, reorderCapacity);
+		this.maxReportedHiccups = maxReportedHiccups;
+	}
+
+	/**
+	 * Adds a response time sample.
+	 *
+	 * @param operation
+	 *            operation the sample belongs to
+	 * @param timestamp
+	 *            timestamp of the request
+	 * @param responseTime
+	 *            response time
+	 */
+	public void addSample(String operation, long timestamp, double responseTime) {
+		OperationState state = operations.get(operation);
+		if (state == null) {
+			state = new OperationState();
+			operations.put(operation, state);
+		}
+		state.add(timestamp, responseTime);
+	}
+
+	/**
+	 * Processes all buffered samples. Has to be called after the last sample
+	 * has been added.
+	 */
+	public void finish() {
+		for (OperationState state : operations.values()) {
+			state.finish();
+		}
+	}
+
+	/**
+	 *
+	 * @return operations for which samples have been added
+	 */
+	public Set<String> getOperations() {
+		return operations.keySet();
+	}
+
+	/**
+	 *
+	 * @param operation
+	 *            operation of interest
+	 * @return number of samples of the operation
+	 */
+	public long getNumSamples(String operation) {
+		OperationState state = operations.get(operation);
+		return state == null ? 0L : state.numReleased;
+	}
+
+	/**
+	 *
+	 * @param operation
+	 *            operation of interest
+	 * @return hiccups of the operation, at most the configured number of
+	 *         reported hiccups
+	 */
+	public List<Hiccup> getHiccups(String operation) {
+		OperationState state = operations.get(operation);
+		return state == null ? Collections.<Hiccup> emptyList() : state.hiccups;
+	}
+
+	/**
+	 *
+	 * @param operation
+	 *            operation of interest
+	 * @return number of hiccups of the operation
+	 */
+	public int getNumHiccups(String operation) {
+		OperationState state = operations.get(operation);
+		return state == null ? 0 : state.numHiccups;
+	}
+
+	/**
+	 *
+	 * @param operation
+	 *            operation of interest
+	 * @return overall duration of all hiccups of the operation
+	 */
+	public long getHiccupsDuration(String operation) {
+		OperationState state = operations.get(operation);
+		return state == null ? 0L : state.hiccupsDuration;
+	}
+
+	/**
+	 *
+	 * @param operation
+	 *            operation of interest
+	 * @return time between the first and the last sample of the operation
+	 */
+	public long getExperimentDuration(String operation) {
+		OperationState state = operations.get(operation);
+		return state == null || state.numReleased == 0 ? 0L : state.maxTimestamp - state.minTimestamp;
+	}
+
+	/**
+	 *
+	 * @param operation
+	 *            operation of interest
+	 * @return timestamp of the first sample of the operation
+	 */
+	public long getMinTimestamp(String operation) {
+		return operations.get(operation).minTimestamp;
+	}
+
+	/**
+	 *
+	 * @param operation
+	 *            operation of interest
+	 * @return timestamp of the last sample of the operation
+	 */
+	public long getMaxTimestamp(String operation) {
+		return operations.get(operation).maxTimestamp;
+	}
+
+	/**
+	 *
+	 * @param operation
+	 *            operation of interest
+	 * @return min response time of the operation
+	 */
+	public double getMinResponseTime(String operation) {
+		return operations.get(operation).minResponseTime;
+	}
+
+	/**
+	 * Detection state of a single operation.
+	 */
+	private class OperationState {
+		// min-heap on the timestamps restoring the chronological order
+		private final long[] heapTimestamps = new long[reorderCapacity];
+		private final double[] heapResponseTimes = new double[reorderCapacity];
+		private int heapSize = 0;
+
+		// ring buffer with the last released samples
+		private final long[] windowTimestamps = new long[2 * halfWindowSize + 1];
+		private final double[] windowResponseTimes = new double[2 * halfWindowSize + 1];
+		private final double[] scratch = new double[2 * halfWindowSize + 1];
+		private long numReleased = 0;
+		private long nextCenter = 0;
+
+		private long minTimestamp = Long.MAX_VALUE;
+		private long maxTimestamp = Long.MIN_VALUE;
+		private double minResponseTime = Double.MAX_VALUE;
+
+		private final List<Hiccup> hiccups = new ArrayList<>();
+		private Hiccup currentHiccup = null;
+		private double maxRT = Double.MIN_VALUE;
+		private int numHiccups = 0;
+		private long hiccupsDuration = 0L;
+
+		private void add(long timestamp, double responseTime) {
+			if (heapSize == heapTimestamps.length) {
+				release();
+			}
+			int idx = heapSize++;
+			while (idx > 0) {
+				int parent = (idx - 1) / 2;
+				if (heapTimestamps[parent] <= timestamp) {
+					break;
+				}
+				heapTimestamps[idx] = heapTimestamps[parent];
+				heapResponseTimes[idx] = heapResponseTimes[parent];
+				idx = parent;
+			}
+			heapTimestamps[idx] = timestamp;
+			heapResponseTimes[idx] = responseTime;
+		}
+
+		private void finish() {
+			while (heapSize > 0) {
+				release();
+			}
+			while (nextCenter < numReleased) {
+				processCenter(nextCenter++);
+			}
+			closeHiccup();
+		}
+
+		/**
+		 * Moves the oldest buffered sample into the window.
+		 */
+		private void release() {
+			long timestamp = heapTimestamps[0];
+			double responseTime = heapResponseTimes[0];
+			heapSize--;
+			long lastTimestamp = heapTimestamps[heapSize];
+			double lastResponseTime = heapResponseTimes[heapSize];
+			int idx = 0;
+			while (2 * idx + 1 < heapSize) {
+				int child = 2 * idx + 1;
+				if (child + 1 < heapSize && heapTimestamps[child + 1] < heapTimestamps[child]) {
+					child++;
+				}
+				if (heapTimestamps[child] >= lastTimestamp) {
+					break;
+				}
+				heapTimestamps[idx] = heapTimestamps[child];
+				heapResponseTimes[idx] = heapResponseTimes[child];
+				idx = child;
+			}
+			heapTimestamps[idx] = lastTimestamp;
+			heapResponseTimes[idx] = lastResponseTime;
+
+			int slot = (int) (numReleased % windowTimestamps.length);
+			windowTimestamps[slot] = timestamp;
+			windowResponseTimes[slot] = responseTime;
+			numReleased++;
+			minTimestamp = Math.min(minTimestamp, timestamp);
+			maxTimestamp = Math.max(maxTimestamp, timestamp);
+			minResponseTime = Math.min(minResponseTime, responseTime);
+
+			if (nextCenter + halfWindowSize < numReleased) {
+				processCenter(nextCenter++);
+			}
+		}
+
+		private void processCenter(long center) {
+			long windowStart = Math.max(0L, center - halfWindowSize);
+			long windowEnd = Math.min(center + halfWindowSize, numReleased - 1);
+			int size = (int) (windowEnd - windowStart + 1);
+			for (int i = 0; i < size; i++) {
+				scratch[i] = windowResponseTimes[(int) ((windowStart + i) % windowResponseTimes.length)];
+			}
+			Arrays.sort(scratch, 0, size);
+			double windowPercentile = scratch[Math.min(size - 1, (int) Math.floor(size * percentile))];
+
+			int slot = (int) (center % windowTimestamps.length);
+			long timestamp = windowTimestamps[slot];
+			double responseTime = windowResponseTimes[slot];
+			if (windowPercentile > threshold) {
+				maxRT = Math.max(maxRT, responseTime);
+				if (currentHiccup == null) {
+					// new hiccup begin detected
+					currentHiccup = new Hiccup();
+					currentHiccup.setStartTimestamp(timestamp);
+					numHiccups++;
+					if (hiccups.size() < maxReportedHiccups) {
+						hiccups.add(currentHiccup);
+					}
+				}
+				currentHiccup.setEndTimestamp(timestamp);
+			} else {
+				closeHiccup();
+				maxRT = Double.MIN_VALUE;
+			}
+		}
+
+		private void closeHiccup() {
+			if (currentHiccup != null) {
+				currentHiccup.setMaxHiccupResponseTime(maxRT);
+				hiccupsDuration += currentHiccup.getHiccupDuration();
+				currentHiccup = null;
+			}
+		}
+	}
+}
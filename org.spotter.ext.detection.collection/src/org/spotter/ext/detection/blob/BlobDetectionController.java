@@ -13,12 +13,12 @@ import org.lpe.common.extension.IExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spotter.core.ProgressManager;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.exceptions.WorkloadException;
+import org.spotter.ext.detection.utils.AbstractProfiledDetectionController;
 import org.spotter.shared.result.model.SpotterResult;
 
-public class BlobDetectionController extends AbstractDetectionController {
+public class BlobDetectionController extends AbstractProfiledDetectionController {
 	private static final Logger LOGGER = LoggerFactory.getLogger(BlobDetectionController.class);
 
 	private String analysisStrategy;
@@ -64,7 +64,7 @@ public class BlobDetectionController extends AbstractDetectionController {
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 		LOGGER.debug("Analyze data for GodClass Antipattern..");
 
 		SpotterResult result = new SpotterResult();
@@ -4,7 +4,6 @@ import org.aim.api.exceptions.InstrumentationException;
 import org.aim.api.exceptions.MeasurementException;
 import org.aim.api.measurement.dataset.Dataset;
 import org.aim.api.measurement.dataset.DatasetCollection;
-import org.aim.api.measurement.dataset.ParameterSelection;
 import org.aim.artifacts.probes.ResponsetimeProbe;
 import org.aim.artifacts.records.ResponseTimeRecord;
 import org.aim.artifacts.scopes.EntryPointScope;
@@ -15,7 +14,6 @@ import org.lpe.common.extension.IExtension;
 import org.lpe.common.util.NumericPairList;
 import org.spotter.core.ProgressManager;
 import org.spotter.core.chartbuilder.AnalysisChartBuilder;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.core.detection.IExperimentReuser;
 import org.spotter.exceptions.WorkloadException;
@@ -23,7 +21,8 @@ import org.spotter.ext.detection.continuousViolation.strategies.BucketStrategy;
 import org.spotter.ext.detection.continuousViolation.strategies.DBSCANStrategy;
 import org.spotter.ext.detection.continuousViolation.strategies.MovingPercentileStrategy;
 import org.spotter.ext.detection.continuousViolation.util.AnalysisConfig;
-import org.spotter.ext.detection.utils.Utils;
+import org.spotter.ext.detection.utils.AbstractProfiledDetectionController;
+import org.spotter.ext.detection.utils.ResponseTimeSeries;
 import org.spotter.shared.configuration.ConfigKeys;
 import org.spotter.shared.result.model.SpotterResult;
 
@@ -33,7 +32,7 @@ import org.spotter.shared.result.model.SpotterResult;
  * @author Alexander Wert
  * 
  */
-public class ContinuousViolationController extends AbstractDetectionController implements IExperimentReuser {
+public class ContinuousViolationController extends AbstractProfiledDetectionController implements IExperimentReuser {
 
 	private String analysisStrategy;
 	private AnalysisConfig analysisConfig = new AnalysisConfig();
@@ -81,7 +80,7 @@ public class ContinuousViolationController extends AbstractDetectionController i
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 		double perfReqThreshold = GlobalConfiguration.getInstance().getPropertyAsInteger(
 				ConfigKeys.PERFORMANCE_REQUIREMENT_THRESHOLD, ConfigKeys.DEFAULT_PERFORMANCE_REQUIREMENT_THRESHOLD);
 		double perfReqConfidence = GlobalConfiguration.getInstance().getPropertyAsDouble(
@@ -98,26 +97,22 @@ public class ContinuousViolationController extends AbstractDetectionController i
 			return result;
 		}
 
-		for (String operation : rtDataset.getValueSet(ResponseTimeRecord.PAR_OPERATION, String.class)) {
-			ParameterSelection selectOperation = new ParameterSelection().select(ResponseTimeRecord.PAR_OPERATION,
-					operation);
-			Dataset operationSpecificDataset = selectOperation.applyTo(rtDataset);
-
-			NumericPairList<Long, Double> responseTimeSeries = Utils.toTimestampRTPairs(operationSpecificDataset);
-			if (responseTimeSeries.size() <= 5) {
+		startPhase("selection");
+		ResponseTimeSeries rtSeries = ResponseTimeSeries.fromDataset(rtDataset);
+		for (String operation : rtSeries.getOperations()) {
+			if (rtSeries.size(operation) <= 5) {
 				continue;
 			}
-			// sort chronologically
-			responseTimeSeries.sort();
-			boolean detected = analysisStrategyImpl.analyze(responseTimeSeries, analysisConfig, perfReqThreshold,
-					perfReqConfidence);
-
-			if (detected) {
+			// chronologically sorted
+			NumericPairList<Long, Double> responseTimeSeries = rtSeries.getSeries(operation);
+			startPhase("statistics", operation);
+			if (analysisStrategyImpl.analyze(responseTimeSeries, analysisConfig, perfReqThreshold, perfReqConfidence)) {
 				result.addMessage("Detected continuous violation of performance requirements in operation: "
 						+ operation);
 				result.setDetected(true);
 			}
 
+			startPhase("charts", operation);
 			createChart(perfReqThreshold, result, operation, responseTimeSeries);
 		}
 
@@ -0,0 +1,301 @@
+package org.spotter.ext.detection.dbcongestion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.api.measurement.dataset.Dataset;
+import org.aim.artifacts.records.CPUUtilizationRecord;
+import org.aim.artifacts.records.DBStatisticsRecrod;
+import org.spotter.core.detection.AbstractDetectionController;
+import org.spotter.ext.detection.utils.Utils;
+
+/**
+ * Derived data for the database congestion analysis. The DB statistics and
+ * CPU utilization datasets are grouped by experiment step in a single scan
+ * each and then processed in time order, yielding the wait times per lock
+ * and the mean CPU utilizations per step as well as the number of CPU cores
+ * per node. For sequential evaluation, the data of a single step can be
+ * derived from the raw records of that step.
+ *
+ * @author agent
+ *
+ */
+public final class DBCongestionData {
+
+	private final Map<String, SortedMap<Integer, double[]>> waitTimesPerLock = new HashMap<>();
+	private final Map<String, SortedMap<Integer, Double>> meanCPUUtilizations = new HashMap<>();
+	private final Map<String, Integer> numCPUCores = new HashMap<>();
+
+	private DBCongestionData() {
+	}
+
+	/**
+	 * Creates the congestion data from the given datasets.
+	 *
+	 * @param dbDataset
+	 *            dataset with {@link DBStatisticsRecrod}s, may be null
+	 * @param cpuUtilDataset
+	 *            dataset with {@link CPUUtilizationRecord}s, may be null
+	 * @return derived data
+	 */
+	public static DBCongestionData fromDatasets(Dataset dbDataset, Dataset cpuUtilDataset) {
+		DBCongestionData data = new DBCongestionData();
+		if (dbDataset != null) {
+			data.addLockStatistics(dbDataset);
+		}
+		if (cpuUtilDataset != null) {
+			data.addCPUUtilizations(cpuUtilDataset);
+		}
+		return data;
+	}
+
+	/**
+	 * Creates the congestion data of a single experiment step from the raw
+	 * records of that step.
+	 *
+	 * @param numUsers
+	 *            number of users of the experiment step
+	 * @param records
+	 *            records of the experiment step, records of other types than
+	 *            {@link DBStatisticsRecrod} and {@link CPUUtilizationRecord}
+	 *            are ignored
+	 * @return derived data
+	 */
+	public static DBCongestionData fromRecords(int numUsers, List<AbstractRecord> records) {
+		DBCongestionData data = new DBCongestionData();
+		Map<String, List<DBStatisticsRecrod>> recordsPerDB = new HashMap<>();
+		Map<String, Set<String>> cpuIDsPerNode = new HashMap<>();
+		Map<String, double[]> sumAndCount = new HashMap<>();
+		for (AbstractRecord record : records) {
+			if (record instanceof DBStatisticsRecrod) {
+				DBStatisticsRecrod dbRecord = (DBStatisticsRecrod) record;
+				List<DBStatisticsRecrod> dbRecords = recordsPerDB.get(dbRecord.getProcessId());
+				if (dbRecords == null) {
+					dbRecords = new ArrayList<>();
+					recordsPerDB.put(dbRecord.getProcessId(), dbRecords);
+				}
+				dbRecords.add(dbRecord);
+			} else if (record instanceof CPUUtilizationRecord) {
+				CPUUtilizationRecord cpuRecord = (CPUUtilizationRecord) record;
+				Set<String> ids = cpuIDsPerNode.get(cpuRecord.getProcessId());
+				if (ids == null) {
+					ids = new HashSet<>();
+					cpuIDsPerNode.put(cpuRecord.getProcessId(), ids);
+				}
+				ids.add(cpuRecord.getCpuId());
+				if (CPUUtilizationRecord.RES_CPU_AGGREGATED.equals(cpuRecord.getCpuId())) {
+					double[] acc = sumAndCount.get(cpuRecord.getProcessId());
+					if (acc == null) {
+						acc = new double[2];
+						sumAndCount.put(cpuRecord.getProcessId(), acc);
+					}
+					acc[0] += cpuRecord.getUtilization();
+					acc[1]++;
+				}
+			}
+		}
+
+		for (Map.Entry<String, List<DBStatisticsRecrod>> entry : recordsPerDB.entrySet()) {
+			double[] waitTimes = calculateWaitTimesPerLock(entry.getValue());
+			if (waitTimes == null) {
+				continue;
+			}
+			SortedMap<Integer, double[]> stepMap = new TreeMap<>();
+			stepMap.put(numUsers, waitTimes);
+			data.waitTimesPerLock.put(entry.getKey(), stepMap);
+		}
+		for (Map.Entry<String, Set<String>> entry : cpuIDsPerNode.entrySet()) {
+			// the aggregated CPU is not a core
+			data.numCPUCores.put(entry.getKey(), entry.getValue().size() - 1);
+		}
+		for (Map.Entry<String, double[]> entry : sumAndCount.entrySet()) {
+			SortedMap<Integer, Double> stepMap = new TreeMap<>();
+			stepMap.put(numUsers, entry.getValue()[0] / entry.getValue()[1]);
+			data.meanCPUUtilizations.put(entry.getKey(), stepMap);
+		}
+		return data;
+	}
+
+	/**
+	 *
+	 * @return ids of the databases for which lock statistics are available
+	 */
+	public Set<String> getDatabaseIds() {
+		return waitTimesPerLock.keySet();
+	}
+
+	/**
+	 * Returns the wait times per lock of the given database. For each pair of
+	 * consecutive samples within an experiment step, the array contains the
+	 * lock time increase divided by the increase in lock waits (0 if there
+	 * were no lock waits).
+	 *
+	 * @param dbId
+	 *            database id
+	 * @return wait times per lock by number of users
+	 */
+	public SortedMap<Integer, double[]> getWaitTimesPerLock(String dbId) {
+		SortedMap<Integer, double[]> result = waitTimesPerLock.get(dbId);
+		if (result == null) {
+			return new TreeMap<>();
+		}
+		return result;
+	}
+
+	/**
+	 *
+	 * @return nodes for which CPU utilizations are available
+	 */
+	public Set<String> getCPUNodes() {
+		return meanCPUUtilizations.keySet();
+	}
+
+	/**
+	 *
+	 * @param processID
+	 *            node of interest
+	 * @return mean aggregated CPU utilization by number of users
+	 */
+	public SortedMap<Integer, Double> getMeanCPUUtilizations(String processID) {
+		SortedMap<Integer, Double> result = meanCPUUtilizations.get(processID);
+		if (result == null) {
+			return new TreeMap<>();
+		}
+		return result;
+	}
+
+	/**
+	 *
+	 * @param processID
+	 *            node of interest
+	 * @return number of CPU cores of the given node
+	 */
+	public int getNumberOfCPUCores(String processID) {
+		Integer numCores = numCPUCores.get(processID);
+		return numCores == null ? 0 : numCores;
+	}
+
+	private void addLockStatistics(Dataset dbDataset) {
+		List<Integer> users = dbDataset.getValues(AbstractDetectionController.NUMBER_OF_USERS_KEY, Integer.class);
+		List<String> dbIds = dbDataset.getValues(DBStatisticsRecrod.PAR_PROCESS_ID, String.class);
+		List<DBStatisticsRecrod> records = dbDataset.getRecords(DBStatisticsRecrod.class);
+
+		// grouped by step and database in a single pass
+		Map<String, Map<Integer, List<DBStatisticsRecrod>>> recordsPerDB = new HashMap<>();
+		for (int i = 0; i < records.size(); i++) {
+			Map<Integer, List<DBStatisticsRecrod>> recordsPerStep = recordsPerDB.get(dbIds.get(i));
+			if (recordsPerStep == null) {
+				recordsPerStep = new HashMap<>();
+				recordsPerDB.put(dbIds.get(i), recordsPerStep);
+			}
+			List<DBStatisticsRecrod> stepRecords = recordsPerStep.get(users.get(i));
+			if (stepRecords == null) {
+				stepRecords = new ArrayList<>();
+				recordsPerStep.put(users.get(i), stepRecords);
+			}
+			stepRecords.add(records.get(i));
+		}
+
+		for (Map.Entry<String, Map<Integer, List<DBStatisticsRecrod>>> dbEntry : recordsPerDB.entrySet()) {
+			SortedMap<Integer, double[]> stepMap = new TreeMap<>();
+			for (Map.Entry<Integer, List<DBStatisticsRecrod>> stepEntry : dbEntry.getValue().entrySet()) {
+				double[] waitTimes = calculateWaitTimesPerLock(stepEntry.getValue());
+				if (waitTimes != null) {
+					stepMap.put(stepEntry.getKey(), waitTimes);
+				}
+			}
+			if (!stepMap.isEmpty()) {
+				waitTimesPerLock.put(dbEntry.getKey(), stepMap);
+			}
+		}
+	}
+
+	/**
+	 * Returns null if the database does not provide cumulative lock wait
+	 * counters (negative values), so that it is excluded from the analysis.
+	 */
+	private static double[] calculateWaitTimesPerLock(List<DBStatisticsRecrod> records) {
+		for (DBStatisticsRecrod rec : records) {
+			if (rec.getNumLockWaits() < 0L || rec.getLockTime() < 0L) {
+				return null;
+			}
+		}
+		int size = records.size();
+		long[] timestamps = new long[size];
+		long[] numWaits = new long[size];
+		long[] lockTimes = new long[size];
+		for (int i = 0; i < size; i++) {
+			DBStatisticsRecrod rec = records.get(i);
+			timestamps[i] = rec.getTimeStamp();
+			numWaits[i] = rec.getNumLockWaits();
+			lockTimes[i] = rec.getLockTime();
+		}
+		int[] order = Utils.chronologicalOrder(timestamps, size);
+		if (order != null) {
+			numWaits = Utils.permute(numWaits, order);
+			lockTimes = Utils.permute(lockTimes, order);
+		}
+
+		double[] result = new double[Math.max(0, size - 1)];
+		for (int i = 1; i < size; i++) {
+			long waits = numWaits[i] - numWaits[i - 1];
+			long waitTime = lockTimes[i] - lockTimes[i - 1];
+			result[i - 1] = waits == 0L ? 0.0 : (double) waitTime / (double) waits;
+		}
+		return result;
+	}
+
+	private void addCPUUtilizations(Dataset cpuUtilDataset) {
+		List<Integer> users = cpuUtilDataset.getValues(AbstractDetectionController.NUMBER_OF_USERS_KEY,
+				Integer.class);
+		List<String> processIDs = cpuUtilDataset.getValues(CPUUtilizationRecord.PAR_PROCESS_ID, String.class);
+		List<String> cpuIDs = cpuUtilDataset.getValues(CPUUtilizationRecord.PAR_CPU_ID, String.class);
+		List<Double> utils = cpuUtilDataset.getValues(CPUUtilizationRecord.PAR_UTILIZATION, Double.class);
+
+		Map<String, Set<String>> cpuIDsPerNode = new HashMap<>();
+		Map<String, Map<Integer, double[]>> sumAndCount = new HashMap<>();
+		for (int i = 0; i < processIDs.size(); i++) {
+			Set<String> ids = cpuIDsPerNode.get(processIDs.get(i));
+			if (ids == null) {
+				ids = new HashSet<>();
+				cpuIDsPerNode.put(processIDs.get(i), ids);
+			}
+			ids.add(cpuIDs.get(i));
+
+			if (!CPUUtilizationRecord.RES_CPU_AGGREGATED.equals(cpuIDs.get(i)) || utils.get(i) == null) {
+				continue;
+			}
+			Map<Integer, double[]> accPerStep = sumAndCount.get(processIDs.get(i));
+			if (accPerStep == null) {
+				accPerStep = new HashMap<>();
+				sumAndCount.put(processIDs.get(i), accPerStep);
+			}
+			double[] acc = accPerStep.get(users.get(i));
+			if (acc == null) {
+				acc = new double[2];
+				accPerStep.put(users.get(i), acc);
+			}
+			acc[0] += utils.get(i);
+			acc[1]++;
+		}
+
+		for (Map.Entry<String, Set<String>> entry : cpuIDsPerNode.entrySet()) {
+			// the aggregated CPU is not a core
+			numCPUCores.put(entry.getKey(), entry.getValue().size() - 1);
+		}
+		for (Map.Entry<String, Map<Integer, double[]>> nodeEntry : sumAndCount.entrySet()) {
+			SortedMap<Integer, Double> stepMap = new TreeMap<>();
+			for (Map.Entry<Integer, double[]> stepEntry : nodeEntry.getValue().entrySet()) {
+				stepMap.put(stepEntry.getKey(), stepEntry.getValue()[0] / stepEntry.getValue()[1]);
+			}
+			meanCPUUtilizations.put(nodeEntry.getKey(), stepMap);
+		}
+	}
+}
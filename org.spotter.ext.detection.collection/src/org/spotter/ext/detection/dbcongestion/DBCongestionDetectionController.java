@@ -1,16 +1,16 @@
 package org.spotter.ext.detection.dbcongestion;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
 
 import org.aim.api.exceptions.InstrumentationException;
 import org.aim.api.exceptions.MeasurementException;
-import org.aim.api.measurement.dataset.Dataset;
+import org.aim.api.measurement.AbstractRecord;
 import org.aim.api.measurement.dataset.DatasetCollection;
-import org.aim.api.measurement.dataset.ParameterSelection;
 import org.aim.artifacts.records.CPUUtilizationRecord;
 import org.aim.artifacts.records.DBStatisticsRecrod;
 import org.aim.artifacts.sampler.CPUSampler;
@@ -23,20 +23,31 @@ import org.lpe.common.extension.IExtension;
 import org.lpe.common.util.LpeNumericUtils;
 import org.lpe.common.util.NumericPairList;
 import org.spotter.core.chartbuilder.AnalysisChartBuilder;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.core.detection.IExperimentReuser;
 import org.spotter.exceptions.WorkloadException;
+import org.spotter.ext.detection.utils.AbstractSequentialDetectionController;
+import org.spotter.ext.detection.utils.BootstrapStepComparator;
+import org.spotter.ext.detection.utils.CachingStepComparator;
+import org.spotter.ext.detection.utils.IStepComparator;
+import org.spotter.ext.detection.utils.SequentialSeriesTest;
+import org.spotter.ext.detection.utils.SequentialStepTest.Decision;
+import org.spotter.ext.detection.utils.StatisticsUtils;
+import org.spotter.ext.detection.utils.StepComparison;
 import org.spotter.shared.configuration.ConfigKeys;
 import org.spotter.shared.result.model.SpotterResult;
 
-public class DBCongestionDetectionController extends AbstractDetectionController implements IExperimentReuser {
+public class DBCongestionDetectionController extends AbstractSequentialDetectionController implements IExperimentReuser {
 
 	private int requiredSignificantSteps;
 	private double requiredSignificanceLevel;
 	private double cpuThreshold;
 	private int experimentSteps;
 	private boolean qtStrategy = false;
+	private boolean sequentialTesting;
+	private static final String LOCK_TIMES_ARTEFACT = "db-lock-time-comparison-v1";
+	private final IStepComparator stepComparator = new CachingStepComparator(LOCK_TIMES_ARTEFACT,
+			new BootstrapStepComparator());
 
 	public DBCongestionDetectionController(IExtension<IDetectionController> provider) {
 		super(provider);
@@ -65,6 +76,11 @@ public class DBCongestionDetectionController extends AbstractDetectionController
 		cpuThreshold = cpuThresholdStr != null ? Double.parseDouble(cpuThresholdStr)
 				: DBCongestionExtension.CPU_THRESHOLD_DEFAULT;
 
+		String sequentialTestingStr = getProblemDetectionConfiguration().getProperty(
+				DBCongestionExtension.SEQUENTIAL_TESTING_KEY);
+		sequentialTesting = sequentialTestingStr != null ? Boolean.parseBoolean(sequentialTestingStr)
+				: DBCongestionExtension.SEQUENTIAL_TESTING_DEFAULT;
+
 		String tmpStrategy = getProblemDetectionConfiguration().getProperty(
 				DBCongestionExtension.DETECTION_STRATEGY_KEY);
 		switch (tmpStrategy) {
@@ -87,51 +103,79 @@ public class DBCongestionDetectionController extends AbstractDetectionController
 
 	@Override
 	public void executeExperiments() throws InstrumentationException, MeasurementException, WorkloadException {
-		executeDefaultExperimentSeries(this, experimentSteps, getInstrumentationDescription());
+		if (sequentialTesting) {
+			executeSequentialExperimentSeries(new SequentialSeriesTest(experimentSteps, requiredSignificantSteps,
+					requiredSignificanceLevel, stepComparator), experimentSteps, getInstrumentationDescription());
+		} else {
+			executeDefaultExperimentSeries(this, experimentSteps, getInstrumentationDescription());
+		}
 	}
 
+	/**
+	 * Evaluates a finished experiment. The series stops as soon as a high CPU
+	 * utilization or a significant increase of the locking times has been
+	 * detected, or if the locking times cannot show a significant increase
+	 * anymore and no CPU utilization of a database node has been measured.
+	 */
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
-		SpotterResult result = new SpotterResult();
-
-		Dataset dbDataset = data.getDataSet(DBStatisticsRecrod.class);
-		if (dbDataset != null) {
-
-			for (String dbId : dbDataset.getValueSet(DBStatisticsRecrod.PAR_PROCESS_ID, String.class)) {
-				List<Integer> sortedNumUsersList = new ArrayList<Integer>(dbDataset.getValueSet(
-						AbstractDetectionController.NUMBER_OF_USERS_KEY, Integer.class));
-				boolean detected = analyzeDBStatistics(dbDataset, dbId, sortedNumUsersList, result);
-				if (detected) {
-					result.setDetected(true);
-					result.addMessage("Database overhead detected on database " + dbId
-							+ " due to increasing locking times!");
-				}
+	protected void evaluateExperiment(SequentialSeriesTest test, int numUsers, List<AbstractRecord> records) {
+		DBCongestionData stepData = DBCongestionData.fromRecords(numUsers, records);
+		Map<String, double[]> waitTimes = new HashMap<>();
+		for (String dbId : stepData.getDatabaseIds()) {
+			double[] values = stepData.getWaitTimesPerLock(dbId).get(numUsers);
+			if (values != null) {
+				waitTimes.put(dbId, values);
 			}
 		}
+		Decision decision = test.addStep(waitTimes);
+
+		List<String> dbHosts = getDBHosts();
+		boolean cpuMeasured = false;
+		boolean highCPUUtilization = false;
+		for (String processID : stepData.getCPUNodes()) {
+			if (!isDBNode(processID, dbHosts)) {
+				continue;
+			}
+			cpuMeasured = true;
+			Double meanCPUUtil = stepData.getMeanCPUUtilizations(processID).get(numUsers);
+			if (meanCPUUtil != null && meanCPUUtil >= getCPUThreshold(stepData, processID)) {
+				highCPUUtilization = true;
+			}
+		}
+		if (highCPUUtilization) {
+			test.settle(Decision.DETECTED);
+		} else if (decision == Decision.NOT_DETECTED && cpuMeasured
+				&& test.getNumEvaluatedSteps() < test.getNumSteps()) {
+			// the CPU utilization may still exceed the threshold
+			test.settle(Decision.CONTINUE);
+		}
+	}
 
-		Dataset dbUtilDataset = data.getDataSet(CPUUtilizationRecord.class);
+	@Override
+	protected SpotterResult analyzeData(DatasetCollection data) {
+		SpotterResult result = new SpotterResult();
 
-		if (dbUtilDataset != null) {
+		DBCongestionData congestionData = DBCongestionData.fromDatasets(data.getDataSet(DBStatisticsRecrod.class),
+				data.getDataSet(CPUUtilizationRecord.class));
 
-			String dbHostStr = GlobalConfiguration.getInstance().getProperty(ConfigKeys.SYSTEM_NODE_ROLE_DB);
-			List<String> dbHosts = new ArrayList<>();
-			for (String host : dbHostStr.split(ConfigParameterDescription.LIST_VALUE_SEPARATOR)) {
-				dbHosts.add(host);
+		for (String dbId : congestionData.getDatabaseIds()) {
+			boolean detected = analyzeDBStatistics(dbId, congestionData.getWaitTimesPerLock(dbId), result);
+			if (detected) {
+				result.setDetected(true);
+				result.addMessage("Database overhead detected on database " + dbId
+						+ " due to increasing locking times!");
 			}
-			for (String processID : dbUtilDataset.getValueSet(CPUUtilizationRecord.PAR_PROCESS_ID, String.class)) {
-				boolean isDBNode = false;
-				for (String dbHost : dbHosts) {
-					if (processID.contains(dbHost)) {
-						isDBNode = true;
-						break;
-					}
-				}
+		}
+
+		if (!congestionData.getCPUNodes().isEmpty()) {
 
-				if (!isDBNode) {
+			List<String> dbHosts = getDBHosts();
+			for (String processID : congestionData.getCPUNodes()) {
+				if (!isDBNode(processID, dbHosts)) {
 					continue;
 				}
 
-				boolean detected = analyzeCPUUtilization(dbUtilDataset, dbHosts, processID, result);
+				boolean detected = analyzeCPUUtilization(congestionData, processID, result);
 				if (detected) {
 					result.setDetected(true);
 					result.addMessage("Database overhead detected on database " + processID
@@ -143,36 +187,43 @@ public class DBCongestionDetectionController extends AbstractDetectionController
 		return result;
 	}
 
-	private boolean analyzeCPUUtilization(Dataset dbUtilDataset, List<String> dbHosts, String processID,
-			SpotterResult result) {
+	private List<String> getDBHosts() {
+		String dbHostStr = GlobalConfiguration.getInstance().getProperty(ConfigKeys.SYSTEM_NODE_ROLE_DB);
+		List<String> dbHosts = new ArrayList<>();
+		for (String host : dbHostStr.split(ConfigParameterDescription.LIST_VALUE_SEPARATOR)) {
+			dbHosts.add(host);
+		}
+		return dbHosts;
+	}
+
+	private boolean isDBNode(String processID, List<String> dbHosts) {
+		for (String dbHost : dbHosts) {
+			if (processID.contains(dbHost)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private double getCPUThreshold(DBCongestionData congestionData, String processID) {
+		if (qtStrategy) {
+			return LpeNumericUtils.getUtilizationForResponseTimeFactorQT(3,
+					congestionData.getNumberOfCPUCores(processID)) * 0.9;
+		}
+		return cpuThreshold;
+	}
+
+	private boolean analyzeCPUUtilization(DBCongestionData congestionData, String processID, SpotterResult result) {
 		boolean detected = false;
 		NumericPairList<Integer, Double> chartDataUtils = new NumericPairList<>();
 
-		ParameterSelection dbNodeelection = new ParameterSelection().select(CPUUtilizationRecord.PAR_PROCESS_ID,
-				processID);
-		Dataset dataset = dbNodeelection.applyTo(dbUtilDataset);
-		Map<String, Integer> mapNumCores = getNumberOfCPUCores(dataset);
-		for (Integer numUsers : dbUtilDataset.getValueSet(AbstractDetectionController.NUMBER_OF_USERS_KEY,
-				Integer.class)) {
-			ParameterSelection usersSelection = new ParameterSelection()
-					.select(AbstractDetectionController.NUMBER_OF_USERS_KEY, numUsers)
-					.select(CPUUtilizationRecord.PAR_PROCESS_ID, processID)
-					.select(CPUUtilizationRecord.PAR_CPU_ID, CPUUtilizationRecord.RES_CPU_AGGREGATED);
-			List<Double> cpuUtils = usersSelection.applyTo(dbUtilDataset).getValues(
-					CPUUtilizationRecord.PAR_UTILIZATION, Double.class);
-
-			double meanCPUUtil = LpeNumericUtils.average(cpuUtils);
-
-			double actualThreshold = cpuThreshold;
-			if (qtStrategy) {
-				actualThreshold = LpeNumericUtils.getUtilizationForResponseTimeFactorQT(3, mapNumCores.get(processID)) * 0.9;
-			} else {
-				actualThreshold = cpuThreshold;
-			}
+		double actualThreshold = getCPUThreshold(congestionData, processID);
+		for (Entry<Integer, Double> entry : congestionData.getMeanCPUUtilizations(processID).entrySet()) {
+			double meanCPUUtil = entry.getValue();
 			if (meanCPUUtil >= actualThreshold) {
 				detected = true;
 			}
-			chartDataUtils.add(numUsers, meanCPUUtil);
+			chartDataUtils.add(entry.getKey(), meanCPUUtil);
 		}
 
 		AnalysisChartBuilder chartBuilder = AnalysisChartBuilder.getChartBuilder();
@@ -184,55 +235,25 @@ public class DBCongestionDetectionController extends AbstractDetectionController
 		return detected;
 	}
 
-	private boolean analyzeDBStatistics(Dataset dbDataset, String dbId, List<Integer> sortedNumUsersList,
+	private boolean analyzeDBStatistics(String dbId, SortedMap<Integer, double[]> waitTimesPerLockMap,
 			SpotterResult result) {
-		Collections.sort(sortedNumUsersList);
+		if (waitTimesPerLockMap.isEmpty()) {
+			return false;
+		}
 		int prevNumUsers = -1;
 		int firstSignificantNumUsers = -1;
 		int significantSteps = 0;
-		int minNumUsers = sortedNumUsersList.get(0);
+		int minNumUsers = waitTimesPerLockMap.firstKey();
 		NumericPairList<Integer, Double> rawData = new NumericPairList<>();
 		NumericPairList<Integer, Double> means = new NumericPairList<>();
 		List<Number> ci = new ArrayList<>();
-		List<Double> waitTimesPerLock_prev = null;
-		for (Integer numUsers : sortedNumUsersList) {
-			Dataset tmpDataset = ParameterSelection.newSelection().select(NUMBER_OF_USERS_KEY, numUsers)
-					.select(DBStatisticsRecrod.PAR_PROCESS_ID, dbId).applyTo(dbDataset);
-
-			NumericPairList<Long, Long> numWaitsSeries = getNumWaitsTimeseries(tmpDataset);
-
-			NumericPairList<Long, Long> waitTimeSeries = getWaitTimeTimeseries(tmpDataset);
-			if (numWaitsSeries.size() != waitTimeSeries.size()) {
-				throw new RuntimeException("Unequal list sizes!");
-			}
-			List<Double> waitTimesPerLock = new ArrayList<>();
-			for (int i = 1; i < numWaitsSeries.size(); i++) {
-				long numWait_prev = numWaitsSeries.get(i - 1).getValue();
-				long waitTime_prev = waitTimeSeries.get(i - 1).getValue();
-				long numWait = numWaitsSeries.get(i).getValue();
-				long waitTime = waitTimeSeries.get(i).getValue();
-				if (numWait - numWait_prev == 0L) {
-					waitTimesPerLock.add(0.0);
-				} else {
-					waitTimesPerLock.add(((double) (waitTime - waitTime_prev) / ((double) (numWait - numWait_prev))));
-				}
-
-			}
+		double[] prevWaitTimes = null;
+		for (Entry<Integer, double[]> entry : waitTimesPerLockMap.entrySet()) {
+			int numUsers = entry.getKey();
 
 			if (prevNumUsers > 0) {
-				List<Double> sums1 = new ArrayList<>();
-				List<Double> sums2 = new ArrayList<>();
-				LpeNumericUtils.createNormalDistributionByBootstrapping(waitTimesPerLock_prev, waitTimesPerLock, sums1,
-						sums2);
-
-				if (sums2.size() < 2 || sums1.size() < 2) {
-					throw new IllegalArgumentException("too small sets");
-				}
-				double prevMean = LpeNumericUtils.average(sums1);
-				double currentMean = LpeNumericUtils.average(sums2);
-
-				double pValue = LpeNumericUtils.tTest(sums2, sums1);
-				if (pValue >= 0 && pValue <= requiredSignificanceLevel && prevMean < currentMean) {
+				StepComparison comparison = stepComparator.compare(prevWaitTimes, entry.getValue());
+				if (comparison.isSignificantIncrease(requiredSignificanceLevel)) {
 					if (firstSignificantNumUsers < 0) {
 						firstSignificantNumUsers = prevNumUsers;
 					}
@@ -244,26 +265,13 @@ public class DBCongestionDetectionController extends AbstractDetectionController
 
 				// update chart data
 				if (prevNumUsers == minNumUsers) {
-					double stdDev = LpeNumericUtils.stdDev(sums1);
-					for (Double val : sums1) {
-						rawData.add(prevNumUsers, val);
-					}
-					double ciWidth = LpeNumericUtils.getConfidenceIntervalWidth(sums1.size(), stdDev,
-							requiredSignificanceLevel);
-					means.add(prevNumUsers, prevMean);
-					ci.add(ciWidth / 2.0);
+					addChartData(prevNumUsers, comparison.getPreviousDistribution(), comparison.getPreviousMean(),
+							rawData, means, ci);
 				}
-
-				double stdDev = LpeNumericUtils.stdDev(sums2);
-				for (Double val : sums2) {
-					rawData.add(numUsers, val);
-				}
-				double ciWidth = LpeNumericUtils.getConfidenceIntervalWidth(sums2.size(), stdDev,
-						requiredSignificanceLevel);
-				means.add(numUsers, currentMean);
-				ci.add(ciWidth / 2.0);
+				addChartData(numUsers, comparison.getCurrentDistribution(), comparison.getCurrentMean(), rawData,
+						means, ci);
 			}
-			waitTimesPerLock_prev = waitTimesPerLock;
+			prevWaitTimes = entry.getValue();
 			prevNumUsers = numUsers;
 		}
 
@@ -283,6 +291,18 @@ public class DBCongestionDetectionController extends AbstractDetectionController
 		return false;
 	}
 
+	private void addChartData(int numUsers, double[] bootstrapMeans, double mean,
+			NumericPairList<Integer, Double> rawData, NumericPairList<Integer, Double> means, List<Number> ci) {
+		double stdDev = StatisticsUtils.stdDev(bootstrapMeans);
+		for (double val : bootstrapMeans) {
+			rawData.add(numUsers, val);
+		}
+		double ciWidth = LpeNumericUtils.getConfidenceIntervalWidth(bootstrapMeans.length, stdDev,
+				requiredSignificanceLevel);
+		means.add(numUsers, mean);
+		ci.add(ciWidth / 2.0);
+	}
+
 	@Override
 	public InstrumentationDescription getInstrumentationDescription() {
 		InstrumentationDescriptionBuilder descrBuilder = new InstrumentationDescriptionBuilder();
@@ -290,34 +310,4 @@ public class DBCongestionDetectionController extends AbstractDetectionController
 		descrBuilder.newSampling(SamplingDescription.SAMPLER_DATABASE_STATISTICS, 500);
 		return descrBuilder.build();
 	}
-
-	private NumericPairList<Long, Long> getNumWaitsTimeseries(Dataset rtDataSet) {
-		NumericPairList<Long, Long> timeSeries = new NumericPairList<>();
-		for (DBStatisticsRecrod rec : rtDataSet.getRecords(DBStatisticsRecrod.class)) {
-			timeSeries.add(rec.getTimeStamp(), rec.getNumLockWaits());
-		}
-		timeSeries.sort();
-		return timeSeries;
-	}
-
-	private NumericPairList<Long, Long> getWaitTimeTimeseries(Dataset rtDataSet) {
-		NumericPairList<Long, Long> timeSeries = new NumericPairList<>();
-		for (DBStatisticsRecrod rec : rtDataSet.getRecords(DBStatisticsRecrod.class)) {
-			timeSeries.add(rec.getTimeStamp(), rec.getLockTime());
-		}
-
-		timeSeries.sort();
-		return timeSeries;
-	}
-
-	private Map<String, Integer> getNumberOfCPUCores(Dataset cpuUtilDataset) {
-		Map<String, Integer> cpuNumCores = new HashMap<>();
-		for (String processID : cpuUtilDataset.getValueSet(CPUUtilizationRecord.PAR_PROCESS_ID, String.class)) {
-			ParameterSelection selection = new ParameterSelection().select(CPUUtilizationRecord.PAR_PROCESS_ID,
-					processID);
-			int numCores = selection.applyTo(cpuUtilDataset).getValueSet(CPUUtilizationRecord.PAR_CPU_ID).size() - 1;
-			cpuNumCores.put(processID, numCores);
-		}
-		return cpuNumCores;
-	}
 }
@@ -36,11 +36,13 @@ public class DBCongestionExtension extends AbstractDetectionExtension {
 	public static final String REQUIRED_SIGNIFICANT_STEPS_KEY = "numSignificantSteps";
 	public static final String CPU_THRESHOLD_KEY = "cpuThreshold";
 	public static final String EXPERIMENT_STEPS_KEY = "numExperiments";
+	public static final String SEQUENTIAL_TESTING_KEY = "sequentialTesting";
 
 	public static final double REQUIRED_CONFIDENCE_LEVEL_DEFAULT = 0.95;
 	public static final double CPU_THRESHOLD_DEFAULT = 0.90;
 	public static final int REQUIRED_SIGNIFICANT_STEPS_DEFAULT = 2;
 	public static final int EXPERIMENT_STEPS_DEFAULT = 4;
+	public static final boolean SEQUENTIAL_TESTING_DEFAULT = false;
 
 	public IDetectionController createExtensionArtifact() {
 		return new DBCongestionDetectionController(this);
@@ -60,6 +62,17 @@ public class DBCongestionExtension extends AbstractDetectionExtension {
 		return numExperimentsParameter;
 	}
 
+	private ConfigParameterDescription createSequentialTestingParameter() {
+		ConfigParameterDescription sequentialTestingParameter = new ConfigParameterDescription(
+				SEQUENTIAL_TESTING_KEY, LpeSupportedTypes.Boolean);
+		sequentialTestingParameter.setMandatory(false);
+		sequentialTestingParameter.setDefaultValue(String.valueOf(SEQUENTIAL_TESTING_DEFAULT));
+		sequentialTestingParameter.setDescription("If true, each experiment is analyzed "
+				+ "as soon as it finishes and the remaining experiments are skipped "
+				+ "once the detection decision is settled.");
+		return sequentialTestingParameter;
+	}
+
 	private ConfigParameterDescription createNumSignificantStepsParameter() {
 		ConfigParameterDescription numSignificantStepsParameter = new ConfigParameterDescription(
 				REQUIRED_SIGNIFICANT_STEPS_KEY, LpeSupportedTypes.Integer);
@@ -113,6 +126,7 @@ public class DBCongestionExtension extends AbstractDetectionExtension {
 		addConfigParameter(createNumExperimentsParameter());
 		addConfigParameter(createCPUThresholdParameter());
 		addConfigParameter(createStrategyParameter());
+		addConfigParameter(createSequentialTestingParameter());
 	}
 
 }
@@ -36,18 +36,18 @@ import org.lpe.common.util.LpeStringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spotter.core.ProgressManager;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.AbstractDetectionExtension;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.core.detection.IExperimentReuser;
 import org.spotter.core.workload.LoadConfig;
 import org.spotter.exceptions.WorkloadException;
 import org.spotter.ext.detection.edc.strategies.RelativeQueryRTStrategy;
+import org.spotter.ext.detection.utils.AbstractProfiledDetectionController;
 import org.spotter.shared.configuration.ConfigKeys;
 import org.spotter.shared.result.model.SpotterResult;
 import org.spotter.shared.status.DiagnosisStatus;
 
-public class EDCDetectionController extends AbstractDetectionController {
+public class EDCDetectionController extends AbstractProfiledDetectionController {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(EDCDetectionController.class);
 
@@ -123,7 +123,7 @@ public class EDCDetectionController extends AbstractDetectionController {
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 		strategy.setMeasurementData(data);
 		return strategy.analyze();
 	}
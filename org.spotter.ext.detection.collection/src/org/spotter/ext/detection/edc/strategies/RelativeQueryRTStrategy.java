@@ -46,6 +46,7 @@ import org.spotter.ext.detection.edc.IEDCAnalysisStrategy;
 import org.spotter.ext.detection.edc.utils.DataAnalyzationUtils;
 import org.spotter.ext.detection.edc.utils.MethodCall;
 import org.spotter.ext.detection.edc.utils.MethodCallSet;
+import org.spotter.ext.detection.utils.GeneralizedQueries;
 import org.spotter.shared.configuration.ConfigKeys;
 import org.spotter.shared.result.model.SpotterResult;
 
@@ -128,27 +129,14 @@ public class RelativeQueryRTStrategy implements IEDCAnalysisStrategy {
 		LOGGER.debug("Setting SQL query datasets...");
 
 		Dataset sqlDataset = data.getDataSet(SQLQueryRecord.class);
+		List<String> queries = new ArrayList<>();
+		for (SQLQueryRecord record : sqlDataset.getRecords(SQLQueryRecord.class)) {
+			queries.add(record.getQueryString().replace("#sc#", ";"));
+		}
+		GeneralizedQueries generalizedQueries = GeneralizedQueries.of(queries);
 		for (SQLQueryRecord record : sqlDataset.getRecords(SQLQueryRecord.class)) {
 			String sql = record.getQueryString().replace("#sc#", ";");
-			String generalizedSql = LpeStringUtils.getGeneralizedQuery(sql);
-			if (generalizedSql == null) {
-				if (sql.contains("$")) {
-					int idx_1 = sql.indexOf(",", sql.indexOf("$"));
-					int idx_2 = sql.indexOf(" ", sql.indexOf("$"));
-					if(idx_1 < 0 && idx_2 < 0){
-						idx_1 = sql.length();
-					}
-					idx_1 = idx_1 < 0 ? Integer.MAX_VALUE : idx_1;
-					idx_2 = idx_2 < 0 ? Integer.MAX_VALUE : idx_2;
-					int endIndex = Math.min(idx_1, idx_2);
-					String name = sql.substring(sql.indexOf("$"), endIndex);
-					generalizedSql = sql.replace(name, "tmp");
-				} else {
-					generalizedSql = sql;
-				}
-			}
-
-			record.setQueryString(generalizedSql);
+			record.setQueryString(generalizedQueries.get(sql));
 		}
 
 		if (sqlDataset == null || sqlDataset.size() == 0) {
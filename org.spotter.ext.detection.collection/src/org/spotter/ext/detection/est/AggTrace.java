@@ -15,6 +15,7 @@
  */
 package org.spotter.ext.detection.est;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,7 +26,8 @@ import java.util.List;
  * @author Alexander Wert
  * 
  */
-public class AggTrace {
+public class AggTrace implements Serializable {
+	private static final long serialVersionUID = 1L;
 	public static final String LOOP_STR = "LOOP";
 	// private static final long PER_CENT = 100;
 	private List<AggTrace> subTraces;
@@ -0,0 +1,40 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.detection.est;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Aggregated traces of an analysis, the artefact the Empty Semi Trucks
+ * detection keeps in the analysis cache.
+ * 
+ * @author agent
+ * 
+ */
+public class AggTraceList extends ArrayList<AggTrace> {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param aggTraces
+	 *            aggregated traces
+	 */
+	public AggTraceList(Collection<AggTrace> aggTraces) {
+		super(aggTraces);
+	}
+}
@@ -46,9 +46,10 @@ import org.aim.description.builder.InstrumentationDescriptionBuilder;
 import org.lpe.common.extension.IExtension;
 import org.lpe.common.util.system.LpeSystemUtils;
 import org.spotter.core.ProgressManager;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.exceptions.WorkloadException;
+import org.spotter.ext.detection.utils.AbstractProfiledDetectionController;
+import org.spotter.ext.detection.utils.AnalysisCache;
 import org.spotter.shared.result.model.SpotterResult;
 
 /**
@@ -57,8 +58,9 @@ import org.spotter.shared.result.model.SpotterResult;
  * @author Alexander Wert
  * 
  */
-public class EmptySemiTrucksDetectionController extends AbstractDetectionController {
+public class EmptySemiTrucksDetectionController extends AbstractProfiledDetectionController {
 	private static final double HUNDRED_PERCENT = 100.0;
+	private static final String AGG_TRACES_ARTEFACT = "est-agg-traces-v2";
 	// private static final long NANO_TO_MILLI = 1000000L;
 	private static final int NUM_EXPERIMENTS = 1;
 
@@ -97,7 +99,7 @@ public class EmptySemiTrucksDetectionController extends AbstractDetectionControl
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 		SpotterResult result = new SpotterResult();
 		result.setDetected(false);
 
@@ -139,12 +141,8 @@ public class EmptySemiTrucksDetectionController extends AbstractDetectionControl
 				continue;
 			}
 
-			List<Trace> traces = extractTraces(processRelatedTraceDataset, processRelatedMessagingDataset,
-					messageSizesDataset);
-
-			// writeTracesToFile(result, traces, "traces");
-
-			List<AggTrace> aggregatedTraces = aggregateTraces(traces);
+			List<AggTrace> aggregatedTraces = getAggregatedTraces(processRelatedTraceDataset,
+					processRelatedMessagingDataset, messageSizesDataset);
 
 			writeTracesToFile(result, aggregatedTraces, "traces-agg-" + processId.substring(processId.indexOf("@") + 1));
 			List<ESTCandidate> estCandidates = new ArrayList<>();
@@ -199,6 +197,31 @@ public class EmptySemiTrucksDetectionController extends AbstractDetectionControl
 		}
 	}
 
+	/**
+	 * Extracts and aggregates the traces, or takes them from the analysis
+	 * cache if the same records have been analysed before.
+	 */
+	private List<AggTrace> getAggregatedTraces(final Dataset threadTracingDataset, final Dataset messagingDataset,
+			final Dataset messageSizesDataset) {
+		AnalysisCache cache = AnalysisCache.fromConfiguration();
+		if (!cache.isEnabled()) {
+			return aggregateTraces(extractTraces(threadTracingDataset, messagingDataset, messageSizesDataset));
+		}
+		AnalysisCache.Fingerprint fingerprint = AnalysisCache.newFingerprint()
+				.addAll(threadTracingDataset.getRecords(ThreadTracingRecord.class))
+				.addAll(messagingDataset.getRecords(JmsRecord.class))
+				.addAll(messageSizesDataset.getRecords(JmsMessageSizeRecord.class));
+		return cache.getOrCompute(AGG_TRACES_ARTEFACT, fingerprint, AggTraceList.class,
+				new AnalysisCache.Computation<AggTraceList>() {
+					@Override
+					public AggTraceList compute() {
+						List<Trace> traces = extractTraces(threadTracingDataset, messagingDataset,
+								messageSizesDataset);
+						return new AggTraceList(aggregateTraces(traces));
+					}
+				}, AggTrace.class);
+	}
+
 	private List<AggTrace> aggregateTraces(List<Trace> traces) {
 		Map<Trace, List<Trace>> traceGrouping = new HashMap<Trace, List<Trace>>();
 		for (Trace rootTrace : traces) {
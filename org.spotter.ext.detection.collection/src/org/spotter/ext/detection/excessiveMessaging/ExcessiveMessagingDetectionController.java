@@ -28,12 +28,13 @@ import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.core.detection.IExperimentReuser;
 import org.spotter.exceptions.WorkloadException;
+import org.spotter.ext.detection.utils.AbstractProfiledDetectionController;
+import org.spotter.ext.detection.utils.NetworkUtilizationCalculator;
 import org.spotter.shared.result.model.SpotterResult;
 
-public class ExcessiveMessagingDetectionController extends AbstractDetectionController implements IExperimentReuser {
+public class ExcessiveMessagingDetectionController extends AbstractProfiledDetectionController implements IExperimentReuser {
 	private static final int EXPERIMENT_STEPS = 5;
 	private static final double TCP_PACKET_SIZE = 1500;
-	private static final double SPEED_100_MBIT = 100000000;
 	private static final double EPSILON_PERCENT = 0.05;
 
 	private int requiredSignificantSteps;
@@ -81,7 +82,7 @@ public class ExcessiveMessagingDetectionController extends AbstractDetectionCont
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 		SpotterResult result = new SpotterResult();
 		result.setDetected(false);
 		if (data.getDataSet(JmsServerRecord.class) == null) {
@@ -91,14 +92,22 @@ public class ExcessiveMessagingDetectionController extends AbstractDetectionCont
 
 		boolean highMessagingOverhead = false;
 		if (analysisStrategy.equals(ExcessiveMessagingExtension.THRESHOLD_STRATEGY)) {
-			Map<String, NumericPair<Double, Double>> networkSpeedsAndThresholds = calculateNetworkUtilizationThreshold(data);
+			NetworkUtilizationCalculator nwUtilCalculator = new NetworkUtilizationCalculator(
+					data.getDataSet(NetworkInterfaceInfoRecord.class), data.getDataSet(NetworkRecord.class));
+			Map<String, NumericPair<Double, Double>> networkSpeedsAndThresholds = calculateNetworkUtilizationThreshold(
+					data, nwUtilCalculator);
 			if (networkSpeedsAndThresholds != null) {
-				highMessagingOverhead = analyzeNetworkUtilization(data, result, networkSpeedsAndThresholds);
+				highMessagingOverhead = analyzeNetworkUtilization(nwUtilCalculator, getNumberOfSteps(data), result,
+						networkSpeedsAndThresholds);
 			}
 		} else if (analysisStrategy.equals(ExcessiveMessagingExtension.STAGNATION_STRATEGY)) {
-			Map<String, NumericPair<Double, Double>> networkSpeedsAndThresholds = calculateNetworkUtilizationThreshold(data);
+			NetworkUtilizationCalculator nwUtilCalculator = new NetworkUtilizationCalculator(
+					data.getDataSet(NetworkInterfaceInfoRecord.class), data.getDataSet(NetworkRecord.class));
+			Map<String, NumericPair<Double, Double>> networkSpeedsAndThresholds = calculateNetworkUtilizationThreshold(
+					data, nwUtilCalculator);
 			if (networkSpeedsAndThresholds != null) {
-				highMessagingOverhead = analyzeNetworkUtilizationGrowth(data, result, networkSpeedsAndThresholds);
+				highMessagingOverhead = analyzeNetworkUtilizationGrowth(nwUtilCalculator, getNumberOfSteps(data),
+						result, networkSpeedsAndThresholds);
 			}
 		} else if (analysisStrategy.equals(ExcessiveMessagingExtension.MSG_THORUGHPUT_STAGNATION_STRATEGY)) {
 			highMessagingOverhead = analyzeMessageThroughput(data, result);
@@ -250,7 +259,8 @@ public class ExcessiveMessagingDetectionController extends AbstractDetectionCont
 		return false;
 	}
 
-	private Map<String, NumericPair<Double, Double>> calculateNetworkUtilizationThreshold(DatasetCollection data) {
+	private Map<String, NumericPair<Double, Double>> calculateNetworkUtilizationThreshold(DatasetCollection data,
+			NetworkUtilizationCalculator nwUtilCalculator) {
 		Map<String, NumericPair<Double, Double>> result = new HashMap<>();
 
 		Dataset msgStatisticsDataset = data.getDataSet(JmsServerRecord.class);
@@ -260,24 +270,10 @@ public class ExcessiveMessagingDetectionController extends AbstractDetectionCont
 		double avgMessageSize = 8.0 * LpeNumericUtils.average(msgStatisticsDataset.getValueSet(
 				JmsServerRecord.PAR_AVG_MESSAGE_SIZE, Double.class));
 
-		Dataset nwInfoDataset = data.getDataSet(NetworkInterfaceInfoRecord.class);
-		Set<String> nodes = nwInfoDataset.getValueSet(NetworkInterfaceInfoRecord.PAR_PROCESS_ID, String.class);
-		Set<String> nwInterfaces = nwInfoDataset.getValueSet(NetworkInterfaceInfoRecord.PAR_NETWORK_INTERFACE,
-				String.class);
-
-		for (String node : nodes) {
-			for (String nwInterface : nwInterfaces) {
+		for (String node : nwUtilCalculator.getNodes()) {
+			for (String nwInterface : nwUtilCalculator.getNetworkInterfaces(node)) {
 				String interfaceName = getInterfaceName(node, nwInterface);
-				Dataset tmpDataset = ParameterSelection.newSelection()
-						.select(NetworkInterfaceInfoRecord.PAR_PROCESS_ID, node)
-						.select(NetworkInterfaceInfoRecord.PAR_NETWORK_INTERFACE, nwInterface).applyTo(nwInfoDataset);
-				double tmpSpeed = LpeNumericUtils.min(tmpDataset.getValueSet(
-						NetworkInterfaceInfoRecord.PAR_INTERFACE_SPEED, Long.class));
-				// TODO: HACK WITH UNAVAILABLE NW_SPEED
-				if (tmpSpeed < 0) {
-					tmpSpeed = SPEED_100_MBIT;
-				}
-				double speed = tmpSpeed / 8.0;
+				double speed = nwUtilCalculator.getInterfaceSpeed(node, nwInterface);
 				double packetRate = speed / TCP_PACKET_SIZE;
 
 				// TODO: use that threshold only in cases when evg. message size
@@ -295,47 +291,26 @@ public class ExcessiveMessagingDetectionController extends AbstractDetectionCont
 		return result;
 	}
 
-	private boolean analyzeNetworkUtilization(DatasetCollection data, SpotterResult result,
-			Map<String, NumericPair<Double, Double>> speedThresholdPair) {
+	private boolean analyzeNetworkUtilization(NetworkUtilizationCalculator nwUtilCalculator, int numSteps,
+			SpotterResult result, Map<String, NumericPair<Double, Double>> speedThresholdPair) {
 		boolean highNWUtil = false;
-		Dataset nwDataset = data.getDataSet(NetworkRecord.class);
-		List<Integer> users = new ArrayList<>(nwDataset.getValueSet(AbstractDetectionController.NUMBER_OF_USERS_KEY,
-				Integer.class));
-		Collections.sort(users);
-		for (String node : nwDataset.getValueSet(NetworkRecord.PAR_PROCESS_ID, String.class)) {
-			interfaceLoop: for (String nwInterface : nwDataset.getValueSet(NetworkRecord.PAR_NETWORK_INTERFACE,
-					String.class)) {
+		for (String node : nwUtilCalculator.getNodes()) {
+			for (String nwInterface : nwUtilCalculator.getNetworkInterfaces(node)) {
+				NumericPairList<Integer, Double> bandWidthUsages = nwUtilCalculator.getBandwidthUsages(node,
+						nwInterface);
+				if (bandWidthUsages.size() < numSteps) {
+					continue;
+				}
 
 				String interfaceName = getInterfaceName(node, nwInterface);
 				double networkSpeed = speedThresholdPair.get(interfaceName).getKey();
 				double utilizationThreshold = speedThresholdPair.get(interfaceName).getValue();
 				NumericPairList<Integer, Double> utils = new NumericPairList<>();
 
-				for (Integer numUsers : users) {
-					Dataset tmpDataset = ParameterSelection.newSelection()
-							.select(AbstractDetectionController.NUMBER_OF_USERS_KEY, numUsers)
-							.select(NetworkRecord.PAR_PROCESS_ID, node)
-							.select(NetworkRecord.PAR_NETWORK_INTERFACE, nwInterface).applyTo(nwDataset);
-					if (tmpDataset == null) {
-						continue interfaceLoop;
-					}
-					Set<Long> set = tmpDataset.getValueSet(NetworkRecord.PAR_TIMESTAMP, Long.class);
-					long startSend = LpeNumericUtils.min(set);
-					long endSend = LpeNumericUtils.max(set);
-					set = tmpDataset.getValueSet(NetworkRecord.PAR_TRANSFERRED_BYTES, Long.class);
-					long minNumSend = LpeNumericUtils.min(set);
-					long maxNumSend = LpeNumericUtils.max(set);
-					set = tmpDataset.getValueSet(NetworkRecord.PAR_RECEIVED_BYTES, Long.class);
-					long minNumReceived = LpeNumericUtils.min(set);
-					long maxNumReceived = LpeNumericUtils.max(set);
-
-					double sent = ((double) (maxNumSend - minNumSend) * 1000.0) / (double) (endSend - startSend);
-					double received = ((double) (maxNumReceived - minNumReceived) * 1000.0)
-							/ (double) (endSend - startSend);
-
-					double bandWidthUsage = Math.max(sent, received);
+				for (NumericPair<Integer, Double> usagePair : bandWidthUsages) {
+					double bandWidthUsage = usagePair.getValue();
 					double util = bandWidthUsage / networkSpeed;
-					utils.add(numUsers, util);
+					utils.add(usagePair.getKey(), util);
 
 					if (bandWidthUsage > utilizationThreshold) {
 						highNWUtil = true;
@@ -355,50 +330,24 @@ public class ExcessiveMessagingDetectionController extends AbstractDetectionCont
 		return highNWUtil;
 	}
 
-	private boolean analyzeNetworkUtilizationGrowth(DatasetCollection data, SpotterResult result,
-			Map<String, NumericPair<Double, Double>> speedThresholdPair) {
+	private boolean analyzeNetworkUtilizationGrowth(NetworkUtilizationCalculator nwUtilCalculator, int numSteps,
+			SpotterResult result, Map<String, NumericPair<Double, Double>> speedThresholdPair) {
 		boolean stagnationDetected = false;
-		Dataset nwDataset = data.getDataSet(NetworkRecord.class);
-		List<Integer> users = new ArrayList<>(nwDataset.getValueSet(AbstractDetectionController.NUMBER_OF_USERS_KEY,
-				Integer.class));
-		Collections.sort(users);
-		for (String node : nwDataset.getValueSet(NetworkRecord.PAR_PROCESS_ID, String.class)) {
-			interfaceLoop: for (String nwInterface : nwDataset.getValueSet(NetworkRecord.PAR_NETWORK_INTERFACE,
-					String.class)) {
+		for (String node : nwUtilCalculator.getNodes()) {
+			for (String nwInterface : nwUtilCalculator.getNetworkInterfaces(node)) {
+				NumericPairList<Integer, Double> utils = nwUtilCalculator.getUtilizations(node, nwInterface);
+				if (utils.size() < numSteps) {
+					continue;
+				}
 
 				String interfaceName = getInterfaceName(node, nwInterface);
-				double networkSpeed = speedThresholdPair.get(interfaceName).getKey();
 				double threshold = speedThresholdPair.get(interfaceName).getValue();
-				NumericPairList<Integer, Double> utils = new NumericPairList<>();
 
 				int numSignificantSteps = 0;
 				double prevUtil = -1;
 				double maxUtil = 0;
-				for (Integer numUsers : users) {
-					Dataset tmpDataset = ParameterSelection.newSelection()
-							.select(AbstractDetectionController.NUMBER_OF_USERS_KEY, numUsers)
-							.select(NetworkRecord.PAR_PROCESS_ID, node)
-							.select(NetworkRecord.PAR_NETWORK_INTERFACE, nwInterface).applyTo(nwDataset);
-					if (tmpDataset == null) {
-						continue interfaceLoop;
-					}
-					Set<Long> set = tmpDataset.getValueSet(NetworkRecord.PAR_TIMESTAMP, Long.class);
-					long startSend = LpeNumericUtils.min(set);
-					long endSend = LpeNumericUtils.max(set);
-					set = tmpDataset.getValueSet(NetworkRecord.PAR_TRANSFERRED_BYTES, Long.class);
-					long minNumSend = LpeNumericUtils.min(set);
-					long maxNumSend = LpeNumericUtils.max(set);
-					set = tmpDataset.getValueSet(NetworkRecord.PAR_RECEIVED_BYTES, Long.class);
-					long minNumReceived = LpeNumericUtils.min(set);
-					long maxNumReceived = LpeNumericUtils.max(set);
-
-					double sent = ((double) (maxNumSend - minNumSend) * 1000.0) / (double) (endSend - startSend);
-					double received = ((double) (maxNumReceived - minNumReceived) * 1000.0)
-							/ (double) (endSend - startSend);
-
-					double bandWidthUsage = Math.max(sent, received);
-					double util = bandWidthUsage / networkSpeed;
-					utils.add(numUsers, util);
+				for (NumericPair<Integer, Double> utilPair : utils) {
+					double util = utilPair.getValue();
 
 					if (maxUtil < util) {
 						maxUtil = util;
@@ -432,6 +381,14 @@ public class ExcessiveMessagingDetectionController extends AbstractDetectionCont
 		return stagnationDetected;
 	}
 
+	private int getNumberOfSteps(DatasetCollection data) {
+		Dataset nwDataset = data.getDataSet(NetworkRecord.class);
+		if (nwDataset == null) {
+			return 0;
+		}
+		return nwDataset.getValueSet(AbstractDetectionController.NUMBER_OF_USERS_KEY, Integer.class).size();
+	}
+
 	private String getInterfaceName(String node, String nwInterface) {
 		String interfaceName = node + "-" + nwInterface;
 		return interfaceName;
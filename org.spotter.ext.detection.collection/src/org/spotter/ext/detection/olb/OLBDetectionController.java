@@ -13,13 +13,13 @@ import org.aim.description.InstrumentationDescription;
 import org.aim.description.builder.InstrumentationDescriptionBuilder;
 import org.lpe.common.extension.IExtension;
 import org.spotter.core.ProgressManager;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.AbstractDetectionExtension;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.core.detection.IExperimentReuser;
 import org.spotter.exceptions.WorkloadException;
 import org.spotter.ext.detection.olb.strategies.QTStrategy;
 import org.spotter.ext.detection.olb.strategies.TTestCpuThresholdStrategy;
+import org.spotter.ext.detection.utils.AbstractProfiledDetectionController;
 import org.spotter.shared.result.model.SpotterResult;
 
 /**
@@ -28,7 +28,7 @@ import org.spotter.shared.result.model.SpotterResult;
  * @author Alexander Wert
  * 
  */
-public class OLBDetectionController extends AbstractDetectionController implements IExperimentReuser {
+public class OLBDetectionController extends AbstractProfiledDetectionController implements IExperimentReuser {
 
 	private static final int SAMPLING_DELAY = 100;
 
@@ -118,7 +118,7 @@ public class OLBDetectionController extends AbstractDetectionController implemen
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 		return analysisStrategyImpl.analyze(data);
 	}
 
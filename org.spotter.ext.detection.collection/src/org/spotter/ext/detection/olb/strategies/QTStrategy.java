@@ -34,6 +34,7 @@ import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.ext.detection.olb.IOLBAnalysisStrategy;
 import org.spotter.ext.detection.olb.OLBDetectionController;
 import org.spotter.ext.detection.olb.OLBExtension;
+import org.spotter.ext.detection.utils.NetworkUtilizationCalculator;
 import org.spotter.shared.result.model.SpotterResult;
 
 /**
@@ -45,9 +46,7 @@ import org.spotter.shared.result.model.SpotterResult;
 public class QTStrategy implements IOLBAnalysisStrategy {
 
 	private static final double ONE_PLUS_EPSILON = 1.1;
-	private static final long MS_IN_SECOND = 1000L;
 	private OLBDetectionController mainDetectionController;
-	private static final long SPEED_100MBIT = 100000000;
 	private static final double SIG_LEVEL = 0.05;
 	private static final int NUM_REQ_SIG_STEPS = 2;
 	private String scope;
@@ -107,9 +106,11 @@ public class QTStrategy implements IOLBAnalysisStrategy {
 		Map<String, NumericPairList<Integer, Double>> utilsMap = getCPUUtilizations(cpuUtilDataset, result,
 				numUsersList);
 
-		utilsMap.putAll(getNetworkUtilizations(networkIODataset, networkInfoDataset, result, numUsersList));
+		NetworkUtilizationCalculator nwUtilCalculator = new NetworkUtilizationCalculator(networkInfoDataset,
+				networkIODataset);
+		utilsMap.putAll(getNetworkUtilizations(nwUtilCalculator, result, numUsersList));
 		Map<String, Integer> numServersMap = getNumberOfCPUCores(cpuUtilDataset);
-		numServersMap.putAll(getNumberServers(networkInfoDataset));
+		numServersMap.putAll(getNumberServers(nwUtilCalculator));
 
 		// List<String> candidateOperations =
 		// analyseResponseTimesIncrease(result, numUsersList, responseTimesMap);
@@ -564,74 +565,30 @@ public class QTStrategy implements IOLBAnalysisStrategy {
 		return resultMap;
 	}
 
-	private Map<String, NumericPairList<Integer, Double>> getNetworkUtilizations(Dataset networkIODataset,
-			Dataset networkInfoDataset, SpotterResult result, final List<Integer> numUsersList) {
+	private Map<String, NumericPairList<Integer, Double>> getNetworkUtilizations(
+			NetworkUtilizationCalculator nwUtilCalculator, SpotterResult result, final List<Integer> numUsersList) {
 		Map<String, NumericPairList<Integer, Double>> resultMap = new HashMap<>();
 
-		for (String processID : networkInfoDataset.getValueSet(NetworkInterfaceInfoRecord.PAR_PROCESS_ID, String.class)) {
-			ParameterSelection processSelection = ParameterSelection.newSelection().select(
-					NetworkInterfaceInfoRecord.PAR_PROCESS_ID, processID);
-			Dataset processSpecificDataset = processSelection.applyTo(networkInfoDataset);
-			for (String nwInterfaceName : processSpecificDataset.getValueSet(
-					NetworkInterfaceInfoRecord.PAR_NETWORK_INTERFACE, String.class)) {
-				ParameterSelection nwInterfaceSelection = ParameterSelection.newSelection().select(
-						NetworkInterfaceInfoRecord.PAR_NETWORK_INTERFACE, nwInterfaceName);
-				Dataset nwInterfaceSpecificDataset = nwInterfaceSelection.applyTo(processSpecificDataset);
-				long tmpSpeed = nwInterfaceSpecificDataset.getValues(NetworkInterfaceInfoRecord.PAR_INTERFACE_SPEED,
-						Long.class).get(0);
-				if (tmpSpeed < 0L) {
-					tmpSpeed = SPEED_100MBIT;
+		for (String processID : nwUtilCalculator.getNodes()) {
+			for (String nwInterfaceName : nwUtilCalculator.getNetworkInterfaces(processID)) {
+				NumericPairList<Integer, Double> networkUtilPairList = nwUtilCalculator.getUtilizations(processID,
+						nwInterfaceName);
+				if (networkUtilPairList.size() < numUsersList.size()) {
+					// interface has not been monitored in each analysis cycle
+					continue;
 				}
-				double speed = ((double) tmpSpeed) / 8.0;
-				NumericPairList<Integer, Double> networkUtilPairList = new NumericPairList<>();
-
-				for (Integer numUsers : numUsersList) {
-					if (tmpSpeed == 0L) {
-						networkUtilPairList.add(numUsers, 0.0);
-						continue;
-					}
-					Dataset tmpNetowrkIODataset = ParameterSelection.newSelection()
-							.select(AbstractDetectionController.NUMBER_OF_USERS_KEY, numUsers)
-							.select(NetworkRecord.PAR_PROCESS_ID, processID)
-							.select(NetworkRecord.PAR_NETWORK_INTERFACE, nwInterfaceName).applyTo(networkIODataset);
-
-					List<Long> timestamps = tmpNetowrkIODataset.getValues(NetworkRecord.PAR_TIMESTAMP, Long.class);
-					long minTimestamp = LpeNumericUtils.min(timestamps);
-					long maxTimestamp = LpeNumericUtils.max(timestamps);
-
-					List<Long> receivedBytes = tmpNetowrkIODataset.getValues(NetworkRecord.PAR_RECEIVED_BYTES,
-							Long.class);
-					long minReceivedBytes = LpeNumericUtils.min(receivedBytes);
-					long maxReceivedBytes = LpeNumericUtils.max(receivedBytes);
-
-					List<Long> transferredBytes = tmpNetowrkIODataset.getValues(NetworkRecord.PAR_TRANSFERRED_BYTES,
-							Long.class);
-					long minTransferredBytes = LpeNumericUtils.min(transferredBytes);
-					long maxTransferredBytes = LpeNumericUtils.max(transferredBytes);
-
-					double utilReceived = (((double) (MS_IN_SECOND * (maxReceivedBytes - minReceivedBytes))) / ((double) (maxTimestamp - minTimestamp)))
-							/ speed;
-					double utilTransferred = (((double) (MS_IN_SECOND * (maxTransferredBytes - minTransferredBytes))) / ((double) (maxTimestamp - minTimestamp)))
-							/ speed;
-					networkUtilPairList.add(numUsers, Math.max(utilReceived, utilTransferred));
-				}
-
-				resultMap.put(processID + " - " + nwInterfaceName, networkUtilPairList);
-
+				resultMap.put(NetworkUtilizationCalculator.getInterfaceName(processID, nwInterfaceName),
+						networkUtilPairList);
 			}
 		}
 		return resultMap;
 	}
 
-	private Map<String, Integer> getNumberServers(Dataset networkInfoDataset) {
+	private Map<String, Integer> getNumberServers(NetworkUtilizationCalculator nwUtilCalculator) {
 		Map<String, Integer> numServers = new HashMap<>();
-		for (String processID : networkInfoDataset.getValueSet(NetworkInterfaceInfoRecord.PAR_PROCESS_ID, String.class)) {
-			ParameterSelection processSelection = ParameterSelection.newSelection().select(
-					NetworkInterfaceInfoRecord.PAR_PROCESS_ID, processID);
-			Dataset processSpecificDataset = processSelection.applyTo(networkInfoDataset);
-			for (String nwInterfaceName : processSpecificDataset.getValueSet(
-					NetworkInterfaceInfoRecord.PAR_NETWORK_INTERFACE, String.class)) {
-				numServers.put(processID + " - " + nwInterfaceName, 1);
+		for (String processID : nwUtilCalculator.getNodes()) {
+			for (String nwInterfaceName : nwUtilCalculator.getNetworkInterfaces(processID)) {
+				numServers.put(NetworkUtilizationCalculator.getInterfaceName(processID, nwInterfaceName), 1);
 			}
 		}
 
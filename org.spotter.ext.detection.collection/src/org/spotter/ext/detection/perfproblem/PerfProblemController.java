@@ -21,7 +21,6 @@ import org.aim.api.exceptions.InstrumentationException;
 import org.aim.api.exceptions.MeasurementException;
 import org.aim.api.measurement.dataset.Dataset;
 import org.aim.api.measurement.dataset.DatasetCollection;
-import org.aim.api.measurement.dataset.ParameterSelection;
 import org.aim.artifacts.probes.ResponsetimeProbe;
 import org.aim.artifacts.records.ResponseTimeRecord;
 import org.aim.artifacts.scopes.EntryPointScope;
@@ -32,10 +31,10 @@ import org.lpe.common.extension.IExtension;
 import org.lpe.common.util.NumericPairList;
 import org.spotter.core.ProgressManager;
 import org.spotter.core.chartbuilder.AnalysisChartBuilder;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.exceptions.WorkloadException;
-import org.spotter.ext.detection.utils.Utils;
+import org.spotter.ext.detection.utils.AbstractProfiledDetectionController;
+import org.spotter.ext.detection.utils.ResponseTimeSeries;
 import org.spotter.shared.configuration.ConfigKeys;
 import org.spotter.shared.result.model.SpotterResult;
 
@@ -45,7 +44,7 @@ import org.spotter.shared.result.model.SpotterResult;
  * @author Alexander Wert
  * 
  */
-public class PerfProblemController extends AbstractDetectionController {
+public class PerfProblemController extends AbstractProfiledDetectionController {
 
 	private static final double _100_PERCENT = 100.0;
 
@@ -78,7 +77,7 @@ public class PerfProblemController extends AbstractDetectionController {
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 
 		double perfReqThreshold = GlobalConfiguration.getInstance().getPropertyAsInteger(
 				ConfigKeys.PERFORMANCE_REQUIREMENT_THRESHOLD, ConfigKeys.DEFAULT_PERFORMANCE_REQUIREMENT_THRESHOLD);
@@ -96,12 +95,9 @@ public class PerfProblemController extends AbstractDetectionController {
 			return result;
 		}
 
-		for (String operation : rtDataset.getValueSet(ResponseTimeRecord.PAR_OPERATION, String.class)) {
-			ParameterSelection selectOperation = new ParameterSelection().select(ResponseTimeRecord.PAR_OPERATION,
-					operation);
-			Dataset operationSpecificDataset = selectOperation.applyTo(rtDataset);
-
-			NumericPairList<Long, Double> responseTimeSeries = Utils.toTimestampRTPairs(operationSpecificDataset);
+		ResponseTimeSeries rtSeries = ResponseTimeSeries.fromDataset(rtDataset);
+		for (String operation : rtSeries.getOperations()) {
+			NumericPairList<Long, Double> responseTimeSeries = rtSeries.getSeries(operation);
 			List<Double> responseTimes = responseTimeSeries.getValueList();
 			int reqViolationsCount = countRequirementViolations(perfReqThreshold, responseTimes);
 
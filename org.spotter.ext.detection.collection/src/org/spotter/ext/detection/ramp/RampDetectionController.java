@@ -20,15 +20,16 @@ import org.aim.api.exceptions.MeasurementException;
 import org.aim.api.measurement.dataset.DatasetCollection;
 import org.aim.description.InstrumentationDescription;
 import org.lpe.common.extension.IExtension;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.core.detection.IExperimentReuser;
 import org.spotter.core.measurement.IMeasurementAdapter;
 import org.spotter.core.workload.IWorkloadAdapter;
 import org.spotter.exceptions.WorkloadException;
+import org.spotter.ext.detection.ramp.strategies.ChangePointStrategy;
 import org.spotter.ext.detection.ramp.strategies.DirectGrowthStrategy;
 import org.spotter.ext.detection.ramp.strategies.LinearRegressionStrategy;
 import org.spotter.ext.detection.ramp.strategies.TimeWindowsStrategy;
+import org.spotter.ext.detection.utils.AbstractProfiledDetectionController;
 import org.spotter.shared.result.model.SpotterResult;
 
 /**
@@ -37,7 +38,7 @@ import org.spotter.shared.result.model.SpotterResult;
  * @author Alexander Wert
  * 
  */
-public class RampDetectionController extends AbstractDetectionController implements IExperimentReuser {
+public class RampDetectionController extends AbstractProfiledDetectionController implements IExperimentReuser {
 
 	private String analysisStrategy;
 	private IRampDetectionStrategy analysisStrategyImpl;
@@ -59,7 +60,7 @@ public class RampDetectionController extends AbstractDetectionController impleme
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 		return analysisStrategyImpl.analyze(data);
 	}
 
@@ -78,6 +79,9 @@ public class RampDetectionController extends AbstractDetectionController impleme
 		case RampExtension.LIN_REGRESSION_STRATEGY:
 			analysisStrategyImpl = new LinearRegressionStrategy();
 			break;
+		case RampExtension.CHANGE_POINT_STRATEGY:
+			analysisStrategyImpl = new ChangePointStrategy();
+			break;
 		default:
 			analysisStrategyImpl = new TimeWindowsStrategy();
 		}
@@ -36,6 +36,7 @@ public class RampExtension extends AbstractDetectionExtension {
 	protected static final String TIME_WINDOWS_STRATEGY = "time windows strategy";
 	protected static final String DIRECT_GROWTH_STRATEGY = "direct growth strategy";
 	protected static final String LIN_REGRESSION_STRATEGY = "linear regression strategy";
+	protected static final String CHANGE_POINT_STRATEGY = "change point strategy";
 
 	public static final String KEY_STIMULATION_PHASE_DURATION_FACTOR = "stimulationPhaseDurationFactor";
 	public static final String KEY_REQUIRED_SIGNIFICANT_STEPS = "numRequiredSignificantSteps";
@@ -43,12 +44,20 @@ public class RampExtension extends AbstractDetectionExtension {
 	public static final String KEY_CPU_UTILIZATION_THRESHOLD = "maxCpuUtilization";
 	public static final String KEY_EXPERIMENT_STEPS = "numExperiments";
 	public static final String KEY_LIN_SLOPE = "linear slope threhsold";
+	public static final String KEY_REGRESSION_ESTIMATOR = "regression estimator";
+	public static final String KEY_CHANGE_POINT_PENALTY = "changePointPenalty";
+	public static final String KEY_SEQUENTIAL_TESTING = "sequentialTesting";
+
+	public static final String LEAST_SQUARES_ESTIMATOR = "least squares";
+	public static final String THEIL_SEN_ESTIMATOR = "Theil-Sen";
 
 	public static final double STIMULATION_PHASE_DURATION_DEFAULT = 1.5; // [Sec]
 	public static final int EXPERIMENT_STEPS_DEFAULT = 3;
 	public static final double REQUIRED_SIGNIFICANCE_LEVEL_DEFAULT = 0.05; // [0-1]
 	public static final double LIN_SLOPE_DEFAULT = 0.01; // [ms / ms]
 	public static final int REQUIRED_SIGNIFICANT_STEPS_DEFAULT = 2;
+	public static final double CHANGE_POINT_PENALTY_DEFAULT = 2.0;
+	public static final boolean SEQUENTIAL_TESTING_DEFAULT = false;
 
 	@Override
 	public String getName() {
@@ -66,11 +75,46 @@ public class RampExtension extends AbstractDetectionExtension {
 	private ConfigParameterDescription createLinearSlopeThresholdParameter() {
 		ConfigParameterDescription parameter = new ConfigParameterDescription(KEY_LIN_SLOPE, LpeSupportedTypes.Double);
 		parameter.setDefaultValue(String.valueOf(LIN_SLOPE_DEFAULT));
-		parameter.setDescription("ONLY for Linear Regression Strategy! Defines the threshold for linear slope. "
+		parameter.setDescription("ONLY for Linear Regression and Change Point Strategy! "
+				+ "Defines the threshold for linear slope. "
 				+ "Growth of response times per time unit of experiment. [ms / ms]");
 		return parameter;
 	}
 
+	private ConfigParameterDescription createRegressionEstimatorParameter() {
+		ConfigParameterDescription parameter = new ConfigParameterDescription(KEY_REGRESSION_ESTIMATOR,
+				LpeSupportedTypes.String);
+		Set<String> options = new HashSet<>();
+		options.add(LEAST_SQUARES_ESTIMATOR);
+		options.add(THEIL_SEN_ESTIMATOR);
+		parameter.setOptions(options);
+		parameter.setDefaultValue(LEAST_SQUARES_ESTIMATOR);
+		parameter.setDescription("ONLY for Linear Regression Strategy! Estimator used for the regression slope. "
+				+ "Theil-Sen is robust against outliers.");
+		return parameter;
+	}
+
+	private ConfigParameterDescription createChangePointPenaltyParameter() {
+		ConfigParameterDescription parameter = new ConfigParameterDescription(KEY_CHANGE_POINT_PENALTY,
+				LpeSupportedTypes.Double);
+		parameter.setDefaultValue(String.valueOf(CHANGE_POINT_PENALTY_DEFAULT));
+		parameter.setRange(String.valueOf(0.0), String.valueOf(Double.MAX_VALUE));
+		parameter.setDescription("ONLY for Change Point Strategy! Penalty factor for each detected change point. "
+				+ "Larger values yield fewer change points.");
+		return parameter;
+	}
+
+	private ConfigParameterDescription createSequentialTestingParameter() {
+		ConfigParameterDescription parameter = new ConfigParameterDescription(KEY_SEQUENTIAL_TESTING,
+				LpeSupportedTypes.Boolean);
+		parameter.setMandatory(false);
+		parameter.setDefaultValue(String.valueOf(SEQUENTIAL_TESTING_DEFAULT));
+		parameter.setDescription("ONLY for Time Windows Strategy! If true, each experiment is analyzed "
+				+ "as soon as it finishes and the remaining experiments are skipped "
+				+ "once the detection decision is settled.");
+		return parameter;
+	}
+
 	private ConfigParameterDescription createNumExperimentsParameter() {
 		ConfigParameterDescription parameter = new ConfigParameterDescription(KEY_EXPERIMENT_STEPS,
 				LpeSupportedTypes.Integer);
@@ -110,6 +154,7 @@ public class RampExtension extends AbstractDetectionExtension {
 		scopeOptions.add(TIME_WINDOWS_STRATEGY);
 		scopeOptions.add(DIRECT_GROWTH_STRATEGY);
 		scopeOptions.add(LIN_REGRESSION_STRATEGY);
+		scopeOptions.add(CHANGE_POINT_STRATEGY);
 		scopeParameter.setOptions(scopeOptions);
 		scopeParameter.setDefaultValue(TIME_WINDOWS_STRATEGY);
 		scopeParameter.setDescription("This parameter determines the strategy, "
@@ -130,6 +175,9 @@ public class RampExtension extends AbstractDetectionExtension {
 		addConfigParameter(createRequiredSignificanceLevelParameter());
 		addConfigParameter(createRequiredSignificantStepsParameter());
 		addConfigParameter(createLinearSlopeThresholdParameter());
+		addConfigParameter(createRegressionEstimatorParameter());
+		addConfigParameter(createChangePointPenaltyParameter());
+		addConfigParameter(createSequentialTestingParameter());
 		addConfigParameter(createStrategyParameter());
 	}
 }
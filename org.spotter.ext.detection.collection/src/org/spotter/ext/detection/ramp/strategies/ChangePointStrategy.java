@@ -0,0 +1,175 @@
+package org.spotter.ext.detection.ramp.strategies;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+import org.aim.api.exceptions.InstrumentationException;
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.dataset.Dataset;
+import org.aim.api.measurement.dataset.DatasetCollection;
+import org.aim.api.measurement.dataset.ParameterSelection;
+import org.aim.artifacts.probes.ResponsetimeProbe;
+import org.aim.artifacts.records.ResponseTimeRecord;
+import org.aim.artifacts.scopes.EntryPointScope;
+import org.aim.description.InstrumentationDescription;
+import org.aim.description.builder.InstrumentationDescriptionBuilder;
+import org.lpe.common.util.NumericPairList;
+import org.spotter.core.ProgressManager;
+import org.spotter.core.chartbuilder.AnalysisChartBuilder;
+import org.spotter.ext.detection.ramp.IRampDetectionStrategy;
+import org.spotter.ext.detection.ramp.RampDetectionController;
+import org.spotter.ext.detection.ramp.RampExtension;
+import org.spotter.ext.detection.utils.ChangePointDetector;
+import org.spotter.shared.result.model.SpotterResult;
+
+/**
+ * Detects the Ramp in the response times of a single high load experiment by
+ * means of change point detection. The response time series of each operation
+ * is split into segments of constant mean. A Ramp is reported if the series
+ * ends with a staircase of increasing segments whose overall slope exceeds
+ * the linear slope threshold.
+ *
+ * @author agent
+ *
+ */
+public class ChangePointStrategy implements IRampDetectionStrategy {
+	private static final int MIN_SEGMENT_LENGTH = 30;
+
+	private RampDetectionController mainDetectionController;
+	private double slopeThreshold = RampExtension.LIN_SLOPE_DEFAULT;
+	private double penaltyFactor = RampExtension.CHANGE_POINT_PENALTY_DEFAULT;
+	private int requiredSignificantSteps = RampExtension.REQUIRED_SIGNIFICANT_STEPS_DEFAULT;
+
+	@Override
+	public void setProblemDetectionConfiguration(Properties problemDetectionConfiguration) {
+		String slopeThresholdStr = problemDetectionConfiguration.getProperty(RampExtension.KEY_LIN_SLOPE);
+		slopeThreshold = slopeThresholdStr != null ? Double.parseDouble(slopeThresholdStr)
+				: RampExtension.LIN_SLOPE_DEFAULT;
+
+		String penaltyStr = problemDetectionConfiguration.getProperty(RampExtension.KEY_CHANGE_POINT_PENALTY);
+		penaltyFactor = penaltyStr != null ? Double.parseDouble(penaltyStr)
+				: RampExtension.CHANGE_POINT_PENALTY_DEFAULT;
+
+		String significanceStepsStr = problemDetectionConfiguration
+				.getProperty(RampExtension.KEY_REQUIRED_SIGNIFICANT_STEPS);
+		requiredSignificantSteps = significanceStepsStr != null ? Integer.parseInt(significanceStepsStr)
+				: RampExtension.REQUIRED_SIGNIFICANT_STEPS_DEFAULT;
+	}
+
+	@Override
+	public void setMainDetectionController(RampDetectionController mainDetectionController) {
+		this.mainDetectionController = mainDetectionController;
+
+	}
+
+	@Override
+	public void executeExperiments() throws InstrumentationException, MeasurementException {
+		mainDetectionController.executeHighLoadExperiment(getInstrumentationDescription());
+	}
+
+	@Override
+	public SpotterResult analyze(DatasetCollection data) {
+		SpotterResult result = new SpotterResult();
+		result.setDetected(false);
+
+		Dataset rtDataset = data.getDataSet(ResponseTimeRecord.class);
+
+		if (rtDataset == null || rtDataset.size() == 0) {
+			result.setDetected(false);
+			result.addMessage("Instrumentation achieved no results for the given scope!");
+			return result;
+		}
+
+		for (String operation : rtDataset.getValueSet(ResponseTimeRecord.PAR_OPERATION, String.class)) {
+			ParameterSelection selectOperation = new ParameterSelection().select(ResponseTimeRecord.PAR_OPERATION,
+					operation);
+			Dataset operationSpecificDataset = selectOperation.applyTo(rtDataset);
+			if (operationSpecificDataset == null) {
+				continue;
+			}
+
+			List<ResponseTimeRecord> records = operationSpecificDataset.getRecords(ResponseTimeRecord.class);
+			ResponseTimeRecord[] sortedRecords = records.toArray(new ResponseTimeRecord[records.size()]);
+			// sort chronologically
+			Arrays.sort(sortedRecords, new Comparator<ResponseTimeRecord>() {
+				@Override
+				public int compare(ResponseTimeRecord o1, ResponseTimeRecord o2) {
+					return Long.compare(o1.getTimeStamp(), o2.getTimeStamp());
+				}
+			});
+			long[] timestamps = new long[sortedRecords.length];
+			double[] responseTimes = new double[sortedRecords.length];
+			for (int i = 0; i < sortedRecords.length; i++) {
+				timestamps[i] = sortedRecords[i].getTimeStamp();
+				responseTimes[i] = sortedRecords[i].getResponseTime();
+			}
+
+			int[] changePoints = ChangePointDetector.detect(responseTimes, penaltyFactor, MIN_SEGMENT_LENGTH);
+			double[] segmentMeans = ChangePointDetector.segmentMeans(responseTimes, changePoints);
+
+			// find the onset of the trailing staircase of increasing segments
+			int onsetSegment = segmentMeans.length - 1;
+			while (onsetSegment > 0 && segmentMeans[onsetSegment - 1] < segmentMeans[onsetSegment]) {
+				onsetSegment--;
+			}
+			int numIncreasingSteps = segmentMeans.length - 1 - onsetSegment;
+
+			if (numIncreasingSteps > 0) {
+				long onsetTimestamp = onsetSegment == 0 ? timestamps[0] : timestamps[changePoints[onsetSegment - 1]];
+				long lastSegmentStart = timestamps[changePoints[changePoints.length - 1]];
+				long lastSegmentCenter = lastSegmentStart + (timestamps[timestamps.length - 1] - lastSegmentStart)
+						/ 2L;
+				double slope = (segmentMeans[segmentMeans.length - 1] - segmentMeans[onsetSegment])
+						/ (double) Math.max(1L, lastSegmentCenter - onsetTimestamp);
+
+				if (numIncreasingSteps >= requiredSignificantSteps && slope > slopeThreshold) {
+					result.addMessage("Ramp detected in operation: " + operation + " (onset after "
+							+ (onsetTimestamp - timestamps[0]) + " ms, slope: " + slope + " ms/ms)");
+					result.setDetected(true);
+				}
+			}
+
+			createChart(result, operation, timestamps, changePoints, segmentMeans);
+		}
+
+		return result;
+	}
+
+	private void createChart(SpotterResult result, String operation, long[] timestamps, int[] changePoints,
+			double[] segmentMeans) {
+		if (timestamps.length == 0) {
+			return;
+		}
+		NumericPairList<Long, Double> segmentPoints = new NumericPairList<>();
+		for (int s = 0; s < segmentMeans.length; s++) {
+			long start = s == 0 ? timestamps[0] : timestamps[changePoints[s - 1]];
+			long end = s < changePoints.length ? timestamps[changePoints[s]] : timestamps[timestamps.length - 1];
+			segmentPoints.add(start, segmentMeans[s]);
+			segmentPoints.add(end, segmentMeans[s]);
+		}
+
+		AnalysisChartBuilder chartBuilder = AnalysisChartBuilder.getChartBuilder();
+		String operationName = operation.contains("(") ? operation.substring(0, operation.indexOf("(")) : operation;
+		chartBuilder.startChart(operationName, "Experiment Time [ms]", "Response Time [ms]");
+		chartBuilder.addTimeSeriesWithLine(segmentPoints, "Segment Means");
+		mainDetectionController.getResultManager().storeImageChartResource(chartBuilder, "Ramp Detection (CP)",
+				result);
+	}
+
+	@Override
+	public long getExperimentSeriesDuration() {
+		return ProgressManager.getInstance().calculateDefaultExperimentSeriesDuration(1);
+	}
+
+	@Override
+	public InstrumentationDescription getInstrumentationDescription() {
+		InstrumentationDescriptionBuilder idBuilder = new InstrumentationDescriptionBuilder();
+		idBuilder.newAPIScopeEntity(EntryPointScope.class.getName()).addProbe(ResponsetimeProbe.MODEL_PROBE)
+				.entityDone();
+		return idBuilder.build();
+
+	}
+
+}
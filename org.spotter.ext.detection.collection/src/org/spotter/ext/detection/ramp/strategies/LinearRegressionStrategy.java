@@ -12,20 +12,20 @@ import org.aim.artifacts.records.ResponseTimeRecord;
 import org.aim.artifacts.scopes.EntryPointScope;
 import org.aim.description.InstrumentationDescription;
 import org.aim.description.builder.InstrumentationDescriptionBuilder;
-import org.apache.commons.math3.stat.regression.SimpleRegression;
-import org.lpe.common.util.LpeNumericUtils;
 import org.lpe.common.util.NumericPairList;
 import org.spotter.core.ProgressManager;
 import org.spotter.core.chartbuilder.AnalysisChartBuilder;
 import org.spotter.ext.detection.ramp.IRampDetectionStrategy;
 import org.spotter.ext.detection.ramp.RampDetectionController;
 import org.spotter.ext.detection.ramp.RampExtension;
-import org.spotter.ext.detection.utils.Utils;
+import org.spotter.ext.detection.utils.OnlineRegression;
 import org.spotter.shared.result.model.SpotterResult;
 
 public class LinearRegressionStrategy implements IRampDetectionStrategy {
 	private RampDetectionController mainDetectionController;
 	private double slopeThreshold = RampExtension.LIN_SLOPE_DEFAULT;
+	private boolean robustEstimator = false;
+	private double significanceLevel = RampExtension.REQUIRED_SIGNIFICANCE_LEVEL_DEFAULT;
 
 	@Override
 	public void setProblemDetectionConfiguration(Properties problemDetectionConfiguration) {
@@ -33,6 +33,13 @@ public class LinearRegressionStrategy implements IRampDetectionStrategy {
 		slopeThreshold = slopeThresholdStr != null ? Double.parseDouble(slopeThresholdStr)
 				: RampExtension.LIN_SLOPE_DEFAULT;
 
+		robustEstimator = RampExtension.THEIL_SEN_ESTIMATOR.equals(problemDetectionConfiguration.getProperty(
+				RampExtension.KEY_REGRESSION_ESTIMATOR, RampExtension.LEAST_SQUARES_ESTIMATOR));
+
+		String significanceLevelStr = problemDetectionConfiguration
+				.getProperty(RampExtension.KEY_REQUIRED_SIGNIFICANCE_LEVEL);
+		significanceLevel = significanceLevelStr != null ? Double.parseDouble(significanceLevelStr)
+				: RampExtension.REQUIRED_SIGNIFICANCE_LEVEL_DEFAULT;
 	}
 
 	@Override
@@ -64,33 +71,43 @@ public class LinearRegressionStrategy implements IRampDetectionStrategy {
 					operation);
 			Dataset operationSpecificDataset = selectOperation.applyTo(rtDataset);
 
-			NumericPairList<Long, Double> responseTimeSeries = Utils.toTimestampRTPairs(operationSpecificDataset);
-			// sort chronologically
-			responseTimeSeries.sort();
-
-			SimpleRegression regression = LpeNumericUtils.linearRegression(responseTimeSeries);
+			OnlineRegression regression = new OnlineRegression(robustEstimator ? OnlineRegression.DEFAULT_ROBUST_SAMPLE_SIZE
+					: 0);
+			for (ResponseTimeRecord rtRecord : operationSpecificDataset.getRecords(ResponseTimeRecord.class)) {
+				regression.add(rtRecord.getTimeStamp(), rtRecord.getResponseTime());
+			}
+			if (regression.getN() < 2) {
+				continue;
+			}
 
-			double slope = regression.getSlope();
+			double slope = robustEstimator ? regression.getRobustSlope() : regression.getSlope();
 			if (slope > slopeThreshold) {
-				result.addMessage("Ramp detected in operation: " + operation);
+				double lowerBound = robustEstimator ? regression.getRobustSlopeLowerBound(significanceLevel)
+						: regression.getSlopeLowerBound(significanceLevel);
+				double upperBound = robustEstimator ? regression.getRobustSlopeUpperBound(significanceLevel)
+						: regression.getSlopeUpperBound(significanceLevel);
+				result.addMessage("Ramp detected in operation: " + operation + " (slope: " + slope + ", "
+						+ (int) ((1.0 - significanceLevel) * 100.0) + "% confidence interval: [" + lowerBound
+						+ ", " + upperBound + "])");
 				result.setDetected(true);
 			}
 
-			createChart(result, operation, responseTimeSeries, regression);
+			createChart(result, operation, regression);
 		}
 
 		return result;
 	}
 
-	private void createChart(SpotterResult result, String operation, NumericPairList<Long, Double> responseTimeSeries,
-			SimpleRegression regression) {
+	private void createChart(SpotterResult result, String operation, OnlineRegression regression) {
 		NumericPairList<Long, Double> linRegressionPoints = new NumericPairList<>();
 		NumericPairList<Long, Double> thresholdPoints = new NumericPairList<>();
-		long minTimestamp = responseTimeSeries.getKeyMin();
-		long maxTimestamp = responseTimeSeries.getKeyMax();
-		double intercept = regression.predict(minTimestamp);
+		long minTimestamp = (long) regression.getMinX();
+		long maxTimestamp = (long) regression.getMaxX();
+		double slope = robustEstimator ? regression.getRobustSlope() : regression.getSlope();
+		double intercept = (robustEstimator ? regression.getRobustIntercept() : regression.getIntercept()) + slope
+				* minTimestamp;
 		linRegressionPoints.add(minTimestamp, intercept);
-		linRegressionPoints.add(maxTimestamp, regression.predict(maxTimestamp));
+		linRegressionPoints.add(maxTimestamp, slope * (double) (maxTimestamp - minTimestamp) + intercept);
 		thresholdPoints.add(minTimestamp, intercept);
 		thresholdPoints.add(maxTimestamp, slopeThreshold * (double) (maxTimestamp - minTimestamp) + intercept);
 
@@ -8,6 +8,7 @@ import java.util.TreeSet;
 
 import org.aim.api.exceptions.InstrumentationException;
 import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.MeasurementData;
 import org.aim.api.measurement.dataset.Dataset;
 import org.aim.api.measurement.dataset.DatasetCollection;
 import org.aim.api.measurement.dataset.Parameter;
@@ -30,6 +31,13 @@ import org.spotter.exceptions.WorkloadException;
 import org.spotter.ext.detection.ramp.IRampDetectionStrategy;
 import org.spotter.ext.detection.ramp.RampDetectionController;
 import org.spotter.ext.detection.ramp.RampExtension;
+import org.spotter.ext.detection.utils.CachingStepComparator;
+import org.spotter.ext.detection.utils.IStepComparator;
+import org.spotter.ext.detection.utils.SequentialSeriesTest;
+import org.spotter.ext.detection.utils.SequentialStepTest.Decision;
+import org.spotter.ext.detection.utils.StatisticsUtils;
+import org.spotter.ext.detection.utils.StepComparison;
+import org.spotter.ext.detection.utils.Utils;
 import org.spotter.shared.configuration.ConfigKeys;
 import org.spotter.shared.result.model.SpotterResult;
 import org.spotter.shared.status.DiagnosisStatus;
@@ -40,15 +48,18 @@ import org.spotter.shared.status.DiagnosisStatus;
  * @author Alexander Wert
  * 
  */
-public class TimeWindowsStrategy implements IRampDetectionStrategy {
+public class TimeWindowsStrategy implements IRampDetectionStrategy, IStepComparator {
 	private static final Logger LOGGER = LoggerFactory.getLogger(TimeWindowsStrategy.class);
 	private static final String STEP = "step";
+	private static final String COMPARISON_ARTEFACT = "ramp-tw-rt-comparison-v1";
 
-	private static int stimulationPhaseDuration;
-	private static int experimentSteps;
-	private static int reuiqredSignificanceSteps;
-	private static double requiredSignificanceLevel;
+	private int stimulationPhaseDuration;
+	private int experimentSteps;
+	private int reuiqredSignificanceSteps;
+	private double requiredSignificanceLevel;
+	private boolean sequentialTesting;
 	private RampDetectionController mainDetectionController;
+	private final IStepComparator cachedComparator = new CachingStepComparator(COMPARISON_ARTEFACT, this);
 
 	@Override
 	public void setProblemDetectionConfiguration(Properties problemDetectionConfiguration) {
@@ -71,6 +82,10 @@ public class TimeWindowsStrategy implements IRampDetectionStrategy {
 				.getProperty(RampExtension.KEY_REQUIRED_SIGNIFICANCE_LEVEL);
 		requiredSignificanceLevel = significanceLevelStr != null ? Double.parseDouble(significanceLevelStr)
 				: RampExtension.REQUIRED_SIGNIFICANCE_LEVEL_DEFAULT;
+
+		String sequentialTestingStr = problemDetectionConfiguration.getProperty(RampExtension.KEY_SEQUENTIAL_TESTING);
+		sequentialTesting = sequentialTestingStr != null ? Boolean.parseBoolean(sequentialTestingStr)
+				: RampExtension.SEQUENTIAL_TESTING_DEFAULT;
 	}
 
 	@Override
@@ -79,6 +94,8 @@ public class TimeWindowsStrategy implements IRampDetectionStrategy {
 
 			mainDetectionController.instrument(getInstrumentationDescription());
 
+			SequentialSeriesTest seriesTest = sequentialTesting ? new SequentialSeriesTest(experimentSteps,
+					reuiqredSignificanceSteps, requiredSignificanceLevel, this) : null;
 			for (int i = 1; i <= experimentSteps; i++) {
 
 				if (i > 1) {
@@ -91,9 +108,17 @@ public class TimeWindowsStrategy implements IRampDetectionStrategy {
 				}
 
 				LOGGER.info("RampDetectionController started to run a single user experiment.");
-				runExperiment(1, i);
+				MeasurementData data = runExperiment(1, i, seriesTest != null);
 				LOGGER.info("RampDetectionController finalized to run a single user experiment.");
 
+				if (seriesTest != null) {
+					Decision decision = seriesTest.addStep(Utils.getResponseTimesPerOperation(data.getRecords()));
+					if (decision != Decision.CONTINUE && i < experimentSteps) {
+						LOGGER.info("Ramp decision ({}) settled after {} of {} experiments.", decision, i,
+								experimentSteps);
+						break;
+					}
+				}
 			}
 
 			mainDetectionController.uninstrument();
@@ -104,7 +129,13 @@ public class TimeWindowsStrategy implements IRampDetectionStrategy {
 
 	}
 
-	private void runExperiment(int numUsers, int stepNumber) throws WorkloadException, MeasurementException {
+	/**
+	 * Runs an experiment and stores its data.
+	 * 
+	 * @return the measured data if it has to be kept, otherwise null
+	 */
+	private MeasurementData runExperiment(int numUsers, int stepNumber, boolean keepData) throws WorkloadException,
+			MeasurementException {
 
 		LOGGER.info("Ramp Detection (TimeWindowStrategy) started experiment with {} users ...", numUsers);
 
@@ -151,6 +182,10 @@ public class TimeWindowsStrategy implements IRampDetectionStrategy {
 		ProgressManager.getInstance().addAdditionalDuration(
 				(System.currentTimeMillis() - dataCollectionStart) / AbstractDetectionController.SECOND);
 		LOGGER.info("Data stored!");
+		if (keepData) {
+			return mainDetectionController.measurementAdapter().getMeasurementData();
+		}
+		return null;
 	}
 
 	private void stimulateSystem(int duration) throws WorkloadException {
@@ -236,10 +271,6 @@ public class TimeWindowsStrategy implements IRampDetectionStrategy {
 					Dataset datasetCurrent = selectionCurrent.applyTo(rtDataset);
 					Dataset datasetPrev = selectionPrev.applyTo(rtDataset);
 
-					double prevMean = LpeNumericUtils.average(datasetPrev.getValues(
-							ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class));
-					double currentMean = LpeNumericUtils.average(datasetCurrent.getValues(
-							ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class));
 					// maybe the operation could not be found in one of the
 					// current
 					// selections
@@ -247,16 +278,13 @@ public class TimeWindowsStrategy implements IRampDetectionStrategy {
 						prevStep = step;
 						continue;
 					}
-					List<Double> sums1 = new ArrayList<>();
-					List<Double> sums2 = new ArrayList<>();
-					double pValue = 0.0;
-
-					LpeNumericUtils.createNormalDistributionByBootstrapping(
-							datasetPrev.getValues(ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class),
-							datasetCurrent.getValues(ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class), sums1, sums2);
-					pValue = LpeNumericUtils.tTest(sums2, sums1);
+					StepComparison comparison = cachedComparator.compare(StatisticsUtils.toArray(datasetPrev.getValues(
+							ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class)), StatisticsUtils.toArray(datasetCurrent
+							.getValues(ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class)));
+					double[] sums1 = comparison.getPreviousDistribution();
+					double[] sums2 = comparison.getCurrentDistribution();
 
-					if (pValue <= requiredSignificanceLevel && currentMean > prevMean) {
+					if (comparison.isSignificantIncrease(requiredSignificanceLevel)) {
 						if (firstSignificantStep < 0) {
 							firstSignificantStep = prevStep;
 						}
@@ -268,22 +296,22 @@ public class TimeWindowsStrategy implements IRampDetectionStrategy {
 
 					// create data for chart
 					if (prevStep == 1) {
-						for (Double value : sums1) {
+						for (double value : sums1) {
 							chartData.add(prevStep, value);
 
 						}
-						chartDataMeans.add(prevStep, LpeNumericUtils.average(sums1));
-						double stdDev = LpeNumericUtils.stdDev(sums1);
-						double width = LpeNumericUtils.getConfidenceIntervalWidth(sums1.size(), stdDev,
+						chartDataMeans.add(prevStep, StatisticsUtils.mean(sums1));
+						double stdDev = StatisticsUtils.stdDev(sums1);
+						double width = LpeNumericUtils.getConfidenceIntervalWidth(sums1.length, stdDev,
 								requiredSignificanceLevel);
 						confidenceIntervals.add(width / 2.0);
 					}
-					for (Double value : sums2) {
+					for (double value : sums2) {
 						chartData.add(step, value);
 					}
-					chartDataMeans.add(step, LpeNumericUtils.average(sums2));
-					double stdDev = LpeNumericUtils.stdDev(sums2);
-					double width = LpeNumericUtils.getConfidenceIntervalWidth(sums2.size(), stdDev,
+					chartDataMeans.add(step, StatisticsUtils.mean(sums2));
+					double stdDev = StatisticsUtils.stdDev(sums2);
+					double width = LpeNumericUtils.getConfidenceIntervalWidth(sums2.length, stdDev,
 							requiredSignificanceLevel);
 					confidenceIntervals.add(width / 2.0);
 				}
@@ -300,6 +328,27 @@ public class TimeWindowsStrategy implements IRampDetectionStrategy {
 		}
 	}
 
+	/**
+	 * Compares the response times of two steps by a t-test on their
+	 * bootstrapped means. The increase is decided by the means of the
+	 * response times themselves.
+	 */
+	@Override
+	public StepComparison compare(double[] previousSample, double[] currentSample) {
+		List<Double> sums1 = new ArrayList<>();
+		List<Double> sums2 = new ArrayList<>();
+		double pValue = Double.NaN;
+		if (previousSample.length > 0 && currentSample.length > 0) {
+			LpeNumericUtils.createNormalDistributionByBootstrapping(StatisticsUtils.toList(previousSample),
+					StatisticsUtils.toList(currentSample), sums1, sums2);
+			if (sums1.size() >= 2 && sums2.size() >= 2) {
+				pValue = LpeNumericUtils.tTest(sums2, sums1);
+			}
+		}
+		return new StepComparison(StatisticsUtils.toArray(sums1), StatisticsUtils.toArray(sums2),
+				StatisticsUtils.mean(previousSample), StatisticsUtils.mean(currentSample), pValue);
+	}
+
 	private void createChart(String operation, SpotterResult result, NumericPairList<Integer, Double> chartData,
 			NumericPairList<Integer, Double> chartDataMeans, List<Number> confidenceIntervals) {
 		AnalysisChartBuilder chartBuilder = AnalysisChartBuilder.getChartBuilder();
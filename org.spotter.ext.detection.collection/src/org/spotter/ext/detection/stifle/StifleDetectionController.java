@@ -23,16 +23,16 @@ import org.aim.description.InstrumentationDescription;
 import org.aim.description.builder.InstrumentationDescriptionBuilder;
 import org.lpe.common.extension.IExtension;
 import org.lpe.common.util.LpeNumericUtils;
-import org.lpe.common.util.LpeStringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spotter.core.ProgressManager;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.exceptions.WorkloadException;
+import org.spotter.ext.detection.utils.AbstractProfiledDetectionController;
+import org.spotter.ext.detection.utils.GeneralizedQueries;
 import org.spotter.shared.result.model.SpotterResult;
 
-public class StifleDetectionController extends AbstractDetectionController {
+public class StifleDetectionController extends AbstractProfiledDetectionController {
 	private static final Logger LOGGER = LoggerFactory.getLogger(StifleDetectionController.class);
 
 	public StifleDetectionController(IExtension<IDetectionController> provider) {
@@ -63,7 +63,7 @@ public class StifleDetectionController extends AbstractDetectionController {
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 
 		LOGGER.info("Fetching datasets.");
 
@@ -233,6 +233,11 @@ public class StifleDetectionController extends AbstractDetectionController {
 		}
 
 		Map<String, List<StifleQuery>> stifleQueries = new HashMap<>();
+		List<String> queries = new ArrayList<>();
+		for (SQLQueryRecord sqlRecord : sqlRecords) {
+			queries.add(sqlRecord.getQueryString());
+		}
+		GeneralizedQueries generalizedQueries = GeneralizedQueries.of(queries);
 
 		// in this loop we will always be one index ahead of the element we
 		// currently analyze
@@ -261,26 +266,7 @@ public class StifleDetectionController extends AbstractDetectionController {
 			Map<String, Integer> potentialStifles = new HashMap<>();
 			while (sqlIndex < sqlRecords.size() && sqlRecords.get(sqlIndex).getCallId() <= nextRTCallId) {
 
-				String query = sqlRecords.get(sqlIndex).getQueryString();
-				String sql = query;
-				String generalizedSql = LpeStringUtils.getGeneralizedQuery(sql);
-				if (generalizedSql == null) {
-					if (sql.contains("$")) {
-						int idx_1 = sql.indexOf(",", sql.indexOf("$"));
-						int idx_2 = sql.indexOf(" ", sql.indexOf("$"));
-						if (idx_1 < 0 && idx_2 < 0) {
-							idx_1 = sql.length();
-						}
-						idx_1 = idx_1 < 0 ? Integer.MAX_VALUE : idx_1;
-						idx_2 = idx_2 < 0 ? Integer.MAX_VALUE : idx_2;
-						int endIndex = Math.min(idx_1, idx_2);
-						String name = sql.substring(sql.indexOf("$"), endIndex);
-						generalizedSql = sql.replace(name, "tmp");
-					} else {
-						generalizedSql = sql;
-					}
-				}
-				query = generalizedSql;
+				String query = generalizedQueries.get(sqlRecords.get(sqlIndex).getQueryString());
 
 				sqlIndex++;
 				boolean found = false;
@@ -1,7 +1,10 @@
 package org.spotter.ext.detection.trafficJam;
 
+import java.util.List;
+
 import org.aim.api.exceptions.InstrumentationException;
 import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
 import org.aim.api.measurement.dataset.Dataset;
 import org.aim.api.measurement.dataset.DatasetCollection;
 import org.aim.artifacts.probes.ResponsetimeProbe;
@@ -11,18 +14,24 @@ import org.aim.description.InstrumentationDescription;
 import org.aim.description.builder.InstrumentationDescriptionBuilder;
 import org.lpe.common.extension.IExtension;
 import org.spotter.core.ProgressManager;
-import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.core.detection.IDetectionController;
 import org.spotter.exceptions.WorkloadException;
 import org.spotter.ext.detection.trafficJam.strategies.LinearRegression;
 import org.spotter.ext.detection.trafficJam.strategies.TTestStrategy;
+import org.spotter.ext.detection.utils.AbstractSequentialDetectionController;
+import org.spotter.ext.detection.utils.IStepComparator;
+import org.spotter.ext.detection.utils.SequentialSeriesTest;
+import org.spotter.ext.detection.utils.Utils;
 import org.spotter.shared.result.model.SpotterResult;
 
-public class TrafficJamDetectionController extends AbstractDetectionController {
+public class TrafficJamDetectionController extends AbstractSequentialDetectionController {
 
 	private String analysisStrategy;
 	private ITrafficJamStrategy analysisStrategyImpl;
 	private int experimentSteps;
+	private boolean sequentialTesting;
+	private int requiredSignificantSteps;
+	private double requiredSignificanceLevel;
 
 	public TrafficJamDetectionController(IExtension<IDetectionController> provider) {
 		super(provider);
@@ -35,6 +44,21 @@ public class TrafficJamDetectionController extends AbstractDetectionController {
 		experimentSteps = experimentStepsStr != null ? Integer.parseInt(experimentStepsStr)
 				: TrafficJamExtension.EXPERIMENT_STEPS_DEFAULT;
 
+		String sequentialTestingStr = getProblemDetectionConfiguration().getProperty(
+				TrafficJamExtension.SEQUENTIAL_TESTING_KEY);
+		sequentialTesting = sequentialTestingStr != null ? Boolean.parseBoolean(sequentialTestingStr)
+				: TrafficJamExtension.SEQUENTIAL_TESTING_DEFAULT;
+
+		String requiredSignificantStepsStr = getProblemDetectionConfiguration().getProperty(
+				TrafficJamExtension.REQUIRED_SIGNIFICANT_STEPS_KEY);
+		requiredSignificantSteps = requiredSignificantStepsStr != null ? Integer.parseInt(requiredSignificantStepsStr)
+				: TrafficJamExtension.REQUIRED_SIGNIFICANT_STEPS_DEFAULT;
+
+		String requiredConfidenceLevelStr = getProblemDetectionConfiguration().getProperty(
+				TrafficJamExtension.REQUIRED_CONFIDENCE_LEVEL_KEY);
+		requiredSignificanceLevel = 1.0 - (requiredConfidenceLevelStr != null ? Double
+				.parseDouble(requiredConfidenceLevelStr) : TrafficJamExtension.REQUIRED_CONFIDENCE_LEVEL_DEFAULT);
+
 		analysisStrategy = getProblemDetectionConfiguration().getProperty(TrafficJamExtension.DETECTION_STRATEGY_KEY,
 				TrafficJamExtension.T_TEST_STRATEGY);
 
@@ -60,8 +84,24 @@ public class TrafficJamDetectionController extends AbstractDetectionController {
 
 	@Override
 	public void executeExperiments() throws InstrumentationException, MeasurementException, WorkloadException {
-		executeDefaultExperimentSeries(this, experimentSteps, getInstrumentationDescription());
+		if (sequentialTesting && analysisStrategyImpl instanceof IStepComparator) {
+			// the interim tests compare the steps like the final analysis
+			executeSequentialExperimentSeries(new SequentialSeriesTest(experimentSteps, requiredSignificantSteps,
+					requiredSignificanceLevel, (IStepComparator) analysisStrategyImpl), experimentSteps,
+					getInstrumentationDescription());
+		} else {
+			executeDefaultExperimentSeries(this, experimentSteps, getInstrumentationDescription());
+		}
+	}
 
+	/**
+	 * Compares the response times of a finished experiment to the previous
+	 * one. The series stops as soon as a Traffic Jam is detected in one
+	 * operation or cannot be detected anymore in any operation.
+	 */
+	@Override
+	protected void evaluateExperiment(SequentialSeriesTest test, int numUsers, List<AbstractRecord> records) {
+		test.addStep(Utils.getResponseTimesPerOperation(records));
 	}
 
 	private InstrumentationDescription getInstrumentationDescription() {
@@ -73,7 +113,7 @@ public class TrafficJamDetectionController extends AbstractDetectionController {
 	}
 
 	@Override
-	protected SpotterResult analyze(DatasetCollection data) {
+	protected SpotterResult analyzeData(DatasetCollection data) {
 		SpotterResult result = new SpotterResult();
 
 		Dataset rtDataset = data.getDataSet(ResponseTimeRecord.class);
@@ -87,6 +127,8 @@ public class TrafficJamDetectionController extends AbstractDetectionController {
 		for (String operation : rtDataset.getValueSet(ResponseTimeRecord.PAR_OPERATION, String.class)) {
 
 			boolean operationDetected = false;
+			// the strategies select the data, test and render charts in one go
+			startPhase("strategy", operation);
 			try {
 				operationDetected = analysisStrategyImpl.analyseOperationResponseTimes(rtDataset, operation, result);
 			} catch (NullPointerException npe) {
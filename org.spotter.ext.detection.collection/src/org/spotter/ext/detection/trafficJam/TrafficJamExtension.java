@@ -7,6 +7,7 @@ import org.lpe.common.config.ConfigParameterDescription;
 import org.lpe.common.util.LpeSupportedTypes;
 import org.spotter.core.detection.AbstractDetectionExtension;
 import org.spotter.core.detection.IDetectionController;
+import org.spotter.ext.detection.ramp.RampExtension;
 
 public class TrafficJamExtension extends AbstractDetectionExtension {
 	private static final String EXTENSION_DESCRIPTION = "Traffic Jam represents a scalability problem, "
@@ -15,11 +16,14 @@ public class TrafficJamExtension extends AbstractDetectionExtension {
 	public static final String REQUIRED_SIGNIFICANT_STEPS_KEY = "numSignificantSteps";
 	public static final String REGRESSION_SLOPE_KEY = "regression slope threshold"; 
 	public static final String EXPERIMENT_STEPS_KEY = "numExperiments";
+	public static final String SEQUENTIAL_TESTING_KEY = "sequentialTesting";
+	public static final String REGRESSION_ESTIMATOR_KEY = "regression estimator";
 
 	public static final double REQUIRED_CONFIDENCE_LEVEL_DEFAULT = 0.95;
 	public static final double REGRESSION_SLOPE_DEFAULT = 10.0;
 	public static final int REQUIRED_SIGNIFICANT_STEPS_DEFAULT = 2;
 	public static final int EXPERIMENT_STEPS_DEFAULT = 4;
+	public static final boolean SEQUENTIAL_TESTING_DEFAULT = false;
 
 	protected static final String DETECTION_STRATEGY_KEY = "strategy";
 	protected static final String T_TEST_STRATEGY = "t-Test strategy";
@@ -45,6 +49,17 @@ public class TrafficJamExtension extends AbstractDetectionExtension {
 		return numExperimentsParameter;
 	}
 
+	private ConfigParameterDescription createSequentialTestingParameter() {
+		ConfigParameterDescription sequentialTestingParameter = new ConfigParameterDescription(
+				SEQUENTIAL_TESTING_KEY, LpeSupportedTypes.Boolean);
+		sequentialTestingParameter.setMandatory(false);
+		sequentialTestingParameter.setDefaultValue(String.valueOf(SEQUENTIAL_TESTING_DEFAULT));
+		sequentialTestingParameter.setDescription("ONLY for t-Test strategy! If true, each experiment is analyzed "
+				+ "as soon as it finishes and the remaining experiments are skipped "
+				+ "once the detection decision is settled.");
+		return sequentialTestingParameter;
+	}
+
 	private ConfigParameterDescription createNumSignificantStepsParameter() {
 		ConfigParameterDescription numSignificantStepsParameter = new ConfigParameterDescription(
 				REQUIRED_SIGNIFICANT_STEPS_KEY, LpeSupportedTypes.Integer);
@@ -74,6 +89,19 @@ public class TrafficJamExtension extends AbstractDetectionExtension {
 		return requiredConfidenceLevel;
 	}
 
+	private ConfigParameterDescription createRegressionEstimatorParameter() {
+		ConfigParameterDescription parameter = new ConfigParameterDescription(REGRESSION_ESTIMATOR_KEY,
+				LpeSupportedTypes.String);
+		Set<String> options = new HashSet<>();
+		options.add(RampExtension.LEAST_SQUARES_ESTIMATOR);
+		options.add(RampExtension.THEIL_SEN_ESTIMATOR);
+		parameter.setOptions(options);
+		parameter.setDefaultValue(RampExtension.LEAST_SQUARES_ESTIMATOR);
+		parameter.setDescription("ONLY for linear regression strategy! Estimator used for the regression slope. "
+				+ "Theil-Sen is robust against outliers.");
+		return parameter;
+	}
+
 	private ConfigParameterDescription createStrategyParameter() {
 		ConfigParameterDescription scopeParameter = new ConfigParameterDescription(DETECTION_STRATEGY_KEY,
 				LpeSupportedTypes.String);
@@ -96,6 +124,8 @@ public class TrafficJamExtension extends AbstractDetectionExtension {
 		addConfigParameter(createNumExperimentsParameter());
 		addConfigParameter(createStrategyParameter());
 		addConfigParameter(createRegressionSlopeParameter());
+		addConfigParameter(createRegressionEstimatorParameter());
+		addConfigParameter(createSequentialTestingParameter());
 
 	}
 
@@ -1,34 +1,42 @@
 package org.spotter.ext.detection.trafficJam.strategies;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.aim.api.measurement.dataset.Dataset;
-import org.aim.api.measurement.dataset.ParameterSelection;
 import org.aim.artifacts.records.ResponseTimeRecord;
-import org.apache.commons.math3.stat.regression.SimpleRegression;
-import org.lpe.common.util.LpeNumericUtils;
-import org.lpe.common.util.NumericPair;
 import org.lpe.common.util.NumericPairList;
 import org.spotter.core.chartbuilder.AnalysisChartBuilder;
+import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.ext.detection.ramp.RampExtension;
 import org.spotter.ext.detection.trafficJam.ITrafficJamStrategy;
 import org.spotter.ext.detection.trafficJam.TrafficJamDetectionController;
 import org.spotter.ext.detection.trafficJam.TrafficJamExtension;
-import org.spotter.ext.detection.utils.Utils;
+import org.spotter.ext.detection.utils.OnlineRegression;
+import org.spotter.ext.detection.utils.RunningMoments;
 import org.spotter.shared.result.model.SpotterResult;
 
 public class LinearRegression implements ITrafficJamStrategy {
 
 	private double slopeThreshold;
+	private boolean robustEstimator = false;
 	private TrafficJamDetectionController mainDetectionController;
+	private Dataset groupedDataset;
+	private Map<String, OnlineRegression> regressions;
+	private Map<String, SortedMap<Integer, RunningMoments>> stepStatistics;
 
 	@Override
 	public void setProblemDetectionConfiguration(Properties problemDetectionConfiguration) {
 		String slopeThresholdStr = problemDetectionConfiguration.getProperty(TrafficJamExtension.REGRESSION_SLOPE_KEY);
 		slopeThreshold = slopeThresholdStr != null ? Double.parseDouble(slopeThresholdStr)
 				: TrafficJamExtension.REGRESSION_SLOPE_DEFAULT;
+		robustEstimator = RampExtension.THEIL_SEN_ESTIMATOR.equals(problemDetectionConfiguration.getProperty(
+				TrafficJamExtension.REGRESSION_ESTIMATOR_KEY, RampExtension.LEAST_SQUARES_ESTIMATOR));
 	}
 
 	@Override
@@ -39,58 +47,77 @@ public class LinearRegression implements ITrafficJamStrategy {
 
 	@Override
 	public boolean analyseOperationResponseTimes(Dataset dataset, String operation, SpotterResult result) {
-		ParameterSelection selectOperation = new ParameterSelection().select(ResponseTimeRecord.PAR_OPERATION,
-				operation);
-		Dataset operationSpecificDataset = selectOperation.applyTo(dataset);
-
-		NumericPairList<Integer, Double> responseTimeSeries = Utils.toUserRTPairs(operationSpecificDataset);
+		if (dataset != groupedDataset) {
+			groupByOperationAndStep(dataset);
+		}
+		OnlineRegression regression = regressions.get(operation);
+		if (regression == null) {
+			return false;
+		}
 
-		SimpleRegression regression = LpeNumericUtils.linearRegression(responseTimeSeries);
+		NumericPairList<Integer, Double> means = new NumericPairList<>();
+		List<Number> standDeviations = new ArrayList<>();
+		for (Map.Entry<Integer, RunningMoments> entry : stepStatistics.get(operation).entrySet()) {
+			RunningMoments moments = entry.getValue();
+			means.add(entry.getKey(), moments.getMean());
+			standDeviations.add(moments.getN() > 1 ? moments.getStdDev() : 0.0);
+		}
 
-		double slope = regression.getSlope();
+		double slope = robustEstimator ? regression.getRobustSlope() : regression.getSlope();
 
-		createChart(result, operation, responseTimeSeries, regression);
+		createChart(result, operation, regression, means, standDeviations);
 
 		return slope > slopeThreshold;
 	}
 
-	private void createChart(SpotterResult result, String operation,
-			NumericPairList<Integer, Double> responseTimeSeries, SimpleRegression regression) {
-		NumericPairList<Long, Double> linRegressionPoints = new NumericPairList<>();
-		NumericPairList<Long, Double> thresholdPoints = new NumericPairList<>();
-		long minTimestamp = responseTimeSeries.getKeyMin();
-		long maxTimestamp = responseTimeSeries.getKeyMax();
-		double intercept = regression.predict(minTimestamp);
-		linRegressionPoints.add(minTimestamp, intercept);
-		linRegressionPoints.add(maxTimestamp, regression.predict(maxTimestamp));
-		thresholdPoints.add(minTimestamp, intercept);
-		thresholdPoints.add(maxTimestamp, slopeThreshold * (double) (maxTimestamp - minTimestamp) + intercept);
-
-		NumericPairList<Integer, Double> means = new NumericPairList<>();
-		List<Number> standDeviations = new ArrayList<>();
-		int prevNumUsers = -1;
-		List<Double> values = null;
-		for (NumericPair<Integer, Double> pair : responseTimeSeries) {
-			if (!pair.getKey().equals(prevNumUsers)) {
-				if (values != null) {
-					double mean = LpeNumericUtils.average(values);
-					double sd = LpeNumericUtils.stdDev(values);
-					means.add(prevNumUsers, mean);
-					standDeviations.add(sd);
-
-				}
-				values = new ArrayList<>();
-				prevNumUsers = pair.getKey();
+	/**
+	 * Groups the response times of all operations by number of users in a
+	 * single pass over the dataset. The controller analyses the operations of
+	 * one dataset one after another.
+	 */
+	private void groupByOperationAndStep(Dataset dataset) {
+		List<String> operations = dataset.getValues(ResponseTimeRecord.PAR_OPERATION, String.class);
+		List<Integer> users = dataset.getValues(AbstractDetectionController.NUMBER_OF_USERS_KEY, Integer.class);
+		List<Long> responseTimes = dataset.getValues(ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class);
+
+		regressions = new HashMap<>();
+		stepStatistics = new HashMap<>();
+		for (int i = 0; i < operations.size(); i++) {
+			String operation = operations.get(i);
+			OnlineRegression regression = regressions.get(operation);
+			if (regression == null) {
+				regression = new OnlineRegression(robustEstimator ? OnlineRegression.DEFAULT_ROBUST_SAMPLE_SIZE : 0);
+				regressions.put(operation, regression);
+				stepStatistics.put(operation, new TreeMap<Integer, RunningMoments>());
+			}
+			SortedMap<Integer, RunningMoments> steps = stepStatistics.get(operation);
+			RunningMoments moments = steps.get(users.get(i));
+			if (moments == null) {
+				moments = new RunningMoments();
+				steps.put(users.get(i), moments);
 			}
-			values.add(pair.getValue());
+			regression.add(users.get(i), responseTimes.get(i));
+			moments.add(responseTimes.get(i));
 		}
-		if (values != null) {
-			double mean = LpeNumericUtils.average(values);
-			double sd = LpeNumericUtils.stdDev(values);
-			means.add(prevNumUsers, mean);
-			standDeviations.add(sd);
+		groupedDataset = dataset;
+	}
 
+	private void createChart(SpotterResult result, String operation, OnlineRegression regression,
+			NumericPairList<Integer, Double> means, List<Number> standDeviations) {
+		if (regression.getN() == 0) {
+			return;
 		}
+		NumericPairList<Long, Double> linRegressionPoints = new NumericPairList<>();
+		NumericPairList<Long, Double> thresholdPoints = new NumericPairList<>();
+		long minNumUsers = (long) regression.getMinX();
+		long maxNumUsers = (long) regression.getMaxX();
+		double slope = robustEstimator ? regression.getRobustSlope() : regression.getSlope();
+		double intercept = robustEstimator ? regression.getRobustIntercept() : regression.getIntercept();
+		double minValue = slope * minNumUsers + intercept;
+		linRegressionPoints.add(minNumUsers, minValue);
+		linRegressionPoints.add(maxNumUsers, slope * maxNumUsers + intercept);
+		thresholdPoints.add(minNumUsers, minValue);
+		thresholdPoints.add(maxNumUsers, slopeThreshold * (double) (maxNumUsers - minNumUsers) + minValue);
 
 		AnalysisChartBuilder chartBuilder = AnalysisChartBuilder.getChartBuilder();
 		chartBuilder.startChart(operation, "Number of Users", "Response Time [ms]");
@@ -15,10 +15,16 @@ import org.spotter.core.detection.AbstractDetectionController;
 import org.spotter.ext.detection.trafficJam.ITrafficJamStrategy;
 import org.spotter.ext.detection.trafficJam.TrafficJamDetectionController;
 import org.spotter.ext.detection.trafficJam.TrafficJamExtension;
+import org.spotter.ext.detection.utils.CachingStepComparator;
+import org.spotter.ext.detection.utils.IStepComparator;
+import org.spotter.ext.detection.utils.StatisticsUtils;
+import org.spotter.ext.detection.utils.StepComparison;
 import org.spotter.shared.result.model.SpotterResult;
 
-public class TTestStrategy implements ITrafficJamStrategy {
+public class TTestStrategy implements ITrafficJamStrategy, IStepComparator {
 
+	private static final String COMPARISON_ARTEFACT = "traffic-jam-rt-comparison-v1";
+	private final IStepComparator cachedComparator = new CachingStepComparator(COMPARISON_ARTEFACT, this);
 	private int requiredSignificantSteps;
 	private double requiredSignificanceLevel;
 	private TrafficJamDetectionController mainDetectionController;
@@ -45,24 +51,17 @@ public class TTestStrategy implements ITrafficJamStrategy {
 							AbstractDetectionController.NUMBER_OF_USERS_KEY, prevNumUsers).select(
 							ResponseTimeRecord.PAR_OPERATION, operation);
 
-					List<Long> currentValues = LpeNumericUtils.filterOutliersUsingIQR(selectionCurrent.applyTo(dataset)
-							.getValues(ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class));
-					List<Long> prevValues = LpeNumericUtils.filterOutliersUsingIQR(selectionPrev.applyTo(dataset)
-							.getValues(ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class));
-
-					List<Double> sums1 = new ArrayList<>();
-					List<Double> sums2 = new ArrayList<>();
-					LpeNumericUtils.createNormalDistributionByBootstrapping(prevValues, currentValues, sums1, sums2);
-
-					if (sums2.size() < 2 || sums1.size() < 2) {
-						throw new IllegalArgumentException("Traffic Jam detection failed for the operation '"
-								+ operation + "', because there are not enough measurement points for a t-test.");
-					}
-					double prevMean = LpeNumericUtils.average(sums1);
-					double currentMean = LpeNumericUtils.average(sums2);
-
-					double pValue = LpeNumericUtils.tTest(sums2, sums1);
-					if (pValue >= 0 && pValue <= requiredSignificanceLevel && prevMean < currentMean) {
+					double[] prevValues = StatisticsUtils.toArray(selectionPrev.applyTo(dataset).getValues(
+							ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class));
+					double[] currentValues = StatisticsUtils.toArray(selectionCurrent.applyTo(dataset).getValues(
+							ResponseTimeRecord.PAR_RESPONSE_TIME, Long.class));
+					StepComparison comparison = cachedComparator.compare(prevValues, currentValues);
+					double[] sums1 = comparison.getPreviousDistribution();
+					double[] sums2 = comparison.getCurrentDistribution();
+					double prevMean = comparison.getPreviousMean();
+					double currentMean = comparison.getCurrentMean();
+
+					if (comparison.isSignificantIncrease(requiredSignificanceLevel)) {
 						if (firstSignificantNumUsers < 0) {
 							firstSignificantNumUsers = prevNumUsers;
 						}
@@ -74,21 +73,21 @@ public class TTestStrategy implements ITrafficJamStrategy {
 
 					// update chart data
 					if (prevNumUsers == minNumUsers) {
-						double stdDev = LpeNumericUtils.stdDev(sums1);
-						for (Double val : sums1) {
+						double stdDev = StatisticsUtils.stdDev(sums1);
+						for (double val : sums1) {
 							rawData.add(prevNumUsers, val);
 						}
-						double ciWidth = LpeNumericUtils.getConfidenceIntervalWidth(sums1.size(), stdDev,
+						double ciWidth = LpeNumericUtils.getConfidenceIntervalWidth(sums1.length, stdDev,
 								requiredSignificanceLevel);
 						means.add(prevNumUsers, prevMean);
 						ci.add(ciWidth / 2.0);
 					}
 
-					double stdDev = LpeNumericUtils.stdDev(sums2);
-					for (Double val : sums2) {
+					double stdDev = StatisticsUtils.stdDev(sums2);
+					for (double val : sums2) {
 						rawData.add(numUsers, val);
 					}
-					double ciWidth = LpeNumericUtils.getConfidenceIntervalWidth(sums2.size(), stdDev,
+					double ciWidth = LpeNumericUtils.getConfidenceIntervalWidth(sums2.length, stdDev,
 							requiredSignificanceLevel);
 					means.add(numUsers, currentMean);
 					ci.add(ciWidth / 2.0);
@@ -118,6 +117,30 @@ public class TTestStrategy implements ITrafficJamStrategy {
 		}
 	}
 
+	/**
+	 * Compares the response times of two steps by a t-test on the
+	 * bootstrapped means of the response times without outliers.
+	 */
+	@Override
+	public StepComparison compare(double[] previousSample, double[] currentSample) {
+		List<Double> prevValues = LpeNumericUtils.filterOutliersUsingIQR(StatisticsUtils.toList(previousSample));
+		List<Double> currentValues = LpeNumericUtils.filterOutliersUsingIQR(StatisticsUtils.toList(currentSample));
+
+		List<Double> sums1 = new ArrayList<>();
+		List<Double> sums2 = new ArrayList<>();
+		double pValue = Double.NaN;
+		if (!prevValues.isEmpty() && !currentValues.isEmpty()) {
+			LpeNumericUtils.createNormalDistributionByBootstrapping(prevValues, currentValues, sums1, sums2);
+			if (sums1.size() >= 2 && sums2.size() >= 2) {
+				pValue = LpeNumericUtils.tTest(sums2, sums1);
+			}
+		}
+		double[] prevDistribution = StatisticsUtils.toArray(sums1);
+		double[] currentDistribution = StatisticsUtils.toArray(sums2);
+		return new StepComparison(prevDistribution, currentDistribution, StatisticsUtils.mean(prevDistribution),
+				StatisticsUtils.mean(currentDistribution), pValue);
+	}
+
 	@Override
 	public void setProblemDetectionConfiguration(Properties problemDetectionConfiguration) {
 		String requiredSignificantStepsStr = problemDetectionConfiguration
@@ -0,0 +1,103 @@
+package org.spotter.ext.detection.utils;
+
+import org.aim.api.measurement.dataset.DatasetCollection;
+import org.lpe.common.extension.IExtension;
+import org.spotter.core.detection.AbstractDetectionController;
+import org.spotter.core.detection.IDetectionController;
+import org.spotter.shared.result.model.SpotterResult;
+
+/**
+ * Detection controller whose analysis is profiled by an
+ * {@link AnalysisProfiler}. The whole analysis is measured as phase
+ * {@link #ANALYSIS_PHASE}; subclasses can split it into finer phases with
+ * {@link #startPhase(String, String)}. A phase lasts until the next phase is
+ * started, {@link #stopPhase()} is called or the analysis ends. The report is
+ * stored as text resource of the result if profiling is enabled.
+ *
+ * @author agent
+ *
+ */
+public abstract class AbstractProfiledDetectionController extends AbstractDetectionController {
+	/**
+	 * Name of the phase covering the whole analysis.
+	 */
+	public static final String ANALYSIS_PHASE = "analysis";
+
+	private AnalysisProfiler profiler;
+	private AnalysisProfiler.Phase currentPhase;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param provider
+	 *            extension provider
+	 */
+	public AbstractProfiledDetectionController(IExtension<IDetectionController> provider) {
+		super(provider);
+	}
+
+	@Override
+	protected final SpotterResult analyze(DatasetCollection data) {
+		profiler = new AnalysisProfiler();
+		SpotterResult result;
+		AnalysisProfiler.Phase analysisPhase = profiler.start(ANALYSIS_PHASE);
+		try {
+			result = analyzeData(data);
+		} finally {
+			stopPhase();
+			analysisPhase.stop();
+		}
+		profiler.storeReport(getResultManager(), result);
+		profiler = null;
+		return result;
+	}
+
+	/**
+	 * Analyzes the measurement data.
+	 *
+	 * @param data
+	 *            measurement data of the experiments
+	 * @return result of the analysis
+	 */
+	protected abstract SpotterResult analyzeData(DatasetCollection data);
+
+	/**
+	 * Starts a phase which is not specific to an operation and stops the
+	 * running phase. Has no effect outside of the analysis.
+	 *
+	 * @param phase
+	 *            name of the phase
+	 */
+	protected void startPhase(String phase) {
+		stopPhase();
+		if (profiler != null) {
+			currentPhase = profiler.start(phase);
+		}
+	}
+
+	/**
+	 * Starts a phase for an operation and stops the running phase. Has no
+	 * effect outside of the analysis.
+	 *
+	 * @param phase
+	 *            name of the phase
+	 * @param operation
+	 *            operation under analysis
+	 */
+	protected void startPhase(String phase, String operation) {
+		stopPhase();
+		if (profiler != null) {
+			currentPhase = profiler.start(phase, operation);
+		}
+	}
+
+	/**
+	 * Stops the running phase, if any.
+	 */
+	protected void stopPhase() {
+		if (currentPhase != null) {
+			currentPhase.stop();
+			currentPhase = null;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package org.spotter.ext.detection.utils;
+
+import java.util.List;
+
+import org.aim.api.exceptions.InstrumentationException;
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.api.measurement.MeasurementData;
+import org.aim.description.InstrumentationDescription;
+import org.lpe.common.extension.IExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spotter.core.detection.IDetectionController;
+import org.spotter.exceptions.WorkloadException;
+
+/**
+ * Detection controller which can stop the default experiment series early.
+ * The series, including its load steps, instrumentation and monitoring
+ * preparation, is run by the core; a {@link SequentialSeriesTest} evaluates
+ * each finished experiment and the remaining experiments of the series are
+ * skipped once its decision is settled. The data of a finished experiment is
+ * fetched from the measurement adapter again for the evaluation, after the
+ * core has stored it.
+ *
+ * @author agent
+ *
+ */
+public abstract class AbstractSequentialDetectionController extends AbstractProfiledDetectionController {
+	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractSequentialDetectionController.class);
+
+	private SequentialSeriesTest seriesTest;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param provider
+	 *            extension provider
+	 */
+	public AbstractSequentialDetectionController(IExtension<IDetectionController> provider) {
+		super(provider);
+	}
+
+	/**
+	 * Executes the default experiment series and stops it as soon as the
+	 * decision of the given test is settled.
+	 *
+	 * @param test
+	 *            test evaluating the experiments, fresh for this series
+	 * @param numExperiments
+	 *            number of experiments in the series
+	 * @param instDescription
+	 *            instrumentation description
+	 * @throws InstrumentationException
+	 *             if instrumentation fails
+	 * @throws MeasurementException
+	 *             if measurement fails
+	 * @throws WorkloadException
+	 *             if load cannot be generated properly
+	 */
+	protected void executeSequentialExperimentSeries(SequentialSeriesTest test, int numExperiments,
+			InstrumentationDescription instDescription) throws InstrumentationException, MeasurementException,
+			WorkloadException {
+		seriesTest = test;
+		try {
+			executeDefaultExperimentSeries(this, numExperiments, instDescription);
+		} finally {
+			seriesTest = null;
+		}
+	}
+
+	@Override
+	protected void runExperiment(IDetectionController detectionController, int numUsers) throws WorkloadException,
+			MeasurementException {
+		if (seriesTest == null) {
+			super.runExperiment(detectionController, numUsers);
+			return;
+		}
+		if (seriesTest.isSettled()) {
+			LOGGER.info("{} decision ({}) settled, skipping experiment with {} users.", detectionController
+					.getProvider().getName(), seriesTest.getDecision(), numUsers);
+			return;
+		}
+
+		super.runExperiment(detectionController, numUsers);
+		MeasurementData data = getMeasurementController().getMeasurementData();
+		evaluateExperiment(seriesTest, numUsers, data.getRecords());
+		if (seriesTest.isSettled()) {
+			LOGGER.info("{} decision ({}) settled after {} of {} experiments.", detectionController.getProvider()
+					.getName(), seriesTest.getDecision(), seriesTest.getNumEvaluatedSteps(), seriesTest
+					.getNumSteps());
+		}
+	}
+
+	/**
+	 * Evaluates the data of a finished experiment of a sequential experiment
+	 * series.
+	 *
+	 * @param test
+	 *            test of the series, the experiment has to be added to it
+	 * @param numUsers
+	 *            number of users of the experiment
+	 * @param records
+	 *            records measured in the experiment
+	 */
+	protected abstract void evaluateExperiment(SequentialSeriesTest test, int numUsers, List<AbstractRecord> records);
+}
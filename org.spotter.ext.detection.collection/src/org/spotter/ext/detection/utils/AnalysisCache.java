@@ -0,0 +1,563 @@
+package org.spotter.ext.detection.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.aim.api.measurement.AbstractRecord;
+import org.lpe.common.config.GlobalConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content-addressed, on-disk cache of intermediate analysis artefacts, such
+ * as response time series grouped by operation or aggregated traces. An
+ * artefact is stored under its name and a {@link Fingerprint} of the data
+ * (and parameters) it has been derived from. Thus, re-analysing a stored
+ * experiment, e.g. with changed thresholds, reuses the artefacts instead of
+ * deriving them again, while changed data never hits a stale entry.
+ *
+ * The cache is switched off by default and has to be enabled via
+ * {@link #CACHE_ENABLED_KEY}. The cache directory is configured via
+ * {@link #CACHE_DIR_KEY} and defaults to a directory in the home directory of
+ * the user, so that other users cannot plant entries.
+ * Whenever an entry is stored, entries older than {@link #MAX_AGE_KEY} are
+ * removed and, if the cache still exceeds {@link #MAX_SIZE_KEY}, the least
+ * recently used entries. Unreadable entries, e.g. written by an
+ * incompatible version, are treated as misses and overwritten. Entries are
+ * only deserialized into the cached type, the classes it is declared to
+ * contain and basic JDK types; any other class in an entry makes it
+ * unreadable.
+ *
+ * @author agent
+ *
+ */
+public final class AnalysisCache {
+	/**
+	 * Directory of the cache.
+	 */
+	public static final String CACHE_DIR_KEY = "org.spotter.detection.analysisCache.dir";
+
+	/**
+	 * Enables or disables the cache, disabled by default.
+	 */
+	public static final String CACHE_ENABLED_KEY = "org.spotter.detection.analysisCache.enabled";
+
+	/**
+	 * Maximum size of the cache in MB.
+	 */
+	public static final String MAX_SIZE_KEY = "org.spotter.detection.analysisCache.maxSize";
+
+	/**
+	 * Maximum age of cache entries in hours.
+	 */
+	public static final String MAX_AGE_KEY = "org.spotter.detection.analysisCache.maxAge";
+
+	/**
+	 * Default cache directory, relative to the home directory of the user.
+	 */
+	public static final String DEFAULT_CACHE_DIR = ".spotter" + File.separator + "analysis-cache";
+
+	/**
+	 * Default maximum size of the cache in MB.
+	 */
+	public static final long DEFAULT_MAX_SIZE = 256L;
+
+	/**
+	 * Default maximum age of cache entries in hours.
+	 */
+	public static final long DEFAULT_MAX_AGE = 168L;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisCache.class);
+	private static final String FILE_SUFFIX = ".ser";
+	private static final long BYTES_PER_MB = 1024L * 1024L;
+	private static final long MILLIS_PER_HOUR = 60L * 60L * 1000L;
+	private static final List<String> JDK_TYPES = Arrays.asList(Number.class.getName(), Long.class.getName(),
+			Integer.class.getName(), Double.class.getName(), Boolean.class.getName(), ArrayList.class.getName(),
+			HashMap.class.getName(), TreeMap.class.getName(), long[].class.getName(), int[].class.getName(),
+			double[].class.getName(), boolean[].class.getName(), byte[].class.getName(), String[].class.getName());
+
+	private final File directory;
+	private final boolean enabled;
+	private final long maxSize;
+	private final long maxAge;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param directory
+	 *            directory of the cache
+	 * @param enabled
+	 *            if false, nothing is cached
+	 * @param maxSize
+	 *            maximum size of the cache in bytes
+	 * @param maxAge
+	 *            maximum age of cache entries in milliseconds
+	 */
+	public AnalysisCache(File directory, boolean enabled, long maxSize, long maxAge) {
+		this.directory = directory;
+		this.enabled = enabled;
+		this.maxSize = maxSize;
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Creates a cache as configured in the global configuration.
+	 *
+	 * @return cache
+	 */
+	public static AnalysisCache fromConfiguration() {
+		GlobalConfiguration configuration = GlobalConfiguration.getInstance();
+		if (configuration == null || !Boolean.parseBoolean(configuration.getProperty(CACHE_ENABLED_KEY))) {
+			return new AnalysisCache(null, false, 0L, 0L);
+		}
+		String dir = configuration.getProperty(CACHE_DIR_KEY);
+		File directory = dir != null ? new File(dir) : new File(System.getProperty("user.home"), DEFAULT_CACHE_DIR);
+		long maxSize = getLong(configuration, MAX_SIZE_KEY, DEFAULT_MAX_SIZE) * BYTES_PER_MB;
+		long maxAge = getLong(configuration, MAX_AGE_KEY, DEFAULT_MAX_AGE) * MILLIS_PER_HOUR;
+		return new AnalysisCache(directory, true, maxSize, maxAge);
+	}
+
+	private static long getLong(GlobalConfiguration configuration, String key, long defaultValue) {
+		String value = configuration.getProperty(key);
+		return value != null ? Long.parseLong(value.trim()) : defaultValue;
+	}
+
+	/**
+	 *
+	 * @return true, if artefacts are cached; fingerprints need not be
+	 *         computed otherwise
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Computes an artefact.
+	 *
+	 * @param <T>
+	 *            type of the artefact
+	 */
+	public interface Computation<T extends Serializable> {
+		/**
+		 *
+		 * @return the artefact
+		 */
+		T compute();
+	}
+
+	/**
+	 * Returns the cached artefact or computes and caches it.
+	 *
+	 * @param artefact
+	 *            name of the artefact, should be changed if its structure
+	 *            changes
+	 * @param fingerprint
+	 *            fingerprint of the data and parameters the artefact is
+	 *            derived from
+	 * @param type
+	 *            type of the artefact
+	 * @param computation
+	 *            computes the artefact on a cache miss
+	 * @param contentTypes
+	 *            further classes the artefact contains, apart from basic JDK
+	 *            types
+	 * @param <T>
+	 *            type of the artefact
+	 * @return artefact
+	 */
+	public <T extends Serializable> T getOrCompute(String artefact, Fingerprint fingerprint, Class<T> type,
+			Computation<T> computation, Class<?>... contentTypes) {
+		if (!enabled) {
+			return computation.compute();
+		}
+		String hash = fingerprint.toString();
+		T value = get(artefact, hash, type, contentTypes);
+		if (value == null) {
+			value = computation.compute();
+			put(artefact, hash, value);
+		}
+		return value;
+	}
+
+	/**
+	 *
+	 * @param artefact
+	 *            name of the artefact
+	 * @param hash
+	 *            fingerprint of the data the artefact is derived from
+	 * @param type
+	 *            type of the artefact
+	 * @param contentTypes
+	 *            further classes the artefact contains, apart from basic JDK
+	 *            types
+	 * @param <T>
+	 *            type of the artefact
+	 * @return the cached artefact or null, if not cached
+	 */
+	public <T extends Serializable> T get(String artefact, String hash, Class<T> type, Class<?>... contentTypes) {
+		if (!enabled) {
+			return null;
+		}
+		File file = getFile(artefact, hash);
+		if (!file.exists()) {
+			return null;
+		}
+		Set<String> allowedTypes = new HashSet<>(JDK_TYPES);
+		allowedTypes.add(type.getName());
+		for (Class<?> contentType : contentTypes) {
+			allowedTypes.add(contentType.getName());
+		}
+		try (ObjectInputStream in = new RestrictedObjectInputStream(new BufferedInputStream(new FileInputStream(
+				file)), allowedTypes)) {
+			Object value = in.readObject();
+			if (type.isInstance(value)) {
+				LOGGER.debug("Analysis cache hit for {} {}.", artefact, hash);
+				// the modification time orders the entries for eviction
+				if (!file.setLastModified(System.currentTimeMillis())) {
+					LOGGER.debug("Failed touching analysis cache entry {}.", file);
+				}
+				return type.cast(value);
+			}
+		} catch (IOException | ClassNotFoundException e) {
+			LOGGER.warn("Discarding unreadable analysis cache entry {}: {}", file, e.getMessage());
+		}
+		if (!file.delete()) {
+			LOGGER.warn("Failed deleting analysis cache entry {}.", file);
+		}
+		return null;
+	}
+
+	/**
+	 * Caches an artefact. Failures are logged only, as the artefact can be
+	 * computed again.
+	 *
+	 * @param artefact
+	 *            name of the artefact
+	 * @param hash
+	 *            fingerprint of the data the artefact is derived from
+	 * @param value
+	 *            artefact
+	 */
+	public void put(String artefact, String hash, Serializable value) {
+		if (!enabled) {
+			return;
+		}
+		File file = getFile(artefact, hash);
+		File parent = file.getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			LOGGER.warn("Failed creating analysis cache directory {}.", parent);
+			return;
+		}
+		File tmpFile = null;
+		try {
+			// write to a temporary file first, so that concurrent readers
+			// never see partially written entries
+			tmpFile = File.createTempFile(hash, ".tmp", parent);
+			try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(
+					tmpFile)))) {
+				out.writeObject(value);
+			}
+			if (!tmpFile.renameTo(file) && !(file.delete() && tmpFile.renameTo(file))) {
+				LOGGER.warn("Failed storing analysis cache entry {}.", file);
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Failed storing analysis cache entry {}: {}", file, e.getMessage());
+		} finally {
+			if (tmpFile != null && tmpFile.exists() && !tmpFile.delete()) {
+				tmpFile.deleteOnExit();
+			}
+		}
+		evict();
+	}
+
+	/**
+	 * Removes entries older than the maximum age and, if the cache is still
+	 * larger than the maximum size, the least recently used entries.
+	 */
+	void evict() {
+		List<File> entries = new ArrayList<>();
+		File[] artefactDirs = directory.listFiles();
+		if (artefactDirs == null) {
+			return;
+		}
+		for (File artefactDir : artefactDirs) {
+			File[] files = artefactDir.listFiles();
+			if (files != null) {
+				entries.addAll(Arrays.asList(files));
+			}
+		}
+		final Map<File, Long> lastModified = new HashMap<>();
+		for (File entry : entries) {
+			lastModified.put(entry, entry.lastModified());
+		}
+		Collections.sort(entries, new Comparator<File>() {
+			@Override
+			public int compare(File o1, File o2) {
+				return Long.compare(lastModified.get(o2), lastModified.get(o1));
+			}
+		});
+
+		long now = System.currentTimeMillis();
+		long size = 0L;
+		for (File entry : entries) {
+			size += entry.length();
+			if (now - lastModified.get(entry) > maxAge || size > maxSize) {
+				if (entry.delete()) {
+					LOGGER.debug("Evicted analysis cache entry {}.", entry);
+				} else {
+					LOGGER.warn("Failed evicting analysis cache entry {}.", entry);
+				}
+			}
+		}
+	}
+
+	private File getFile(String artefact, String hash) {
+		return new File(new File(directory, artefact), hash + FILE_SUFFIX);
+	}
+
+	/**
+	 * Object input stream resolving only the given classes.
+	 */
+	private static final class RestrictedObjectInputStream extends ObjectInputStream {
+		private final Set<String> allowedTypes;
+
+		private RestrictedObjectInputStream(InputStream in, Set<String> allowedTypes) throws IOException {
+			super(in);
+			this.allowedTypes = allowedTypes;
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			if (!allowedTypes.contains(desc.getName())) {
+				throw new InvalidClassException(desc.getName(), "not expected in an analysis cache entry");
+			}
+			return super.resolveClass(desc);
+		}
+
+		@Override
+		protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+			throw new InvalidClassException("proxy", "not expected in an analysis cache entry");
+		}
+	}
+
+	/**
+	 *
+	 * @return new, empty fingerprint
+	 */
+	public static Fingerprint newFingerprint() {
+		return new Fingerprint();
+	}
+
+	/**
+	 * SHA-256 fingerprint over the data and parameters an artefact is derived
+	 * from. Values are added in a fixed order, each value is delimited, so
+	 * that different sequences of values result in different fingerprints.
+	 */
+	public static final class Fingerprint {
+		private static final char[] HEX = "0123456789abcdef".toCharArray();
+		private static final int LONG_BYTES = 8;
+		private final MessageDigest digest;
+		private final byte[] buffer = new byte[LONG_BYTES];
+		private final Map<Class<?>, Integer> typeIds = new HashMap<>();
+		private String hash;
+
+		private Fingerprint() {
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		/**
+		 * Adds a value.
+		 *
+		 * @param value
+		 *            value to add
+		 * @return this fingerprint
+		 */
+		public Fingerprint add(long value) {
+			checkOpen();
+			for (int i = 0; i < LONG_BYTES; i++) {
+				buffer[i] = (byte) (value >>> (i * Byte.SIZE));
+			}
+			digest.update(buffer);
+			return this;
+		}
+
+		/**
+		 * Adds a value.
+		 *
+		 * @param value
+		 *            value to add
+		 * @return this fingerprint
+		 */
+		public Fingerprint add(double value) {
+			return add(Double.doubleToLongBits(value));
+		}
+
+		/**
+		 * Adds a value.
+		 *
+		 * @param value
+		 *            value to add, may be null
+		 * @return this fingerprint
+		 */
+		public Fingerprint add(String value) {
+			if (value == null) {
+				return add(-1L);
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			add((long) bytes.length);
+			digest.update(bytes);
+			return this;
+		}
+
+		/**
+		 * Adds the type and the content of a record. The properties of the
+		 * record are added in their binary form, the name of the type only on
+		 * its first occurrence.
+		 *
+		 * @param record
+		 *            record to add
+		 * @return this fingerprint
+		 */
+		public Fingerprint add(AbstractRecord record) {
+			Class<?> type = record.getClass();
+			Integer typeId = typeIds.get(type);
+			if (typeId == null) {
+				typeId = typeIds.size();
+				typeIds.put(type, typeId);
+				add(type.getName());
+			}
+			add((long) typeId);
+			for (Method getter : RecordProperties.of(type)) {
+				addProperty(getter, record);
+			}
+			return this;
+		}
+
+		private void addProperty(Method getter, AbstractRecord record) {
+			Object value;
+			try {
+				value = getter.invoke(record);
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				throw new IllegalStateException("Failed reading " + getter.getName() + " of "
+						+ record.getClass().getName(), e);
+			}
+			if (value == null || value instanceof String) {
+				add((String) value);
+			} else if (value instanceof Double || value instanceof Float) {
+				add(((Number) value).doubleValue());
+			} else if (value instanceof Number) {
+				add(((Number) value).longValue());
+			} else if (value instanceof Boolean) {
+				add(((Boolean) value) ? 1L : 0L);
+			} else {
+				add(String.valueOf(value));
+			}
+		}
+
+		/**
+		 * Adds the types and contents of records.
+		 *
+		 * @param records
+		 *            records to add
+		 * @return this fingerprint
+		 */
+		public Fingerprint addAll(Iterable<? extends AbstractRecord> records) {
+			long count = 0L;
+			for (AbstractRecord record : records) {
+				add(record);
+				count++;
+			}
+			return add(count);
+		}
+
+		private void checkOpen() {
+			if (hash != null) {
+				throw new IllegalStateException("Fingerprint has already been computed.");
+			}
+		}
+
+		/**
+		 * Completes the fingerprint, no values can be added afterwards.
+		 *
+		 * @return hex representation of the fingerprint
+		 */
+		@Override
+		public String toString() {
+			if (hash == null) {
+				byte[] bytes = digest.digest();
+				char[] chars = new char[bytes.length * 2];
+				for (int i = 0; i < bytes.length; i++) {
+					chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+					chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+				}
+				hash = new String(chars);
+			}
+			return hash;
+		}
+	}
+
+	/**
+	 * Getters of the record properties, sorted by name, per record type.
+	 */
+	private static final class RecordProperties {
+		private static final ConcurrentMap<Class<?>, Method[]> GETTERS = new ConcurrentHashMap<>();
+
+		private RecordProperties() {
+		}
+
+		private static Method[] of(Class<?> type) {
+			Method[] getters = GETTERS.get(type);
+			if (getters == null) {
+				List<Method> candidates = new ArrayList<>();
+				for (Method method : type.getMethods()) {
+					boolean getter = method.getName().startsWith("get") || method.getName().startsWith("is");
+					if (getter && method.getParameterTypes().length == 0 && !Modifier.isStatic(method.getModifiers())
+							&& method.getDeclaringClass() != Object.class) {
+						candidates.add(method);
+					}
+				}
+				getters = candidates.toArray(new Method[candidates.size()]);
+				Arrays.sort(getters, new Comparator<Method>() {
+					@Override
+					public int compare(Method o1, Method o2) {
+						return o1.getName().compareTo(o2.getName());
+					}
+				});
+				GETTERS.putIfAbsent(type, getters);
+			}
+			return getters;
+		}
+	}
+}
@@ -0,0 +1,358 @@
+package org.spotter.ext.detection.utils;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.lpe.common.config.GlobalConfiguration;
+import org.spotter.core.detection.DetectionResultManager;
+import org.spotter.shared.result.model.SpotterResult;
+
+/**
+ * Records wall time, CPU time and allocated bytes of named analysis phases,
+ * optionally per operation, and exports them as a text resource of the
+ * detection result. CPU time and allocated bytes are measured for the
+ * calling thread and are reported as -1 if the JVM does not support the
+ * corresponding measurement.
+ *
+ * Profiling is switched on by the global property {@link #ENABLED_KEY}.
+ * Otherwise phases are not measured and no report is stored. The analysis
+ * of every {@link AbstractProfiledDetectionController} is profiled.
+ *
+ * Usage:
+ *
+ * <pre>
+ * AnalysisProfiler profiler = new AnalysisProfiler();
+ * AnalysisProfiler.Phase phase = profiler.start(&quot;statistics&quot;, operation);
+ * try {
+ * 	... // analysis
+ * } finally {
+ * 	phase.stop();
+ * }
+ * profiler.storeReport(getResultManager(), result);
+ * </pre>
+ *
+ * @author agent
+ *
+ */
+public class AnalysisProfiler {
+	/**
+	 * Name of the text resource holding the report.
+	 */
+	public static final String RESOURCE_NAME = "AnalysisProfile";
+
+	/**
+	 * Global property switching the profiling of the analysis on, false by
+	 * default.
+	 */
+	public static final String ENABLED_KEY = "org.spotter.detection.profileAnalysis";
+
+	private static final String NO_OPERATION = "-";
+	private static final double NANOS_PER_MILLI = 1000000.0;
+	private static final double BYTES_PER_KB = 1024.0;
+
+	private final boolean enabled;
+	private final ThreadMXBean threadBean;
+	private final boolean cpuTimeSupported;
+	/**
+	 * getThreadAllocatedBytes(long) of the HotSpot specific thread bean, null
+	 * if not supported.
+	 */
+	private final Method allocatedBytesMethod;
+	private final Map<String, PhaseStatistics> statistics = new LinkedHashMap<>();
+
+	/**
+	 * Constructor. Reads the {@link #ENABLED_KEY} switch.
+	 */
+	public AnalysisProfiler() {
+		this(Boolean.parseBoolean(GlobalConfiguration.getInstance().getProperty(ENABLED_KEY)));
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param enabled
+	 *            true, if the phases are to be measured
+	 */
+	public AnalysisProfiler(boolean enabled) {
+		this.enabled = enabled;
+		threadBean = ManagementFactory.getThreadMXBean();
+		cpuTimeSupported = enabled && threadBean.isCurrentThreadCpuTimeSupported()
+				&& threadBean.isThreadCpuTimeEnabled();
+		allocatedBytesMethod = enabled ? findAllocatedBytesMethod(threadBean) : null;
+	}
+
+	/**
+	 * Looks up the allocation counter by reflection, as the HotSpot specific
+	 * thread bean is not available on all JVMs.
+	 */
+	private static Method findAllocatedBytesMethod(ThreadMXBean threadBean) {
+		try {
+			Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean");
+			if (!beanClass.isInstance(threadBean)
+					|| !(Boolean) beanClass.getMethod("isThreadAllocatedMemorySupported").invoke(threadBean)
+					|| !(Boolean) beanClass.getMethod("isThreadAllocatedMemoryEnabled").invoke(threadBean)) {
+				return null;
+			}
+			return beanClass.getMethod("getThreadAllocatedBytes", long.class);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 *
+	 * @return true, if the phases are measured
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Starts measuring a phase which is not specific to an operation.
+	 *
+	 * @param phase
+	 *            name of the phase
+	 * @return running phase, has to be stopped by the calling thread
+	 */
+	public Phase start(String phase) {
+		return start(phase, NO_OPERATION);
+	}
+
+	/**
+	 * Starts measuring a phase for an operation.
+	 *
+	 * @param phase
+	 *            name of the phase
+	 * @param operation
+	 *            operation under analysis
+	 * @return running phase, has to be stopped by the calling thread
+	 */
+	public Phase start(String phase, String operation) {
+		return new Phase(phase, operation);
+	}
+
+	private synchronized void add(String phase, String operation, long wallTime, long cpuTime, long allocatedBytes) {
+		String key = phase + '\n' + operation;
+		PhaseStatistics phaseStatistics = statistics.get(key);
+		if (phaseStatistics == null) {
+			phaseStatistics = new PhaseStatistics(phase, operation);
+			statistics.put(key, phaseStatistics);
+		}
+		phaseStatistics.invocations++;
+		phaseStatistics.wallTime += wallTime;
+		phaseStatistics.cpuTime += cpuTime;
+		phaseStatistics.allocatedBytes += allocatedBytes;
+	}
+
+	/**
+	 *
+	 * @return statistics of all measured phases, sorted by descending wall
+	 *         time
+	 */
+	public synchronized List<PhaseStatistics> getStatistics() {
+		List<PhaseStatistics> sorted = new ArrayList<>();
+		for (PhaseStatistics phaseStatistics : statistics.values()) {
+			sorted.add(phaseStatistics.copy());
+		}
+		Collections.sort(sorted, new Comparator<PhaseStatistics>() {
+			@Override
+			public int compare(PhaseStatistics o1, PhaseStatistics o2) {
+				return Long.compare(o2.wallTime, o1.wallTime);
+			}
+		});
+		return sorted;
+	}
+
+	/**
+	 * Creates the report: one line per phase and operation with tab
+	 * separated columns, sorted by descending wall time, and a line with the
+	 * totals per phase.
+	 *
+	 * @return report
+	 */
+	public String createReport() {
+		List<PhaseStatistics> sorted = getStatistics();
+		Map<String, PhaseStatistics> totals = new LinkedHashMap<>();
+		StringBuilder builder = new StringBuilder();
+		builder.append("phase\toperation\tinvocations\twallTime[ms]\tcpuTime[ms]\tallocated[KB]\n");
+		for (PhaseStatistics phaseStatistics : sorted) {
+			appendLine(builder, phaseStatistics);
+			PhaseStatistics total = totals.get(phaseStatistics.phase);
+			if (total == null) {
+				total = new PhaseStatistics(phaseStatistics.phase, "TOTAL");
+				totals.put(phaseStatistics.phase, total);
+			}
+			total.invocations += phaseStatistics.invocations;
+			total.wallTime += phaseStatistics.wallTime;
+			total.cpuTime += phaseStatistics.cpuTime;
+			total.allocatedBytes += phaseStatistics.allocatedBytes;
+		}
+		for (PhaseStatistics total : totals.values()) {
+			appendLine(builder, total);
+		}
+		return builder.toString();
+	}
+
+	private void appendLine(StringBuilder builder, PhaseStatistics phaseStatistics) {
+		builder.append(phaseStatistics.phase).append('\t');
+		builder.append(phaseStatistics.operation).append('\t');
+		builder.append(phaseStatistics.invocations).append('\t');
+		builder.append(String.format("%.3f", phaseStatistics.wallTime / NANOS_PER_MILLI)).append('\t');
+		builder.append(cpuTimeSupported ? String.format("%.3f", phaseStatistics.cpuTime / NANOS_PER_MILLI) : "-1")
+				.append('\t');
+		builder.append(
+				allocatedBytesMethod != null ? String.format("%.1f", phaseStatistics.allocatedBytes / BYTES_PER_KB) : "-1")
+				.append('\n');
+	}
+
+	/**
+	 * Stores the report as text resource {@link #RESOURCE_NAME} of the
+	 * result. Does nothing if profiling is disabled.
+	 *
+	 * @param resultManager
+	 *            result manager of the detection controller
+	 * @param result
+	 *            result of the analysis
+	 */
+	public void storeReport(DetectionResultManager resultManager, SpotterResult result) {
+		if (!enabled) {
+			return;
+		}
+		resultManager.storeTextResource(RESOURCE_NAME, result,
+				new ByteArrayInputStream(createReport().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private long currentCpuTime() {
+		return cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0L;
+	}
+
+	private long currentAllocatedBytes() {
+		if (allocatedBytesMethod == null) {
+			return 0L;
+		}
+		try {
+			return (Long) allocatedBytesMethod.invoke(threadBean, Thread.currentThread().getId());
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return 0L;
+		}
+	}
+
+	/**
+	 * A running phase.
+	 */
+	public final class Phase {
+		private final String phase;
+		private final String operation;
+		private final long startWallTime;
+		private final long startCpuTime;
+		private final long startAllocatedBytes;
+		private boolean stopped = false;
+
+		private Phase(String phase, String operation) {
+			this.phase = phase;
+			this.operation = operation;
+			if (enabled) {
+				startAllocatedBytes = currentAllocatedBytes();
+				startCpuTime = currentCpuTime();
+				startWallTime = System.nanoTime();
+			} else {
+				startAllocatedBytes = 0L;
+				startCpuTime = 0L;
+				startWallTime = 0L;
+			}
+		}
+
+		/**
+		 * Stops the phase and adds its measurements to the profiler. Further
+		 * calls have no effect.
+		 */
+		public void stop() {
+			if (!enabled || stopped) {
+				return;
+			}
+			long wallTime = System.nanoTime() - startWallTime;
+			stopped = true;
+			long cpuTime = currentCpuTime() - startCpuTime;
+			long allocatedBytes = currentAllocatedBytes() - startAllocatedBytes;
+			add(phase, operation, wallTime, cpuTime, allocatedBytes);
+		}
+	}
+
+	/**
+	 * Accumulated measurements of a phase.
+	 */
+	public static final class PhaseStatistics {
+		private final String phase;
+		private final String operation;
+		private long invocations;
+		private long wallTime;
+		private long cpuTime;
+		private long allocatedBytes;
+
+		private PhaseStatistics(String phase, String operation) {
+			this.phase = phase;
+			this.operation = operation;
+		}
+
+		private PhaseStatistics copy() {
+			PhaseStatistics copy = new PhaseStatistics(phase, operation);
+			copy.invocations = invocations;
+			copy.wallTime = wallTime;
+			copy.cpuTime = cpuTime;
+			copy.allocatedBytes = allocatedBytes;
+			return copy;
+		}
+
+		/**
+		 * @return name of the phase
+		 */
+		public String getPhase() {
+			return phase;
+		}
+
+		/**
+		 * @return operation, "-" if the phase is not operation specific
+		 */
+		public String getOperation() {
+			return operation;
+		}
+
+		/**
+		 * @return number of measured invocations
+		 */
+		public long getInvocations() {
+			return invocations;
+		}
+
+		/**
+		 * @return accumulated wall time in nanoseconds
+		 */
+		public long getWallTime() {
+			return wallTime;
+		}
+
+		/**
+		 * @return accumulated CPU time of the measuring threads in
+		 *         nanoseconds
+		 */
+		public long getCpuTime() {
+			return cpuTime;
+		}
+
+		/**
+		 * @return accumulated bytes allocated by the measuring threads
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package org.spotter.ext.detection.utils;
+
+import java.util.Random;
+
+/**
+ * Compares two steps by a t-test on the bootstrapped means of their samples.
+ * Both samples of a comparison are resampled from one generator with a fixed
+ * seed, so that the comparison of the same samples always yields the same
+ * result.
+ *
+ * @author agent
+ *
+ */
+public class BootstrapStepComparator implements IStepComparator {
+
+	@Override
+	public StepComparison compare(double[] previousSample, double[] currentSample) {
+		Random random = StatisticsUtils.createBootstrapRandom();
+		double[] previousMeans = StatisticsUtils.bootstrapMeans(previousSample, random);
+		double[] currentMeans = StatisticsUtils.bootstrapMeans(currentSample, random);
+		double pValue = Double.NaN;
+		if (previousMeans.length >= 2 && currentMeans.length >= 2) {
+			pValue = StatisticsUtils.tTest(currentMeans, previousMeans);
+		}
+		return new StepComparison(previousMeans, currentMeans, StatisticsUtils.mean(previousMeans),
+				StatisticsUtils.mean(currentMeans), pValue);
+	}
+}
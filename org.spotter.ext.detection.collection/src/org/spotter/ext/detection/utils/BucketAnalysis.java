@@ -0,0 +1,263 @@
+package org.spotter.ext.detection.utils;
+
+import java.util.Arrays;
+
+import org.lpe.common.util.NumericPair;
+import org.lpe.common.util.NumericPairList;
+
+/**
+ * Bucket statistics of a chronologically sorted response time series,
+ * computed in a single pass over primitive arrays.
+ *
+ * A bucket starts with the first value after the end of the previous bucket
+ * and covers the following bucket step milliseconds. For each bucket the
+ * number of values, the number of requirement violations and the max and
+ * mean value are calculated. In the same pass, the
+ * means of a fixed number of equally long coarse grained parts of the
+ * experiment are computed.
+ *
+ * @author agent
+ *
+ */
+public final class BucketAnalysis {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int numBuckets = 0;
+	private long[] startTimestamps = new long[INITIAL_CAPACITY];
+	private long[] endTimestamps = new long[INITIAL_CAPACITY];
+	private int[] counts = new int[INITIAL_CAPACITY];
+	private int[] violationCounts = new int[INITIAL_CAPACITY];
+	private double[] maxValues = new double[INITIAL_CAPACITY];
+	private double[] sums = new double[INITIAL_CAPACITY];
+
+	private double overallMean = Double.NaN;
+	private double[] coarsePartMeans = new double[0];
+
+	private BucketAnalysis() {
+	}
+
+	/**
+	 * Analyzes the given series.
+	 *
+	 * @param responsetimeSeries
+	 *            chronologically sorted series of timestamp response time
+	 *            pairs
+	 * @param bucketStep
+	 *            length of a bucket in milliseconds
+	 * @param threshold
+	 *            values above the threshold are requirement violations
+	 * @param numCoarseParts
+	 *            number of coarse grained parts to calculate the mean for, 0
+	 *            to skip
+	 * @return bucket statistics
+	 */
+	public static BucketAnalysis analyze(NumericPairList<Long, Double> responsetimeSeries, long bucketStep,
+			double threshold, int numCoarseParts) {
+		long[] timestamps = new long[responsetimeSeries.size()];
+		double[] values = new double[responsetimeSeries.size()];
+		int i = 0;
+		for (NumericPair<Long, Double> pair : responsetimeSeries) {
+			timestamps[i] = pair.getKey();
+			values[i] = pair.getValue();
+			i++;
+		}
+		return analyze(timestamps, values, bucketStep, threshold, numCoarseParts);
+	}
+
+	/**
+	 * Analyzes the given series.
+	 *
+	 * @param timestamps
+	 *            sorted timestamps
+	 * @param values
+	 *            values belonging to the timestamps
+	 * @param bucketStep
+	 *            length of a bucket in milliseconds
+	 * @param threshold
+	 *            values above the threshold are requirement violations
+	 * @param numCoarseParts
+	 *            number of coarse grained parts to calculate the mean for, 0
+	 *            to skip
+	 * @return bucket statistics
+	 */
+	public static BucketAnalysis analyze(long[] timestamps, double[] values, long bucketStep, double threshold,
+			int numCoarseParts) {
+		BucketAnalysis analysis = new BucketAnalysis();
+		int n = timestamps.length;
+		if (n == 0) {
+			return analysis;
+		}
+
+		long minTimestamp = timestamps[0];
+		long coarseStep = ((timestamps[n - 1] - minTimestamp) / Math.max(1, numCoarseParts)) + 1L;
+		double[] coarseSums = new double[numCoarseParts];
+		int[] coarseCounts = new int[numCoarseParts];
+
+		double overallSum = 0.0;
+		long bucketStart = Long.MIN_VALUE;
+		int bucket = -1;
+		for (int i = 0; i < n; i++) {
+			long timestamp = timestamps[i];
+			double value = values[i];
+			if (bucket < 0 || timestamp > bucketStart + bucketStep) {
+				bucket = analysis.newBucket(timestamp);
+				bucketStart = timestamp;
+			}
+			analysis.endTimestamps[bucket] = timestamp;
+			analysis.counts[bucket]++;
+			analysis.sums[bucket] += value;
+			if (value > threshold) {
+				analysis.violationCounts[bucket]++;
+			}
+			if (value > analysis.maxValues[bucket]) {
+				analysis.maxValues[bucket] = value;
+			}
+
+			overallSum += value;
+			if (numCoarseParts > 0) {
+				// parts are left-open intervals, except for the first one
+				int part = (int) Math.min(numCoarseParts - 1, Math.max(0L, timestamp - minTimestamp - 1L) / coarseStep);
+				coarseSums[part] += value;
+				coarseCounts[part]++;
+			}
+		}
+
+		analysis.overallMean = overallSum / (double) n;
+		analysis.coarsePartMeans = new double[numCoarseParts];
+		for (int p = 0; p < numCoarseParts; p++) {
+			analysis.coarsePartMeans[p] = coarseCounts[p] > 0 ? coarseSums[p] / (double) coarseCounts[p]
+					: Double.NaN;
+		}
+		return analysis;
+	}
+
+	private int newBucket(long timestamp) {
+		if (numBuckets == startTimestamps.length) {
+			int capacity = numBuckets * 2;
+			startTimestamps = Arrays.copyOf(startTimestamps, capacity);
+			endTimestamps = Arrays.copyOf(endTimestamps, capacity);
+			counts = Arrays.copyOf(counts, capacity);
+			violationCounts = Arrays.copyOf(violationCounts, capacity);
+			maxValues = Arrays.copyOf(maxValues, capacity);
+			sums = Arrays.copyOf(sums, capacity);
+		}
+		startTimestamps[numBuckets] = timestamp;
+		maxValues[numBuckets] = Double.NEGATIVE_INFINITY;
+		return numBuckets++;
+	}
+
+	/**
+	 *
+	 * @return number of buckets
+	 */
+	public int getNumBuckets() {
+		return numBuckets;
+	}
+
+	/**
+	 *
+	 * @param bucket
+	 *            bucket index
+	 * @return timestamp of the first value in the bucket
+	 */
+	public long getStartTimestamp(int bucket) {
+		return startTimestamps[bucket];
+	}
+
+	/**
+	 *
+	 * @param bucket
+	 *            bucket index
+	 * @return timestamp of the last value in the bucket
+	 */
+	public long getEndTimestamp(int bucket) {
+		return endTimestamps[bucket];
+	}
+
+	/**
+	 *
+	 * @param bucket
+	 *            bucket index
+	 * @return number of values in the bucket
+	 */
+	public int getCount(int bucket) {
+		return counts[bucket];
+	}
+
+	/**
+	 *
+	 * @param bucket
+	 *            bucket index
+	 * @return number of values above the threshold
+	 */
+	public int getViolationCount(int bucket) {
+		return violationCounts[bucket];
+	}
+
+	/**
+	 *
+	 * @param bucket
+	 *            bucket index
+	 * @return proportion of values above the threshold
+	 */
+	public double getViolationRatio(int bucket) {
+		return (double) violationCounts[bucket] / (double) counts[bucket];
+	}
+
+	/**
+	 *
+	 * @param bucket
+	 *            bucket index
+	 * @return max value in the bucket
+	 */
+	public double getMax(int bucket) {
+		return maxValues[bucket];
+	}
+
+	/**
+	 *
+	 * @param bucket
+	 *            bucket index
+	 * @return mean value of the bucket
+	 */
+	public double getMean(int bucket) {
+		return sums[bucket] / (double) counts[bucket];
+	}
+
+	/**
+	 * Calculates the proportion of buckets whose violation ratio exceeds the
+	 * given ratio.
+	 *
+	 * @param maxViolationRatio
+	 *            tolerated proportion of violations per bucket
+	 * @return proportion of violating buckets, NaN if there are no buckets
+	 */
+	public double getCoverage(double maxViolationRatio) {
+		if (numBuckets == 0) {
+			return Double.NaN;
+		}
+		int numViolating = 0;
+		for (int b = 0; b < numBuckets; b++) {
+			if (getViolationRatio(b) > maxViolationRatio) {
+				numViolating++;
+			}
+		}
+		return (double) numViolating / (double) numBuckets;
+	}
+
+	/**
+	 *
+	 * @return mean of all values
+	 */
+	public double getOverallMean() {
+		return overallMean;
+	}
+
+	/**
+	 *
+	 * @return means of the coarse grained parts, NaN for empty parts
+	 */
+	public double[] getCoarsePartMeans() {
+		return coarsePartMeans;
+	}
+}
@@ -0,0 +1,52 @@
+package org.spotter.ext.detection.utils;
+
+/**
+ * Takes the comparisons of another comparator from the {@link AnalysisCache}
+ * if the same samples have been compared before, e.g. to reuse bootstrapped
+ * distributions when re-analysing stored data.
+ *
+ * @author agent
+ *
+ */
+public class CachingStepComparator implements IStepComparator {
+	private final String artefact;
+	private final IStepComparator comparator;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param artefact
+	 *            name of the cached comparisons, should be changed if the
+	 *            comparison changes
+	 * @param comparator
+	 *            comparator computing the comparisons on a cache miss
+	 */
+	public CachingStepComparator(String artefact, IStepComparator comparator) {
+		this.artefact = artefact;
+		this.comparator = comparator;
+	}
+
+	@Override
+	public StepComparison compare(final double[] previousSample, final double[] currentSample) {
+		AnalysisCache cache = AnalysisCache.fromConfiguration();
+		if (!cache.isEnabled()) {
+			return comparator.compare(previousSample, currentSample);
+		}
+		AnalysisCache.Fingerprint fingerprint = AnalysisCache.newFingerprint();
+		fingerprint.add((long) previousSample.length);
+		for (double value : previousSample) {
+			fingerprint.add(value);
+		}
+		fingerprint.add((long) currentSample.length);
+		for (double value : currentSample) {
+			fingerprint.add(value);
+		}
+		return cache.getOrCompute(artefact, fingerprint, StepComparison.class,
+				new AnalysisCache.Computation<StepComparison>() {
+					@Override
+					public StepComparison compute() {
+						return comparator.compare(previousSample, currentSample);
+					}
+				});
+	}
+}
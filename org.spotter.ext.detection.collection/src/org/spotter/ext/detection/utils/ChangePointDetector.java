@@ -0,0 +1,158 @@
+package org.spotter.ext.detection.utils;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Offline change point detection for shifts in the mean of a series.
+ *
+ * Uses binary segmentation with a penalized least squares cost: a segment is
+ * split at the position that reduces the sum of squared deviations the most,
+ * as long as the reduction exceeds the penalty. Segment costs are derived
+ * from prefix sums in constant time, so each level of the recursion is linear
+ * and the whole detection costs O(n log n) for balanced splits.
+ *
+ * @author agent
+ *
+ */
+public final class ChangePointDetector {
+	/**
+	 * Scale factor of the median absolute deviation for normal data.
+	 */
+	private static final double MAD_SCALE = 0.6745;
+
+	private ChangePointDetector() {
+
+	}
+
+	/**
+	 * Detects change points in the mean of the given series.
+	 *
+	 * @param values
+	 *            series to analyze, in chronological order
+	 * @param penaltyFactor
+	 *            factor of the BIC like penalty (factor * variance * ln(n))
+	 *            per change point; larger values yield fewer change points
+	 * @param minSegmentLength
+	 *            minimal number of values per segment
+	 * @return sorted indices at which a new segment starts
+	 */
+	public static int[] detect(double[] values, double penaltyFactor, int minSegmentLength) {
+		int n = values.length;
+		int minLength = Math.max(1, minSegmentLength);
+		if (n < 2 * minLength) {
+			return new int[0];
+		}
+
+		double[] prefixSum = new double[n + 1];
+		double[] prefixSquareSum = new double[n + 1];
+		for (int i = 0; i < n; i++) {
+			prefixSum[i + 1] = prefixSum[i] + values[i];
+			prefixSquareSum[i + 1] = prefixSquareSum[i] + values[i] * values[i];
+		}
+
+		double variance = estimateNoiseVariance(values);
+		if (variance <= 0.0) {
+			variance = Math.max(cost(prefixSum, prefixSquareSum, 0, n) / (double) n, Double.MIN_NORMAL);
+		}
+		double penalty = penaltyFactor * variance * Math.log(n);
+
+		int[] changePoints = new int[n];
+		int numChangePoints = 0;
+		Deque<int[]> segments = new ArrayDeque<>();
+		segments.push(new int[] { 0, n });
+		while (!segments.isEmpty()) {
+			int[] segment = segments.pop();
+			int start = segment[0];
+			int end = segment[1];
+			if (end - start < 2 * minLength) {
+				continue;
+			}
+
+			double segmentCost = cost(prefixSum, prefixSquareSum, start, end);
+			double bestGain = 0.0;
+			int bestSplit = -1;
+			for (int split = start + minLength; split <= end - minLength; split++) {
+				double gain = segmentCost - cost(prefixSum, prefixSquareSum, start, split)
+						- cost(prefixSum, prefixSquareSum, split, end);
+				if (gain > bestGain) {
+					bestGain = gain;
+					bestSplit = split;
+				}
+			}
+
+			if (bestSplit > 0 && bestGain > penalty) {
+				changePoints[numChangePoints++] = bestSplit;
+				segments.push(new int[] { start, bestSplit });
+				segments.push(new int[] { bestSplit, end });
+			}
+		}
+
+		int[] result = Arrays.copyOf(changePoints, numChangePoints);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Calculates the mean of each segment defined by the given change points.
+	 *
+	 * @param values
+	 *            analyzed series
+	 * @param changePoints
+	 *            sorted segment start indices as returned by
+	 *            {@link #detect(double[], double, int)}
+	 * @return means of the changePoints.length + 1 segments
+	 */
+	public static double[] segmentMeans(double[] values, int[] changePoints) {
+		double[] means = new double[changePoints.length + 1];
+		int start = 0;
+		for (int s = 0; s <= changePoints.length; s++) {
+			int end = s < changePoints.length ? changePoints[s] : values.length;
+			double sum = 0.0;
+			for (int i = start; i < end; i++) {
+				sum += values[i];
+			}
+			means[s] = end > start ? sum / (double) (end - start) : Double.NaN;
+			start = end;
+		}
+		return means;
+	}
+
+	/**
+	 * Estimates the variance of the noise from the median absolute deviation
+	 * of the first differences, which is insensitive to shifts in the mean.
+	 *
+	 * @param values
+	 *            series
+	 * @return estimated noise variance
+	 */
+	public static double estimateNoiseVariance(double[] values) {
+		if (values.length < 3) {
+			return 0.0;
+		}
+		double[] diffs = new double[values.length - 1];
+		for (int i = 1; i < values.length; i++) {
+			diffs[i - 1] = values[i] - values[i - 1];
+		}
+		double median = median(diffs);
+		for (int i = 0; i < diffs.length; i++) {
+			diffs[i] = Math.abs(diffs[i] - median);
+		}
+		double sigma = median(diffs) / MAD_SCALE / Math.sqrt(2.0);
+		return sigma * sigma;
+	}
+
+	private static double median(double[] values) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int mid = sorted.length / 2;
+		return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2.0;
+	}
+
+	private static double cost(double[] prefixSum, double[] prefixSquareSum, int start, int end) {
+		double sum = prefixSum[end] - prefixSum[start];
+		double squareSum = prefixSquareSum[end] - prefixSquareSum[start];
+		return Math.max(0.0, squareSum - sum * sum / (double) (end - start));
+	}
+}
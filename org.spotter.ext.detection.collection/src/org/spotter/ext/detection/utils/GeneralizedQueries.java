@@ -0,0 +1,106 @@
+package org.spotter.ext.detection.utils;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.lpe.common.util.LpeStringUtils;
+
+/**
+ * Generalized form of SQL queries, with concrete parameter values replaced,
+ * so that executions of the same statement can be grouped. Each distinct
+ * query is generalized once; the generalized queries are cached in the
+ * {@link AnalysisCache}, so that re-analysis of the same data does not
+ * parse the queries again.
+ *
+ * @author agent
+ *
+ */
+public final class GeneralizedQueries implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private static final String ARTEFACT = "generalized-queries-v1";
+
+	private final HashMap<String, String> generalizedQueries = new HashMap<>();
+
+	private GeneralizedQueries() {
+	}
+
+	/**
+	 * Generalizes the given queries, takes them from the analysis cache if
+	 * possible.
+	 *
+	 * @param queries
+	 *            queries to generalize, may contain duplicates
+	 * @return generalized queries
+	 */
+	public static GeneralizedQueries of(Collection<String> queries) {
+		final Set<String> distinctQueries = new TreeSet<>(queries);
+		AnalysisCache cache = AnalysisCache.fromConfiguration();
+		if (!cache.isEnabled()) {
+			return create(distinctQueries);
+		}
+		AnalysisCache.Fingerprint fingerprint = AnalysisCache.newFingerprint();
+		for (String query : distinctQueries) {
+			fingerprint.add(query);
+		}
+		return cache.getOrCompute(ARTEFACT, fingerprint, GeneralizedQueries.class,
+				new AnalysisCache.Computation<GeneralizedQueries>() {
+					@Override
+					public GeneralizedQueries compute() {
+						return create(distinctQueries);
+					}
+				});
+	}
+
+	private static GeneralizedQueries create(Set<String> distinctQueries) {
+		GeneralizedQueries result = new GeneralizedQueries();
+		for (String query : distinctQueries) {
+			result.generalizedQueries.put(query, generalize(query));
+		}
+		return result;
+	}
+
+	/**
+	 *
+	 * @param query
+	 *            query passed to {@link #of(Collection)}
+	 * @return generalized query, or the generalization of the query if it
+	 *         has not been passed to {@link #of(Collection)}
+	 */
+	public String get(String query) {
+		String generalizedQuery = generalizedQueries.get(query);
+		return generalizedQuery != null ? generalizedQuery : generalize(query);
+	}
+
+	/**
+	 * Generalizes a query. Queries the SQL parser cannot handle are
+	 * generalized by replacing the name of the first temporary object (e.g.
+	 * $abc) with a fixed name.
+	 *
+	 * @param sql
+	 *            query
+	 * @return generalized query
+	 */
+	public static String generalize(String sql) {
+		String generalizedSql = LpeStringUtils.getGeneralizedQuery(sql);
+		if (generalizedSql == null) {
+			if (sql.contains("$")) {
+				int idx_1 = sql.indexOf(",", sql.indexOf("$"));
+				int idx_2 = sql.indexOf(" ", sql.indexOf("$"));
+				if (idx_1 < 0 && idx_2 < 0) {
+					idx_1 = sql.length();
+				}
+				idx_1 = idx_1 < 0 ? Integer.MAX_VALUE : idx_1;
+				idx_2 = idx_2 < 0 ? Integer.MAX_VALUE : idx_2;
+				int endIndex = Math.min(idx_1, idx_2);
+				String name = sql.substring(sql.indexOf("$"), endIndex);
+				generalizedSql = sql.replace(name, "tmp");
+			} else {
+				generalizedSql = sql;
+			}
+		}
+		return generalizedSql;
+	}
+}
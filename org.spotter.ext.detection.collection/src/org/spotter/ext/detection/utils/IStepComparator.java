@@ -0,0 +1,23 @@
+package org.spotter.ext.detection.utils;
+
+/**
+ * Compares the samples of two consecutive steps of an experiment series. The
+ * same comparator is used for the interim evaluation of a sequential series
+ * and for the final analysis of the stored data, so that both come to the
+ * same result for the same samples.
+ *
+ * @author agent
+ *
+ */
+public interface IStepComparator {
+	/**
+	 * Compares the sample of a step to the sample of its predecessor.
+	 *
+	 * @param previousSample
+	 *            sample of the previous step
+	 * @param currentSample
+	 *            sample of the current step
+	 * @return the comparison
+	 */
+	StepComparison compare(double[] previousSample, double[] currentSample);
+}
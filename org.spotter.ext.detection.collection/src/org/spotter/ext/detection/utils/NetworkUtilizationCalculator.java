@@ -0,0 +1,343 @@
+package org.spotter.ext.detection.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.aim.api.measurement.dataset.Dataset;
+import org.aim.artifacts.records.NetworkInterfaceInfoRecord;
+import org.aim.artifacts.records.NetworkRecord;
+import org.lpe.common.util.NumericPairList;
+import org.spotter.core.detection.AbstractDetectionController;
+
+/**
+ * Turns the cumulative byte counters of {@link NetworkRecord}s into bandwidth
+ * usages and utilizations per number of users.
+ *
+ * Interface speeds are read once from the {@link NetworkInterfaceInfoRecord}s
+ * and cached. The network records are grouped by experiment step, node and
+ * network interface in a single scan and then processed in one time ordered
+ * pass per group. Consecutive samples are subtracted, which tolerates
+ * missing samples, counter wrap-arounds and counter resets.
+ *
+ * @author agent
+ *
+ */
+public class NetworkUtilizationCalculator {
+	/**
+	 * Interface speed in bit/s assumed if an interface does not provide its
+	 * speed.
+	 */
+	public static final long DEFAULT_INTERFACE_SPEED = 100000000L;
+
+	private static final double BITS_PER_BYTE = 8.0;
+	private static final double MS_IN_SECOND = 1000.0;
+	private static final long MAX_32_BIT_COUNTER = 0xFFFFFFFFL;
+	private static final long RANGE_32_BIT_COUNTER = MAX_32_BIT_COUNTER + 1L;
+
+	private final Map<String, Long> interfaceSpeeds = new HashMap<>();
+	private final Map<String, Set<String>> nodeInterfaces = new TreeMap<>();
+	private final Map<String, NumericPairList<Integer, Double>> bandwidthUsages = new HashMap<>();
+	private final Set<String> wideCounterInterfaces = new TreeSet<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param networkInfoDataset
+	 *            dataset containing {@link NetworkInterfaceInfoRecord}s, may be
+	 *            null
+	 * @param networkIODataset
+	 *            dataset containing {@link NetworkRecord}s, may be null
+	 */
+	public NetworkUtilizationCalculator(Dataset networkInfoDataset, Dataset networkIODataset) {
+		if (networkInfoDataset != null) {
+			cacheInterfaceSpeeds(networkInfoDataset);
+		}
+		if (networkIODataset != null) {
+			calculateBandwidthUsages(networkIODataset);
+		}
+	}
+
+	/**
+	 * Returns a unique, human readable name for the network interface on the
+	 * given node.
+	 *
+	 * @param node
+	 *            node (process id) the interface belongs to
+	 * @param nwInterface
+	 *            name of the network interface
+	 * @return interface name
+	 */
+	public static String getInterfaceName(String node, String nwInterface) {
+		return node + " - " + nwInterface;
+	}
+
+	/**
+	 *
+	 * @return nodes for which network IO data is available
+	 */
+	public Set<String> getNodes() {
+		return nodeInterfaces.keySet();
+	}
+
+	/**
+	 *
+	 * @param node
+	 *            node of interest
+	 * @return network interfaces of the given node for which network IO data
+	 *         is available
+	 */
+	public Set<String> getNetworkInterfaces(String node) {
+		Set<String> nwInterfaces = nodeInterfaces.get(node);
+		if (nwInterfaces == null) {
+			return Collections.emptySet();
+		}
+		return nwInterfaces;
+	}
+
+	/**
+	 * Returns the cached speed of the given interface. If the interface did
+	 * not report a speed, {@link #DEFAULT_INTERFACE_SPEED} is assumed.
+	 *
+	 * @param node
+	 *            node the interface belongs to
+	 * @param nwInterface
+	 *            network interface
+	 * @return interface speed in bytes per second
+	 */
+	public double getInterfaceSpeed(String node, String nwInterface) {
+		Long speed = interfaceSpeeds.get(getInterfaceName(node, nwInterface));
+		if (speed == null || speed < 0L) {
+			speed = DEFAULT_INTERFACE_SPEED;
+		}
+		return ((double) speed) / BITS_PER_BYTE;
+	}
+
+	/**
+	 * Returns the bandwidth usage of the given interface for each number of
+	 * users. The bandwidth usage is the maximum of the sent and received bytes
+	 * per second.
+	 *
+	 * @param node
+	 *            node the interface belongs to
+	 * @param nwInterface
+	 *            network interface
+	 * @return bandwidth usages in bytes per second, sorted by number of users
+	 */
+	public NumericPairList<Integer, Double> getBandwidthUsages(String node, String nwInterface) {
+		NumericPairList<Integer, Double> usages = bandwidthUsages.get(getInterfaceName(node, nwInterface));
+		if (usages == null) {
+			return new NumericPairList<>();
+		}
+		return usages;
+	}
+
+	/**
+	 * Returns the utilization of the given interface for each number of users.
+	 *
+	 * @param node
+	 *            node the interface belongs to
+	 * @param nwInterface
+	 *            network interface
+	 * @return utilizations in the range [0,1], sorted by number of users
+	 */
+	public NumericPairList<Integer, Double> getUtilizations(String node, String nwInterface) {
+		double speed = getInterfaceSpeed(node, nwInterface);
+		NumericPairList<Integer, Double> usages = getBandwidthUsages(node, nwInterface);
+		NumericPairList<Integer, Double> utils = new NumericPairList<>();
+		for (int i = 0; i < usages.size(); i++) {
+			double util = speed > 0.0 ? usages.get(i).getValue() / speed : 0.0;
+			utils.add(usages.get(i).getKey(), util);
+		}
+		return utils;
+	}
+
+	private void cacheInterfaceSpeeds(Dataset networkInfoDataset) {
+		List<String> nodes = networkInfoDataset.getValues(NetworkInterfaceInfoRecord.PAR_PROCESS_ID, String.class);
+		List<String> nwInterfaces = networkInfoDataset.getValues(NetworkInterfaceInfoRecord.PAR_NETWORK_INTERFACE,
+				String.class);
+		List<Long> speeds = networkInfoDataset.getValues(NetworkInterfaceInfoRecord.PAR_INTERFACE_SPEED, Long.class);
+		for (int i = 0; i < speeds.size(); i++) {
+			Long speed = speeds.get(i);
+			if (speed == null) {
+				continue;
+			}
+			String interfaceName = getInterfaceName(nodes.get(i), nwInterfaces.get(i));
+			Long cachedSpeed = interfaceSpeeds.get(interfaceName);
+			if (cachedSpeed == null || speed < cachedSpeed) {
+				interfaceSpeeds.put(interfaceName, speed);
+			}
+		}
+	}
+
+	private void calculateBandwidthUsages(Dataset networkIODataset) {
+		for (Map.Entry<Integer, Map<String, CounterSeries>> stepEntry : groupByStepAndInterface(networkIODataset)
+				.entrySet()) {
+			for (Map.Entry<String, CounterSeries> entry : stepEntry.getValue().entrySet()) {
+				// the counter width of an interface does not change between
+				// the experiment steps
+				if (entry.getValue().wideCounters) {
+					wideCounterInterfaces.add(entry.getKey());
+				} else if (wideCounterInterfaces.contains(entry.getKey())) {
+					entry.getValue().wideCounters = true;
+				}
+				double usage = entry.getValue().calculateBandwidthUsage();
+				if (Double.isNaN(usage)) {
+					continue;
+				}
+				NumericPairList<Integer, Double> usages = bandwidthUsages.get(entry.getKey());
+				if (usages == null) {
+					usages = new NumericPairList<>();
+					bandwidthUsages.put(entry.getKey(), usages);
+				}
+				usages.add(stepEntry.getKey(), usage);
+			}
+		}
+	}
+
+	/**
+	 * Groups the network records by number of users and network interface in
+	 * a single scan over the dataset.
+	 */
+	private SortedMap<Integer, Map<String, CounterSeries>> groupByStepAndInterface(Dataset networkIODataset) {
+		List<Integer> users = networkIODataset.getValues(AbstractDetectionController.NUMBER_OF_USERS_KEY,
+				Integer.class);
+		List<String> nodes = networkIODataset.getValues(NetworkRecord.PAR_PROCESS_ID, String.class);
+		List<String> nwInterfaces = networkIODataset.getValues(NetworkRecord.PAR_NETWORK_INTERFACE, String.class);
+		List<Long> timestamps = networkIODataset.getValues(NetworkRecord.PAR_TIMESTAMP, Long.class);
+		List<Long> transferredBytes = networkIODataset.getValues(NetworkRecord.PAR_TRANSFERRED_BYTES, Long.class);
+		List<Long> receivedBytes = networkIODataset.getValues(NetworkRecord.PAR_RECEIVED_BYTES, Long.class);
+
+		SortedMap<Integer, Map<String, CounterSeries>> stepMap = new TreeMap<>();
+		for (int i = 0; i < timestamps.size(); i++) {
+			if (timestamps.get(i) == null || transferredBytes.get(i) == null || receivedBytes.get(i) == null) {
+				// incomplete sample
+				continue;
+			}
+			Map<String, CounterSeries> seriesMap = stepMap.get(users.get(i));
+			if (seriesMap == null) {
+				seriesMap = new HashMap<>();
+				stepMap.put(users.get(i), seriesMap);
+			}
+			String node = nodes.get(i);
+			String nwInterface = nwInterfaces.get(i);
+			String interfaceName = getInterfaceName(node, nwInterface);
+			CounterSeries series = seriesMap.get(interfaceName);
+			if (series == null) {
+				series = new CounterSeries(getInterfaceSpeed(node, nwInterface));
+				seriesMap.put(interfaceName, series);
+				Set<String> interfacesOfNode = nodeInterfaces.get(node);
+				if (interfacesOfNode == null) {
+					interfacesOfNode = new TreeSet<>();
+					nodeInterfaces.put(node, interfacesOfNode);
+				}
+				interfacesOfNode.add(nwInterface);
+			}
+			series.add(timestamps.get(i), transferredBytes.get(i), receivedBytes.get(i));
+		}
+		return stepMap;
+	}
+
+	/**
+	 * Primitive time series of the counters of one network interface.
+	 */
+	private static class CounterSeries {
+		private static final int INITIAL_CAPACITY = 64;
+		private final double bytesPerSecond;
+		private long[] timestamps = new long[INITIAL_CAPACITY];
+		private long[] transferred = new long[INITIAL_CAPACITY];
+		private long[] received = new long[INITIAL_CAPACITY];
+		private int size = 0;
+		/**
+		 * True if the counters have been observed to exceed 32 bit and thus
+		 * never wrap around.
+		 */
+		private boolean wideCounters = false;
+
+		/**
+		 * @param bytesPerSecond
+		 *            speed of the interface in bytes per second
+		 */
+		private CounterSeries(double bytesPerSecond) {
+			this.bytesPerSecond = bytesPerSecond;
+		}
+
+		private void add(long timestamp, long transferredBytes, long receivedBytes) {
+			if (size == timestamps.length) {
+				int newCapacity = size * 2;
+				timestamps = Arrays.copyOf(timestamps, newCapacity);
+				transferred = Arrays.copyOf(transferred, newCapacity);
+				received = Arrays.copyOf(received, newCapacity);
+			}
+			timestamps[size] = timestamp;
+			transferred[size] = transferredBytes;
+			received[size] = receivedBytes;
+			size++;
+			if (transferredBytes > MAX_32_BIT_COUNTER || receivedBytes > MAX_32_BIT_COUNTER) {
+				wideCounters = true;
+			}
+		}
+
+		/**
+		 * Computes the increase of a cumulative counter between two samples. A
+		 * decreasing counter either wrapped around or has been reset, in which
+		 * case the current value is the increase since the reset. Only 32 bit
+		 * counters wrap around, and only if the resulting increase could have
+		 * been transferred by the interface within the interval.
+		 */
+		private long counterDelta(long previous, long current, long interval) {
+			if (current >= previous) {
+				return current - previous;
+			}
+			if (!wideCounters && previous <= MAX_32_BIT_COUNTER) {
+				long wrappedDelta = current + (RANGE_32_BIT_COUNTER - previous);
+				if (wrappedDelta <= bytesPerSecond * interval / MS_IN_SECOND) {
+					return wrappedDelta;
+				}
+			}
+			return current;
+		}
+
+		/**
+		 * @return max. of sent and received bytes per second or NaN if the
+		 *         series does not span a time interval
+		 */
+		private double calculateBandwidthUsage() {
+			sortByTimestamp();
+			long duration = 0L;
+			long sentBytes = 0L;
+			long receivedBytes = 0L;
+			for (int i = 1; i < size; i++) {
+				long interval = timestamps[i] - timestamps[i - 1];
+				if (interval <= 0L) {
+					// duplicate sample
+					continue;
+				}
+				duration += interval;
+				sentBytes += counterDelta(transferred[i - 1], transferred[i], interval);
+				receivedBytes += counterDelta(received[i - 1], received[i], interval);
+			}
+			if (duration <= 0L) {
+				return Double.NaN;
+			}
+			double sent = ((double) sentBytes * MS_IN_SECOND) / (double) duration;
+			double rec = ((double) receivedBytes * MS_IN_SECOND) / (double) duration;
+			return Math.max(sent, rec);
+		}
+
+		private void sortByTimestamp() {
+			int[] order = Utils.chronologicalOrder(timestamps, size);
+			if (order != null) {
+				timestamps = Utils.permute(timestamps, order);
+				transferred = Utils.permute(transferred, order);
+				received = Utils.permute(received, order);
+			}
+		}
+	}
+}
@@ -0,0 +1,359 @@
+package org.spotter.ext.detection.utils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.distribution.TDistribution;
+
+/**
+ * Streaming simple linear regression. Observations are consumed one by one
+ * and only running moments are kept, so memory is constant and the cost is
+ * linear in the number of observations.
+ *
+ * Besides the (optionally weighted) ordinary least squares estimate, a robust
+ * Theil-Sen slope is computed on a uniform reservoir sample of the
+ * observations.
+ *
+ * @author agent
+ *
+ */
+public class OnlineRegression {
+	/**
+	 * Default number of observations kept for the Theil-Sen estimator.
+	 */
+	public static final int DEFAULT_ROBUST_SAMPLE_SIZE = 256;
+
+	private static final long RESERVOIR_SEED = 4711L;
+
+	private long count = 0;
+	private double sumWeights = 0.0;
+	private double meanX = 0.0;
+	private double meanY = 0.0;
+	private double sxx = 0.0;
+	private double syy = 0.0;
+	private double sxy = 0.0;
+	private double minX = Double.NaN;
+	private double maxX = Double.NaN;
+
+	private final double[] sampleX;
+	private final double[] sampleY;
+	private final Random random;
+
+	/**
+	 * Constructor using the {@link #DEFAULT_ROBUST_SAMPLE_SIZE}.
+	 */
+	public OnlineRegression() {
+		this(DEFAULT_ROBUST_SAMPLE_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param robustSampleSize
+	 *            number of observations to keep for the Theil-Sen estimator,
+	 *            0 disables the robust estimation
+	 */
+	public OnlineRegression(int robustSampleSize) {
+		sampleX = new double[robustSampleSize];
+		sampleY = new double[robustSampleSize];
+		random = new Random(RESERVOIR_SEED);
+	}
+
+	/**
+	 * Adds an observation with weight 1.
+	 *
+	 * @param x
+	 *            independent value
+	 * @param y
+	 *            dependent value
+	 */
+	public void add(double x, double y) {
+		add(x, y, 1.0);
+	}
+
+	/**
+	 * Adds a weighted observation.
+	 *
+	 * @param x
+	 *            independent value
+	 * @param y
+	 *            dependent value
+	 * @param weight
+	 *            weight of the observation, must be positive
+	 */
+	public void add(double x, double y, double weight) {
+		if (weight <= 0.0) {
+			throw new IllegalArgumentException("Weight must be positive!");
+		}
+		count++;
+		sumWeights += weight;
+		double dx = x - meanX;
+		double dy = y - meanY;
+		meanX += weight * dx / sumWeights;
+		meanY += weight * dy / sumWeights;
+		sxx += weight * dx * (x - meanX);
+		syy += weight * dy * (y - meanY);
+		sxy += weight * dx * (y - meanY);
+
+		if (count == 1) {
+			minX = x;
+			maxX = x;
+		} else {
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+		}
+
+		addToReservoir(x, y);
+	}
+
+	private void addToReservoir(double x, double y) {
+		if (sampleX.length == 0) {
+			return;
+		}
+		if (count <= sampleX.length) {
+			sampleX[(int) count - 1] = x;
+			sampleY[(int) count - 1] = y;
+		} else {
+			long idx = (long) (random.nextDouble() * count);
+			if (idx < sampleX.length) {
+				sampleX[(int) idx] = x;
+				sampleY[(int) idx] = y;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return number of observations
+	 */
+	public long getN() {
+		return count;
+	}
+
+	/**
+	 *
+	 * @return smallest independent value or NaN if empty
+	 */
+	public double getMinX() {
+		return minX;
+	}
+
+	/**
+	 *
+	 * @return largest independent value or NaN if empty
+	 */
+	public double getMaxX() {
+		return maxX;
+	}
+
+	/**
+	 *
+	 * @return weighted mean of the dependent values
+	 */
+	public double getMeanY() {
+		return count > 0 ? meanY : Double.NaN;
+	}
+
+	/**
+	 *
+	 * @return standard deviation of the dependent values
+	 */
+	public double getStdDevY() {
+		if (count < 2) {
+			return Double.NaN;
+		}
+		return Math.sqrt(syy / sumWeights * ((double) count / (double) (count - 1)));
+	}
+
+	/**
+	 *
+	 * @return least squares slope or NaN if less than two distinct x values
+	 *         have been added
+	 */
+	public double getSlope() {
+		if (count < 2 || sxx <= 0.0) {
+			return Double.NaN;
+		}
+		return sxy / sxx;
+	}
+
+	/**
+	 *
+	 * @return least squares intercept
+	 */
+	public double getIntercept() {
+		return meanY - getSlope() * meanX;
+	}
+
+	/**
+	 *
+	 * @param x
+	 *            independent value
+	 * @return predicted value for x
+	 */
+	public double predict(double x) {
+		return getIntercept() + getSlope() * x;
+	}
+
+	/**
+	 *
+	 * @return standard error of the least squares slope
+	 */
+	public double getSlopeStdErr() {
+		if (count < 3 || sxx <= 0.0) {
+			return Double.NaN;
+		}
+		double sse = Math.max(0.0, syy - sxy * sxy / sxx);
+		// rescale weights to the number of observations
+		double meanSquaredError = (sse / sumWeights * count) / (double) (count - 2);
+		return Math.sqrt(meanSquaredError / (sxx / sumWeights * count));
+	}
+
+	/**
+	 * Returns the half width of the confidence interval of the least squares
+	 * slope.
+	 *
+	 * @param alpha
+	 *            significance level (e.g. 0.05 for a 95% interval)
+	 * @return half width of the confidence interval
+	 */
+	public double getSlopeConfidenceInterval(double alpha) {
+		double stdErr = getSlopeStdErr();
+		if (Double.isNaN(stdErr)) {
+			return Double.NaN;
+		}
+		TDistribution distribution = new TDistribution(count - 2);
+		return distribution.inverseCumulativeProbability(1.0 - alpha / 2.0) * stdErr;
+	}
+
+	/**
+	 *
+	 * @param alpha
+	 *            significance level
+	 * @return lower confidence bound of the least squares slope
+	 */
+	public double getSlopeLowerBound(double alpha) {
+		return getSlope() - getSlopeConfidenceInterval(alpha);
+	}
+
+	/**
+	 *
+	 * @param alpha
+	 *            significance level
+	 * @return upper confidence bound of the least squares slope
+	 */
+	public double getSlopeUpperBound(double alpha) {
+		return getSlope() + getSlopeConfidenceInterval(alpha);
+	}
+
+	/**
+	 * Calculates the Theil-Sen slope (median of all pairwise slopes) on the
+	 * reservoir sample. The estimate is insensitive to outliers. Its cost is
+	 * quadratic in the sample size only.
+	 *
+	 * @return robust slope or NaN if the sample contains less than two
+	 *         distinct x values
+	 */
+	public double getRobustSlope() {
+		double[] slopes = getPairwiseSlopes();
+		if (slopes.length == 0) {
+			return Double.NaN;
+		}
+		int mid = slopes.length / 2;
+		if (slopes.length % 2 == 1) {
+			return slopes[mid];
+		}
+		return (slopes[mid - 1] + slopes[mid]) / 2.0;
+	}
+
+	/**
+	 *
+	 * @param alpha
+	 *            significance level
+	 * @return lower confidence bound of the Theil-Sen slope
+	 */
+	public double getRobustSlopeLowerBound(double alpha) {
+		double[] slopes = getPairwiseSlopes();
+		int offset = getRobustRankOffset(slopes.length, alpha);
+		if (offset < 0) {
+			return Double.NaN;
+		}
+		return slopes[(slopes.length - 1) / 2 - offset];
+	}
+
+	/**
+	 *
+	 * @param alpha
+	 *            significance level
+	 * @return upper confidence bound of the Theil-Sen slope
+	 */
+	public double getRobustSlopeUpperBound(double alpha) {
+		double[] slopes = getPairwiseSlopes();
+		int offset = getRobustRankOffset(slopes.length, alpha);
+		if (offset < 0) {
+			return Double.NaN;
+		}
+		return slopes[slopes.length / 2 + offset];
+	}
+
+	/**
+	 * Distribution-free confidence interval of Sen (1968): the bounds are the
+	 * pairwise slopes whose ranks lie (z * sqrt(n(n-1)(2n+5)/18)) / 2 below
+	 * and above the median, n being the number of sampled observations.
+	 *
+	 * @return distance of the bounds from the median rank, -1 if there are
+	 *         too few slopes for an interval
+	 */
+	private int getRobustRankOffset(int numSlopes, double alpha) {
+		int n = (int) Math.min(count, sampleX.length);
+		if (numSlopes < 2 || n < 3) {
+			return -1;
+		}
+		double z = new NormalDistribution().inverseCumulativeProbability(1.0 - alpha / 2.0);
+		double c = z * Math.sqrt(n * (n - 1.0) * (2.0 * n + 5.0) / 18.0);
+		int offset = (int) Math.ceil(c / 2.0);
+		return Math.min(offset, (numSlopes - 1) / 2);
+	}
+
+	/**
+	 *
+	 * @return sorted slopes between all pairs of sampled observations with
+	 *         distinct x values
+	 */
+	private double[] getPairwiseSlopes() {
+		int n = (int) Math.min(count, sampleX.length);
+		double[] slopes = new double[n * (n - 1) / 2];
+		int numSlopes = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				double dx = sampleX[j] - sampleX[i];
+				if (dx != 0.0) {
+					slopes[numSlopes++] = (sampleY[j] - sampleY[i]) / dx;
+				}
+			}
+		}
+		Arrays.sort(slopes, 0, numSlopes);
+		return numSlopes == slopes.length ? slopes : Arrays.copyOf(slopes, numSlopes);
+	}
+
+	/**
+	 * Calculates the intercept belonging to the robust slope (median of
+	 * residuals on the reservoir sample).
+	 *
+	 * @return robust intercept
+	 */
+	public double getRobustIntercept() {
+		double slope = getRobustSlope();
+		int n = (int) Math.min(count, sampleX.length);
+		if (n == 0 || Double.isNaN(slope)) {
+			return Double.NaN;
+		}
+		double[] residuals = new double[n];
+		for (int i = 0; i < n; i++) {
+			residuals[i] = sampleY[i] - slope * sampleX[i];
+		}
+		Arrays.sort(residuals);
+		return n % 2 == 1 ? residuals[n / 2] : (residuals[n / 2 - 1] + residuals[n / 2]) / 2.0;
+	}
+}
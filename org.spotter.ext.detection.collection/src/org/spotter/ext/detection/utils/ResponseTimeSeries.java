@@ -0,0 +1,129 @@
+package org.spotter.ext.detection.utils;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.aim.api.measurement.dataset.Dataset;
+import org.aim.artifacts.records.ResponseTimeRecord;
+import org.lpe.common.util.NumericPairList;
+
+/**
+ * Chronologically sorted response time series of all operations of a
+ * response time dataset, grouped in a single pass over the dataset. The
+ * grouped series are cached in the {@link AnalysisCache}, so that re-analysis
+ * of the same data does not group and sort them again.
+ *
+ * @author agent
+ *
+ */
+public final class ResponseTimeSeries implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private static final String ARTEFACT = "rt-series-v1";
+
+	private final TreeMap<String, long[]> timestamps = new TreeMap<>();
+	private final TreeMap<String, double[]> responseTimes = new TreeMap<>();
+
+	private ResponseTimeSeries() {
+	}
+
+	/**
+	 * Returns the series of the dataset, from the analysis cache if possible.
+	 *
+	 * @param rtDataset
+	 *            response time dataset
+	 * @return series per operation
+	 */
+	public static ResponseTimeSeries fromDataset(final Dataset rtDataset) {
+		AnalysisCache cache = AnalysisCache.fromConfiguration();
+		if (!cache.isEnabled()) {
+			return create(rtDataset);
+		}
+		AnalysisCache.Fingerprint fingerprint = AnalysisCache.newFingerprint();
+		for (ResponseTimeRecord rtRecord : rtDataset.getRecords(ResponseTimeRecord.class)) {
+			fingerprint.add(rtRecord.getTimeStamp()).add(rtRecord.getOperation()).add(rtRecord.getResponseTime());
+		}
+		return cache.getOrCompute(ARTEFACT, fingerprint, ResponseTimeSeries.class,
+				new AnalysisCache.Computation<ResponseTimeSeries>() {
+					@Override
+					public ResponseTimeSeries compute() {
+						return create(rtDataset);
+					}
+				});
+	}
+
+	private static ResponseTimeSeries create(Dataset rtDataset) {
+		Map<String, Integer> counts = new TreeMap<>();
+		for (ResponseTimeRecord rtRecord : rtDataset.getRecords(ResponseTimeRecord.class)) {
+			Integer count = counts.get(rtRecord.getOperation());
+			counts.put(rtRecord.getOperation(), count == null ? 1 : count + 1);
+		}
+
+		ResponseTimeSeries series = new ResponseTimeSeries();
+		Map<String, Integer> positions = new TreeMap<>();
+		for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+			series.timestamps.put(entry.getKey(), new long[entry.getValue()]);
+			series.responseTimes.put(entry.getKey(), new double[entry.getValue()]);
+			positions.put(entry.getKey(), 0);
+		}
+		for (ResponseTimeRecord rtRecord : rtDataset.getRecords(ResponseTimeRecord.class)) {
+			String operation = rtRecord.getOperation();
+			int position = positions.get(operation);
+			series.timestamps.get(operation)[position] = rtRecord.getTimeStamp();
+			series.responseTimes.get(operation)[position] = rtRecord.getResponseTime();
+			positions.put(operation, position + 1);
+		}
+
+		for (String operation : counts.keySet()) {
+			long[] ts = series.timestamps.get(operation);
+			int[] order = Utils.chronologicalOrder(ts, ts.length);
+			if (order != null) {
+				series.timestamps.put(operation, Utils.permute(ts, order));
+				series.responseTimes.put(operation, Utils.permute(series.responseTimes.get(operation), order));
+			}
+		}
+		return series;
+	}
+
+	/**
+	 *
+	 * @return operations, sorted by name
+	 */
+	public Set<String> getOperations() {
+		return timestamps.keySet();
+	}
+
+	/**
+	 *
+	 * @param operation
+	 *            operation of interest
+	 * @return number of response times of the operation
+	 */
+	public int size(String operation) {
+		long[] ts = timestamps.get(operation);
+		return ts == null ? 0 : ts.length;
+	}
+
+	/**
+	 * Creates a new, chronologically sorted list of timestamp response time
+	 * pairs.
+	 *
+	 * @param operation
+	 *            operation of interest
+	 * @return list of timestamp response time pairs, empty if the operation
+	 *         is unknown
+	 */
+	public NumericPairList<Long, Double> getSeries(String operation) {
+		NumericPairList<Long, Double> series = new NumericPairList<>();
+		long[] ts = timestamps.get(operation);
+		if (ts == null) {
+			return series;
+		}
+		double[] rts = responseTimes.get(operation);
+		for (int i = 0; i < ts.length; i++) {
+			series.add(ts[i], rts[i]);
+		}
+		return series;
+	}
+}
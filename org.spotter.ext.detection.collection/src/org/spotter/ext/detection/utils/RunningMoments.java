@@ -0,0 +1,55 @@
+package org.spotter.ext.detection.utils;
+
+/**
+ * Running mean and standard deviation of a stream of values (Welford's
+ * method). Only the count and two moments are kept.
+ *
+ * @author agent
+ *
+ */
+public class RunningMoments {
+	private long count = 0;
+	private double mean = 0.0;
+	private double m2 = 0.0;
+
+	/**
+	 * Adds a value.
+	 *
+	 * @param value
+	 *            value to add
+	 */
+	public void add(double value) {
+		count++;
+		double delta = value - mean;
+		mean += delta / count;
+		m2 += delta * (value - mean);
+	}
+
+	/**
+	 *
+	 * @return number of values
+	 */
+	public long getN() {
+		return count;
+	}
+
+	/**
+	 *
+	 * @return mean of the values or NaN if empty
+	 */
+	public double getMean() {
+		return count > 0 ? mean : Double.NaN;
+	}
+
+	/**
+	 *
+	 * @return sample standard deviation of the values or NaN for less than
+	 *         two values
+	 */
+	public double getStdDev() {
+		if (count < 2) {
+			return Double.NaN;
+		}
+		return Math.sqrt(m2 / (count - 1));
+	}
+}
@@ -0,0 +1,143 @@
+package org.spotter.ext.detection.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.spotter.ext.detection.utils.SequentialStepTest.Decision;
+
+/**
+ * Sequential evaluation of an experiment series with one
+ * {@link SequentialStepTest} per series, e.g. per operation or database. A
+ * problem is detected as soon as one of the tests detects it; the series is
+ * settled without detection if all tests are settled without detection.
+ *
+ * The samples of consecutive steps are compared by an {@link IStepComparator},
+ * which should be the one the final analysis of the controller uses as well.
+ *
+ * Usage within an {@link AbstractSequentialDetectionController}:
+ *
+ * <pre>
+ * public void executeExperiments() throws ... {
+ * 	executeSequentialExperimentSeries(new SequentialSeriesTest(experimentSteps, requiredSignificantSteps,
+ * 			significanceLevel, stepComparator), experimentSteps, instrumentationDescription);
+ * }
+ *
+ * protected void evaluateExperiment(SequentialSeriesTest test, int numUsers, List&lt;AbstractRecord&gt; records) {
+ * 	test.addStep(samplesOfStep(records));
+ * }
+ * </pre>
+ *
+ * @author agent
+ *
+ */
+public class SequentialSeriesTest {
+	private final int numSteps;
+	private final int requiredSignificantSteps;
+	private final double significanceLevel;
+	private final IStepComparator comparator;
+
+	private final Map<String, SequentialStepTest> tests = new HashMap<>();
+	private Map<String, double[]> previousSamples = new HashMap<>();
+	private int numEvaluatedSteps = 0;
+	private Decision decision = Decision.CONTINUE;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param numSteps
+	 *            number of planned experiment steps
+	 * @param requiredSignificantSteps
+	 *            number of consecutive significant increases required for a
+	 *            detection
+	 * @param significanceLevel
+	 *            significance level of the individual comparisons
+	 * @param comparator
+	 *            comparator of the samples of consecutive steps
+	 */
+	public SequentialSeriesTest(int numSteps, int requiredSignificantSteps, double significanceLevel,
+			IStepComparator comparator) {
+		this.numSteps = numSteps;
+		this.requiredSignificantSteps = requiredSignificantSteps;
+		this.significanceLevel = significanceLevel;
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Compares the samples of a finished step to the samples of the previous
+	 * step with the same key. Has no effect once the decision is settled.
+	 *
+	 * @param samples
+	 *            samples of the finished step by key
+	 * @return decision after this step
+	 */
+	public Decision addStep(Map<String, double[]> samples) {
+		if (isSettled()) {
+			return decision;
+		}
+		for (Map.Entry<String, double[]> entry : samples.entrySet()) {
+			double[] previousValues = previousSamples.get(entry.getKey());
+			if (previousValues == null) {
+				continue;
+			}
+			SequentialStepTest test = tests.get(entry.getKey());
+			if (test == null) {
+				// the series of this key starts with the previous step
+				test = new SequentialStepTest(numSteps - numEvaluatedSteps + 1, requiredSignificantSteps,
+						significanceLevel);
+				tests.put(entry.getKey(), test);
+			}
+			StepComparison comparison = comparator.compare(previousValues, entry.getValue());
+			test.addComparison(comparison.getPValue(), comparison.isIncrease());
+		}
+		previousSamples = samples;
+		numEvaluatedSteps++;
+		decision = SequentialStepTest.anyDetected(tests.values());
+		if (decision == Decision.CONTINUE && numEvaluatedSteps >= numSteps) {
+			decision = Decision.NOT_DETECTED;
+		}
+		return decision;
+	}
+
+	/**
+	 * Settles the decision independently of the samples, e.g. if another
+	 * criterion detected the problem.
+	 *
+	 * @param settledDecision
+	 *            decision to settle
+	 */
+	public void settle(Decision settledDecision) {
+		decision = settledDecision;
+	}
+
+	/**
+	 *
+	 * @return current decision
+	 */
+	public Decision getDecision() {
+		return decision;
+	}
+
+	/**
+	 *
+	 * @return true, if further steps cannot change the decision
+	 */
+	public boolean isSettled() {
+		return decision != Decision.CONTINUE;
+	}
+
+	/**
+	 *
+	 * @return number of steps added so far
+	 */
+	public int getNumEvaluatedSteps() {
+		return numEvaluatedSteps;
+	}
+
+	/**
+	 *
+	 * @return number of planned experiment steps
+	 */
+	public int getNumSteps() {
+		return numSteps;
+	}
+}
@@ -0,0 +1,183 @@
+package org.spotter.ext.detection.utils;
+
+import java.util.Collection;
+
+/**
+ * Group sequential evaluation of an experiment series with increasing load.
+ * The series is analyzed step by step: each finished step is compared to its
+ * predecessor and the test decides whether the remaining steps can be
+ * skipped.
+ *
+ * The final decision rule is the one of the step-wise analyses: a problem is
+ * detected if the series ends with at least the required number of
+ * consecutive significant increases. The series is stopped early if
+ * <ul>
+ * <li>the remaining steps can no longer complete the required run of
+ * significant increases (curtailment, does not change the outcome), or</li>
+ * <li>the current run of significant increases has reached the required length
+ * and all its p-values fall below the interim significance level
+ * (Haybittle-Peto boundary). The strict interim level keeps the overall error
+ * rate close to the configured significance level.</li>
+ * </ul>
+ *
+ * @author agent
+ *
+ */
+public class SequentialStepTest {
+	/**
+	 * Significance level an interim look has to reach for early detection.
+	 */
+	public static final double DEFAULT_INTERIM_SIGNIFICANCE_LEVEL = 0.001;
+
+	/**
+	 * Decision of a sequential test.
+	 *
+	 * @author agent
+	 *
+	 */
+	public enum Decision {
+		/**
+		 * More steps are required.
+		 */
+		CONTINUE,
+		/**
+		 * Significant increase detected.
+		 */
+		DETECTED,
+		/**
+		 * Increase can no longer be detected.
+		 */
+		NOT_DETECTED
+	}
+
+	private final int numComparisons;
+	private final int requiredSignificantSteps;
+	private final double significanceLevel;
+	private final double interimSignificanceLevel;
+
+	private int numEvaluated = 0;
+	private int significantSteps = 0;
+	private double maxPValueInRun = 0.0;
+	private Decision decision = Decision.CONTINUE;
+
+	/**
+	 * Constructor using the {@link #DEFAULT_INTERIM_SIGNIFICANCE_LEVEL}.
+	 *
+	 * @param numSteps
+	 *            number of planned experiment steps
+	 * @param requiredSignificantSteps
+	 *            number of consecutive significant increases required for a
+	 *            detection
+	 * @param significanceLevel
+	 *            significance level of the individual comparisons
+	 */
+	public SequentialStepTest(int numSteps, int requiredSignificantSteps, double significanceLevel) {
+		this(numSteps, requiredSignificantSteps, significanceLevel, Math.min(significanceLevel,
+				DEFAULT_INTERIM_SIGNIFICANCE_LEVEL));
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param numSteps
+	 *            number of planned experiment steps
+	 * @param requiredSignificantSteps
+	 *            number of consecutive significant increases required for a
+	 *            detection
+	 * @param significanceLevel
+	 *            significance level of the individual comparisons
+	 * @param interimSignificanceLevel
+	 *            significance level required for a detection before the last
+	 *            step
+	 */
+	public SequentialStepTest(int numSteps, int requiredSignificantSteps, double significanceLevel,
+			double interimSignificanceLevel) {
+		this.numComparisons = Math.max(0, numSteps - 1);
+		this.requiredSignificantSteps = requiredSignificantSteps;
+		this.significanceLevel = significanceLevel;
+		this.interimSignificanceLevel = interimSignificanceLevel;
+		if (numComparisons < requiredSignificantSteps) {
+			decision = Decision.NOT_DETECTED;
+		}
+	}
+
+	/**
+	 * Adds the comparison of a finished step with its predecessor. Has no
+	 * effect once the decision is settled.
+	 *
+	 * @param pValue
+	 *            p-value of the comparison
+	 * @param increase
+	 *            true, if the mean of the finished step is larger than the
+	 *            mean of the previous step
+	 * @return decision after this step
+	 */
+	public Decision addComparison(double pValue, boolean increase) {
+		if (isSettled()) {
+			return decision;
+		}
+		numEvaluated++;
+		if (increase && pValue >= 0 && pValue <= significanceLevel) {
+			maxPValueInRun = significantSteps == 0 ? pValue : Math.max(maxPValueInRun, pValue);
+			significantSteps++;
+		} else {
+			significantSteps = 0;
+			maxPValueInRun = 0.0;
+		}
+
+		int remaining = numComparisons - numEvaluated;
+		if (remaining <= 0) {
+			decision = significantSteps >= requiredSignificantSteps ? Decision.DETECTED : Decision.NOT_DETECTED;
+		} else if (significantSteps >= requiredSignificantSteps && maxPValueInRun <= interimSignificanceLevel) {
+			decision = Decision.DETECTED;
+		} else if (significantSteps + remaining < requiredSignificantSteps) {
+			decision = Decision.NOT_DETECTED;
+		}
+		return decision;
+	}
+
+	/**
+	 *
+	 * @return current decision
+	 */
+	public Decision getDecision() {
+		return decision;
+	}
+
+	/**
+	 *
+	 * @return true, if further steps cannot change the decision
+	 */
+	public boolean isSettled() {
+		return decision != Decision.CONTINUE;
+	}
+
+	/**
+	 *
+	 * @return number of comparisons added so far
+	 */
+	public int getNumEvaluatedSteps() {
+		return numEvaluated;
+	}
+
+	/**
+	 * Combines the decisions of several tests of which at least one has to
+	 * detect a problem.
+	 *
+	 * @param tests
+	 *            tests to combine
+	 * @return DETECTED if any test detected, NOT_DETECTED if all tests are
+	 *         settled without detection, otherwise CONTINUE (also if there
+	 *         are no tests yet)
+	 */
+	public static Decision anyDetected(Collection<SequentialStepTest> tests) {
+		boolean allSettled = !tests.isEmpty();
+		for (SequentialStepTest test : tests) {
+			if (test.getDecision() == Decision.DETECTED) {
+				return Decision.DETECTED;
+			}
+			allSettled &= test.isSettled();
+		}
+		return allSettled ? Decision.NOT_DETECTED : Decision.CONTINUE;
+	}
+}
@@ -0,0 +1,144 @@
+package org.spotter.ext.detection.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.math3.stat.StatUtils;
+import org.apache.commons.math3.stat.inference.TestUtils;
+
+/**
+ * Statistical functions operating on primitive arrays. Avoids boxing and
+ * intermediate lists when analyzing large samples.
+ *
+ * @author agent
+ *
+ */
+public final class StatisticsUtils {
+	/**
+	 * Number of resamples drawn by {@link #bootstrapMeans(double[], Random)}.
+	 */
+	public static final int DEFAULT_NUM_BOOTSTRAP_RESAMPLES = 100;
+
+	private static final long BOOTSTRAP_SEED = 4711L;
+
+	private StatisticsUtils() {
+
+	}
+
+	/**
+	 * Creates the random number generator for the bootstrap resamples of one
+	 * analysis. Uses a fixed seed so that repeated analyses of the same data
+	 * yield the same result. All samples compared with each other must be
+	 * resampled with the same generator, as generators with the same seed
+	 * would draw identical indices for all samples.
+	 *
+	 * @return random number generator
+	 */
+	public static Random createBootstrapRandom() {
+		return new Random(BOOTSTRAP_SEED);
+	}
+
+	/**
+	 * Approximates the distribution of the sample mean by bootstrapping.
+	 *
+	 * @param values
+	 *            sample to resample from
+	 * @param random
+	 *            random number generator to use, see
+	 *            {@link #createBootstrapRandom()}
+	 * @return means of {@link #DEFAULT_NUM_BOOTSTRAP_RESAMPLES} resamples, or
+	 *         an empty array if the sample is empty
+	 */
+	public static double[] bootstrapMeans(double[] values, Random random) {
+		return bootstrapMeans(values, DEFAULT_NUM_BOOTSTRAP_RESAMPLES, random);
+	}
+
+	/**
+	 * Approximates the distribution of the sample mean by bootstrapping.
+	 *
+	 * @param values
+	 *            sample to resample from
+	 * @param numResamples
+	 *            number of resamples to draw
+	 * @param random
+	 *            random number generator to use
+	 * @return means of the resamples, or an empty array if the sample is empty
+	 */
+	public static double[] bootstrapMeans(double[] values, int numResamples, Random random) {
+		if (values.length == 0) {
+			return new double[0];
+		}
+		double[] means = new double[numResamples];
+		for (int r = 0; r < numResamples; r++) {
+			double sum = 0.0;
+			for (int i = 0; i < values.length; i++) {
+				sum += values[random.nextInt(values.length)];
+			}
+			means[r] = sum / (double) values.length;
+		}
+		return means;
+	}
+
+	/**
+	 *
+	 * @param values
+	 *            values
+	 * @return arithmetic mean or NaN if values is empty
+	 */
+	public static double mean(double[] values) {
+		return StatUtils.mean(values);
+	}
+
+	/**
+	 *
+	 * @param values
+	 *            values
+	 * @return sample standard deviation
+	 */
+	public static double stdDev(double[] values) {
+		return Math.sqrt(StatUtils.variance(values));
+	}
+
+	/**
+	 * Two sided t-test for unequal variances.
+	 *
+	 * @param sample1
+	 *            first sample, at least two values
+	 * @param sample2
+	 *            second sample, at least two values
+	 * @return p-value
+	 */
+	public static double tTest(double[] sample1, double[] sample2) {
+		return TestUtils.tTest(sample1, sample2);
+	}
+
+	/**
+	 *
+	 * @param values
+	 *            values
+	 * @return the values as primitive array
+	 */
+	public static double[] toArray(List<? extends Number> values) {
+		double[] result = new double[values.size()];
+		int i = 0;
+		for (Number value : values) {
+			result[i++] = value.doubleValue();
+		}
+		return result;
+	}
+
+	/**
+	 *
+	 * @param values
+	 *            values
+	 * @return the values as list
+	 */
+	public static List<Double> toList(double[] values) {
+		List<Double> result = new ArrayList<>(values.length);
+		for (double value : values) {
+			result.add(value);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,107 @@
+package org.spotter.ext.detection.utils;
+
+import java.io.Serializable;
+
+/**
+ * Result of comparing the samples of two consecutive experiment steps, see
+ * {@link IStepComparator}.
+ *
+ * @author agent
+ *
+ */
+public final class StepComparison implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final double[] previousDistribution;
+	private final double[] currentDistribution;
+	private final double previousMean;
+	private final double currentMean;
+	private final double pValue;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param previousDistribution
+	 *            distribution the previous step is represented by, e.g. its
+	 *            bootstrapped means
+	 * @param currentDistribution
+	 *            distribution the current step is represented by
+	 * @param previousMean
+	 *            mean of the previous step
+	 * @param currentMean
+	 *            mean of the current step
+	 * @param pValue
+	 *            p-value of the comparison, NaN if the samples are too small
+	 *            to be compared
+	 */
+	public StepComparison(double[] previousDistribution, double[] currentDistribution, double previousMean,
+			double currentMean, double pValue) {
+		this.previousDistribution = previousDistribution;
+		this.currentDistribution = currentDistribution;
+		this.previousMean = previousMean;
+		this.currentMean = currentMean;
+		this.pValue = pValue;
+	}
+
+	/**
+	 *
+	 * @return distribution of the previous step
+	 */
+	public double[] getPreviousDistribution() {
+		return previousDistribution;
+	}
+
+	/**
+	 *
+	 * @return distribution of the current step
+	 */
+	public double[] getCurrentDistribution() {
+		return currentDistribution;
+	}
+
+	/**
+	 *
+	 * @return mean of the previous step
+	 */
+	public double getPreviousMean() {
+		return previousMean;
+	}
+
+	/**
+	 *
+	 * @return mean of the current step
+	 */
+	public double getCurrentMean() {
+		return currentMean;
+	}
+
+	/**
+	 *
+	 * @return p-value, NaN if the samples could not be compared
+	 */
+	public double getPValue() {
+		return pValue;
+	}
+
+	/**
+	 *
+	 * @return true, if the mean of the current step is larger than the mean
+	 *         of the previous step
+	 */
+	public boolean isIncrease() {
+		return currentMean > previousMean;
+	}
+
+	/**
+	 * Samples which are too small to be compared never show a significant
+	 * increase.
+	 *
+	 * @param significanceLevel
+	 *            significance level to apply
+	 * @return true, if the current step is significantly larger than the
+	 *         previous step
+	 */
+	public boolean isSignificantIncrease(double significanceLevel) {
+		return pValue >= 0 && pValue <= significanceLevel && isIncrease();
+	}
+}
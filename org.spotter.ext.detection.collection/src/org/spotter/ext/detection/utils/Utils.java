@@ -1,9 +1,14 @@
 package org.spotter.ext.detection.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.aim.api.measurement.AbstractRecord;
 import org.aim.api.measurement.dataset.Dataset;
 import org.aim.api.measurement.dataset.ParameterSelection;
 import org.aim.artifacts.records.ResponseTimeRecord;
@@ -116,15 +121,125 @@ public final class Utils {
 		return tmpList.get(indexPercentile);
 	}
 
+	/**
+	 * Calculates the mean time between two consecutive requests. As the
+	 * differences of consecutive timestamps telescope, this is the time
+	 * between the first and the last request divided by the number of gaps.
+	 * 
+	 * @param responsetimeSeries
+	 *            chronologically sorted series
+	 * @return mean inter request time in milliseconds, 0 for less than two
+	 *         requests
+	 */
 	public static long meanInterRequestTime(NumericPairList<Long, Double> responsetimeSeries) {
-		long diffSum = 0L;
-		long prevTimestamp = -1;
-		for (Long ts : responsetimeSeries.getKeyList()) {
-			if (prevTimestamp >= 0L) {
-				diffSum += ts - prevTimestamp;
+		int n = responsetimeSeries.size();
+		if (n < 2) {
+			return 0L;
+		}
+		return (responsetimeSeries.get(n - 1).getKey() - responsetimeSeries.get(0).getKey()) / (long) (n - 1);
+	}
+
+	/**
+	 * Extracts the response times per operation from a list of records.
+	 * Records of other types are ignored.
+	 * 
+	 * @param records
+	 *            records to read from
+	 * @return response times by operation
+	 */
+	public static Map<String, double[]> getResponseTimesPerOperation(List<AbstractRecord> records) {
+		Map<String, List<Long>> rtLists = new HashMap<>();
+		for (AbstractRecord record : records) {
+			if (!(record instanceof ResponseTimeRecord)) {
+				continue;
 			}
-			prevTimestamp = ts;
+			ResponseTimeRecord rtRecord = (ResponseTimeRecord) record;
+			List<Long> responseTimes = rtLists.get(rtRecord.getOperation());
+			if (responseTimes == null) {
+				responseTimes = new ArrayList<>();
+				rtLists.put(rtRecord.getOperation(), responseTimes);
+			}
+			responseTimes.add(rtRecord.getResponseTime());
+		}
+
+		Map<String, double[]> result = new HashMap<>();
+		for (Map.Entry<String, List<Long>> entry : rtLists.entrySet()) {
+			double[] values = new double[entry.getValue().size()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = entry.getValue().get(i);
+			}
+			result.put(entry.getKey(), values);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the permutation which sorts the given timestamps in ascending
+	 * order. Equal timestamps keep their relative order.
+	 * 
+	 * @param timestamps
+	 *            timestamps to sort
+	 * @param size
+	 *            number of valid timestamps at the beginning of the array
+	 * @return indices of the timestamps in chronological order, null if the
+	 *         timestamps are already sorted
+	 */
+	public static int[] chronologicalOrder(final long[] timestamps, int size) {
+		boolean sorted = true;
+		for (int i = 1; i < size && sorted; i++) {
+			sorted = timestamps[i - 1] <= timestamps[i];
+		}
+		if (sorted) {
+			return null;
+		}
+		Integer[] indices = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			indices[i] = i;
+		}
+		Arrays.sort(indices, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Long.compare(timestamps[o1], timestamps[o2]);
+			}
+		});
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = indices[i];
+		}
+		return order;
+	}
+
+	/**
+	 * Reorders values by a permutation.
+	 * 
+	 * @param values
+	 *            values to reorder
+	 * @param order
+	 *            permutation, e.g. from {@link #chronologicalOrder(long[], int)}
+	 * @return new array with the values in the given order
+	 */
+	public static long[] permute(long[] values, int[] order) {
+		long[] result = new long[order.length];
+		for (int i = 0; i < order.length; i++) {
+			result[i] = values[order[i]];
+		}
+		return result;
+	}
+
+	/**
+	 * Reorders values by a permutation.
+	 * 
+	 * @param values
+	 *            values to reorder
+	 * @param order
+	 *            permutation, e.g. from {@link #chronologicalOrder(long[], int)}
+	 * @return new array with the values in the given order
+	 */
+	public static double[] permute(double[] values, int[] order) {
+		double[] result = new double[order.length];
+		for (int i = 0; i < order.length; i++) {
+			result[i] = values[order[i]];
 		}
-		return diffSum / (long) (responsetimeSeries.size() - 1);
+		return result;
 	}
 }
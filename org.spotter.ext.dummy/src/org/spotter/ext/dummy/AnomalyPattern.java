@@ -0,0 +1,101 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.dummy;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Performance anomalies the {@link SyntheticRecordGenerator} can inject.
+ *
+ * @author agent
+ *
+ */
+public enum AnomalyPattern {
+	/**
+	 * Response times of an operation grow over the experiment time.
+	 */
+	RAMP("ramp"),
+	/**
+	 * Periodic phases of high response times.
+	 */
+	HICCUPS("hiccups"),
+	/**
+	 * Response times grow with the load, the CPUs saturate.
+	 */
+	TRAFFIC_JAM("trafficJam"),
+	/**
+	 * An operation issues the same query many times per request.
+	 */
+	STIFLE("stifle"),
+	/**
+	 * An operation sends many small JMS messages in a loop.
+	 */
+	EMPTY_SEMI_TRUCKS("emptySemiTrucks"),
+	/**
+	 * Response times grow with the load while the CPUs stay idle.
+	 */
+	ONE_LANE_BRIDGE("oneLaneBridge"),
+	/**
+	 * Lock waits in the database grow with the load.
+	 */
+	DB_LOCKS("dbLocks");
+
+	private final String name;
+
+	private AnomalyPattern(String name) {
+		this.name = name;
+	}
+
+	/**
+	 *
+	 * @return name of the pattern used in configurations
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Parses a comma separated list of pattern names.
+	 *
+	 * @param names
+	 *            comma separated pattern names, may be null or empty
+	 * @return patterns
+	 */
+	public static Set<AnomalyPattern> parse(String names) {
+		Set<AnomalyPattern> patterns = EnumSet.noneOf(AnomalyPattern.class);
+		if (names == null) {
+			return patterns;
+		}
+		for (String name : names.split(",")) {
+			String trimmed = name.trim();
+			if (trimmed.isEmpty()) {
+				continue;
+			}
+			boolean found = false;
+			for (AnomalyPattern pattern : values()) {
+				if (pattern.name.equalsIgnoreCase(trimmed)) {
+					patterns.add(pattern);
+					found = true;
+				}
+			}
+			if (!found) {
+				throw new IllegalArgumentException("Unknown anomaly pattern: " + trimmed);
+			}
+		}
+		return patterns;
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.dummy;
+
+/**
+ * Load level of one experiment: the number of users the {@link TestLoadDriver}
+ * has been started with and the time the load has been started at. The
+ * {@link TestMeasurement} simulates its records for exactly this load.
+ * 
+ * @author agent
+ * 
+ */
+final class SimulatedLoad {
+	private final int numUsers;
+	private final long startTimestamp;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param numUsers
+	 *            number of concurrent users
+	 * @param startTimestamp
+	 *            start of the load in milliseconds
+	 */
+	SimulatedLoad(int numUsers, long startTimestamp) {
+		this.numUsers = numUsers;
+		this.startTimestamp = startTimestamp;
+	}
+
+	/**
+	 * @return number of concurrent users
+	 */
+	int getNumUsers() {
+		return numUsers;
+	}
+
+	/**
+	 * @return start of the load in milliseconds
+	 */
+	long getStartTimestamp() {
+		return startTimestamp;
+	}
+}
@@ -0,0 +1,413 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.dummy;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.artifacts.records.CPUUtilizationRecord;
+import org.aim.artifacts.records.DBStatisticsRecrod;
+import org.aim.artifacts.records.JmsMessageSizeRecord;
+import org.aim.artifacts.records.JmsRecord;
+import org.aim.artifacts.records.JmsServerRecord;
+import org.aim.artifacts.records.NetworkInterfaceInfoRecord;
+import org.aim.artifacts.records.NetworkRecord;
+import org.aim.artifacts.records.ResponseTimeRecord;
+import org.aim.artifacts.records.SQLQueryRecord;
+import org.aim.artifacts.records.ThreadTracingRecord;
+
+/**
+ * Generates the measurement records of a synthetic experiment with a fixed
+ * number of users. The records are produced lazily, request by request, so
+ * that arbitrarily large experiments can be streamed with constant memory.
+ * For a given seed and configuration the records are always the same.
+ *
+ * Each user executes requests back to back with a think time in between
+ * (closed workload). A request yields a response time record and thread
+ * tracing records for the request and its nested database and messaging
+ * calls, together with the corresponding SQL and JMS records. Call ids are
+ * assigned in call order as by the instrumentation agent. Every
+ * {@link #DEFAULT_SAMPLING_INTERVAL} milliseconds of experiment time the
+ * resources are sampled: CPU utilization and network traffic of the
+ * application and database server, database statistics and JMS queue
+ * statistics.
+ *
+ * The injected {@link AnomalyPattern}s affect single operations, so that the
+ * other operations serve as reference:
+ * <ul>
+ * <li>operation 0: ramp, hiccups, traffic jam and one lane bridge</li>
+ * <li>operation 1: stifle</li>
+ * <li>operation 2: empty semi trucks</li>
+ * <li>all operations: database lock contention</li>
+ * </ul>
+ *
+ * @author agent
+ *
+ */
+public class SyntheticRecordGenerator implements Iterator<AbstractRecord> {
+	/**
+	 * Default interval between two resource samples in milliseconds.
+	 */
+	public static final long DEFAULT_SAMPLING_INTERVAL = 1000L;
+
+	/**
+	 * Default think time of the users in milliseconds.
+	 */
+	public static final long DEFAULT_THINK_TIME = 100L;
+
+	/**
+	 * Operation name of JMS send methods.
+	 */
+	public static final String SEND_METHOD = "org.apache.activemq.ActiveMQMessageProducer.send(javax.jms.Message)";
+
+	/**
+	 * Operation name of JDBC query executions.
+	 */
+	public static final String QUERY_METHOD = "java.sql.Statement.executeQuery(java.lang.String)";
+
+	private static final String APP_NODE = "4711@app-server";
+	private static final String DB_NODE = "4712@db-server";
+	private static final String NETWORK_INTERFACE = "eth0";
+	private static final long INTERFACE_SPEED = 1000L * 1000L * 1000L;
+	private static final long NANOS_PER_MILLI = 1000L * 1000L;
+	private static final int NUM_CPUS = 4;
+	private static final long HICCUP_PERIOD = 30000L;
+	private static final long HICCUP_DURATION = 3000L;
+	private static final int STIFLE_QUERIES = 20;
+	private static final int EST_MESSAGES = 10;
+	private static final long MESSAGE_PAYLOAD = 16L;
+	private static final long MESSAGE_OVERHEAD = 400L;
+	private static final long REQUEST_BYTES = 2000L;
+	private static final long RESPONSE_BYTES = 10000L;
+
+	private final Random random;
+	private final int numUsers;
+	private final long numRequests;
+	private final int numOperations;
+	private final Set<AnomalyPattern> anomalies;
+	private final long startTimestamp;
+	private final long samplingInterval;
+	private final long thinkTime;
+
+	private final Deque<AbstractRecord> pending = new ArrayDeque<>();
+	private final PriorityQueue<long[]> users;
+	private long generatedRequests = 0L;
+	private long callId = 0L;
+	private long messageId = 0L;
+	private long nextSample;
+	private long lastTimestamp;
+
+	private long appReceivedBytes = 0L;
+	private long appTransferredBytes = 0L;
+	private long dbReceivedBytes = 0L;
+	private long dbTransferredBytes = 0L;
+	private long numQueries = 0L;
+	private long numLockWaits = 0L;
+	private long lockTime = 0L;
+	private long numMessages = 0L;
+	private boolean finished = false;
+
+	/**
+	 * Constructor with the default sampling interval and think time.
+	 *
+	 * @param seed
+	 *            seed of the random generator
+	 * @param numUsers
+	 *            number of concurrent users
+	 * @param numRequests
+	 *            number of requests of the experiment
+	 * @param numOperations
+	 *            number of distinct operations
+	 * @param anomalies
+	 *            anomalies to inject
+	 * @param startTimestamp
+	 *            start of the experiment in milliseconds
+	 */
+	public SyntheticRecordGenerator(long seed, int numUsers, long numRequests, int numOperations,
+			Set<AnomalyPattern> anomalies, long startTimestamp) {
+		this(seed, numUsers, numRequests, numOperations, anomalies, startTimestamp, DEFAULT_SAMPLING_INTERVAL,
+				DEFAULT_THINK_TIME);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param seed
+	 *            seed of the random generator
+	 * @param numUsers
+	 *            number of concurrent users
+	 * @param numRequests
+	 *            number of requests of the experiment
+	 * @param numOperations
+	 *            number of distinct operations
+	 * @param anomalies
+	 *            anomalies to inject
+	 * @param startTimestamp
+	 *            start of the experiment in milliseconds
+	 * @param samplingInterval
+	 *            interval between two resource samples in milliseconds
+	 * @param thinkTime
+	 *            think time of the users in milliseconds
+	 */
+	public SyntheticRecordGenerator(long seed, int numUsers, long numRequests, int numOperations,
+			Set<AnomalyPattern> anomalies, long startTimestamp, long samplingInterval, long thinkTime) {
+		this.random = new Random(seed);
+		this.numUsers = Math.max(1, numUsers);
+		this.numRequests = numRequests;
+		this.numOperations = Math.max(1, numOperations);
+		this.anomalies = anomalies.isEmpty() ? EnumSet.noneOf(AnomalyPattern.class) : EnumSet.copyOf(anomalies);
+		this.startTimestamp = startTimestamp;
+		this.samplingInterval = samplingInterval;
+		this.thinkTime = thinkTime;
+		this.nextSample = startTimestamp;
+		this.lastTimestamp = startTimestamp;
+
+		// users ordered by the start of their next request: {start, userId}
+		users = new PriorityQueue<>(this.numUsers, new Comparator<long[]>() {
+			@Override
+			public int compare(long[] o1, long[] o2) {
+				return o1[0] != o2[0] ? Long.compare(o1[0], o2[0]) : Long.compare(o1[1], o2[1]);
+			}
+		});
+		for (int user = 0; user < this.numUsers; user++) {
+			users.add(new long[] { startTimestamp + (long) (random.nextDouble() * thinkTime), user });
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (pending.isEmpty() && !finished) {
+			if (generatedRequests < numRequests) {
+				generateRequest();
+			} else {
+				sampleResources(lastTimestamp);
+				finished = true;
+			}
+		}
+		return !pending.isEmpty();
+	}
+
+	@Override
+	public AbstractRecord next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return pending.poll();
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 *
+	 * @return number of requests generated so far
+	 */
+	public long getGeneratedRequests() {
+		return generatedRequests;
+	}
+
+	private void generateRequest() {
+		long[] user = users.poll();
+		long start = user[0];
+		long threadId = user[1];
+		while (start >= nextSample) {
+			sampleResources(nextSample);
+			nextSample += samplingInterval;
+		}
+
+		int operationIdx = (int) (generatedRequests % numOperations);
+		String operation = "operation-" + operationIdx;
+		long responseTime = responseTime(operationIdx, start);
+
+		long requestCallId = callId++;
+		ResponseTimeRecord rtRecord = new ResponseTimeRecord(start, operation, responseTime);
+		rtRecord.setCallId(requestCallId);
+		rtRecord.setProcessId(APP_NODE);
+		pending.add(rtRecord);
+		pending.add(traceRecord(start, threadId, operation, requestCallId, start * NANOS_PER_MILLI,
+				(start + responseTime) * NANOS_PER_MILLI));
+
+		// nested calls share the first half of the request
+		boolean stifle = anomalies.contains(AnomalyPattern.STIFLE) && operationIdx == 1 % numOperations;
+		boolean est = anomalies.contains(AnomalyPattern.EMPTY_SEMI_TRUCKS) && operationIdx == 2 % numOperations;
+		int queries = stifle ? STIFLE_QUERIES : 1;
+		int messages = est ? EST_MESSAGES : 0;
+		long nestedDuration = Math.max(1L, responseTime * NANOS_PER_MILLI / 2L / (queries + messages));
+		long nestedStart = start * NANOS_PER_MILLI + 1L;
+		long rowId = random.nextInt(100000);
+		for (int q = 0; q < queries; q++) {
+			long queryCallId = callId++;
+			pending.add(traceRecord(start, threadId, QUERY_METHOD, queryCallId, nestedStart, nestedStart
+					+ nestedDuration - 1L));
+			SQLQueryRecord sqlRecord = new SQLQueryRecord();
+			sqlRecord.setTimeStamp(start);
+			sqlRecord.setProcessId(APP_NODE);
+			sqlRecord.setCallId(queryCallId);
+			sqlRecord.setQueryString("SELECT * FROM TABLE_" + operationIdx + " WHERE ID = " + (rowId + q));
+			pending.add(sqlRecord);
+			nestedStart += nestedDuration;
+		}
+		for (int m = 0; m < messages; m++) {
+			long sendCallId = callId++;
+			pending.add(traceRecord(start, threadId, SEND_METHOD, sendCallId, nestedStart, nestedStart
+					+ nestedDuration - 1L));
+			String correlationHash = "msg-" + (messageId++);
+			JmsRecord jmsRecord = new JmsRecord();
+			jmsRecord.setTimeStamp(start);
+			jmsRecord.setProcessId(APP_NODE);
+			jmsRecord.setCallId(callId++);
+			jmsRecord.setMessageCorrelationHash(correlationHash);
+			pending.add(jmsRecord);
+			JmsMessageSizeRecord sizeRecord = new JmsMessageSizeRecord();
+			sizeRecord.setTimeStamp(start);
+			sizeRecord.setProcessId(APP_NODE);
+			sizeRecord.setMessageCorrelationHash(correlationHash);
+			sizeRecord.setBodySize(MESSAGE_PAYLOAD);
+			sizeRecord.setSize(MESSAGE_PAYLOAD + MESSAGE_OVERHEAD);
+			pending.add(sizeRecord);
+			nestedStart += nestedDuration;
+		}
+
+		numQueries += queries;
+		numMessages += messages;
+		if (anomalies.contains(AnomalyPattern.DB_LOCKS)) {
+			// contention grows with the number of concurrent users
+			long waits = random.nextInt(numUsers);
+			numLockWaits += waits;
+			lockTime += waits * responseTime / 4L;
+		}
+		appReceivedBytes += REQUEST_BYTES + messages * (MESSAGE_PAYLOAD + MESSAGE_OVERHEAD);
+		appTransferredBytes += RESPONSE_BYTES;
+		dbReceivedBytes += queries * REQUEST_BYTES / 10L;
+		dbTransferredBytes += queries * RESPONSE_BYTES / 10L;
+
+		lastTimestamp = Math.max(lastTimestamp, start + responseTime);
+		user[0] = start + responseTime + (long) (random.nextDouble() * 2.0 * thinkTime);
+		users.add(user);
+		generatedRequests++;
+	}
+
+	private long responseTime(int operationIdx, long timestamp) {
+		double responseTime = 10.0 + 5.0 * operationIdx;
+		if (anomalies.contains(AnomalyPattern.DB_LOCKS)) {
+			responseTime *= 1.0 + 0.3 * (numUsers - 1);
+		}
+		if (operationIdx == 0) {
+			if (anomalies.contains(AnomalyPattern.TRAFFIC_JAM) || anomalies.contains(AnomalyPattern.ONE_LANE_BRIDGE)) {
+				responseTime *= 1.0 + 0.5 * (numUsers - 1);
+			}
+			if (anomalies.contains(AnomalyPattern.RAMP)) {
+				responseTime *= 1.0 + 3.0 * (double) generatedRequests / (double) Math.max(1L, numRequests);
+			}
+			if (anomalies.contains(AnomalyPattern.HICCUPS)
+					&& (timestamp - startTimestamp) % HICCUP_PERIOD < HICCUP_DURATION) {
+				responseTime *= 5.0;
+			}
+		}
+		responseTime *= 1.0 + 0.1 * random.nextGaussian();
+		return Math.max(1L, Math.round(responseTime));
+	}
+
+	private ThreadTracingRecord traceRecord(long timestamp, long threadId, String operation, long traceCallId,
+			long enterNanoTime, long exitNanoTime) {
+		ThreadTracingRecord ttRecord = new ThreadTracingRecord();
+		ttRecord.setTimeStamp(timestamp);
+		ttRecord.setProcessId(APP_NODE);
+		ttRecord.setThreadId(threadId);
+		ttRecord.setOperation(operation);
+		ttRecord.setCallId(traceCallId);
+		ttRecord.setEnterNanoTime(enterNanoTime);
+		ttRecord.setExitNanoTime(exitNanoTime);
+		return ttRecord;
+	}
+
+	private void sampleResources(long timestamp) {
+		double load = 0.05 + 0.1 * numUsers;
+		double appUtilization;
+		if (anomalies.contains(AnomalyPattern.ONE_LANE_BRIDGE)) {
+			// synchronization bottleneck: requests wait, CPUs idle
+			appUtilization = Math.min(0.2, load);
+		} else if (anomalies.contains(AnomalyPattern.TRAFFIC_JAM)) {
+			appUtilization = Math.min(1.0, 2.0 * load);
+		} else {
+			appUtilization = Math.min(0.6, load);
+		}
+		double dbUtilization = Math.min(0.5, load / 2.0);
+		addCpuRecords(timestamp, APP_NODE, appUtilization);
+		addCpuRecords(timestamp, DB_NODE, dbUtilization);
+		addNetworkRecords(timestamp, APP_NODE, appReceivedBytes, appTransferredBytes);
+		addNetworkRecords(timestamp, DB_NODE, dbReceivedBytes, dbTransferredBytes);
+
+		DBStatisticsRecrod dbRecord = new DBStatisticsRecrod();
+		dbRecord.setTimeStamp(timestamp);
+		dbRecord.setProcessId(DB_NODE);
+		dbRecord.setNumQueueries(numQueries);
+		dbRecord.setNumLockWaits(numLockWaits);
+		dbRecord.setLockTime(lockTime);
+		pending.add(dbRecord);
+
+		JmsServerRecord jmsRecord = new JmsServerRecord();
+		jmsRecord.setTimeStamp(timestamp);
+		jmsRecord.setQueueName("queue-0");
+		jmsRecord.setEnqueueCount(numMessages);
+		jmsRecord.setDequeueCount(numMessages);
+		jmsRecord.setQueueSize((long) random.nextInt(numUsers + 1));
+		jmsRecord.setAvgMessageSize(MESSAGE_PAYLOAD + MESSAGE_OVERHEAD);
+		pending.add(jmsRecord);
+	}
+
+	private void addCpuRecords(long timestamp, String node, double utilization) {
+		double sum = 0.0;
+		for (int cpu = 0; cpu < NUM_CPUS; cpu++) {
+			double cpuUtilization = Math.max(0.0, Math.min(1.0, utilization + 0.02 * random.nextGaussian()));
+			sum += cpuUtilization;
+			CPUUtilizationRecord cpuRecord = new CPUUtilizationRecord(timestamp, "CPU-" + cpu, cpuUtilization);
+			cpuRecord.setProcessId(node);
+			pending.add(cpuRecord);
+		}
+		CPUUtilizationRecord aggRecord = new CPUUtilizationRecord(timestamp, CPUUtilizationRecord.RES_CPU_AGGREGATED,
+				sum / NUM_CPUS);
+		aggRecord.setProcessId(node);
+		pending.add(aggRecord);
+	}
+
+	private void addNetworkRecords(long timestamp, String node, long receivedBytes, long transferredBytes) {
+		NetworkInterfaceInfoRecord infoRecord = new NetworkInterfaceInfoRecord();
+		infoRecord.setTimeStamp(timestamp);
+		infoRecord.setProcessId(node);
+		infoRecord.setNetworkInterface(NETWORK_INTERFACE);
+		infoRecord.setInterfaceSpeed(INTERFACE_SPEED);
+		pending.add(infoRecord);
+
+		NetworkRecord nwRecord = new NetworkRecord();
+		nwRecord.setTimeStamp(timestamp);
+		nwRecord.setProcessId(node);
+		nwRecord.setNetworkInterface(NETWORK_INTERFACE);
+		nwRecord.setReceivedBytes(receivedBytes);
+		nwRecord.setTransferredBytes(transferredBytes);
+		pending.add(nwRecord);
+	}
+}
@@ -21,6 +21,7 @@ import org.spotter.core.workload.LoadConfig;
 import org.spotter.exceptions.WorkloadException;
 
 public class TestLoadDriver extends AbstractWorkloadAdapter {
+	private static volatile SimulatedLoad startedLoad = null;
 
 	public TestLoadDriver(IExtension<?> provider) {
 		super(provider);
@@ -34,7 +35,18 @@ public class TestLoadDriver extends AbstractWorkloadAdapter {
 
 	@Override
 	public void startLoad(LoadConfig loadConfig) throws WorkloadException {
+		startedLoad = new SimulatedLoad(loadConfig.getNumUsers(), System.currentTimeMillis());
+	}
 
+	/**
+	 * The core does not pass the load configuration to the measurement
+	 * adapters, thus the {@link TestMeasurement} takes over the started load
+	 * once, when monitoring is enabled.
+	 * 
+	 * @return the last started load, or null if no load has been started
+	 */
+	static SimulatedLoad getStartedLoad() {
+		return startedLoad;
 	}
 
 	@Override
@@ -21,18 +21,17 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Set;
 
 import org.aim.api.exceptions.MeasurementException;
 import org.aim.api.measurement.AbstractRecord;
 import org.aim.api.measurement.MeasurementData;
-import org.aim.artifacts.records.CPUUtilizationRecord;
-import org.aim.artifacts.records.ResponseTimeRecord;
 import org.aim.description.InstrumentationDescription;
 import org.lpe.common.extension.IExtension;
 import org.spotter.core.measurement.AbstractMeasurementAdapter;
 
 public class TestMeasurement extends AbstractMeasurementAdapter {
+	private SimulatedLoad load;
 
 	public TestMeasurement(IExtension<?> provider) {
 		super(provider);
@@ -40,7 +39,10 @@ public class TestMeasurement extends AbstractMeasurementAdapter {
 
 	@Override
 	public void enableMonitoring() throws MeasurementException {
-
+		load = TestLoadDriver.getStartedLoad();
+		if (load == null) {
+			load = new SimulatedLoad(1, System.currentTimeMillis());
+		}
 	}
 
 	@Override
@@ -51,19 +53,9 @@ public class TestMeasurement extends AbstractMeasurementAdapter {
 	@Override
 	public MeasurementData getMeasurementData() throws MeasurementException {
 		List<AbstractRecord> records = new ArrayList<>();
-		Random rand = new Random();
-
-		for (long i = 0; i < Integer.parseInt(getProperties().getProperty(TestMeasurementExtension.NUM_RECORDS, "100")); i++) {
-			ResponseTimeRecord rtRecord = new ResponseTimeRecord(System.currentTimeMillis() + i * 10L, "operation-"
-					+ (i % 5), (long) (rand.nextDouble() * 100L));
-			CPUUtilizationRecord cpuRecord = new CPUUtilizationRecord(System.currentTimeMillis() + i * 10L, "CPU-"
-					+ (i % 2), rand.nextDouble());
-			CPUUtilizationRecord cpuRecordAgg = new CPUUtilizationRecord(System.currentTimeMillis() + i * 10L, CPUUtilizationRecord.RES_CPU_AGGREGATED, rand.nextDouble());
-			records.add(rtRecord);
-			records.add(cpuRecord);
-
-			records.add(cpuRecordAgg);
-
+		SyntheticRecordGenerator generator = createGenerator(load);
+		while (generator.hasNext()) {
+			records.add(generator.next());
 		}
 
 		MeasurementData mData = new MeasurementData();
@@ -76,12 +68,13 @@ public class TestMeasurement extends AbstractMeasurementAdapter {
 	public void pipeToOutputStream(OutputStream oStream) throws MeasurementException {
 		BufferedWriter writer = null;
 		try {
-
-			List<AbstractRecord> recordList = getMeasurementData().getRecords();
+			// records are written as they are generated, thus large
+			// experiments do not need to fit into memory
+			SyntheticRecordGenerator generator = createGenerator(load);
 			writer = new BufferedWriter(new OutputStreamWriter(oStream), 1024);
 
-			for (AbstractRecord rec : recordList) {
-				writer.write(rec.toString());
+			while (generator.hasNext()) {
+				writer.write(generator.next().toString());
 				writer.newLine();
 			}
 
@@ -99,6 +92,24 @@ public class TestMeasurement extends AbstractMeasurementAdapter {
 
 	}
 
+	private SyntheticRecordGenerator createGenerator(SimulatedLoad load) throws MeasurementException {
+		if (load == null) {
+			throw new MeasurementException("Monitoring has not been enabled.");
+		}
+		try {
+			long seed = Long.parseLong(getProperties().getProperty(TestMeasurementExtension.SEED, "42"));
+			long numRequests = Long.parseLong(getProperties().getProperty(TestMeasurementExtension.NUM_RECORDS, "100"));
+			int numOperations = Integer.parseInt(getProperties().getProperty(TestMeasurementExtension.NUM_OPERATIONS,
+					"5"));
+			Set<AnomalyPattern> anomalies = AnomalyPattern.parse(getProperties().getProperty(
+					TestMeasurementExtension.ANOMALIES, ""));
+			return new SyntheticRecordGenerator(seed, load.getNumUsers(), numRequests, numOperations, anomalies,
+					load.getStartTimestamp());
+		} catch (IllegalArgumentException e) {
+			throw new MeasurementException(e);
+		}
+	}
+
 	@Override
 	public void initialize() throws MeasurementException {
 
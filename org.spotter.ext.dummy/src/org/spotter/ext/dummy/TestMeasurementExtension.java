@@ -27,6 +27,9 @@ public class TestMeasurementExtension extends AbstractMeasurmentExtension {
 														+ "the first version has been officially released.";
 	
 	public static final String NUM_RECORDS = "org.spotter.test.numRecords";
+	public static final String SEED = "org.spotter.test.seed";
+	public static final String NUM_OPERATIONS = "org.spotter.test.numOperations";
+	public static final String ANOMALIES = "org.spotter.test.anomalies";
 
 	@Override
 	public IMeasurementAdapter createExtensionArtifact() {
@@ -48,7 +51,26 @@ public class TestMeasurementExtension extends AbstractMeasurmentExtension {
 		ConfigParameterDescription par = new ConfigParameterDescription(NUM_RECORDS, LpeSupportedTypes.Integer);
 		par.setMandatory(false);
 		par.setDefaultValue(String.valueOf(100));
-		par.setDescription("Number of records to return as result.");
+		par.setDescription("Number of requests to simulate per experiment.");
+		addConfigParameter(par);
+
+		par = new ConfigParameterDescription(SEED, LpeSupportedTypes.Long);
+		par.setMandatory(false);
+		par.setDefaultValue(String.valueOf(42));
+		par.setDescription("Seed of the random generator. The same seed results in the same measurement data.");
+		addConfigParameter(par);
+
+		par = new ConfigParameterDescription(NUM_OPERATIONS, LpeSupportedTypes.Integer);
+		par.setMandatory(false);
+		par.setDefaultValue(String.valueOf(5));
+		par.setDescription("Number of different operations of the simulated application.");
+		addConfigParameter(par);
+
+		par = new ConfigParameterDescription(ANOMALIES, LpeSupportedTypes.String);
+		par.setMandatory(false);
+		par.setDefaultValue("");
+		par.setDescription("Comma separated list of anomalies to inject: ramp, hiccups, trafficJam, stifle, "
+				+ "emptySemiTrucks, oneLaneBridge, dbLocks.");
 		addConfigParameter(par);
 		addConfigParameter(ConfigParameterDescription.createExtensionDescription(EXTENSION_DESCRIPTION));
 	}
@@ -15,30 +15,29 @@
  */
 package org.spotter.ext.loadrunner.measurement;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.aim.api.exceptions.MeasurementException;
 import org.aim.api.measurement.AbstractRecord;
 import org.aim.api.measurement.MeasurementData;
-import org.aim.artifacts.records.ResponseTimeRecord;
 import org.aim.description.InstrumentationDescription;
 import org.lpe.common.extension.IExtension;
 import org.lpe.common.loadgenerator.LoadGeneratorClient;
 import org.lpe.common.loadgenerator.config.LGMeasurementConfig;
 import org.lpe.common.loadgenerator.data.LGMeasurementData;
-import org.lpe.common.loadgenerator.data.TimeSpan;
 import org.lpe.common.util.LpeStringUtils;
 import org.spotter.core.instrumentation.InstrumentationBroker;
 import org.spotter.core.measurement.AbstractMeasurementAdapter;
 import org.spotter.ext.loadrunner.LRConfigKeys;
 import org.spotter.ext.loadrunner.instrumentation.LoadRunnerInstrumentationClient;
+import org.spotter.ext.measurement.codec.PipeFormat;
+import org.spotter.ext.measurement.codec.RecordStreams;
+import org.spotter.ext.measurement.codec.RecordWriter;
 
 /**
  * The LoadRunner measurement client which communicates with the LoadRunner
@@ -50,6 +49,7 @@ public class LoadRunnerMeasurementClient extends AbstractMeasurementAdapter {
 	private LGMeasurementConfig lrmConfig;
 	private LoadGeneratorClient lrClient;
 	private LoadRunnerInstrumentationClient instrumentationClient = null;
+	private final ResponseTimeCache recordCache = new ResponseTimeCache();
 
 	/**
 	 * Constructor.
@@ -92,7 +92,8 @@ public class LoadRunnerMeasurementClient extends AbstractMeasurementAdapter {
 
 	@Override
 	public void enableMonitoring() throws MeasurementException {
-		// Nothing to do here.
+		// a new experiment starts, the cached records are outdated
+		recordCache.invalidate();
 	}
 
 	@Override
@@ -102,26 +103,44 @@ public class LoadRunnerMeasurementClient extends AbstractMeasurementAdapter {
 
 	@Override
 	public MeasurementData getMeasurementData() throws MeasurementException {
+		final List<AbstractRecord> records = new ArrayList<>();
+		writeRecords(new RecordWriter() {
+			@Override
+			public void write(AbstractRecord record) {
+				records.add(record);
+			}
+
+			@Override
+			public void close() {
+			}
+		});
+		MeasurementData data = new MeasurementData();
+		data.setRecords(records);
+		return data;
+	}
+
+	/**
+	 * Writes the response time records of the last experiment to the writer.
+	 * The measurement data is fetched from LoadRunner only once, see
+	 * {@link ResponseTimeCache}.
+	 */
+	private void writeRecords(RecordWriter writer) throws MeasurementException {
 		if (lrmConfig == null) {
 			throw new MeasurementException("LoadRunner Measurement Client has not been initialized yet!");
 		}
-		if (instrumentationClient != null && instrumentationClient.isInstrumented()) {
-			LGMeasurementData lgData = lrClient.getMeasurementData(lrmConfig);
-			List<AbstractRecord> records = new ArrayList<>();
-			for (String transactionName : lgData.getTransactionNames()) {
-				for (TimeSpan tSpan : lgData.getTimesForTransaction(transactionName)) {
-					records.add(new ResponseTimeRecord(tSpan.getStart(), transactionName, tSpan.getStop()-tSpan.getStart()));
+		if (instrumentationClient == null || !instrumentationClient.isInstrumented()) {
+			return;
+		}
+		try {
+			recordCache.writeTo(new ResponseTimeCache.Fetcher() {
+				@Override
+				public LGMeasurementData fetch() {
+					return lrClient.getMeasurementData(lrmConfig);
 				}
-			}
-
-			MeasurementData data = new MeasurementData();
-			data.setRecords(records);
-			return data;
-
-		} else {
-			return new MeasurementData();
+			}, writer);
+		} catch (IOException e) {
+			throw new MeasurementException(e);
 		}
-
 	}
 
 	@Override
@@ -141,24 +160,17 @@ public class LoadRunnerMeasurementClient extends AbstractMeasurementAdapter {
 		if (lrmConfig == null) {
 			throw new MeasurementException("LoadRunner Measurement Client has not been initialized yet!");
 		}
-		BufferedWriter bWriter = new BufferedWriter(new OutputStreamWriter(oStream));
-
+		PipeFormat format;
 		try {
-			MeasurementData data = getMeasurementData();
-			for (AbstractRecord record : data.getRecords()) {
-				String line = record.toString();
-				bWriter.write(line);
-				bWriter.newLine();
-			}
+			format = PipeFormat.parse(getProperties().getProperty(RecordStreams.PIPE_FORMAT_KEY));
+		} catch (IllegalArgumentException e) {
+			throw new MeasurementException(e);
+		}
+
+		try (RecordWriter writer = RecordStreams.newWriter(oStream, format)) {
+			writeRecords(writer);
 		} catch (IOException e) {
 			throw new MeasurementException(e);
-		} finally {
-			try {
-				bWriter.flush();
-				oStream.close();
-			} catch (IOException e) {
-				throw new MeasurementException(e);
-			}
 		}
 
 	}
@@ -186,8 +198,7 @@ public class LoadRunnerMeasurementClient extends AbstractMeasurementAdapter {
 
 	@Override
 	public void resetMonitoring() throws MeasurementException {
-		// TODO Auto-generated method stub
-		
+		recordCache.invalidate();
 	}
 
 }
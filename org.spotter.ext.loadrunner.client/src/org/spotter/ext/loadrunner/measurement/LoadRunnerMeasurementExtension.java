@@ -21,6 +21,7 @@ import org.lpe.common.util.LpeSupportedTypes;
 import org.spotter.core.measurement.AbstractMeasurmentExtension;
 import org.spotter.core.measurement.IMeasurementAdapter;
 import org.spotter.ext.loadrunner.LRConfigKeys;
+import org.spotter.ext.measurement.codec.RecordStreams;
 
 /**
  * Loadrunner measurement extension.
@@ -94,6 +95,7 @@ public class LoadRunnerMeasurementExtension extends AbstractMeasurmentExtension
 		addConfigParameter(createAnalysisTemplateParameter());
 		addConfigParameter(createResultDirParameter());
 		addConfigParameter(createAnalysisSessionParameter());
+		addConfigParameter(RecordStreams.createPipeFormatParameter());
 		addConfigParameter(ConfigParameterDescription.createExtensionDescription(EXTENSION_DESCRIPTION));
 	}
 
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.loadrunner.measurement;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.artifacts.records.ResponseTimeRecord;
+import org.lpe.common.loadgenerator.data.LGMeasurementData;
+import org.lpe.common.loadgenerator.data.TimeSpan;
+import org.spotter.ext.measurement.codec.BinaryRecordWriter;
+import org.spotter.ext.measurement.codec.RecordReader;
+import org.spotter.ext.measurement.codec.RecordStreams;
+import org.spotter.ext.measurement.codec.RecordWriter;
+
+/**
+ * Response time records converted from LoadRunner measurement data, cached
+ * in a binary file. The measurement data is fetched and converted once; the
+ * records are written to the cache while they are converted and replayed
+ * from the cache afterwards. Thus, converted records are never held in
+ * memory as a whole. The cache file is deleted when the cache is
+ * invalidated; only files which cannot be deleted are left to the JVM exit.
+ * 
+ * @author agent
+ * 
+ */
+class ResponseTimeCache {
+	/**
+	 * Fetches the measurement data.
+	 */
+	interface Fetcher {
+		/**
+		 * 
+		 * @return measurement data
+		 * @throws IOException
+		 *             if fetching fails
+		 */
+		LGMeasurementData fetch() throws IOException;
+	}
+
+	private File cacheFile;
+
+	/**
+	 * Writes all records to the writer, fetching and converting them if they
+	 * have not been cached yet.
+	 * 
+	 * @param fetcher
+	 *            fetches the measurement data on a cache miss
+	 * @param writer
+	 *            writer to write the records to, not closed
+	 * @throws IOException
+	 *             if fetching, writing or reading the cache fails
+	 */
+	synchronized void writeTo(Fetcher fetcher, RecordWriter writer) throws IOException {
+		if (cacheFile != null) {
+			replay(writer);
+		} else {
+			convert(fetcher.fetch(), writer);
+		}
+	}
+
+	private void convert(LGMeasurementData lgData, RecordWriter writer) throws IOException {
+		File file = File.createTempFile("spotter-lr-records-", ".bin");
+		boolean complete = false;
+		try (BinaryRecordWriter cacheWriter = new BinaryRecordWriter(new BufferedOutputStream(new FileOutputStream(
+				file)), false)) {
+			for (String transactionName : lgData.getTransactionNames()) {
+				for (TimeSpan tSpan : lgData.getTimesForTransaction(transactionName)) {
+					ResponseTimeRecord record = new ResponseTimeRecord(tSpan.getStart(), transactionName,
+							tSpan.getStop() - tSpan.getStart());
+					cacheWriter.write(record);
+					writer.write(record);
+				}
+			}
+			complete = true;
+		} finally {
+			if (complete) {
+				cacheFile = file;
+			} else if (!file.delete()) {
+				file.deleteOnExit();
+			}
+		}
+	}
+
+	private void replay(RecordWriter writer) throws IOException {
+		try (RecordReader reader = RecordStreams.newReader(new FileInputStream(cacheFile))) {
+			AbstractRecord record = reader.read();
+			while (record != null) {
+				writer.write(record);
+				record = reader.read();
+			}
+		}
+	}
+
+	/**
+	 * Discards the cached records, the next access fetches the measurement
+	 * data again.
+	 */
+	synchronized void invalidate() {
+		if (cacheFile != null && !cacheFile.delete()) {
+			cacheFile.deleteOnExit();
+		}
+		cacheFile = null;
+	}
+}
@@ -16,13 +16,24 @@
 package org.spotter.ext.measurement;
 
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
 import org.aim.api.measurement.MeasurementData;
 import org.aim.artifacts.instrumentation.InstrumentationClient;
 import org.aim.description.InstrumentationDescription;
 import org.lpe.common.extension.IExtension;
 import org.spotter.core.measurement.AbstractMeasurementAdapter;
+import org.spotter.ext.measurement.clock.ClockSynchronizer;
+import org.spotter.ext.measurement.clock.IClock;
+import org.spotter.ext.measurement.codec.PipeFormat;
+import org.spotter.ext.measurement.codec.RecordSource;
+import org.spotter.ext.measurement.codec.RecordStreams;
+import org.spotter.ext.measurement.cursor.ChunkHandler;
+import org.spotter.ext.measurement.cursor.MeasurementCursor;
+import org.spotter.ext.measurement.cursor.ResumeToken;
 
 /**
  * Generic REST client for the measurement service.
@@ -31,7 +42,11 @@ import org.spotter.core.measurement.AbstractMeasurementAdapter;
  * 
  */
 public class MeasurementClient extends AbstractMeasurementAdapter {
+	private static final String SATELLITE_CLOCK = "satellite";
+	private static final int MAX_RETRIEVAL_ATTEMPTS = 3;
 	private InstrumentationClient agentClient;
+	private ClockSynchronizer clockSynchronizer;
+	private long clockSyncPeriod;
 
 	/**
 	 * Constructor.
@@ -47,23 +62,61 @@ public class MeasurementClient extends AbstractMeasurementAdapter {
 	public void enableMonitoring() throws MeasurementException {
 
 		agentClient.enableMonitoring();
+		if (clockSynchronizer != null) {
+			clockSynchronizer.synchronize();
+			clockSynchronizer.start(clockSyncPeriod);
+		}
 	}
 
 	@Override
 	public void disableMonitoring() throws MeasurementException {
 
 		agentClient.disableMonitoring();
+		if (clockSynchronizer != null) {
+			clockSynchronizer.stop();
+			clockSynchronizer.synchronize();
+		}
 	}
 
 	@Override
 	public MeasurementData getMeasurementData() throws MeasurementException {
+		// the data is streamed in chunks; an interrupted transfer is resumed
+		// after the last complete chunk instead of being parsed again
+		final List<AbstractRecord> records = new ArrayList<>();
+		ChunkHandler collector = new ChunkHandler() {
+			@Override
+			public void handle(List<AbstractRecord> chunk) {
+				records.addAll(chunk);
+			}
+		};
+		ResumeToken token = ResumeToken.START;
+		for (int attempt = 1;; attempt++) {
+			// timestamps are aligned in pipeToOutputStream
+			MeasurementCursor cursor = MeasurementCursor.open(this, token);
+			try {
+				cursor.forEachChunk(collector);
+				break;
+			} catch (MeasurementException e) {
+				if (attempt >= MAX_RETRIEVAL_ATTEMPTS) {
+					throw e;
+				}
+				token = cursor.getResumeToken();
+			} finally {
+				cursor.close();
+			}
+		}
 
-		return agentClient.getMeasurementData();
+		MeasurementData data = new MeasurementData();
+		data.setRecords(records);
+		return data;
 	}
 
 	@Override
 	public long getCurrentTime() {
-
+		if (clockSynchronizer != null) {
+			// the records are converted to the local timebase
+			return System.currentTimeMillis();
+		}
 		return agentClient.getCurrentTime();
 	}
 
@@ -74,15 +127,46 @@ public class MeasurementClient extends AbstractMeasurementAdapter {
 			if (!agentClient.testConnection()) {
 				throw new MeasurementException("Connection to measurement satellite could not be established!");
 			}
+			try {
+				clockSyncPeriod = Long.parseLong(getProperties().getProperty(ClockSynchronizer.PERIOD_KEY, "0"));
+			} catch (NumberFormatException e) {
+				throw new MeasurementException(e);
+			}
+			if (clockSyncPeriod > 0L) {
+				clockSynchronizer = new ClockSynchronizer();
+				clockSynchronizer.addSatellite(SATELLITE_CLOCK, new IClock() {
+					@Override
+					public long getCurrentTime() {
+						return agentClient.getCurrentTime();
+					}
+				});
+			}
 		}
 
 	}
 
 	@Override
 	public void pipeToOutputStream(OutputStream oStream) throws MeasurementException {
+		PipeFormat format;
+		try {
+			format = PipeFormat.parse(getProperties().getProperty(RecordStreams.PIPE_FORMAT_KEY));
+		} catch (IllegalArgumentException e) {
+			throw new MeasurementException(e);
+		}
+		if (format == PipeFormat.TEXT && clockSynchronizer == null) {
+			agentClient.pipeToOutputStream(oStream);
+			return;
+		}
 
-		agentClient.pipeToOutputStream(oStream);
-
+		// the satellite transfers text, which is re-encoded while it arrives
+		RecordSource source = new RecordSource() {
+			@Override
+			public void pipeToOutputStream(OutputStream agentStream) throws MeasurementException {
+				agentClient.pipeToOutputStream(agentStream);
+			}
+		};
+		RecordStreams.transcode(source, oStream, format,
+				clockSynchronizer != null ? clockSynchronizer.getModel(SATELLITE_CLOCK) : null);
 	}
 
 	@Override
@@ -19,6 +19,9 @@ import org.aim.artifacts.instrumentation.InstrumentationClient;
 import org.lpe.common.config.ConfigParameterDescription;
 import org.spotter.core.measurement.AbstractMeasurmentExtension;
 import org.spotter.core.measurement.IMeasurementAdapter;
+import org.spotter.ext.measurement.clock.ClockSynchronizer;
+import org.spotter.ext.measurement.codec.RecordStreams;
+import org.spotter.ext.measurement.cursor.MeasurementCursor;
 
 /**
  * Extension for generic measurement REST client.
@@ -48,6 +51,9 @@ public class MeasurementExtension extends AbstractMeasurmentExtension {
 
 	@Override
 	protected void initializeConfigurationParameters() {
+		addConfigParameter(RecordStreams.createPipeFormatParameter());
+		addConfigParameter(MeasurementCursor.createChunkSizeParameter());
+		addConfigParameter(ClockSynchronizer.createPeriodParameter());
 		addConfigParameter(ConfigParameterDescription.createExtensionDescription(EXTENSION_DESCRIPTION));
 	}
 
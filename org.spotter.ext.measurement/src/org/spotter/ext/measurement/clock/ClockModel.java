@@ -0,0 +1,102 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.clock;
+
+/**
+ * Linear model of a remote clock relative to the local clock: at local time
+ * l, the remote clock shows l + offset + drift * (l - referenceTime).
+ * 
+ * @author agent
+ * 
+ */
+public final class ClockModel {
+	/**
+	 * Model of a clock which is synchronous to the local clock.
+	 */
+	public static final ClockModel IDENTITY = new ClockModel(0L, 0.0, 0.0);
+
+	private final long referenceTime;
+	private final double offset;
+	private final double drift;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param referenceTime
+	 *            local time the offset refers to
+	 * @param offset
+	 *            offset of the remote clock at the reference time in
+	 *            milliseconds
+	 * @param drift
+	 *            drift of the remote clock, in milliseconds per millisecond
+	 */
+	public ClockModel(long referenceTime, double offset, double drift) {
+		this.referenceTime = referenceTime;
+		this.offset = offset;
+		this.drift = drift;
+	}
+
+	/**
+	 * Converts a timestamp of the remote clock to the local timebase.
+	 * 
+	 * @param remoteTime
+	 *            timestamp of the remote clock
+	 * @return corresponding local time
+	 */
+	public long toLocal(long remoteTime) {
+		return Math.round((remoteTime - offset + drift * referenceTime) / (1.0 + drift));
+	}
+
+	/**
+	 * Converts a local timestamp to the timebase of the remote clock.
+	 * 
+	 * @param localTime
+	 *            local timestamp
+	 * @return corresponding time of the remote clock
+	 */
+	public long toRemote(long localTime) {
+		return Math.round(localTime + offset + drift * (localTime - referenceTime));
+	}
+
+	/**
+	 * 
+	 * @return local time the offset refers to
+	 */
+	public long getReferenceTime() {
+		return referenceTime;
+	}
+
+	/**
+	 * 
+	 * @return offset at the reference time in milliseconds
+	 */
+	public double getOffset() {
+		return offset;
+	}
+
+	/**
+	 * 
+	 * @return drift in milliseconds per millisecond
+	 */
+	public double getDrift() {
+		return drift;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("offset %.1f ms, drift %.1f ppm", offset, drift * 1e6);
+	}
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.clock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estimates offset and drift of a remote clock from timestamp exchanges, in
+ * the style of NTP: an exchange reads the remote clock between two readings
+ * of the local clock. Assuming symmetric network delays, the remote reading
+ * corresponds to the middle of the local readings. Exchanges with long
+ * round trips are likely asymmetric and are filtered out; offset and drift
+ * are fitted by least squares over the remaining exchanges of a sliding
+ * window.
+ * 
+ * @author agent
+ * 
+ */
+public class ClockOffsetEstimator {
+	/**
+	 * Default number of exchanges the estimation is based on.
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 256;
+
+	/**
+	 * Drift is estimated only if the exchanges span at least this time in
+	 * milliseconds, as shorter spans are dominated by jitter.
+	 */
+	public static final long MIN_DRIFT_SPAN = 2L * 60L * 1000L;
+
+	/**
+	 * Upper bound of the drift; quartz clocks drift less than 100 ppm, larger
+	 * estimates indicate clock steps.
+	 */
+	public static final double MAX_DRIFT = 500e-6;
+
+	private final int windowSize;
+	private final ArrayDeque<Exchange> exchanges = new ArrayDeque<>();
+	private ClockModel model = ClockModel.IDENTITY;
+
+	/**
+	 * Constructor.
+	 */
+	public ClockOffsetEstimator() {
+		this(DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param windowSize
+	 *            number of exchanges the estimation is based on
+	 */
+	public ClockOffsetEstimator(int windowSize) {
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("Window size must be positive.");
+		}
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Adds an exchange and updates the estimation.
+	 * 
+	 * @param localSend
+	 *            local time before reading the remote clock
+	 * @param remoteTime
+	 *            time of the remote clock
+	 * @param localReceive
+	 *            local time after reading the remote clock
+	 */
+	public synchronized void addExchange(long localSend, long remoteTime, long localReceive) {
+		if (localReceive < localSend) {
+			throw new IllegalArgumentException("Exchange ends before it starts.");
+		}
+		exchanges.addLast(new Exchange(localSend, remoteTime, localReceive));
+		if (exchanges.size() > windowSize) {
+			exchanges.removeFirst();
+		}
+		model = estimate();
+	}
+
+	private ClockModel estimate() {
+		long minDelay = Long.MAX_VALUE;
+		for (Exchange exchange : exchanges) {
+			minDelay = Math.min(minDelay, exchange.delay);
+		}
+		// the error of an exchange is bounded by half of its delay
+		long maxDelay = 2L * minDelay + 1L;
+		List<Exchange> accepted = new ArrayList<>();
+		double meanTime = 0.0;
+		double meanOffset = 0.0;
+		for (Exchange exchange : exchanges) {
+			if (exchange.delay <= maxDelay) {
+				accepted.add(exchange);
+				meanTime += exchange.time;
+				meanOffset += exchange.offset;
+			}
+		}
+		meanTime /= accepted.size();
+		meanOffset /= accepted.size();
+		long referenceTime = Math.round(meanTime);
+
+		double span = accepted.get(accepted.size() - 1).time - accepted.get(0).time;
+		if (accepted.size() < 2 || span < MIN_DRIFT_SPAN) {
+			return new ClockModel(referenceTime, meanOffset, 0.0);
+		}
+		double covariance = 0.0;
+		double variance = 0.0;
+		for (Exchange exchange : accepted) {
+			double dt = exchange.time - meanTime;
+			covariance += dt * (exchange.offset - meanOffset);
+			variance += dt * dt;
+		}
+		double drift = Math.max(-MAX_DRIFT, Math.min(MAX_DRIFT, covariance / variance));
+		return new ClockModel(referenceTime, meanOffset + drift * (referenceTime - meanTime), drift);
+	}
+
+	/**
+	 * 
+	 * @return current estimation, {@link ClockModel#IDENTITY} if no exchange
+	 *         has been added
+	 */
+	public synchronized ClockModel getModel() {
+		return model;
+	}
+
+	/**
+	 * 
+	 * @return number of exchanges in the window
+	 */
+	public synchronized int getNumExchanges() {
+		return exchanges.size();
+	}
+
+	/**
+	 * A timestamp exchange.
+	 */
+	private static final class Exchange {
+		private final double time;
+		private final double offset;
+		private final long delay;
+
+		Exchange(long localSend, long remoteTime, long localReceive) {
+			time = (localSend + localReceive) / 2.0;
+			offset = remoteTime - time;
+			delay = localReceive - localSend;
+		}
+	}
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.clock;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
+import org.lpe.common.config.ConfigParameterDescription;
+import org.lpe.common.util.LpeSupportedTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spotter.ext.measurement.sampling.ISampler;
+import org.spotter.ext.measurement.sampling.SamplingScheduler;
+import org.spotter.ext.measurement.sampling.SamplingTask;
+import org.spotter.ext.measurement.sampling.SamplingTick;
+
+/**
+ * Exchanges timestamps with the satellites during an experiment and maps
+ * the timestamps of their records onto the local timebase when the data is
+ * collected, see {@link ClockOffsetEstimator}. Thus, records of different
+ * hosts can be correlated in time, even if the clocks of the hosts are
+ * skewed or drift apart.
+ * 
+ * The adapters of remote satellites, which receive records stamped by the
+ * satellite clock, synchronize with the satellite while monitoring is
+ * enabled and align the records when they are retrieved, if
+ * {@link #PERIOD_KEY} is set:
+ * 
+ * <pre>
+ * ClockSynchronizer synchronizer = new ClockSynchronizer();
+ * synchronizer.addSatellite(&quot;satellite&quot;, remoteClock);
+ * synchronizer.start(period);
+ * ... // experiment
+ * synchronizer.stop();
+ * synchronizer.align(&quot;satellite&quot;, data.getRecords());
+ * </pre>
+ * 
+ * @author agent
+ * 
+ */
+public class ClockSynchronizer {
+	/**
+	 * Default period of the exchanges in milliseconds.
+	 */
+	public static final long DEFAULT_PERIOD = 1000L;
+
+	/**
+	 * Property of satellite adapters defining the period of the clock
+	 * exchanges in milliseconds, 0 disables the synchronization.
+	 */
+	public static final String PERIOD_KEY = "org.spotter.measurement.clockSyncPeriod";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ClockSynchronizer.class);
+
+	private static final IClock SYSTEM_CLOCK = new IClock() {
+		@Override
+		public long getCurrentTime() {
+			return System.currentTimeMillis();
+		}
+	};
+
+	private final IClock localClock;
+	private final Map<String, SatelliteClock> satellites = new LinkedHashMap<>();
+
+	/**
+	 * Constructor, using the system clock as local clock.
+	 */
+	public ClockSynchronizer() {
+		this(SYSTEM_CLOCK);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param localClock
+	 *            clock defining the common timebase
+	 */
+	public ClockSynchronizer(IClock localClock) {
+		this.localClock = localClock;
+	}
+
+	/**
+	 * Creates the configuration parameter defining the period of the clock
+	 * exchanges of a satellite adapter.
+	 * 
+	 * @return parameter description
+	 */
+	public static ConfigParameterDescription createPeriodParameter() {
+		ConfigParameterDescription parameter = new ConfigParameterDescription(PERIOD_KEY, LpeSupportedTypes.Long);
+		parameter.setMandatory(false);
+		parameter.setDefaultValue("0");
+		parameter.setDescription("Period in milliseconds of the clock exchanges with the satellite while "
+				+ "monitoring is enabled. The timestamps of the records are converted to the clock of the "
+				+ "DynamicSpotter server using the estimated offset and drift. 0 disables the "
+				+ "synchronization; " + DEFAULT_PERIOD + " ms is a suitable period.");
+		return parameter;
+	}
+
+	/**
+	 * Adds a satellite.
+	 * 
+	 * @param name
+	 *            name of the satellite
+	 * @param clock
+	 *            clock of the satellite
+	 */
+	public synchronized void addSatellite(String name, IClock clock) {
+		if (satellites.containsKey(name)) {
+			throw new IllegalArgumentException("Satellite " + name + " has already been added.");
+		}
+		satellites.put(name, new SatelliteClock(name, clock));
+	}
+
+	/**
+	 * Starts periodic exchanges with all satellites. Each satellite is
+	 * exchanged with on its own sampling task, so that a slow satellite does
+	 * not delay the exchanges with the others.
+	 * 
+	 * @param period
+	 *            period of the exchanges in milliseconds
+	 */
+	public synchronized void start(long period) {
+		for (SatelliteClock satellite : satellites.values()) {
+			if (satellite.task == null) {
+				satellite.task = SamplingScheduler.getInstance().schedule("clock " + satellite.name, period,
+						satellite);
+			}
+		}
+	}
+
+	/**
+	 * Stops the periodic exchanges. The estimations are kept.
+	 * 
+	 * @throws MeasurementException
+	 *             if an exchange task failed
+	 */
+	public synchronized void stop() throws MeasurementException {
+		for (SatelliteClock satellite : satellites.values()) {
+			if (satellite.task != null) {
+				satellite.task.stop();
+				satellite.task = null;
+			}
+		}
+		for (SatelliteClock satellite : satellites.values()) {
+			LOGGER.debug("Clock of satellite {}: {}", satellite.name, satellite.estimator.getModel());
+		}
+	}
+
+	/**
+	 * Exchanges timestamps with all satellites once, e.g. at the beginning
+	 * and the end of an experiment.
+	 */
+	public void synchronize() {
+		for (SatelliteClock satellite : getSatellites()) {
+			satellite.exchange();
+		}
+	}
+
+	private synchronized SatelliteClock[] getSatellites() {
+		return satellites.values().toArray(new SatelliteClock[satellites.size()]);
+	}
+
+	/**
+	 * 
+	 * @param name
+	 *            name of the satellite
+	 * @return estimated clock of the satellite, {@link ClockModel#IDENTITY}
+	 *         if the satellite is unknown
+	 */
+	public synchronized ClockModel getModel(String name) {
+		SatelliteClock satellite = satellites.get(name);
+		return satellite != null ? satellite.estimator.getModel() : ClockModel.IDENTITY;
+	}
+
+	/**
+	 * Rewrites the timestamps of records of a satellite to the local
+	 * timebase. Records of unknown satellites are not changed.
+	 * 
+	 * @param name
+	 *            name of the satellite
+	 * @param records
+	 *            records of the satellite
+	 */
+	public void align(String name, List<? extends AbstractRecord> records) {
+		ClockModel model = getModel(name);
+		if (model == ClockModel.IDENTITY) {
+			return;
+		}
+		for (AbstractRecord record : records) {
+			record.setTimeStamp(model.toLocal(record.getTimeStamp()));
+		}
+	}
+
+	/**
+	 * Clock of a satellite and its estimation.
+	 */
+	private final class SatelliteClock implements ISampler {
+		private final String name;
+		private final IClock clock;
+		private final ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+		private SamplingTask task;
+
+		SatelliteClock(String name, IClock clock) {
+			this.name = name;
+			this.clock = clock;
+		}
+
+		@Override
+		public void sample(SamplingTick tick) {
+			exchange();
+		}
+
+		void exchange() {
+			try {
+				long localSend = localClock.getCurrentTime();
+				long remoteTime = clock.getCurrentTime();
+				long localReceive = localClock.getCurrentTime();
+				estimator.addExchange(localSend, remoteTime, localReceive);
+			} catch (RuntimeException e) {
+				// a missed exchange only reduces the accuracy
+				LOGGER.debug("Clock exchange with satellite {} failed: {}", name, e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.aim.api.measurement.AbstractRecord;
+
+/**
+ * Reads records written by a {@link BinaryRecordWriter}. Blocks are decoded
+ * one at a time, thus only a single block is held in memory. Properties the
+ * local record types do not know are skipped.
+ * 
+ * @author agent
+ * 
+ */
+public class BinaryRecordReader implements RecordReader {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final DataInputStream in;
+	private final Map<Integer, StreamSchema> schemas = new HashMap<>();
+	private final List<String> dictionary = new ArrayList<>();
+	private final Deque<AbstractRecord> decoded = new ArrayDeque<>();
+	private final Inflater inflater = new Inflater();
+	private boolean finished = false;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param iStream
+	 *            stream to read from
+	 * @throws IOException
+	 *             if the stream does not start with a valid header
+	 */
+	public BinaryRecordReader(InputStream iStream) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(iStream, BUFFER_SIZE));
+		byte[] magic = new byte[BinaryRecordWriter.MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(magic, BinaryRecordWriter.MAGIC)) {
+			throw new IOException("Not a binary record stream.");
+		}
+		int version = in.read();
+		if (version != BinaryRecordWriter.VERSION) {
+			throw new IOException("Unsupported binary record stream version: " + version);
+		}
+	}
+
+	@Override
+	public AbstractRecord read() throws IOException {
+		while (decoded.isEmpty() && !finished) {
+			readFrame();
+		}
+		return decoded.poll();
+	}
+
+	private void readFrame() throws IOException {
+		int frame = in.read();
+		switch (frame) {
+		case BinaryRecordWriter.FRAME_SCHEMA:
+			readSchema();
+			break;
+		case BinaryRecordWriter.FRAME_BLOCK:
+			readBlock();
+			break;
+		case BinaryRecordWriter.FRAME_TEXT:
+			decoded.add(AbstractRecord.fromString(readString(in)));
+			break;
+		case BinaryRecordWriter.FRAME_END:
+		case -1:
+			// a missing end frame is tolerated, the sender may have been
+			// interrupted after the last complete block
+			finished = true;
+			break;
+		default:
+			throw new IOException("Corrupt binary record stream, unknown frame " + frame);
+		}
+	}
+
+	private void readSchema() throws IOException {
+		int typeId = Varints.readLength(in);
+		String className = readString(in);
+		int numProperties = Varints.readLength(in);
+		String[] names = new String[numProperties];
+		byte[] types = new byte[numProperties];
+		for (int i = 0; i < numProperties; i++) {
+			names[i] = readString(in);
+			types[i] = in.readByte();
+		}
+		Class<?> recordType;
+		try {
+			recordType = Class.forName(className);
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Unknown record type in binary record stream: " + className, e);
+		}
+		if (!AbstractRecord.class.isAssignableFrom(recordType)) {
+			throw new IOException("Not a record type: " + className);
+		}
+		RecordSchema localSchema = RecordSchema.of(recordType);
+		int[] localIndexes = new int[numProperties];
+		for (int i = 0; i < numProperties; i++) {
+			localIndexes[i] = localSchema.indexOf(names[i], types[i]);
+		}
+		schemas.put(typeId, new StreamSchema(localSchema, types, localIndexes));
+	}
+
+	private void readBlock() throws IOException {
+		int typeId = Varints.readLength(in);
+		int count = Varints.readLength(in);
+		int rawLength = Varints.readLength(in);
+		int flags = in.readUnsignedByte();
+		StreamSchema schema = schemas.get(typeId);
+		if (schema == null) {
+			throw new IOException("Corrupt binary record stream, block of undefined type " + typeId);
+		}
+
+		byte[] raw = new byte[rawLength];
+		if ((flags & BinaryRecordWriter.FLAG_DEFLATE) != 0) {
+			byte[] compressed = new byte[Varints.readLength(in)];
+			in.readFully(compressed);
+			inflate(compressed, raw);
+		} else {
+			in.readFully(raw);
+		}
+
+		AbstractRecord[] records = new AbstractRecord[count];
+		for (int i = 0; i < count; i++) {
+			records[i] = schema.newRecord();
+		}
+		DataInputStream payload = new DataInputStream(new ByteArrayInputStream(raw));
+		for (int property = 0; property < schema.types.length; property++) {
+			readColumn(payload, schema, property, records);
+		}
+		decoded.addAll(Arrays.asList(records));
+	}
+
+	private void inflate(byte[] compressed, byte[] raw) throws IOException {
+		inflater.reset();
+		inflater.setInput(compressed);
+		try {
+			int offset = 0;
+			while (offset < raw.length && !inflater.finished()) {
+				int length = inflater.inflate(raw, offset, raw.length - offset);
+				if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				offset += length;
+			}
+			if (offset != raw.length) {
+				throw new IOException("Corrupt binary record stream, truncated block.");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt binary record stream.", e);
+		}
+	}
+
+	private void readColumn(DataInputStream payload, StreamSchema schema, int property, AbstractRecord[] records)
+			throws IOException {
+		// properties the local record type does not know are read, but not
+		// set
+		int localIndex = schema.localIndexes[property];
+		RecordSchema localSchema = schema.localSchema;
+		long previous = 0L;
+		for (AbstractRecord record : records) {
+			switch (schema.types[property]) {
+			case RecordSchema.TYPE_LONG:
+				previous += Varints.readSigned(payload);
+				if (localIndex >= 0) {
+					localSchema.setLong(record, localIndex, previous);
+				}
+				break;
+			case RecordSchema.TYPE_INT:
+				previous += Varints.readSigned(payload);
+				if (localIndex >= 0) {
+					localSchema.setInt(record, localIndex, (int) previous);
+				}
+				break;
+			case RecordSchema.TYPE_DOUBLE:
+				double doubleValue = payload.readDouble();
+				if (localIndex >= 0) {
+					localSchema.setDouble(record, localIndex, doubleValue);
+				}
+				break;
+			case RecordSchema.TYPE_FLOAT:
+				float floatValue = payload.readFloat();
+				if (localIndex >= 0) {
+					localSchema.setFloat(record, localIndex, floatValue);
+				}
+				break;
+			case RecordSchema.TYPE_BOOLEAN:
+				boolean booleanValue = payload.readBoolean();
+				if (localIndex >= 0) {
+					localSchema.setBoolean(record, localIndex, booleanValue);
+				}
+				break;
+			case RecordSchema.TYPE_STRING:
+				String stringValue = readDictionaryString(payload);
+				if (localIndex >= 0) {
+					localSchema.setString(record, localIndex, stringValue);
+				}
+				break;
+			default:
+				throw new IOException("Corrupt binary record stream, unknown property type "
+						+ schema.types[property]);
+			}
+		}
+	}
+
+	private String readDictionaryString(DataInputStream payload) throws IOException {
+		int code = Varints.readLength(payload);
+		switch (code) {
+		case BinaryRecordWriter.STRING_NULL:
+			return null;
+		case BinaryRecordWriter.STRING_LITERAL:
+			return readString(payload);
+		case BinaryRecordWriter.STRING_NEW:
+			String value = readString(payload);
+			dictionary.add(value);
+			return value;
+		default:
+			int index = code - BinaryRecordWriter.STRING_REFERENCE;
+			if (index >= dictionary.size()) {
+				throw new IOException("Corrupt binary record stream, unknown string reference " + index);
+			}
+			return dictionary.get(index);
+		}
+	}
+
+	private static String readString(DataInputStream stream) throws IOException {
+		byte[] bytes = new byte[Varints.readLength(stream)];
+		stream.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() throws IOException {
+		inflater.end();
+		in.close();
+	}
+
+	/**
+	 * Schema of a record type as written to the stream, mapped to the local
+	 * record type.
+	 */
+	private static class StreamSchema {
+		private final RecordSchema localSchema;
+		private final byte[] types;
+		private final int[] localIndexes;
+
+		StreamSchema(RecordSchema localSchema, byte[] types, int[] localIndexes) {
+			this.localSchema = localSchema;
+			this.types = types;
+			this.localIndexes = localIndexes;
+		}
+
+		AbstractRecord newRecord() throws IOException {
+			try {
+				return (AbstractRecord) localSchema.getRecordType().newInstance();
+			} catch (InstantiationException | IllegalAccessException e) {
+				throw new IOException("Cannot instantiate record type " + localSchema.getRecordType().getName(), e);
+			}
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import org.aim.api.measurement.AbstractRecord;
+
+/**
+ * Writes records in a compact, columnar binary format. Records are collected
+ * per record type into blocks; each block stores its records column by
+ * column:
+ * <ul>
+ * <li>long and int values as zig-zag varint deltas to the previous value of
+ * the column, so that timestamps and call ids mostly take one or two bytes,</li>
+ * <li>strings, such as operation names and SQL statements, as references
+ * into a dictionary shared by all blocks of the stream,</li>
+ * <li>floating point and boolean values in plain binary.</li>
+ * </ul>
+ * Blocks are optionally compressed with deflate. Record types with
+ * properties which cannot be encoded this way are written as text.
+ * Consequently, records of different types do not keep their relative order.
+ * 
+ * Stream layout: magic, version, then frames of schema definitions, blocks
+ * and text records, terminated by an end frame.
+ * 
+ * @author agent
+ * 
+ */
+public class BinaryRecordWriter implements RecordWriter {
+	/**
+	 * Default number of records per block.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+	static final byte[] MAGIC = { 'S', 'P', 'R', 'B' };
+	static final int VERSION = 1;
+	static final int FRAME_END = 0;
+	static final int FRAME_SCHEMA = 1;
+	static final int FRAME_BLOCK = 2;
+	static final int FRAME_TEXT = 3;
+	static final int FLAG_DEFLATE = 1;
+	static final int STRING_NULL = 0;
+	static final int STRING_LITERAL = 1;
+	static final int STRING_NEW = 2;
+	static final int STRING_REFERENCE = 3;
+	static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final DataOutputStream out;
+	private final boolean deflate;
+	private final int blockSize;
+	private final Map<Class<?>, Integer> typeIds = new HashMap<>();
+	private final Map<Integer, List<AbstractRecord>> pendingBlocks = new LinkedHashMap<>();
+	private final Map<String, Integer> dictionary = new HashMap<>();
+	private final ByteArrayOutputStream payload = new ByteArrayOutputStream(BUFFER_SIZE);
+	private final DataOutputStream payloadOut = new DataOutputStream(payload);
+	private final Deflater deflater;
+	private final byte[] deflateBuffer;
+	private boolean closed = false;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param oStream
+	 *            stream to write to
+	 * @param deflate
+	 *            if true, blocks are compressed
+	 * @throws IOException
+	 *             if the header cannot be written
+	 */
+	public BinaryRecordWriter(OutputStream oStream, boolean deflate) throws IOException {
+		this(oStream, deflate, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param oStream
+	 *            stream to write to
+	 * @param deflate
+	 *            if true, blocks are compressed
+	 * @param blockSize
+	 *            maximum number of records per block
+	 * @throws IOException
+	 *             if the header cannot be written
+	 */
+	public BinaryRecordWriter(OutputStream oStream, boolean deflate, int blockSize) throws IOException {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("Block size must be at least 1.");
+		}
+		this.out = new DataOutputStream(new BufferedOutputStream(oStream, BUFFER_SIZE));
+		this.deflate = deflate;
+		this.blockSize = blockSize;
+		this.deflater = deflate ? new Deflater(Deflater.BEST_SPEED) : null;
+		this.deflateBuffer = deflate ? new byte[BUFFER_SIZE] : null;
+		out.write(MAGIC);
+		out.write(VERSION);
+	}
+
+	@Override
+	public void write(AbstractRecord record) throws IOException {
+		if (closed) {
+			throw new IOException("Record writer has been closed.");
+		}
+		RecordSchema schema = RecordSchema.of(record.getClass());
+		if (!schema.isComplete()) {
+			out.write(FRAME_TEXT);
+			writeBytes(out, record.toString().getBytes(StandardCharsets.UTF_8));
+			return;
+		}
+
+		Integer typeId = typeIds.get(record.getClass());
+		if (typeId == null) {
+			typeId = typeIds.size();
+			typeIds.put(record.getClass(), typeId);
+			writeSchema(typeId, schema);
+		}
+		List<AbstractRecord> block = pendingBlocks.get(typeId);
+		if (block == null) {
+			block = new ArrayList<>(blockSize);
+			pendingBlocks.put(typeId, block);
+		}
+		block.add(record);
+		if (block.size() >= blockSize) {
+			writeBlock(typeId, schema, block);
+			block.clear();
+		}
+	}
+
+	private void writeSchema(int typeId, RecordSchema schema) throws IOException {
+		out.write(FRAME_SCHEMA);
+		Varints.writeUnsigned(out, typeId);
+		writeBytes(out, schema.getRecordType().getName().getBytes(StandardCharsets.UTF_8));
+		Varints.writeUnsigned(out, schema.size());
+		for (int i = 0; i < schema.size(); i++) {
+			writeBytes(out, schema.getName(i).getBytes(StandardCharsets.UTF_8));
+			out.write(schema.getType(i));
+		}
+	}
+
+	private void writeBlock(int typeId, RecordSchema schema, List<AbstractRecord> block) throws IOException {
+		payload.reset();
+		for (int property = 0; property < schema.size(); property++) {
+			writeColumn(schema, property, block);
+		}
+		payloadOut.flush();
+
+		out.write(FRAME_BLOCK);
+		Varints.writeUnsigned(out, typeId);
+		Varints.writeUnsigned(out, block.size());
+		Varints.writeUnsigned(out, payload.size());
+		if (deflate) {
+			out.write(FLAG_DEFLATE);
+			writeDeflated(payload.toByteArray());
+		} else {
+			out.write(0);
+			payload.writeTo(out);
+		}
+	}
+
+	private void writeDeflated(byte[] data) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 1);
+		deflater.reset();
+		deflater.setInput(data);
+		deflater.finish();
+		while (!deflater.finished()) {
+			int length = deflater.deflate(deflateBuffer);
+			compressed.write(deflateBuffer, 0, length);
+		}
+		Varints.writeUnsigned(out, compressed.size());
+		compressed.writeTo(out);
+	}
+
+	private void writeColumn(RecordSchema schema, int property, List<AbstractRecord> block) throws IOException {
+		long previous = 0L;
+		for (AbstractRecord record : block) {
+			switch (schema.getType(property)) {
+			case RecordSchema.TYPE_LONG:
+				long longValue = schema.getLong(record, property);
+				Varints.writeSigned(payloadOut, longValue - previous);
+				previous = longValue;
+				break;
+			case RecordSchema.TYPE_INT:
+				long intValue = schema.getInt(record, property);
+				Varints.writeSigned(payloadOut, intValue - previous);
+				previous = intValue;
+				break;
+			case RecordSchema.TYPE_DOUBLE:
+				payloadOut.writeDouble(schema.getDouble(record, property));
+				break;
+			case RecordSchema.TYPE_FLOAT:
+				payloadOut.writeFloat(schema.getFloat(record, property));
+				break;
+			case RecordSchema.TYPE_BOOLEAN:
+				payloadOut.writeBoolean(schema.getBoolean(record, property));
+				break;
+			case RecordSchema.TYPE_STRING:
+				writeString(schema.getString(record, property));
+				break;
+			default:
+				throw new IllegalStateException("Unsupported property type " + schema.getType(property));
+			}
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		if (value == null) {
+			Varints.writeUnsigned(payloadOut, STRING_NULL);
+			return;
+		}
+		Integer index = dictionary.get(value);
+		if (index != null) {
+			Varints.writeUnsigned(payloadOut, STRING_REFERENCE + index);
+		} else if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+			dictionary.put(value, dictionary.size());
+			Varints.writeUnsigned(payloadOut, STRING_NEW);
+			writeBytes(payloadOut, value.getBytes(StandardCharsets.UTF_8));
+		} else {
+			// dictionary is full, e.g. due to unique SQL statements
+			Varints.writeUnsigned(payloadOut, STRING_LITERAL);
+			writeBytes(payloadOut, value.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static void writeBytes(OutputStream stream, byte[] bytes) throws IOException {
+		Varints.writeUnsigned(stream, bytes.length);
+		stream.write(bytes);
+	}
+
+	/**
+	 * Writes all pending blocks without closing the stream.
+	 * 
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void flush() throws IOException {
+		for (Map.Entry<Class<?>, Integer> entry : typeIds.entrySet()) {
+			List<AbstractRecord> block = pendingBlocks.get(entry.getValue());
+			if (block != null && !block.isEmpty()) {
+				writeBlock(entry.getValue(), RecordSchema.of(entry.getKey()), block);
+				block.clear();
+			}
+		}
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			flush();
+			out.write(FRAME_END);
+			out.flush();
+		} finally {
+			closed = true;
+			if (deflater != null) {
+				deflater.end();
+			}
+			out.close();
+		}
+	}
+}
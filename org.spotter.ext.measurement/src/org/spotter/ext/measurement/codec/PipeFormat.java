@@ -0,0 +1,70 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+/**
+ * Formats for piping records to an output stream.
+ * 
+ * @author agent
+ * 
+ */
+public enum PipeFormat {
+	/**
+	 * One record per line as returned by {@link Object#toString()}.
+	 */
+	TEXT("text"),
+	/**
+	 * Columnar binary blocks, see {@link BinaryRecordWriter}.
+	 */
+	BINARY("binary"),
+	/**
+	 * Columnar binary blocks, each compressed with deflate.
+	 */
+	BINARY_DEFLATE("binary-deflate");
+
+	private final String name;
+
+	private PipeFormat(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * 
+	 * @return name of the format used in configurations
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Parses a format name.
+	 * 
+	 * @param name
+	 *            name of the format, may be null
+	 * @return the format, {@link #TEXT} if the name is null or empty
+	 */
+	public static PipeFormat parse(String name) {
+		if (name == null || name.trim().isEmpty()) {
+			return TEXT;
+		}
+		for (PipeFormat format : values()) {
+			if (format.name.equalsIgnoreCase(name.trim())) {
+				return format;
+			}
+		}
+		throw new IllegalArgumentException("Unknown pipe format: " + name);
+	}
+}
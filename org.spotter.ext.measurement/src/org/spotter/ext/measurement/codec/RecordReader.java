@@ -0,0 +1,39 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.aim.api.measurement.AbstractRecord;
+
+/**
+ * Reads records from a stream written by a {@link RecordWriter}, one record
+ * at a time.
+ * 
+ * @author agent
+ * 
+ */
+public interface RecordReader extends Closeable {
+	/**
+	 * Reads the next record.
+	 * 
+	 * @return next record or null, if the end of the stream has been reached
+	 * @throws IOException
+	 *             if reading fails or the stream is corrupt
+	 */
+	AbstractRecord read() throws IOException;
+}
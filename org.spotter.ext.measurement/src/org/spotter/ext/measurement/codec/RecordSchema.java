@@ -0,0 +1,294 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.aim.api.measurement.AbstractRecord;
+
+/**
+ * Properties of a record type, as derived from its getters and setters.
+ * Only primitive and String properties are supported; records of types with
+ * other properties are transferred as text.
+ * 
+ * Properties are accessed through method handles typed per property type,
+ * hence reading and writing primitive properties does not box.
+ * 
+ * @author agent
+ * 
+ */
+final class RecordSchema {
+	static final byte TYPE_LONG = 1;
+	static final byte TYPE_INT = 2;
+	static final byte TYPE_DOUBLE = 3;
+	static final byte TYPE_FLOAT = 4;
+	static final byte TYPE_BOOLEAN = 5;
+	static final byte TYPE_STRING = 6;
+
+	private static final ConcurrentMap<Class<?>, RecordSchema> SCHEMAS = new ConcurrentHashMap<>();
+
+	private final Class<?> recordType;
+	private final String[] names;
+	private final byte[] types;
+	private final MethodHandle[] getters;
+	private final MethodHandle[] setters;
+	private final boolean complete;
+
+	private RecordSchema(Class<?> recordType, List<PropertyDescriptor> properties, boolean complete)
+			throws IllegalAccessException {
+		this.recordType = recordType;
+		this.complete = complete;
+		int size = properties.size();
+		names = new String[size];
+		types = new byte[size];
+		getters = new MethodHandle[size];
+		setters = new MethodHandle[size];
+		MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+		for (int i = 0; i < size; i++) {
+			PropertyDescriptor property = properties.get(i);
+			Class<?> type = property.getPropertyType();
+			names[i] = property.getName();
+			types[i] = typeCode(type);
+			// erase the record type, so that invokeExact can be called with
+			// any record
+			getters[i] = lookup.unreflect(property.getReadMethod()).asType(
+					MethodType.methodType(type, AbstractRecord.class));
+			setters[i] = lookup.unreflect(property.getWriteMethod()).asType(
+					MethodType.methodType(void.class, AbstractRecord.class, type));
+		}
+	}
+
+	/**
+	 * Returns the schema of a record type.
+	 * 
+	 * @param recordType
+	 *            type of the record
+	 * @return schema
+	 */
+	static RecordSchema of(Class<?> recordType) {
+		RecordSchema schema = SCHEMAS.get(recordType);
+		if (schema == null) {
+			schema = create(recordType);
+			SCHEMAS.putIfAbsent(recordType, schema);
+		}
+		return schema;
+	}
+
+	private static RecordSchema create(Class<?> recordType) {
+		List<PropertyDescriptor> properties = new ArrayList<>();
+		boolean complete = true;
+		try {
+			BeanInfo beanInfo = Introspector.getBeanInfo(recordType);
+			// descriptors are sorted by name, hence writer and reader agree
+			// on the order of the columns
+			for (PropertyDescriptor property : beanInfo.getPropertyDescriptors()) {
+				if (property.getReadMethod() == null || property.getWriteMethod() == null) {
+					continue;
+				}
+				if (typeCode(property.getPropertyType()) == 0) {
+					complete = false;
+					continue;
+				}
+				properties.add(property);
+			}
+			return new RecordSchema(recordType, properties, complete);
+		} catch (IntrospectionException | IllegalAccessException e) {
+			return new RecordSchema(recordType);
+		}
+	}
+
+	/**
+	 * Schema of a record type whose properties cannot be accessed, thus its
+	 * records are transferred as text.
+	 */
+	private RecordSchema(Class<?> recordType) {
+		this.recordType = recordType;
+		this.complete = false;
+		names = new String[0];
+		types = new byte[0];
+		getters = new MethodHandle[0];
+		setters = new MethodHandle[0];
+	}
+
+	private static byte typeCode(Class<?> type) {
+		if (type == long.class) {
+			return TYPE_LONG;
+		} else if (type == int.class) {
+			return TYPE_INT;
+		} else if (type == double.class) {
+			return TYPE_DOUBLE;
+		} else if (type == float.class) {
+			return TYPE_FLOAT;
+		} else if (type == boolean.class) {
+			return TYPE_BOOLEAN;
+		} else if (type == String.class) {
+			return TYPE_STRING;
+		}
+		return 0;
+	}
+
+	/**
+	 * 
+	 * @return true, if all properties of the record type can be encoded
+	 */
+	boolean isComplete() {
+		return complete;
+	}
+
+	Class<?> getRecordType() {
+		return recordType;
+	}
+
+	int size() {
+		return names.length;
+	}
+
+	String getName(int property) {
+		return names[property];
+	}
+
+	byte getType(int property) {
+		return types[property];
+	}
+
+	/**
+	 * 
+	 * @param name
+	 *            name of a property
+	 * @param type
+	 *            type code of the property
+	 * @return index of the property with the given name and type or -1
+	 */
+	int indexOf(String name, byte type) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name) && types[i] == type) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	long getLong(AbstractRecord record, int property) {
+		try {
+			return (long) getters[property].invokeExact(record);
+		} catch (Throwable e) {
+			throw failed("reading", property, e);
+		}
+	}
+
+	int getInt(AbstractRecord record, int property) {
+		try {
+			return (int) getters[property].invokeExact(record);
+		} catch (Throwable e) {
+			throw failed("reading", property, e);
+		}
+	}
+
+	double getDouble(AbstractRecord record, int property) {
+		try {
+			return (double) getters[property].invokeExact(record);
+		} catch (Throwable e) {
+			throw failed("reading", property, e);
+		}
+	}
+
+	float getFloat(AbstractRecord record, int property) {
+		try {
+			return (float) getters[property].invokeExact(record);
+		} catch (Throwable e) {
+			throw failed("reading", property, e);
+		}
+	}
+
+	boolean getBoolean(AbstractRecord record, int property) {
+		try {
+			return (boolean) getters[property].invokeExact(record);
+		} catch (Throwable e) {
+			throw failed("reading", property, e);
+		}
+	}
+
+	String getString(AbstractRecord record, int property) {
+		try {
+			return (String) getters[property].invokeExact(record);
+		} catch (Throwable e) {
+			throw failed("reading", property, e);
+		}
+	}
+
+	void setLong(AbstractRecord record, int property, long value) {
+		try {
+			setters[property].invokeExact(record, value);
+		} catch (Throwable e) {
+			throw failed("writing", property, e);
+		}
+	}
+
+	void setInt(AbstractRecord record, int property, int value) {
+		try {
+			setters[property].invokeExact(record, value);
+		} catch (Throwable e) {
+			throw failed("writing", property, e);
+		}
+	}
+
+	void setDouble(AbstractRecord record, int property, double value) {
+		try {
+			setters[property].invokeExact(record, value);
+		} catch (Throwable e) {
+			throw failed("writing", property, e);
+		}
+	}
+
+	void setFloat(AbstractRecord record, int property, float value) {
+		try {
+			setters[property].invokeExact(record, value);
+		} catch (Throwable e) {
+			throw failed("writing", property, e);
+		}
+	}
+
+	void setBoolean(AbstractRecord record, int property, boolean value) {
+		try {
+			setters[property].invokeExact(record, value);
+		} catch (Throwable e) {
+			throw failed("writing", property, e);
+		}
+	}
+
+	void setString(AbstractRecord record, int property, String value) {
+		try {
+			setters[property].invokeExact(record, value);
+		} catch (Throwable e) {
+			throw failed("writing", property, e);
+		}
+	}
+
+	private IllegalStateException failed(String access, int property, Throwable cause) {
+		return new IllegalStateException("Failed " + access + " property " + names[property] + " of "
+				+ recordType.getName(), cause);
+	}
+}
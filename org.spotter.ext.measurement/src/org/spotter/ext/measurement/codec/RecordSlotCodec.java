@@ -0,0 +1,197 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.aim.api.measurement.AbstractRecord;
+
+/**
+ * Encodes single records into fixed-size binary slots, e.g. of a ring
+ * buffer. Records of types whose properties are all primitives or strings
+ * are encoded property by property, other records as text. Record types are
+ * referenced by ids of a dictionary held by the codec, thus slots can only
+ * be decoded by the codec which encoded them.
+ * 
+ * Slot layout: kind, then the type id and the properties in the order of
+ * the {@link RecordSchema}, or the length and the bytes of the text.
+ * 
+ * @author agent
+ * 
+ */
+public final class RecordSlotCodec {
+	private static final byte KIND_PROPERTIES = 1;
+	private static final byte KIND_TEXT = 2;
+	private static final int NULL_LENGTH = -1;
+
+	private final List<RecordSchema> schemas = new CopyOnWriteArrayList<>();
+	private final ConcurrentMap<Class<?>, Integer> typeIds = new ConcurrentHashMap<>();
+
+	/**
+	 * Encodes a record, starting at the position of the slot.
+	 * 
+	 * @param record
+	 *            record to encode
+	 * @param slot
+	 *            slot, limited to the slot size
+	 * @return false, if the record does not fit into the slot
+	 */
+	public boolean encode(AbstractRecord record, ByteBuffer slot) {
+		RecordSchema schema = RecordSchema.of(record.getClass());
+		try {
+			if (!schema.isComplete()) {
+				slot.put(KIND_TEXT);
+				putBytes(slot, record.toString().getBytes(StandardCharsets.UTF_8));
+				return true;
+			}
+			slot.put(KIND_PROPERTIES);
+			slot.putInt(typeId(schema));
+			for (int property = 0; property < schema.size(); property++) {
+				putProperty(slot, schema, record, property);
+			}
+			return true;
+		} catch (BufferOverflowException e) {
+			return false;
+		}
+	}
+
+	private int typeId(RecordSchema schema) {
+		Integer typeId = typeIds.get(schema.getRecordType());
+		if (typeId == null) {
+			synchronized (schemas) {
+				typeId = typeIds.get(schema.getRecordType());
+				if (typeId == null) {
+					schemas.add(schema);
+					typeId = schemas.size() - 1;
+					typeIds.put(schema.getRecordType(), typeId);
+				}
+			}
+		}
+		return typeId;
+	}
+
+	private void putProperty(ByteBuffer slot, RecordSchema schema, AbstractRecord record, int property) {
+		switch (schema.getType(property)) {
+		case RecordSchema.TYPE_LONG:
+			slot.putLong(schema.getLong(record, property));
+			break;
+		case RecordSchema.TYPE_INT:
+			slot.putInt(schema.getInt(record, property));
+			break;
+		case RecordSchema.TYPE_DOUBLE:
+			slot.putDouble(schema.getDouble(record, property));
+			break;
+		case RecordSchema.TYPE_FLOAT:
+			slot.putFloat(schema.getFloat(record, property));
+			break;
+		case RecordSchema.TYPE_BOOLEAN:
+			slot.put((byte) (schema.getBoolean(record, property) ? 1 : 0));
+			break;
+		default:
+			String value = schema.getString(record, property);
+			if (value == null) {
+				slot.putInt(NULL_LENGTH);
+			} else {
+				putBytes(slot, value.getBytes(StandardCharsets.UTF_8));
+			}
+			break;
+		}
+	}
+
+	private static void putBytes(ByteBuffer slot, byte[] bytes) {
+		if (bytes.length + 4 > slot.remaining()) {
+			throw new BufferOverflowException();
+		}
+		slot.putInt(bytes.length);
+		slot.put(bytes);
+	}
+
+	/**
+	 * Decodes a record, starting at the position of the slot.
+	 * 
+	 * @param slot
+	 *            slot, limited to the slot size
+	 * @return the record
+	 * @throws IllegalArgumentException
+	 *             if the slot does not contain a valid record, e.g. because
+	 *             it has been overwritten while decoding
+	 */
+	public AbstractRecord decode(ByteBuffer slot) {
+		try {
+			byte kind = slot.get();
+			if (kind == KIND_TEXT) {
+				return AbstractRecord.fromString(getString(slot));
+			} else if (kind != KIND_PROPERTIES) {
+				throw new IllegalArgumentException("Invalid slot kind " + kind);
+			}
+			int typeId = slot.getInt();
+			if (typeId < 0 || typeId >= schemas.size()) {
+				throw new IllegalArgumentException("Unknown record type id " + typeId);
+			}
+			RecordSchema schema = schemas.get(typeId);
+			AbstractRecord record = (AbstractRecord) schema.getRecordType().newInstance();
+			for (int property = 0; property < schema.size(); property++) {
+				getProperty(slot, schema, record, property);
+			}
+			return record;
+		} catch (BufferUnderflowException | InstantiationException | IllegalAccessException e) {
+			throw new IllegalArgumentException("Invalid slot", e);
+		}
+	}
+
+	private void getProperty(ByteBuffer slot, RecordSchema schema, AbstractRecord record, int property) {
+		switch (schema.getType(property)) {
+		case RecordSchema.TYPE_LONG:
+			schema.setLong(record, property, slot.getLong());
+			break;
+		case RecordSchema.TYPE_INT:
+			schema.setInt(record, property, slot.getInt());
+			break;
+		case RecordSchema.TYPE_DOUBLE:
+			schema.setDouble(record, property, slot.getDouble());
+			break;
+		case RecordSchema.TYPE_FLOAT:
+			schema.setFloat(record, property, slot.getFloat());
+			break;
+		case RecordSchema.TYPE_BOOLEAN:
+			schema.setBoolean(record, property, slot.get() != 0);
+			break;
+		default:
+			schema.setString(record, property, getString(slot));
+			break;
+		}
+	}
+
+	private static String getString(ByteBuffer slot) {
+		int length = slot.getInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		if (length < 0 || length > slot.remaining()) {
+			throw new IllegalArgumentException("Invalid string length " + length);
+		}
+		byte[] bytes = new byte[length];
+		slot.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+import java.io.OutputStream;
+
+import org.aim.api.exceptions.MeasurementException;
+
+/**
+ * Source of a record stream, e.g. the pipe of a satellite client.
+ * 
+ * @author agent
+ * 
+ */
+public interface RecordSource {
+	/**
+	 * Writes the records to the stream and closes it.
+	 * 
+	 * @param oStream
+	 *            stream to write to
+	 * @throws MeasurementException
+	 *             if the records cannot be retrieved
+	 */
+	void pipeToOutputStream(OutputStream oStream) throws MeasurementException;
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
+import org.lpe.common.config.ConfigParameterDescription;
+import org.lpe.common.util.LpeSupportedTypes;
+import org.lpe.common.util.system.LpeSystemUtils;
+import org.spotter.ext.measurement.clock.ClockModel;
+
+/**
+ * Creates record writers and readers for the {@link PipeFormat}s.
+ * 
+ * @author agent
+ * 
+ */
+public final class RecordStreams {
+	/**
+	 * Property of measurement adapters selecting the format of
+	 * pipeToOutputStream.
+	 */
+	public static final String PIPE_FORMAT_KEY = "org.spotter.measurement.pipeFormat";
+
+	private static final String PIPE_FORMAT_DESCRIPTION = "Format of the measurement data piped to the "
+			+ "DynamicSpotter server: 'text' (one record per line), 'binary' (compact columnar blocks) or "
+			+ "'binary-deflate' (compressed columnar blocks). The binary formats require a receiver reading "
+			+ "them with a RecordStreams reader.";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+	private RecordStreams() {
+	}
+
+	/**
+	 * Creates the configuration parameter selecting the pipe format of a
+	 * measurement adapter.
+	 * 
+	 * @return parameter description
+	 */
+	public static ConfigParameterDescription createPipeFormatParameter() {
+		ConfigParameterDescription parameter = new ConfigParameterDescription(PIPE_FORMAT_KEY,
+				LpeSupportedTypes.String);
+		parameter.setMandatory(false);
+		Set<String> options = new HashSet<>();
+		for (PipeFormat format : PipeFormat.values()) {
+			options.add(format.getName());
+		}
+		parameter.setOptions(options);
+		parameter.setDefaultValue(PipeFormat.TEXT.getName());
+		parameter.setDescription(PIPE_FORMAT_DESCRIPTION);
+		return parameter;
+	}
+
+	/**
+	 * Creates a writer.
+	 * 
+	 * @param oStream
+	 *            stream to write to, closed when the writer is closed
+	 * @param format
+	 *            format to write
+	 * @return writer
+	 * @throws IOException
+	 *             if the stream header cannot be written
+	 */
+	public static RecordWriter newWriter(OutputStream oStream, PipeFormat format) throws IOException {
+		switch (format) {
+		case BINARY:
+			return new BinaryRecordWriter(oStream, false);
+		case BINARY_DEFLATE:
+			return new BinaryRecordWriter(oStream, true);
+		default:
+			return new TextRecordWriter(oStream);
+		}
+	}
+
+	/**
+	 * Creates a reader detecting the format of the stream.
+	 * 
+	 * @param iStream
+	 *            stream to read from, closed when the reader is closed
+	 * @return reader
+	 * @throws IOException
+	 *             if the stream cannot be read
+	 */
+	public static RecordReader newReader(InputStream iStream) throws IOException {
+		BufferedInputStream bufferedStream = new BufferedInputStream(iStream, BUFFER_SIZE);
+		byte[] magic = new byte[BinaryRecordWriter.MAGIC.length];
+		bufferedStream.mark(magic.length);
+		int length = 0;
+		while (length < magic.length) {
+			int read = bufferedStream.read(magic, length, magic.length - length);
+			if (read < 0) {
+				break;
+			}
+			length += read;
+		}
+		bufferedStream.reset();
+		if (length == magic.length && Arrays.equals(magic, BinaryRecordWriter.MAGIC)) {
+			return new BinaryRecordReader(bufferedStream);
+		}
+		return new TextRecordReader(bufferedStream);
+	}
+
+	/**
+	 * Re-encodes the records of a source while they arrive, e.g. the text
+	 * stream of a satellite into a binary format.
+	 * 
+	 * @param source
+	 *            source of the records
+	 * @param oStream
+	 *            stream to write to, closed afterwards
+	 * @param format
+	 *            format to write
+	 * @param clockModel
+	 *            clock of the source, the timestamps are converted to the
+	 *            local timebase; null to keep the timestamps
+	 * @throws MeasurementException
+	 *             if the source fails or the records cannot be re-encoded
+	 */
+	public static void transcode(final RecordSource source, OutputStream oStream, PipeFormat format,
+			ClockModel clockModel) throws MeasurementException {
+		try {
+			final PipedOutputStream sourceStream = new PipedOutputStream();
+			PipedInputStream inStream = new PipedInputStream(sourceStream, PIPE_BUFFER_SIZE);
+			Future<?> transfer = LpeSystemUtils.submitTask(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						source.pipeToOutputStream(sourceStream);
+					} catch (MeasurementException e) {
+						throw new RuntimeException(e);
+					} finally {
+						try {
+							sourceStream.close();
+						} catch (IOException e) {
+							throw new RuntimeException(e);
+						}
+					}
+				}
+			});
+			try (RecordReader reader = newReader(inStream); RecordWriter writer = newWriter(oStream, format)) {
+				AbstractRecord record = reader.read();
+				while (record != null) {
+					if (clockModel != null) {
+						record.setTimeStamp(clockModel.toLocal(record.getTimeStamp()));
+					}
+					writer.write(record);
+					record = reader.read();
+				}
+			}
+			transfer.get();
+		} catch (IOException | ExecutionException e) {
+			throw new MeasurementException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MeasurementException(e);
+		}
+	}
+
+	/**
+	 * Writes one record per line.
+	 */
+	private static class TextRecordWriter implements RecordWriter {
+		private final BufferedWriter writer;
+
+		TextRecordWriter(OutputStream oStream) {
+			writer = new BufferedWriter(new OutputStreamWriter(oStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+		}
+
+		@Override
+		public void write(AbstractRecord record) throws IOException {
+			writer.write(record.toString());
+			writer.newLine();
+		}
+
+		@Override
+		public void close() throws IOException {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Reads one record per line.
+	 */
+	private static class TextRecordReader implements RecordReader {
+		private final BufferedReader reader;
+
+		TextRecordReader(InputStream iStream) {
+			reader = new BufferedReader(new InputStreamReader(iStream, StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public AbstractRecord read() throws IOException {
+			String line = reader.readLine();
+			while (line != null && line.trim().isEmpty()) {
+				line = reader.readLine();
+			}
+			return line == null ? null : AbstractRecord.fromString(line);
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+}
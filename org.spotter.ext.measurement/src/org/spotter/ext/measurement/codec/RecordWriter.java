@@ -0,0 +1,48 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.aim.api.measurement.AbstractRecord;
+
+/**
+ * Writes records to a stream in one of the {@link PipeFormat}s.
+ * 
+ * @author agent
+ * 
+ */
+public interface RecordWriter extends Closeable {
+	/**
+	 * Writes a record.
+	 * 
+	 * @param record
+	 *            record to write
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	void write(AbstractRecord record) throws IOException;
+
+	/**
+	 * Writes all pending records and closes the underlying stream.
+	 * 
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	@Override
+	void close() throws IOException;
+}
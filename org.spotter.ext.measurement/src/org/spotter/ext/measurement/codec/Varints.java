@@ -0,0 +1,80 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Variable length encoding of integers: 7 bits per byte, least significant
+ * group first, the high bit marks continuation. Signed values are zig-zag
+ * encoded, so that small negative values are short as well.
+ * 
+ * @author agent
+ * 
+ */
+final class Varints {
+	private static final int PAYLOAD_BITS = 7;
+	private static final int PAYLOAD_MASK = 0x7F;
+	private static final int CONTINUATION = 0x80;
+	private static final int MAX_SHIFT = 63;
+
+	private Varints() {
+	}
+
+	static void writeUnsigned(OutputStream out, long value) throws IOException {
+		long remaining = value;
+		while ((remaining & ~PAYLOAD_MASK) != 0L) {
+			out.write((int) ((remaining & PAYLOAD_MASK) | CONTINUATION));
+			remaining >>>= PAYLOAD_BITS;
+		}
+		out.write((int) remaining);
+	}
+
+	static void writeSigned(OutputStream out, long value) throws IOException {
+		writeUnsigned(out, (value << 1) ^ (value >> MAX_SHIFT));
+	}
+
+	static long readUnsigned(InputStream in) throws IOException {
+		long value = 0L;
+		for (int shift = 0; shift <= MAX_SHIFT; shift += PAYLOAD_BITS) {
+			int b = in.read();
+			if (b < 0) {
+				throw new EOFException("Unexpected end of record stream.");
+			}
+			value |= (long) (b & PAYLOAD_MASK) << shift;
+			if ((b & CONTINUATION) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint in record stream.");
+	}
+
+	static long readSigned(InputStream in) throws IOException {
+		long value = readUnsigned(in);
+		return (value >>> 1) ^ -(value & 1L);
+	}
+
+	static int readLength(InputStream in) throws IOException {
+		long length = readUnsigned(in);
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("Invalid length in record stream: " + length);
+		}
+		return (int) length;
+	}
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.collector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.collector.AbstractDataSource;
+import org.aim.api.measurement.collector.CollectorFactory;
+
+/**
+ * Creates the data sources of the sampling measurement adapters.
+ * 
+ * @author agent
+ * 
+ */
+public final class DataSources {
+	/**
+	 * Global configuration property overriding the data source class of the
+	 * sampling measurement adapters, e.g. with {@link MappedRingDataSource}.
+	 */
+	public static final String DATA_SOURCE_KEY = "org.spotter.measurement.dataSource";
+
+	private DataSources() {
+	}
+
+	/**
+	 * Creates the configured data source.
+	 * 
+	 * @param collectorProperties
+	 *            properties of the data source
+	 * @param defaultDataSource
+	 *            name of the data source class used if none is configured
+	 * @return initialized data source
+	 * @throws MeasurementException
+	 *             if the data source cannot be created
+	 */
+	public static AbstractDataSource createDataSource(Properties collectorProperties, String defaultDataSource)
+			throws MeasurementException {
+		String dataSource = collectorProperties.getProperty(DATA_SOURCE_KEY, defaultDataSource);
+		return CollectorFactory.createDataSource(dataSource.trim(), collectorProperties);
+	}
+
+	/**
+	 * Releases the resources of a data source which is no longer used, e.g.
+	 * the mapping of a {@link MappedRingDataSource}.
+	 * 
+	 * @param dataSource
+	 *            data source to release, may be null
+	 * @throws MeasurementException
+	 *             if the data source cannot be closed
+	 */
+	public static void release(AbstractDataSource dataSource) throws MeasurementException {
+		if (dataSource instanceof Closeable) {
+			try {
+				((Closeable) dataSource).close();
+			} catch (IOException e) {
+				throw new MeasurementException(e);
+			}
+		}
+	}
+}
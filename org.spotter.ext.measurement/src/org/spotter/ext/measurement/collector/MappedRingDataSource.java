@@ -0,0 +1,415 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.collector;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.api.measurement.MeasurementData;
+import org.aim.api.measurement.collector.AbstractDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spotter.ext.measurement.codec.BinaryRecordWriter;
+import org.spotter.ext.measurement.codec.PipeFormat;
+import org.spotter.ext.measurement.codec.RecordReader;
+import org.spotter.ext.measurement.codec.RecordSlotCodec;
+import org.spotter.ext.measurement.codec.RecordStreams;
+import org.spotter.ext.measurement.codec.RecordWriter;
+
+/**
+ * Data source buffering records in a memory-mapped ring of fixed-size
+ * binary slots, see {@link RecordSlotCodec}. The ring lives outside of the
+ * Java heap, thus high-rate samplers neither produce garbage for buffered
+ * records nor wait for disk writes.
+ * 
+ * Records have to be added by a single thread at a time; appends do not
+ * lock. Reading drains the ring and may run concurrently to appends. If the
+ * ring is full, the {@link OverflowPolicy} decides whether the oldest
+ * records are overwritten or new records are spilled to a file. Records not
+ * fitting into a slot are always spilled. Spilled records are read after the
+ * records of the ring.
+ * 
+ * The mapping is released by {@link #close()}, or when the data source is
+ * initialized again.
+ * 
+ * Selected via {@link org.aim.api.measurement.collector.CollectorFactory}
+ * with the name of this class, e.g. through {@link DataSources#DATA_SOURCE_KEY}.
+ * 
+ * @author agent
+ * 
+ */
+public class MappedRingDataSource extends AbstractDataSource implements Closeable {
+	/**
+	 * Size of a slot in bytes.
+	 */
+	public static final String SLOT_SIZE_KEY = "org.spotter.measurement.ring.slotSize";
+
+	/**
+	 * Number of slots of the ring.
+	 */
+	public static final String NUM_SLOTS_KEY = "org.spotter.measurement.ring.numSlots";
+
+	/**
+	 * Name of the {@link OverflowPolicy}.
+	 */
+	public static final String OVERFLOW_POLICY_KEY = "org.spotter.measurement.ring.overflowPolicy";
+
+	/**
+	 * Directory of the mapped and spill files, defaults to the temp
+	 * directory.
+	 */
+	public static final String DIRECTORY_KEY = "org.spotter.measurement.ring.dir";
+
+	public static final int DEFAULT_SLOT_SIZE = 256;
+	public static final int DEFAULT_NUM_SLOTS = 64 * 1024;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MappedRingDataSource.class);
+
+	private final RecordSlotCodec codec = new RecordSlotCodec();
+	private final AtomicLong writeSequence = new AtomicLong(0);
+	private final AtomicLong readSequence = new AtomicLong(0);
+	private final AtomicLong numOverwritten = new AtomicLong(0);
+	private final Object spillLock = new Object();
+
+	private int slotSize;
+	private int numSlots;
+	private OverflowPolicy policy;
+	private PipeFormat pipeFormat;
+	private File directory;
+	private MappedByteBuffer mapped;
+	private ByteBuffer writeBuffer;
+	/**
+	 * Encoding target if the ring is full, used to check whether a record
+	 * fits into a slot before the oldest record is dropped.
+	 */
+	private ByteBuffer overflowSlot;
+	private ByteBuffer readBuffer;
+	private volatile boolean enabled = false;
+
+	private File spillFile;
+	private BinaryRecordWriter spillWriter;
+	private long numSpilled;
+
+	@Override
+	public void init(Properties properties) throws MeasurementException {
+		close();
+		try {
+			slotSize = Integer.parseInt(properties.getProperty(SLOT_SIZE_KEY, String.valueOf(DEFAULT_SLOT_SIZE)));
+			numSlots = Integer.parseInt(properties.getProperty(NUM_SLOTS_KEY, String.valueOf(DEFAULT_NUM_SLOTS)));
+			policy = OverflowPolicy.parse(properties.getProperty(OVERFLOW_POLICY_KEY));
+			pipeFormat = PipeFormat.parse(properties.getProperty(RecordStreams.PIPE_FORMAT_KEY));
+		} catch (IllegalArgumentException e) {
+			throw new MeasurementException(e);
+		}
+		if (slotSize <= 0 || numSlots <= 0 || (long) slotSize * numSlots > Integer.MAX_VALUE) {
+			throw new MeasurementException("Invalid ring size: " + numSlots + " slots of " + slotSize + " bytes.");
+		}
+		directory = new File(properties.getProperty(DIRECTORY_KEY, System.getProperty("java.io.tmpdir")));
+
+		try {
+			File file = File.createTempFile("spotter-ring-", ".bin", directory);
+			try (RandomAccessFile raFile = new RandomAccessFile(file, "rw")) {
+				// the mapping stays valid after the channel has been closed
+				mapped = raFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, (long) slotSize * numSlots);
+				writeBuffer = mapped.duplicate();
+				readBuffer = mapped.duplicate();
+			}
+			overflowSlot = ByteBuffer.allocate(slotSize);
+			if (!file.delete()) {
+				file.deleteOnExit();
+			}
+		} catch (IOException e) {
+			throw new MeasurementException("Failed mapping ring buffer file.", e);
+		}
+	}
+
+	@Override
+	public void enable() throws MeasurementException {
+		enabled = true;
+	}
+
+	@Override
+	public void disable() throws MeasurementException {
+		enabled = false;
+		synchronized (spillLock) {
+			try {
+				if (spillWriter != null) {
+					spillWriter.flush();
+				}
+			} catch (IOException e) {
+				throw new MeasurementException(e);
+			}
+		}
+		if (numOverwritten.get() > 0) {
+			LOGGER.warn("Ring buffer overflow: {} records have been overwritten.", numOverwritten.get());
+		}
+	}
+
+	@Override
+	public void newRecord(AbstractRecord record) {
+		if (!enabled) {
+			return;
+		}
+		long write = writeSequence.get();
+		long read = readSequence.get();
+		if (write - read >= numSlots) {
+			if (policy == OverflowPolicy.SPILL) {
+				spill(record);
+				return;
+			}
+			// the oldest record must only be dropped for a record fitting
+			// into its slot
+			overflowSlot.clear();
+			if (!codec.encode(record, overflowSlot)) {
+				spill(record);
+				return;
+			}
+			// drop the oldest record; if the reader is faster, the slot has
+			// been freed anyway
+			if (readSequence.compareAndSet(read, read + 1)) {
+				numOverwritten.incrementAndGet();
+			}
+			overflowSlot.flip();
+			slot(writeBuffer, write).put(overflowSlot);
+		} else if (!codec.encode(record, slot(writeBuffer, write))) {
+			spill(record);
+			return;
+		}
+		// publishes the slot to the reader
+		writeSequence.lazySet(write + 1);
+	}
+
+	@Override
+	public void newRecords(List<? extends AbstractRecord> records) {
+		for (AbstractRecord record : records) {
+			newRecord(record);
+		}
+	}
+
+	private ByteBuffer slot(ByteBuffer buffer, long sequence) {
+		int offset = (int) (sequence % numSlots) * slotSize;
+		buffer.limit(offset + slotSize).position(offset);
+		return buffer;
+	}
+
+	private void spill(AbstractRecord record) {
+		synchronized (spillLock) {
+			try {
+				if (spillWriter == null) {
+					spillFile = File.createTempFile("spotter-spill-", ".bin", directory);
+					spillWriter = new BinaryRecordWriter(new BufferedOutputStream(new FileOutputStream(spillFile)),
+							false);
+				}
+				spillWriter.write(record);
+				numSpilled++;
+			} catch (IOException e) {
+				throw new IllegalStateException("Failed spilling record.", e);
+			}
+		}
+	}
+
+	/**
+	 * Removes the oldest record from the ring.
+	 * 
+	 * @return the record or null, if the ring is empty
+	 */
+	private synchronized AbstractRecord poll() {
+		while (true) {
+			long read = readSequence.get();
+			if (read >= writeSequence.get()) {
+				return null;
+			}
+			AbstractRecord record;
+			try {
+				record = codec.decode(slot(readBuffer, read));
+			} catch (RuntimeException e) {
+				// overwritten while decoding, detected below
+				record = null;
+			}
+			// fails if the writer has overwritten the slot meanwhile
+			if (readSequence.compareAndSet(read, read + 1) && record != null) {
+				return record;
+			}
+		}
+	}
+
+	/**
+	 * Removes all records from the ring and the spill file.
+	 * 
+	 * @return the removed records
+	 * @throws MeasurementException
+	 *             if the spill file cannot be read
+	 */
+	public List<AbstractRecord> drain() throws MeasurementException {
+		final List<AbstractRecord> records = new ArrayList<>();
+		drain(new RecordWriter() {
+			@Override
+			public void write(AbstractRecord record) {
+				records.add(record);
+			}
+
+			@Override
+			public void close() {
+			}
+		});
+		return records;
+	}
+
+	private void drain(RecordWriter writer) throws MeasurementException {
+		try {
+			AbstractRecord record = poll();
+			while (record != null) {
+				writer.write(record);
+				record = poll();
+			}
+			File file = takeSpillFile();
+			if (file == null) {
+				return;
+			}
+			try (RecordReader reader = RecordStreams.newReader(new FileInputStream(file))) {
+				record = reader.read();
+				while (record != null) {
+					writer.write(record);
+					record = reader.read();
+				}
+			} finally {
+				if (!file.delete()) {
+					file.deleteOnExit();
+				}
+			}
+		} catch (IOException e) {
+			throw new MeasurementException(e);
+		}
+	}
+
+	private File takeSpillFile() throws IOException {
+		synchronized (spillLock) {
+			if (spillWriter == null) {
+				return null;
+			}
+			spillWriter.close();
+			spillWriter = null;
+			File file = spillFile;
+			spillFile = null;
+			return file;
+		}
+	}
+
+	@Override
+	public MeasurementData read() throws MeasurementException {
+		MeasurementData data = new MeasurementData();
+		data.setRecords(drain());
+		return data;
+	}
+
+	@Override
+	public void pipeToOutputStream(OutputStream oStream) throws MeasurementException {
+		try (RecordWriter writer = RecordStreams.newWriter(oStream, pipeFormat)) {
+			drain(writer);
+		} catch (IOException e) {
+			throw new MeasurementException(e);
+		}
+	}
+
+	@Override
+	public void reset() {
+		readSequence.set(writeSequence.get());
+		numOverwritten.set(0);
+		try {
+			File file = takeSpillFile();
+			if (file != null && !file.delete()) {
+				file.deleteOnExit();
+			}
+		} catch (IOException e) {
+			LOGGER.warn("Failed discarding spill file: {}", e.getMessage());
+		}
+		synchronized (spillLock) {
+			numSpilled = 0;
+		}
+	}
+
+	/**
+	 * Discards all records and releases the mapped ring. Must not be called
+	 * while records are added or read.
+	 */
+	@Override
+	public void close() {
+		enabled = false;
+		if (mapped == null) {
+			return;
+		}
+		reset();
+		writeBuffer = null;
+		readBuffer = null;
+		overflowSlot = null;
+		unmap(mapped);
+		mapped = null;
+	}
+
+	/**
+	 * Releases the mapping immediately instead of waiting for the garbage
+	 * collection of the buffer. Falls back to the garbage collection if the
+	 * JVM does not expose the cleaner of mapped buffers.
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			if (cleaner != null) {
+				Method cleanMethod = cleaner.getClass().getMethod("clean");
+				cleanMethod.setAccessible(true);
+				cleanMethod.invoke(cleaner);
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			LOGGER.debug("Mapped ring is released by the garbage collection: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * 
+	 * @return number of records overwritten since the last reset
+	 */
+	public long getNumOverwritten() {
+		return numOverwritten.get();
+	}
+
+	/**
+	 * 
+	 * @return number of records spilled since the last reset
+	 */
+	public long getNumSpilled() {
+		synchronized (spillLock) {
+			return numSpilled;
+		}
+	}
+}
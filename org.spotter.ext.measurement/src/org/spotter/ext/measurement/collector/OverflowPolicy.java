@@ -0,0 +1,67 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.collector;
+
+/**
+ * Behaviour of a {@link MappedRingDataSource} if its ring is full.
+ * 
+ * @author agent
+ * 
+ */
+public enum OverflowPolicy {
+	/**
+	 * The oldest records are overwritten, memory and disk usage stay bounded.
+	 */
+	OVERWRITE("overwrite"),
+	/**
+	 * New records are spilled to a file until the ring has been drained, no
+	 * records are lost.
+	 */
+	SPILL("spill");
+
+	private final String name;
+
+	private OverflowPolicy(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * 
+	 * @return name of the policy used in configurations
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Parses a policy name.
+	 * 
+	 * @param name
+	 *            name of the policy, may be null
+	 * @return the policy, {@link #OVERWRITE} if the name is null or empty
+	 */
+	public static OverflowPolicy parse(String name) {
+		if (name == null || name.trim().isEmpty()) {
+			return OVERWRITE;
+		}
+		for (OverflowPolicy policy : values()) {
+			if (policy.name.equalsIgnoreCase(name.trim())) {
+				return policy;
+			}
+		}
+		throw new IllegalArgumentException("Unknown overflow policy: " + name);
+	}
+}
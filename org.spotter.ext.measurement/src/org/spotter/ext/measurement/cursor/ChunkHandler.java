@@ -0,0 +1,40 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.cursor;
+
+import java.util.List;
+
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
+
+/**
+ * Receives the chunks of a {@link MeasurementCursor}.
+ * 
+ * @author agent
+ * 
+ */
+public interface ChunkHandler {
+	/**
+	 * Handles a chunk. The cursor retrieves the next chunk only after this
+	 * method has returned.
+	 * 
+	 * @param chunk
+	 *            records of the chunk, sorted by timestamp
+	 * @throws MeasurementException
+	 *             if handling fails, stops the retrieval
+	 */
+	void handle(List<AbstractRecord> chunk) throws MeasurementException;
+}
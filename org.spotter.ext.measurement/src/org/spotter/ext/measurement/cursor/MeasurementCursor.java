@@ -0,0 +1,306 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.cursor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
+import org.lpe.common.config.ConfigParameterDescription;
+import org.lpe.common.util.LpeSupportedTypes;
+import org.lpe.common.util.system.LpeSystemUtils;
+import org.spotter.core.measurement.IMeasurementAdapter;
+import org.spotter.ext.measurement.codec.RecordReader;
+import org.spotter.ext.measurement.codec.RecordStreams;
+
+/**
+ * Retrieves the measurement data of an adapter in chunks instead of a single
+ * {@link IMeasurementAdapter#getMeasurementData()} call. The data is piped
+ * from the adapter through a bounded buffer: the adapter is blocked until the
+ * consumer requests the next chunk, so that at most one chunk and the buffer
+ * are held in memory.
+ * 
+ * Ordering is only per chunk: the records of a chunk are sorted by timestamp,
+ * while the chunks follow the order in which the adapter pipes its records.
+ * Records of consecutive chunks may therefore overlap in time; consumers
+ * requiring a global time order have to sort after the last chunk. If the
+ * retrieval is interrupted, a new cursor created with {@link #getResumeToken()} continues
+ * after the last delivered chunk. As the satellites can only pipe their data
+ * as a whole, the records before the token are transferred again, but are not
+ * delivered again.
+ * 
+ * Usage:
+ * 
+ * <pre>
+ * try (MeasurementCursor cursor = MeasurementCursor.open(adapter, token)) {
+ * 	List&lt;AbstractRecord&gt; chunk = cursor.nextChunk();
+ * 	while (chunk != null) {
+ * 		... // analyse chunk
+ * 		chunk = cursor.nextChunk();
+ * 	}
+ * }
+ * </pre>
+ * 
+ * @author agent
+ * 
+ */
+public class MeasurementCursor implements Closeable {
+	/**
+	 * Property of measurement adapters defining the number of records per
+	 * chunk.
+	 */
+	public static final String CHUNK_SIZE_KEY = "org.spotter.measurement.chunkSize";
+
+	/**
+	 * Default number of records per chunk.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 10000;
+
+	private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+	private static final Comparator<AbstractRecord> TIMESTAMP_ORDER = new Comparator<AbstractRecord>() {
+		@Override
+		public int compare(AbstractRecord o1, AbstractRecord o2) {
+			return Long.compare(o1.getTimeStamp(), o2.getTimeStamp());
+		}
+	};
+
+	private final IMeasurementAdapter adapter;
+	private final int chunkSize;
+	private ResumeToken token;
+	private RecordReader reader;
+	private Future<?> transfer;
+	private boolean exhausted = false;
+	private boolean closed = false;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param adapter
+	 *            adapter to retrieve the data from
+	 * @param chunkSize
+	 *            maximum number of records per chunk
+	 * @param token
+	 *            position to resume from, {@link ResumeToken#START} for a new
+	 *            retrieval
+	 */
+	public MeasurementCursor(IMeasurementAdapter adapter, int chunkSize, ResumeToken token) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size must be positive.");
+		}
+		this.adapter = adapter;
+		this.chunkSize = chunkSize;
+		this.token = token;
+	}
+
+	/**
+	 * Creates a cursor with the chunk size configured for the adapter.
+	 * 
+	 * @param adapter
+	 *            adapter to retrieve the data from
+	 * @param token
+	 *            position to resume from, {@link ResumeToken#START} for a new
+	 *            retrieval
+	 * @return cursor
+	 * @throws MeasurementException
+	 *             if the configured chunk size is invalid
+	 */
+	public static MeasurementCursor open(IMeasurementAdapter adapter, ResumeToken token) throws MeasurementException {
+		String chunkSizeStr = adapter.getProperties().getProperty(CHUNK_SIZE_KEY);
+		try {
+			int chunkSize = chunkSizeStr == null ? DEFAULT_CHUNK_SIZE : Integer.parseInt(chunkSizeStr.trim());
+			return new MeasurementCursor(adapter, chunkSize, token);
+		} catch (IllegalArgumentException e) {
+			throw new MeasurementException("Invalid chunk size: " + chunkSizeStr, e);
+		}
+	}
+
+	/**
+	 * Creates the configuration parameter defining the chunk size of a
+	 * measurement adapter.
+	 * 
+	 * @return parameter description
+	 */
+	public static ConfigParameterDescription createChunkSizeParameter() {
+		ConfigParameterDescription parameter = new ConfigParameterDescription(CHUNK_SIZE_KEY,
+				LpeSupportedTypes.Integer);
+		parameter.setMandatory(false);
+		parameter.setDefaultValue(String.valueOf(DEFAULT_CHUNK_SIZE));
+		parameter.setDescription("Maximum number of records retrieved at once "
+				+ "when the measurement data is retrieved in chunks.");
+		return parameter;
+	}
+
+	/**
+	 * Retrieves the next chunk.
+	 * 
+	 * @return records of the chunk sorted by timestamp, null if all records
+	 *         have been delivered
+	 * @throws MeasurementException
+	 *             if the retrieval fails, it can be resumed from
+	 *             {@link #getResumeToken()} with a new cursor
+	 */
+	public List<AbstractRecord> nextChunk() throws MeasurementException {
+		if (closed) {
+			throw new IllegalStateException("Cursor has been closed.");
+		}
+		if (exhausted) {
+			return null;
+		}
+		List<AbstractRecord> chunk = new ArrayList<>(chunkSize);
+		try {
+			if (reader == null) {
+				openStream();
+				skipDelivered();
+			}
+			while (chunk.size() < chunkSize) {
+				AbstractRecord record = reader.read();
+				if (record == null) {
+					// the pipe is closed on failures as well, thus the
+					// transfer has to be checked before the chunk is delivered
+					awaitTransfer();
+					exhausted = true;
+					break;
+				}
+				chunk.add(record);
+			}
+		} catch (IOException e) {
+			close();
+			throw new MeasurementException("Retrieval of measurement data interrupted at " + token + ".", e);
+		} catch (MeasurementException e) {
+			close();
+			throw e;
+		}
+
+		if (chunk.isEmpty()) {
+			return null;
+		}
+		token = new ResumeToken(token.getPosition() + chunk.size(), chunk.get(chunk.size() - 1).toString()
+				.hashCode());
+		Collections.sort(chunk, TIMESTAMP_ORDER);
+		return chunk;
+	}
+
+	/**
+	 * Passes all remaining chunks to the handler. If the handler fails, the
+	 * resume token still points to the position before the failed chunk.
+	 * 
+	 * @param handler
+	 *            handler of the chunks
+	 * @throws MeasurementException
+	 *             if the retrieval or the handler fails
+	 */
+	public void forEachChunk(ChunkHandler handler) throws MeasurementException {
+		ResumeToken previousToken = token;
+		List<AbstractRecord> chunk = nextChunk();
+		while (chunk != null) {
+			try {
+				handler.handle(chunk);
+			} catch (MeasurementException | RuntimeException e) {
+				token = previousToken;
+				throw e;
+			}
+			previousToken = token;
+			chunk = nextChunk();
+		}
+	}
+
+	/**
+	 * 
+	 * @return position after the last delivered chunk
+	 */
+	public ResumeToken getResumeToken() {
+		return token;
+	}
+
+	private void openStream() throws IOException {
+		final PipedOutputStream adapterStream = new PipedOutputStream();
+		PipedInputStream inStream = new PipedInputStream(adapterStream, PIPE_BUFFER_SIZE);
+		transfer = LpeSystemUtils.submitTask(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					adapter.pipeToOutputStream(adapterStream);
+				} catch (MeasurementException e) {
+					throw new RuntimeException(e);
+				} finally {
+					try {
+						adapterStream.close();
+					} catch (IOException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			}
+		});
+		reader = RecordStreams.newReader(inStream);
+	}
+
+	private void skipDelivered() throws IOException, MeasurementException {
+		AbstractRecord record = null;
+		for (long i = 0; i < token.getPosition(); i++) {
+			record = reader.read();
+			if (record == null) {
+				awaitTransfer();
+				throw new MeasurementException("Measurement data ends before resume position " + token + ".");
+			}
+		}
+		if (record != null && record.toString().hashCode() != token.getLastRecordHash()) {
+			throw new MeasurementException("Measurement data has changed since resume position " + token + ".");
+		}
+	}
+
+	private void awaitTransfer() throws MeasurementException {
+		try {
+			transfer.get();
+		} catch (ExecutionException e) {
+			throw new MeasurementException("Transfer of measurement data failed.", e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MeasurementException(e);
+		}
+	}
+
+	/**
+	 * Stops the retrieval. A blocked transfer is aborted.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (reader != null) {
+			try {
+				// unblocks the adapter writing to the pipe
+				reader.close();
+			} catch (IOException e) {
+				// nothing to do, the pipe is discarded anyway
+			}
+		}
+		if (transfer != null) {
+			transfer.cancel(true);
+		}
+	}
+}
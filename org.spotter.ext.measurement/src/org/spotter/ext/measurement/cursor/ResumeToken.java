@@ -0,0 +1,107 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.cursor;
+
+/**
+ * Position of a {@link MeasurementCursor} after the last completely
+ * delivered chunk. Retrieval can be resumed from a token after an
+ * interruption; the token identifies the last delivered record, so that a
+ * resume on changed data is detected.
+ * 
+ * @author agent
+ * 
+ */
+public final class ResumeToken {
+	/**
+	 * Token of a retrieval which has not delivered any records yet.
+	 */
+	public static final ResumeToken START = new ResumeToken(0L, 0);
+
+	private static final String SEPARATOR = ":";
+
+	private final long position;
+	private final int lastRecordHash;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param position
+	 *            number of delivered records
+	 * @param lastRecordHash
+	 *            hash of the text representation of the last delivered record
+	 */
+	public ResumeToken(long position, int lastRecordHash) {
+		if (position < 0L) {
+			throw new IllegalArgumentException("Position must not be negative.");
+		}
+		this.position = position;
+		this.lastRecordHash = lastRecordHash;
+	}
+
+	/**
+	 * 
+	 * @return number of delivered records
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	/**
+	 * 
+	 * @return hash of the text representation of the last delivered record
+	 */
+	public int getLastRecordHash() {
+		return lastRecordHash;
+	}
+
+	/**
+	 * Parses a token created by {@link #toString()}.
+	 * 
+	 * @param token
+	 *            token string
+	 * @return token
+	 */
+	public static ResumeToken parse(String token) {
+		String[] parts = token.split(SEPARATOR);
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Invalid resume token: " + token);
+		}
+		try {
+			return new ResumeToken(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid resume token: " + token, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return position + SEPARATOR + lastRecordHash;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (position ^ (position >>> 32)) * 31 + lastRecordHash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof ResumeToken)) {
+			return false;
+		}
+		ResumeToken other = (ResumeToken) obj;
+		return position == other.position && lastRecordHash == other.lastRecordHash;
+	}
+}
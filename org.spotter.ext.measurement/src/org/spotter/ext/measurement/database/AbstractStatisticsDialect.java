@@ -0,0 +1,56 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.aim.artifacts.records.DBStatisticsRecrod;
+
+/**
+ * Dialect whose statistics query returns a single row with the columns
+ * {@link #QUERIES}, {@link #LOCK_WAITS} and {@link #LOCK_TIME}.
+ * 
+ * @author agent
+ * 
+ */
+public abstract class AbstractStatisticsDialect implements IStatisticsDialect {
+	/**
+	 * Column holding the number of executed queries.
+	 */
+	public static final String QUERIES = "QUERIES";
+
+	/**
+	 * Column holding the number of lock waits.
+	 */
+	public static final String LOCK_WAITS = "LOCK_WAITS";
+
+	/**
+	 * Column holding the accumulated lock wait time.
+	 */
+	public static final String LOCK_TIME = "LOCK_TIME";
+
+	@Override
+	public void readStatistics(ResultSet resultSet, DBStatisticsRecrod record, long ownQueries) throws SQLException {
+		if (!resultSet.next()) {
+			throw new SQLException("Statistics query returned no result.");
+		}
+		long numQueries = resultSet.getLong(QUERIES);
+		record.setNumQueueries(numQueries < 0L ? numQueries : numQueries - ownQueries);
+		record.setNumLockWaits(resultSet.getLong(LOCK_WAITS));
+		record.setLockTime(resultSet.getLong(LOCK_TIME));
+	}
+}
@@ -17,49 +17,43 @@ package org.spotter.ext.measurement.database;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Properties;
-import java.util.concurrent.Future;
 
 import javax.net.ssl.HostnameVerifier;
 
 import org.aim.api.exceptions.MeasurementException;
 import org.aim.api.measurement.MeasurementData;
 import org.aim.api.measurement.collector.AbstractDataSource;
-import org.aim.api.measurement.collector.CollectorFactory;
 import org.aim.artifacts.measurement.collector.FileDataSource;
 import org.aim.artifacts.records.DBStatisticsRecrod;
 import org.aim.description.InstrumentationDescription;
 import org.aim.description.sampling.SamplingDescription;
 import org.lpe.common.config.GlobalConfiguration;
 import org.lpe.common.extension.IExtension;
-import org.lpe.common.util.system.LpeSystemUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.spotter.core.measurement.AbstractMeasurementAdapter;
+import org.spotter.ext.measurement.collector.DataSources;
+import org.spotter.ext.measurement.sampling.ISampler;
+import org.spotter.ext.measurement.sampling.SamplingScheduler;
+import org.spotter.ext.measurement.sampling.SamplingTask;
+import org.spotter.ext.measurement.sampling.SamplingTick;
 
 /**
- * Measurement adapter for sampling status of a Database Server. TODO: this
- * class is specific
+ * Measurement adapter for sampling status of a Database Server. The database
+ * specific statistics query is defined by an {@link IStatisticsDialect},
+ * MySQL by default. The connection and the prepared query are kept open
+ * across samples and experiments, see {@link StatisticsConnection}.
  * 
  * @author Alexander Wert
  * 
  */
-public class DBMSMeasurement extends AbstractMeasurementAdapter implements Runnable {
+public class DBMSMeasurement extends AbstractMeasurementAdapter implements ISampler {
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(DBMSMeasurement.class);
-	
 	public static Integer instanceId = 1;
 	private AbstractDataSource dataSource;
-	private Future<?> measurementTask;
+	private SamplingTask samplingTask;
 
-	private Connection jdbcConnection;
-	private PreparedStatement sqlStatement;
-	private boolean running;
+	private StatisticsConnection statisticsConnection;
 	private boolean samplerActivated = false;
 	private long delay;
 	private String mySQLHost;
@@ -69,14 +63,6 @@ public class DBMSMeasurement extends AbstractMeasurementAdapter implements Runna
 	private String mySQLdatabase;
 	protected static final long DEFAULT_DELAY = 500;
 
-	/**
-	 * Query string for Database MS status. TODO: it is specific yet,
-	 * externalize
-	 */
-	private static final String SQL_QUERY = "SHOW STATUS WHERE Variable_name like "
-			+ "'Innodb_row_lock_waits' OR Variable_name like 'Queries' OR "
-			+ "Variable_name like 'Innodb_row_lock_time';";
-
 	/**
 	 * Constructor.
 	 * 
@@ -91,13 +77,12 @@ public class DBMSMeasurement extends AbstractMeasurementAdapter implements Runna
 	public void enableMonitoring() throws MeasurementException {
 		if (samplerActivated) {
 			try {
-				String dbConnectionString = "jdbc:mysql://" + mySQLHost + ":"+ mySQLPort + "/" + mySQLdatabase;
-				jdbcConnection = DriverManager.getConnection(dbConnectionString,mySQLUser,mySQLPW);
-				sqlStatement = jdbcConnection.prepareStatement(SQL_QUERY);
-			} catch (Exception e) {
-				throw new RuntimeException(e);
+				statisticsConnection.validate();
+			} catch (SQLException e) {
+				throw new MeasurementException(e);
 			}
-			measurementTask = LpeSystemUtils.submitTask(this);
+			dataSource.enable();
+			samplingTask = SamplingScheduler.getInstance().schedule("DBMS " + mySQLHost, delay, this);
 		}
 
 	}
@@ -105,19 +90,8 @@ public class DBMSMeasurement extends AbstractMeasurementAdapter implements Runna
 	@Override
 	public void disableMonitoring() throws MeasurementException {
 		if (samplerActivated) {
-			try {
-				running = false;
-				measurementTask.get();
-				if (sqlStatement != null) {
-					sqlStatement.close();
-				}
-				if (jdbcConnection != null) {
-					jdbcConnection.close();
-				}
-
-			} catch (Exception e) {
-				throw new MeasurementException(e);
-			}
+			samplingTask.stop();
+			dataSource.disable();
 		}
 	}
 
@@ -157,80 +131,43 @@ public class DBMSMeasurement extends AbstractMeasurementAdapter implements Runna
 			instanceId++;
 		}
 
-		dataSource = CollectorFactory.createDataSource(FileDataSource.class.getName(), collectorProperties);
+		DataSources.release(dataSource);
+		dataSource = DataSources.createDataSource(collectorProperties, FileDataSource.class.getName());
+
+		IStatisticsDialect dialect;
 		try {
-			Class.forName("com.mysql.jdbc.Driver");
-		} catch (ClassNotFoundException e) {
-			throw new RuntimeException(e);
+			dialect = StatisticsDialects.forName(getProperties().getProperty(DBMSMeasurementExtension.DIALECT,
+					StatisticsDialects.MYSQL));
+			Class.forName(dialect.getDriverClass());
+		} catch (IllegalArgumentException | ClassNotFoundException e) {
+			throw new MeasurementException(e);
 		}
-
+		String connectionString = getProperties().getProperty(DBMSMeasurementExtension.CONNECTION_STRING);
+		if (connectionString == null || connectionString.trim().isEmpty()) {
+			connectionString = dialect.createConnectionUrl(mySQLHost, mySQLPort, mySQLdatabase);
+		}
+		if (statisticsConnection != null) {
+			statisticsConnection.close();
+		}
+		statisticsConnection = new StatisticsConnection(dialect, connectionString, mySQLUser, mySQLPW);
 	}
 
 	@Override
 	public long getCurrentTime() {
+		// the records are stamped by the sampling clock of this process
 		return System.currentTimeMillis();
 	}
 
 	@Override
-	public void run() {
-		running = true;
+	public void sample(SamplingTick tick) throws MeasurementException {
 		try {
-			dataSource.enable();
-			long counter = 0;
-			while (running) {
-				sampleMySQLStatistics(counter);
-				counter++;
-				try {
-					Thread.sleep(delay);
-				} catch (InterruptedException ie) {
-					LOGGER.debug("Sleeptime interrupted.");
-					running = false;
-				}
-			}
-
-			dataSource.disable();
-		} catch (MeasurementException e) {
-			throw new RuntimeException(e);
-		}
-	}
-
-	private void sampleMySQLStatistics(long ownNumQueries) {
-
-		try {
-			ResultSet resultSet = sqlStatement.executeQuery();
-			String name = "";
-			long numQueueries = 0;
-			long numLockWaits = 0;
-			long lockTime = 0;
-			while (resultSet.next()) {
-				name = resultSet.getString("Variable_name");
-
-				if ("Queries".equals(name)) {
-					numQueueries = resultSet.getLong("Value") - ownNumQueries;
-				}
-
-				if ("Innodb_row_lock_waits".equals(name)) {
-					numLockWaits = resultSet.getLong("Value");
-				}
-
-				if ("Innodb_row_lock_time".equals(name)) {
-					lockTime = resultSet.getLong("Value");
-				}
-
-				continue;
-			}
-			resultSet.close();
-			DBStatisticsRecrod record = new DBStatisticsRecrod();
-			record.setTimeStamp(System.currentTimeMillis());
-			record.setNumQueueries(numQueueries);
+			DBStatisticsRecrod record = statisticsConnection.sample();
+			record.setTimeStamp(tick.getActualTime());
 			record.setProcessId(mySQLHost);
-			record.setNumLockWaits(numLockWaits);
-			record.setLockTime(lockTime);
 			dataSource.newRecord(record);
 		} catch (SQLException e) {
-			throw new RuntimeException(e);
+			throw new MeasurementException(e);
 		}
-
 	}
 
 	@Override
@@ -253,6 +190,8 @@ public class DBMSMeasurement extends AbstractMeasurementAdapter implements Runna
 	@Override
 	public void resetMonitoring() throws MeasurementException {
 		samplerActivated = false;
+		// reopened by the next enableMonitoring
+		statisticsConnection.close();
 
 	}
 }
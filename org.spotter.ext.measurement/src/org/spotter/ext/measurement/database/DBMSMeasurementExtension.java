@@ -15,6 +15,8 @@
  */
 package org.spotter.ext.measurement.database;
 
+import java.util.HashSet;
+
 import org.lpe.common.config.ConfigParameterDescription;
 import org.lpe.common.util.LpeSupportedTypes;
 import org.spotter.core.measurement.AbstractMeasurmentExtension;
@@ -30,7 +32,8 @@ import org.spotter.core.measurement.IMeasurementAdapter;
 public class DBMSMeasurementExtension extends AbstractMeasurmentExtension {
 
 	private static final String EXTENSION_DESCRIPTION = "The DBMS sampling measurement satellite adapter is used to connect "
-			+ "to a MySQL DBMS and to query the database status.";
+			+ "to a DBMS and to query the database status. It supports MySQL, SAP HANA and PostgreSQL "
+			+ "via statistics dialects.";
 
 	public static final String HOST = "host";
 	public static final String PORT = "port";
@@ -39,6 +42,7 @@ public class DBMSMeasurementExtension extends AbstractMeasurmentExtension {
 	public static final String DATABASE = "database";
 
 	public static final String CONNECTION_STRING = "org.spotter.sampling.mysql.connectionString";
+	public static final String DIALECT = "org.spotter.sampling.dbms.dialect";
 
 	@Override
 	public String getName() {
@@ -101,6 +105,27 @@ public class DBMSMeasurementExtension extends AbstractMeasurmentExtension {
 		return samplingDelayParameter;
 	}
 
+	private ConfigParameterDescription createDialectParameter() {
+		ConfigParameterDescription dialectParameter = new ConfigParameterDescription(DIALECT,
+				LpeSupportedTypes.String);
+		dialectParameter.setMandatory(false);
+		dialectParameter.setOptions(new HashSet<>(StatisticsDialects.getNames()));
+		dialectParameter.setDefaultValue(StatisticsDialects.MYSQL);
+		dialectParameter.setDescription("Statistics dialect of the database.");
+
+		return dialectParameter;
+	}
+
+	private ConfigParameterDescription createConnectionStringParameter() {
+		ConfigParameterDescription connectionStringParameter = new ConfigParameterDescription(CONNECTION_STRING,
+				LpeSupportedTypes.String);
+		connectionStringParameter.setMandatory(false);
+		connectionStringParameter.setDescription("JDBC connection URL, overrides the URL created from host, "
+				+ "port and database name.");
+
+		return connectionStringParameter;
+	}
+
 	@Override
 	protected void initializeConfigurationParameters() {
 		addConfigParameter(createHostParameter());
@@ -108,6 +133,8 @@ public class DBMSMeasurementExtension extends AbstractMeasurmentExtension {
 		addConfigParameter(createUserParameter());
 		addConfigParameter(createPasswordParameter());
 		addConfigParameter(createDatabaseParameter());
+		addConfigParameter(createDialectParameter());
+		addConfigParameter(createConnectionStringParameter());
 		addConfigParameter(ConfigParameterDescription.createExtensionDescription(EXTENSION_DESCRIPTION));
 	}
 
@@ -3,7 +3,10 @@ package org.spotter.ext.measurement.database;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.ws.rs.core.MediaType;
 
@@ -11,7 +14,6 @@ import org.aim.api.exceptions.MeasurementException;
 import org.aim.api.measurement.AbstractRecord;
 import org.aim.api.measurement.MeasurementData;
 import org.aim.api.measurement.collector.AbstractDataSource;
-import org.aim.api.measurement.collector.CollectorFactory;
 import org.aim.artifacts.measurement.collector.FileDataSource;
 import org.aim.artifacts.measurement.collector.MemoryDataSource;
 import org.aim.description.InstrumentationDescription;
@@ -20,18 +22,47 @@ import org.lpe.common.config.GlobalConfiguration;
 import org.lpe.common.extension.IExtension;
 import org.lpe.common.util.system.LpeSystemUtils;
 import org.lpe.common.util.web.LpeWebUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.spotter.core.measurement.AbstractMeasurementAdapter;
+import org.spotter.ext.measurement.collector.DataSources;
+import org.spotter.ext.measurement.sampling.ISampler;
+import org.spotter.ext.measurement.sampling.RecordRing;
+import org.spotter.ext.measurement.sampling.SamplingScheduler;
+import org.spotter.ext.measurement.sampling.SamplingTask;
+import org.spotter.ext.measurement.sampling.SamplingTick;
 
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.WebResource;
 
-public class DummyDBMeasurement extends AbstractMeasurementAdapter implements Runnable {
+/**
+ * Samples the statistics of the DummyDB. The statistics are polled
+ * asynchronously, at most one request is in flight. Ticks elapsing while a
+ * request is in flight are requested in a batch with the next request.
+ * Received records are buffered in a bounded ring until the next tick, so
+ * that a slow endpoint costs samples instead of stalling the sampling loop.
+ * Each request writes into the ring of the experiment it was started in,
+ * thus late responses never end up in the data of the next experiment.
+ */
+public class DummyDBMeasurement extends AbstractMeasurementAdapter implements ISampler {
+	private static final Logger LOGGER = LoggerFactory.getLogger(DummyDBMeasurement.class);
+
+	public static final String TIMEOUT = "org.spotter.sampling.dummydb.timeout";
+	public static final String BUFFER_SIZE = "org.spotter.sampling.dummydb.bufferSize";
+	protected static final int DEFAULT_TIMEOUT = 2000;
+	protected static final int DEFAULT_BUFFER_SIZE = 1024;
+	private static final String BATCH_SIZE_PARAM = "count";
 
 	public static Integer instanceId = 1;
 	private AbstractDataSource dataSource;
-	private Future<?> measurementTask;
-
-	private boolean running;
+	private SamplingTask samplingTask;
+	private volatile RecordRing buffer;
+	private boolean pollInFlight = false;
+	private volatile Future<?> pollFuture;
+	private long pendingTicks;
+	private long numFailedPolls;
+	private int timeout = DEFAULT_TIMEOUT;
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
 
 	private long delay;
 	private String host;
@@ -45,15 +76,21 @@ public class DummyDBMeasurement extends AbstractMeasurementAdapter implements Ru
 	public DummyDBMeasurement(IExtension<?> provider) {
 		super(provider);
 		client = LpeWebUtils.getWebClient();
-		client.setConnectTimeout(1000 * 60 * 60);
-		client.setReadTimeout(1000 * 60 * 60);
-
 	}
 
 	@Override
 	public void enableMonitoring() throws MeasurementException {
 		if (samplerActivated) {
-			measurementTask = LpeSystemUtils.submitTask(this);
+			synchronized (this) {
+				pendingTicks = 0;
+				numFailedPolls = 0;
+				// a request of the previous experiment may still be in
+				// flight, it writes into the ring it has been started with
+				pollInFlight = false;
+				buffer = new RecordRing(bufferSize);
+			}
+			dataSource.enable();
+			samplingTask = SamplingScheduler.getInstance().schedule("DummyDB " + host + ":" + port, delay, this);
 		}
 
 	}
@@ -62,12 +99,20 @@ public class DummyDBMeasurement extends AbstractMeasurementAdapter implements Ru
 	public void disableMonitoring() throws MeasurementException {
 		if (samplerActivated) {
 			try {
-				running = false;
-				measurementTask.get();
-
+				samplingTask.stop();
+				awaitPoll();
+				flushBuffer();
+				dataSource.disable();
 			} catch (Exception e) {
 				throw new MeasurementException(e);
 			}
+			long numDropped = buffer.getNumDropped();
+			synchronized (this) {
+				if (numFailedPolls > 0 || numDropped > 0) {
+					LOGGER.warn("DummyDB sampler {}:{} lost samples: {} failed requests, {} dropped records.", host,
+							port, numFailedPolls, numDropped);
+				}
+			}
 		}
 	}
 
@@ -98,6 +143,18 @@ public class DummyDBMeasurement extends AbstractMeasurementAdapter implements Ru
 		host = getHost();
 		port = getPort();
 
+		try {
+			timeout = Integer.parseInt(getProperties().getProperty(TIMEOUT, String.valueOf(DEFAULT_TIMEOUT)));
+			bufferSize = Integer.parseInt(getProperties().getProperty(BUFFER_SIZE,
+					String.valueOf(DEFAULT_BUFFER_SIZE)));
+		} catch (NumberFormatException e) {
+			throw new MeasurementException(e);
+		}
+		// short timeouts, a hanging endpoint must not block the poll thread
+		// for longer than a few sampling periods
+		client.setConnectTimeout(timeout);
+		client.setReadTimeout(timeout);
+
 		webResource = client.resource("http://" + host + ":" + port + "/").path("dummyDB").path("getStatistics");
 		Properties collectorProperties = GlobalConfiguration.getInstance().getProperties();
 		synchronized (instanceId) {
@@ -105,38 +162,92 @@ public class DummyDBMeasurement extends AbstractMeasurementAdapter implements Ru
 			instanceId++;
 		}
 
-		dataSource = CollectorFactory.createDataSource(MemoryDataSource.class.getName(), collectorProperties);
+		DataSources.release(dataSource);
+		dataSource = DataSources.createDataSource(collectorProperties, MemoryDataSource.class.getName());
 
 	}
 
 	@Override
 	public long getCurrentTime() {
+		// the records are stamped by the sampling clock of this process
 		return System.currentTimeMillis();
 	}
 
 	@Override
-	public void run() {
-		running = true;
-		try {
-			dataSource.enable();
-			while (running) {
-				sampleStatistics();
+	public void sample(SamplingTick tick) throws MeasurementException {
+		flushBuffer();
+		final long batchSize;
+		final RecordRing pollBuffer;
+		synchronized (this) {
+			pendingTicks++;
+			if (pollInFlight) {
+				// requested with the next poll
+				return;
+			}
+			pollInFlight = true;
+			batchSize = pendingTicks;
+			pendingTicks = 0;
+			pollBuffer = buffer;
+		}
+		final long timestamp = tick.getActualTime();
+		pollFuture = LpeSystemUtils.submitTask(new Runnable() {
+			@Override
+			public void run() {
 				try {
-					Thread.sleep(delay);
-				} catch (InterruptedException ie) {
-					running = false;
+					poll(batchSize, timestamp, pollBuffer);
+				} finally {
+					synchronized (DummyDBMeasurement.this) {
+						if (pollBuffer == buffer) {
+							pollInFlight = false;
+						}
+					}
 				}
 			}
+		});
+	}
 
-			dataSource.disable();
-		} catch (MeasurementException e) {
-			throw new RuntimeException(e);
+	private void poll(long batchSize, long timestamp, RecordRing pollBuffer) {
+		try {
+			// servers not supporting batches ignore the parameter and return
+			// a single record
+			String response = webResource.queryParam(BATCH_SIZE_PARAM, String.valueOf(batchSize))
+					.accept(MediaType.APPLICATION_JSON).get(String.class);
+			String[] lines = response.trim().split("\\r?\\n");
+			for (String line : lines) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				AbstractRecord record = AbstractRecord.fromString(line.trim());
+				if (lines.length == 1) {
+					record.setTimeStamp(timestamp);
+				}
+				pollBuffer.add(record);
+			}
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				numFailedPolls++;
+			}
+			LOGGER.debug("Failed polling DummyDB statistics: {}", e.getMessage());
 		}
 	}
 
-	private void sampleStatistics() {
-		String recStr = webResource.accept(MediaType.APPLICATION_JSON).get(String.class);
-		dataSource.newRecord(AbstractRecord.fromString(recStr));
+	private void awaitPoll() throws InterruptedException, ExecutionException {
+		Future<?> future = pollFuture;
+		if (future == null) {
+			return;
+		}
+		try {
+			future.get(2L * timeout, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			LOGGER.warn("DummyDB statistics request did not finish in time, its records are discarded.");
+		}
+	}
+
+	private void flushBuffer() throws MeasurementException {
+		for (AbstractRecord record : buffer.drain()) {
+			dataSource.newRecord(record);
+		}
 	}
 
 	@Override
@@ -2,6 +2,8 @@ package org.spotter.ext.measurement.database;
 
 import javax.ws.rs.core.MediaType;
 
+import org.lpe.common.config.ConfigParameterDescription;
+import org.lpe.common.util.LpeSupportedTypes;
 import org.lpe.common.util.web.LpeWebUtils;
 import org.spotter.core.measurement.AbstractMeasurmentExtension;
 import org.spotter.core.measurement.IMeasurementAdapter;
@@ -26,10 +28,31 @@ public class DummyDBMeasurementExtension extends AbstractMeasurmentExtension {
 		return new DummyDBMeasurement(this);
 	}
 
-	
+	private ConfigParameterDescription createTimeoutParameter() {
+		ConfigParameterDescription timeoutParameter = new ConfigParameterDescription(DummyDBMeasurement.TIMEOUT,
+				LpeSupportedTypes.Integer);
+		timeoutParameter.setMandatory(false);
+		timeoutParameter.setDefaultValue(String.valueOf(DummyDBMeasurement.DEFAULT_TIMEOUT));
+		timeoutParameter.setDescription("Connect and read timeout of statistics requests in milliseconds.");
+
+		return timeoutParameter;
+	}
+
+	private ConfigParameterDescription createBufferSizeParameter() {
+		ConfigParameterDescription bufferSizeParameter = new ConfigParameterDescription(
+				DummyDBMeasurement.BUFFER_SIZE, LpeSupportedTypes.Integer);
+		bufferSizeParameter.setMandatory(false);
+		bufferSizeParameter.setDefaultValue(String.valueOf(DummyDBMeasurement.DEFAULT_BUFFER_SIZE));
+		bufferSizeParameter.setDescription("Maximum number of received records buffered between two samples, "
+				+ "the oldest records are dropped if exceeded.");
+
+		return bufferSizeParameter;
+	}
 
 	@Override
 	protected void initializeConfigurationParameters() {
+		addConfigParameter(createTimeoutParameter());
+		addConfigParameter(createBufferSizeParameter());
 	}
 
 	@Override
@@ -37,8 +60,8 @@ public class DummyDBMeasurementExtension extends AbstractMeasurmentExtension {
 		boolean connect = false;
 		try {
 			Client client = LpeWebUtils.getWebClient();
-			client.setConnectTimeout(1000 * 60 * 60);
-			client.setReadTimeout(1000 * 60 * 60);
+			client.setConnectTimeout(DummyDBMeasurement.DEFAULT_TIMEOUT);
+			client.setReadTimeout(DummyDBMeasurement.DEFAULT_TIMEOUT);
 			connect = client.resource("http://" + host + ":" + port + "/").path("dummyDB").path("testConnection")
 					.accept(MediaType.APPLICATION_JSON).get(Boolean.class);
 
@@ -2,29 +2,27 @@ package org.spotter.ext.measurement.database;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Properties;
-import java.util.concurrent.Future;
 
 import org.aim.api.exceptions.MeasurementException;
 import org.aim.api.measurement.MeasurementData;
 import org.aim.api.measurement.collector.AbstractDataSource;
-import org.aim.api.measurement.collector.CollectorFactory;
 import org.aim.artifacts.measurement.collector.FileDataSource;
 import org.aim.artifacts.records.DBStatisticsRecrod;
 import org.aim.description.InstrumentationDescription;
 import org.aim.description.sampling.SamplingDescription;
 import org.lpe.common.extension.IExtension;
-import org.lpe.common.util.system.LpeSystemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spotter.core.measurement.AbstractMeasurementAdapter;
+import org.spotter.ext.measurement.collector.DataSources;
+import org.spotter.ext.measurement.sampling.ISampler;
+import org.spotter.ext.measurement.sampling.SamplingScheduler;
+import org.spotter.ext.measurement.sampling.SamplingTask;
+import org.spotter.ext.measurement.sampling.SamplingTick;
 
-public class HDBMeasurement extends AbstractMeasurementAdapter implements Runnable {
+public class HDBMeasurement extends AbstractMeasurementAdapter implements ISampler {
 	private static final Logger LOGGER = LoggerFactory.getLogger(HDBMeasurement.class);
 	public static Integer instanceId = 1;
 	private AbstractDataSource dataSource;
@@ -33,12 +31,9 @@ public class HDBMeasurement extends AbstractMeasurementAdapter implements Runnab
 	private String username;
 	private String password;
 	private Long delay;
-	private Connection connection;
-	private PreparedStatement sqlStatement;
-	private boolean running;
+	private StatisticsConnection statisticsConnection;
 	private boolean samplerActivated = false;
-	private Future<?> measurementTask;
-	private static final String SQL_QUERY = "SELECT * FROM M_LOCK_WAITS_STATISTICS WHERE PORT LIKE '%03' AND LOCK_TYPE='TABLE';";
+	private SamplingTask samplingTask;
 
 	public HDBMeasurement(IExtension<?> provider) {
 		super(provider);
@@ -48,11 +43,12 @@ public class HDBMeasurement extends AbstractMeasurementAdapter implements Runnab
 	public void enableMonitoring() throws MeasurementException {
 		if (samplerActivated) {
 			try {
-				sqlStatement = getConnection().prepareStatement(SQL_QUERY);
-			} catch (Exception e) {
-				throw new RuntimeException(e);
+				statisticsConnection.validate();
+			} catch (SQLException e) {
+				throw new MeasurementException(e);
 			}
-			measurementTask = LpeSystemUtils.submitTask(this);
+			dataSource.enable();
+			samplingTask = SamplingScheduler.getInstance().schedule("HDB " + host + ":" + port, delay, this);
 		}
 
 	}
@@ -60,21 +56,8 @@ public class HDBMeasurement extends AbstractMeasurementAdapter implements Runnab
 	@Override
 	public void disableMonitoring() throws MeasurementException {
 		if (samplerActivated) {
-			try {
-				running = false;
-				measurementTask.get();
-				if (sqlStatement != null) {
-					sqlStatement.close();
-					sqlStatement = null;
-				}
-				if (connection != null) {
-					connection.close();
-					connection = null;
-				}
-
-			} catch (Exception e) {
-				throw new MeasurementException(e);
-			}
+			samplingTask.stop();
+			dataSource.disable();
 		}
 
 	}
@@ -114,11 +97,25 @@ public class HDBMeasurement extends AbstractMeasurementAdapter implements Runnab
 			instanceId++;
 		}
 
-		dataSource = CollectorFactory.createDataSource(FileDataSource.class.getName(), collectorProperties);
+		DataSources.release(dataSource);
+		dataSource = DataSources.createDataSource(collectorProperties, FileDataSource.class.getName());
+
+		IStatisticsDialect dialect = new HanaStatisticsDialect();
+		try {
+			Class.forName(dialect.getDriverClass());
+		} catch (ClassNotFoundException e) {
+			throw new MeasurementException(e);
+		}
+		if (statisticsConnection != null) {
+			statisticsConnection.close();
+		}
+		statisticsConnection = new StatisticsConnection(dialect, dialect.createConnectionUrl(host, port, null),
+				username, password);
 	}
 
 	@Override
 	public long getCurrentTime() {
+		// the records are stamped by the sampling clock of this process
 		return System.currentTimeMillis();
 	}
 
@@ -129,77 +126,32 @@ public class HDBMeasurement extends AbstractMeasurementAdapter implements Runnab
 	}
 
 	@Override
-	public void run() {
-		running = true;
-		try {
-			dataSource.enable();
-			long counter = 0;
-			while (running) {
-				sampleLockStatistics(counter);
-				counter++;
-				try {
-					Thread.sleep(delay);
-				} catch (InterruptedException ie) {
-					LOGGER.debug("Sleeptime interrupted.");
-					running = false;
-				}
-			}
-
-			dataSource.disable();
-		} catch (MeasurementException e) {
-			throw new RuntimeException(e);
-		}
-	}
-
-	private void sampleLockStatistics(long ownNumQueries) {
-
+	public void sample(SamplingTick tick) throws MeasurementException {
 		try {
-			ResultSet resultSet = sqlStatement.executeQuery();
-			long numQueueries = -1;
-			long numLockWaits = 0;
-			long lockTime = 0;
-			resultSet.next();
-			numLockWaits = resultSet.getLong("TOTAL_LOCK_WAITS");
-			lockTime = resultSet.getLong("TOTAL_LOCK_WAIT_TIME");
-			resultSet.close();
-			DBStatisticsRecrod record = new DBStatisticsRecrod();
-			record.setTimeStamp(System.currentTimeMillis());
-			record.setNumQueueries(numQueueries);
+			DBStatisticsRecrod record = statisticsConnection.sample();
+			record.setTimeStamp(tick.getActualTime());
 			record.setProcessId(host + ":" + port);
-			record.setNumLockWaits(numLockWaits);
-			record.setLockTime(lockTime);
 			dataSource.newRecord(record);
 		} catch (SQLException e) {
-			throw new RuntimeException(e);
+			throw new MeasurementException(e);
 		}
-
 	}
 
-	protected Connection getConnection() {
-		if (connection != null) {
-			return connection;
-		}
-		Properties props = new Properties();
-		props.setProperty("user", username);
-		props.setProperty("password", password);
-		String connectionString = "jdbc:sap://" + host + ":" + port;
-		try {
-			Class.forName("com.sap.db.jdbc.Driver");
-		} catch (ClassNotFoundException e) {
-			LOGGER.error(e.getMessage());
-			return null;
-		}
+	/**
+	 * Checks whether a connection to the database can be established. The
+	 * connection stays open for sampling; it is closed by
+	 * {@link #resetMonitoring()}.
+	 * 
+	 * @return true, if the connection can be established
+	 */
+	public boolean testConnection() {
 		try {
-			connection = DriverManager.getConnection(connectionString, props);
+			statisticsConnection.validate();
+			return true;
 		} catch (SQLException e) {
 			LOGGER.error(e.getMessage());
-			return null;
+			return false;
 		}
-		return connection;
-	}
-
-	public boolean testConnection() {
-		return getConnection() != null;
 	}
 
 	@Override
@@ -217,6 +169,8 @@ public class HDBMeasurement extends AbstractMeasurementAdapter implements Runnab
 	@Override
 	public void resetMonitoring() throws MeasurementException {
 		samplerActivated = false;
+		// reopened by the next enableMonitoring
+		statisticsConnection.close();
 
 	}
 }
@@ -36,7 +36,7 @@ public class HDBMeasurementExtension extends AbstractMeasurmentExtension {
 
 			instance.initialize();
 			boolean con = instance.testConnection();
-			instance.disableMonitoring();
+			instance.resetMonitoring();
 			return con;
 		} catch (Exception e) {
 			return false;
@@ -0,0 +1,42 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.database;
+
+/**
+ * SAP HANA: table lock wait statistics of the index server. The number of
+ * queries is not sampled.
+ * 
+ * @author agent
+ * 
+ */
+public class HanaStatisticsDialect extends AbstractStatisticsDialect {
+
+	@Override
+	public String getDriverClass() {
+		return "com.sap.db.jdbc.Driver";
+	}
+
+	@Override
+	public String createConnectionUrl(String host, String port, String database) {
+		return "jdbc:sap://" + host + ":" + port;
+	}
+
+	@Override
+	public String getStatisticsQuery() {
+		return "SELECT -1 AS " + QUERIES + ", TOTAL_LOCK_WAITS AS " + LOCK_WAITS + ", TOTAL_LOCK_WAIT_TIME AS "
+				+ LOCK_TIME + " FROM M_LOCK_WAITS_STATISTICS WHERE PORT LIKE '%03' AND LOCK_TYPE = 'TABLE'";
+	}
+}
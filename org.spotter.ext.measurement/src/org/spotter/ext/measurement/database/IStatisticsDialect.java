@@ -0,0 +1,74 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.aim.artifacts.records.DBStatisticsRecrod;
+
+/**
+ * Database specific part of sampling database statistics: the JDBC driver,
+ * the connection URL and a query projecting only the statistics of a
+ * {@link DBStatisticsRecrod}. Implementations need a public no-argument
+ * constructor to be selectable by class name, see
+ * {@link StatisticsDialects#forName(String)}.
+ * 
+ * @author agent
+ * 
+ */
+public interface IStatisticsDialect {
+	/**
+	 * 
+	 * @return fully qualified class name of the JDBC driver
+	 */
+	String getDriverClass();
+
+	/**
+	 * Creates the JDBC connection URL.
+	 * 
+	 * @param host
+	 *            database host
+	 * @param port
+	 *            database port
+	 * @param database
+	 *            database name, may be null
+	 * @return connection URL
+	 */
+	String createConnectionUrl(String host, String port, String database);
+
+	/**
+	 * 
+	 * @return query reading the statistics, prepared once per connection
+	 */
+	String getStatisticsQuery();
+
+	/**
+	 * Reads the result of the statistics query. Counters not provided by the
+	 * database are set to -1.
+	 * 
+	 * @param resultSet
+	 *            result of the statistics query
+	 * @param record
+	 *            record to fill
+	 * @param ownQueries
+	 *            number of statistics queries executed so far, to be
+	 *            subtracted from query counters including them
+	 * @throws SQLException
+	 *             if the result cannot be read
+	 */
+	void readStatistics(ResultSet resultSet, DBStatisticsRecrod record, long ownQueries) throws SQLException;
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.aim.artifacts.records.DBStatisticsRecrod;
+
+/**
+ * MySQL: global server status of the InnoDB row locks.
+ * 
+ * @author agent
+ * 
+ */
+public class MySQLStatisticsDialect implements IStatisticsDialect {
+	private static final String VAR_QUERIES = "Queries";
+	private static final String VAR_LOCK_WAITS = "Innodb_row_lock_waits";
+	private static final String VAR_LOCK_TIME = "Innodb_row_lock_time";
+
+	@Override
+	public String getDriverClass() {
+		return "com.mysql.jdbc.Driver";
+	}
+
+	@Override
+	public String createConnectionUrl(String host, String port, String database) {
+		return "jdbc:mysql://" + host + ":" + port + "/" + (database == null ? "" : database);
+	}
+
+	@Override
+	public String getStatisticsQuery() {
+		return "SHOW GLOBAL STATUS WHERE Variable_name IN ('" + VAR_QUERIES + "', '" + VAR_LOCK_WAITS + "', '"
+				+ VAR_LOCK_TIME + "')";
+	}
+
+	@Override
+	public void readStatistics(ResultSet resultSet, DBStatisticsRecrod record, long ownQueries) throws SQLException {
+		record.setNumQueueries(-1L);
+		record.setNumLockWaits(-1L);
+		record.setLockTime(-1L);
+		while (resultSet.next()) {
+			String name = resultSet.getString(1);
+			long value = resultSet.getLong(2);
+			if (VAR_QUERIES.equalsIgnoreCase(name)) {
+				record.setNumQueueries(value - ownQueries);
+			} else if (VAR_LOCK_WAITS.equalsIgnoreCase(name)) {
+				record.setNumLockWaits(value);
+			} else if (VAR_LOCK_TIME.equalsIgnoreCase(name)) {
+				record.setLockTime(value);
+			}
+		}
+	}
+}
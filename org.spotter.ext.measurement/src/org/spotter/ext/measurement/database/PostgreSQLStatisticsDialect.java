@@ -0,0 +1,44 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.database;
+
+/**
+ * PostgreSQL: transactions of the current database as queries. PostgreSQL
+ * has no cumulative lock wait counters (pg_locks only shows the requests
+ * currently waiting), so lock waits and lock time are reported as not
+ * available.
+ * 
+ * @author agent
+ * 
+ */
+public class PostgreSQLStatisticsDialect extends AbstractStatisticsDialect {
+
+	@Override
+	public String getDriverClass() {
+		return "org.postgresql.Driver";
+	}
+
+	@Override
+	public String createConnectionUrl(String host, String port, String database) {
+		return "jdbc:postgresql://" + host + ":" + port + "/" + (database == null ? "" : database);
+	}
+
+	@Override
+	public String getStatisticsQuery() {
+		return "SELECT (SELECT xact_commit + xact_rollback FROM pg_stat_database WHERE datname = current_database()) AS "
+				+ QUERIES + ", -1 AS " + LOCK_WAITS + ", -1 AS " + LOCK_TIME;
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.aim.artifacts.records.DBStatisticsRecrod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent connection for sampling database statistics. The connection
+ * and the prepared statistics query are reused across samples and
+ * experiments. A failed sample closes the connection and is retried once on
+ * a new connection, so that a connection dropped by the database does not
+ * stop the sampling.
+ * 
+ * @author agent
+ * 
+ */
+public class StatisticsConnection {
+	private static final Logger LOGGER = LoggerFactory.getLogger(StatisticsConnection.class);
+	private static final int VALIDATION_TIMEOUT = 5;
+
+	private final IStatisticsDialect dialect;
+	private final String url;
+	private final Properties credentials;
+
+	private Connection connection;
+	private PreparedStatement statement;
+	private long numOwnQueries = 0;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param dialect
+	 *            dialect of the database
+	 * @param url
+	 *            JDBC connection URL
+	 * @param user
+	 *            user name
+	 * @param password
+	 *            password
+	 */
+	public StatisticsConnection(IStatisticsDialect dialect, String url, String user, String password) {
+		this.dialect = dialect;
+		this.url = url;
+		credentials = new Properties();
+		if (user != null) {
+			credentials.setProperty("user", user);
+		}
+		if (password != null) {
+			credentials.setProperty("password", password);
+		}
+	}
+
+	/**
+	 * Checks the connection and reconnects if it is not valid anymore.
+	 * 
+	 * @throws SQLException
+	 *             if no valid connection can be established
+	 */
+	public synchronized void validate() throws SQLException {
+		if (connection != null && !connection.isValid(VALIDATION_TIMEOUT)) {
+			LOGGER.debug("Reconnecting invalid statistics connection to {}.", url);
+			close();
+		}
+		open();
+	}
+
+	/**
+	 * Samples the statistics.
+	 * 
+	 * @return record holding the statistics, without timestamp and process
+	 *         id
+	 * @throws SQLException
+	 *             if sampling fails on a new connection as well
+	 */
+	public synchronized DBStatisticsRecrod sample() throws SQLException {
+		try {
+			open();
+			return query();
+		} catch (SQLException e) {
+			LOGGER.warn("Sampling statistics of {} failed, reconnecting: {}", url, e.getMessage());
+			close();
+			open();
+			return query();
+		}
+	}
+
+	private void open() throws SQLException {
+		if (connection == null) {
+			connection = DriverManager.getConnection(url, credentials);
+			statement = connection.prepareStatement(dialect.getStatisticsQuery());
+		}
+	}
+
+	private DBStatisticsRecrod query() throws SQLException {
+		DBStatisticsRecrod record = new DBStatisticsRecrod();
+		try (ResultSet resultSet = statement.executeQuery()) {
+			dialect.readStatistics(resultSet, record, numOwnQueries);
+		}
+		numOwnQueries++;
+		return record;
+	}
+
+	/**
+	 * Closes the connection. It is opened again on the next sample.
+	 */
+	public synchronized void close() {
+		try {
+			if (statement != null) {
+				statement.close();
+			}
+		} catch (SQLException e) {
+			LOGGER.debug("Closing statistics query failed: {}", e.getMessage());
+		}
+		try {
+			if (connection != null) {
+				connection.close();
+			}
+		} catch (SQLException e) {
+			LOGGER.debug("Closing statistics connection failed: {}", e.getMessage());
+		}
+		statement = null;
+		connection = null;
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.database;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves {@link IStatisticsDialect}s by name.
+ * 
+ * @author agent
+ * 
+ */
+public final class StatisticsDialects {
+	/**
+	 * Name of the MySQL dialect.
+	 */
+	public static final String MYSQL = "mysql";
+
+	/**
+	 * Name of the SAP HANA dialect.
+	 */
+	public static final String HANA = "hana";
+
+	/**
+	 * Name of the PostgreSQL dialect.
+	 */
+	public static final String POSTGRESQL = "postgresql";
+
+	private static final Map<String, Class<? extends IStatisticsDialect>> DIALECTS = new LinkedHashMap<>();
+	static {
+		DIALECTS.put(MYSQL, MySQLStatisticsDialect.class);
+		DIALECTS.put(HANA, HanaStatisticsDialect.class);
+		DIALECTS.put(POSTGRESQL, PostgreSQLStatisticsDialect.class);
+	}
+
+	private StatisticsDialects() {
+	}
+
+	/**
+	 * 
+	 * @return names of the built-in dialects
+	 */
+	public static Set<String> getNames() {
+		return Collections.unmodifiableSet(DIALECTS.keySet());
+	}
+
+	/**
+	 * Creates a dialect.
+	 * 
+	 * @param name
+	 *            name of a built-in dialect or fully qualified class name of
+	 *            an {@link IStatisticsDialect} implementation
+	 * @return the dialect
+	 */
+	public static IStatisticsDialect forName(String name) {
+		Class<? extends IStatisticsDialect> dialectClass = DIALECTS.get(name.trim().toLowerCase());
+		try {
+			if (dialectClass == null) {
+				dialectClass = Class.forName(name.trim()).asSubclass(IStatisticsDialect.class);
+			}
+			return dialectClass.newInstance();
+		} catch (ClassNotFoundException | ClassCastException | InstantiationException | IllegalAccessException e) {
+			throw new IllegalArgumentException("Unknown statistics dialect: " + name, e);
+		}
+	}
+}
@@ -17,12 +17,19 @@ package org.spotter.ext.measurement.jmsserver;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.Set;
 
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
 import javax.management.MBeanServerConnection;
 import javax.management.MBeanServerInvocationHandler;
 import javax.management.ObjectName;
@@ -33,38 +40,60 @@ import javax.management.remote.JMXServiceURL;
 import org.aim.api.exceptions.MeasurementException;
 import org.aim.api.measurement.MeasurementData;
 import org.aim.api.measurement.collector.AbstractDataSource;
-import org.aim.api.measurement.collector.CollectorFactory;
 import org.aim.artifacts.measurement.collector.FileDataSource;
 import org.aim.artifacts.records.JmsServerRecord;
 import org.aim.description.InstrumentationDescription;
 import org.aim.description.sampling.SamplingDescription;
 import org.apache.activemq.broker.jmx.BrokerViewMBean;
-import org.apache.activemq.broker.jmx.QueueViewMBean;
 import org.lpe.common.config.GlobalConfiguration;
 import org.lpe.common.extension.IExtension;
-import org.lpe.common.util.system.LpeSystemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.spotter.core.measurement.AbstractMeasurementAdapter;
+import org.spotter.ext.measurement.collector.DataSources;
+import org.spotter.ext.measurement.sampling.ISampler;
+import org.spotter.ext.measurement.sampling.SamplingScheduler;
+import org.spotter.ext.measurement.sampling.SamplingTask;
+import org.spotter.ext.measurement.sampling.SamplingTick;
 
 /**
- * Measurement adapter for sampling status of a JMS Server.
+ * Measurement adapter for sampling status of a JMS Server. The statistics of
+ * a queue are read with a single bulk attribute request per sample. The set
+ * of queues is refreshed periodically, so that queues created during an
+ * experiment are sampled as well.
  * 
  * @author Alexander Wert
  * 
  */
-public class JmsServerMeasurement extends AbstractMeasurementAdapter implements Runnable {
+public class JmsServerMeasurement extends AbstractMeasurementAdapter implements ISampler {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(JmsServerMeasurement.class);
 	public static final String DESTINATION_NAME = "org.spotter.measurement.jmsserver.DestinationName";
 	public static final String ACTIVE_MQJMX_URL = "org.spotter.measurement.jmsserver.ActiveMQJMXUrl";
+	public static final String QUEUE_DISCOVERY_INTERVAL = "org.spotter.measurement.jmsserver.QueueDiscoveryInterval";
+	protected static final long DEFAULT_QUEUE_DISCOVERY_INTERVAL = 10000;
+
+	private static final String ATTR_NAME = "Name";
+	private static final String ATTR_AVERAGE_ENQUEUE_TIME = "AverageEnqueueTime";
+	private static final String ATTR_DEQUEUE_COUNT = "DequeueCount";
+	private static final String ATTR_DISPATCH_COUNT = "DispatchCount";
+	private static final String ATTR_ENQUEUE_COUNT = "EnqueueCount";
+	private static final String ATTR_MEMORY_PERCENT_USAGE = "MemoryPercentUsage";
+	private static final String ATTR_MEMORY_USAGE = "MemoryUsageByteCount";
+	private static final String ATTR_QUEUE_SIZE = "QueueSize";
+	private static final String ATTR_AVERAGE_MESSAGE_SIZE = "AverageMessageSize";
+	private static final String[] QUEUE_ATTRIBUTES = { ATTR_NAME, ATTR_AVERAGE_ENQUEUE_TIME, ATTR_DEQUEUE_COUNT,
+			ATTR_DISPATCH_COUNT, ATTR_ENQUEUE_COUNT, ATTR_MEMORY_PERCENT_USAGE, ATTR_MEMORY_USAGE, ATTR_QUEUE_SIZE };
 
 	private AbstractDataSource dataSource;
-	private Future<?> measurementTask;
+	private SamplingTask samplingTask;
 
-	private List<QueueViewMBean> queueMbeans;
+	private MBeanServerConnection connection;
+	private ObjectName brokerName;
+	private final Set<ObjectName> queueNames = new LinkedHashSet<>();
+	private long queueDiscoveryInterval;
+	private long lastQueueDiscovery;
 	private BrokerViewMBean mbean;
-	private boolean running;
 	private boolean samplerActivated = false;
 	private boolean messagingServerAvailable = false;
 	private long delay;
@@ -84,7 +113,8 @@ public class JmsServerMeasurement extends AbstractMeasurementAdapter implements
 	public void enableMonitoring() throws MeasurementException {
 		if (samplerActivated && messagingServerAvailable) {
 			resetActiveMQStatistics();
-			measurementTask = LpeSystemUtils.submitTask(this);
+			dataSource.enable();
+			samplingTask = SamplingScheduler.getInstance().schedule("JMS server", delay, this);
 		}
 
 	}
@@ -92,12 +122,8 @@ public class JmsServerMeasurement extends AbstractMeasurementAdapter implements
 	@Override
 	public void disableMonitoring() throws MeasurementException {
 		if (samplerActivated && messagingServerAvailable) {
-			try {
-				running = false;
-				measurementTask.get();
-			} catch (InterruptedException | ExecutionException e) {
-				throw new MeasurementException(e);
-			}
+			samplingTask.stop();
+			dataSource.disable();
 		}
 
 	}
@@ -105,9 +131,9 @@ public class JmsServerMeasurement extends AbstractMeasurementAdapter implements
 	private void resetActiveMQStatistics() {
 		try {
 			LOGGER.debug("purge and reset ActiveMQ server");
-			for (QueueViewMBean queueMbean : queueMbeans) {
-				// queueMbean.purge();
-				queueMbean.resetStatistics();
+			discoverQueues();
+			for (ObjectName queueName : queueNames) {
+				connection.invoke(queueName, "resetStatistics", null, null);
 			}
 			mbean.resetStatistics();
 
@@ -146,7 +172,15 @@ public class JmsServerMeasurement extends AbstractMeasurementAdapter implements
 		Properties collectorProperties = GlobalConfiguration.getInstance().getProperties();
 		collectorProperties.setProperty(FileDataSource.ADDITIONAL_FILE_PREFIX_KEY, "JMSServerSampler");
 
-		dataSource = CollectorFactory.createDataSource(FileDataSource.class.getName(), collectorProperties);
+		DataSources.release(dataSource);
+		dataSource = DataSources.createDataSource(collectorProperties, FileDataSource.class.getName());
+
+		try {
+			queueDiscoveryInterval = Long.parseLong(getProperties().getProperty(QUEUE_DISCOVERY_INTERVAL,
+					String.valueOf(DEFAULT_QUEUE_DISCOVERY_INTERVAL)));
+		} catch (NumberFormatException e) {
+			throw new MeasurementException(e);
+		}
 
 		try {
 			LOGGER.debug("Connect to JMX ActiveMQ server");
@@ -155,17 +189,12 @@ public class JmsServerMeasurement extends AbstractMeasurementAdapter implements
 			JMXConnector connector = JMXConnectorFactory.connect(new JMXServiceURL(activeMqJMX));
 			connector.connect();
 
-			MBeanServerConnection connection = connector.getMBeanServerConnection();
+			connection = connector.getMBeanServerConnection();
 
-			ObjectName mbeanName = new ObjectName("org.apache.activemq:type=Broker,brokerName=myBroker");
-			mbean = MBeanServerInvocationHandler.newProxyInstance(connection, mbeanName, BrokerViewMBean.class, true);
+			brokerName = new ObjectName("org.apache.activemq:type=Broker,brokerName=myBroker");
+			mbean = MBeanServerInvocationHandler.newProxyInstance(connection, brokerName, BrokerViewMBean.class, true);
 
-			queueMbeans = new ArrayList<>();
-			for (ObjectName queueName : mbean.getQueues()) {
-				QueueViewMBean tempQueueMbean = (QueueViewMBean) MBeanServerInvocationHandler.newProxyInstance(
-						connection, queueName, QueueViewMBean.class, true);
-				queueMbeans.add(tempQueueMbean);
-			}
+			discoverQueues();
 			messagingServerAvailable = true;
 		} catch (Exception e) {
 			LOGGER.error("Messaging Server not available!");
@@ -175,51 +204,81 @@ public class JmsServerMeasurement extends AbstractMeasurementAdapter implements
 
 	@Override
 	public long getCurrentTime() {
+		// the records are stamped by the sampling clock of this process
 		return System.currentTimeMillis();
 	}
 
+	/**
+	 * Refreshes the set of queues. Known queues are kept as they are, only
+	 * the differences are applied.
+	 */
+	private void discoverQueues() {
+		Set<ObjectName> currentQueues = new HashSet<>(Arrays.asList(mbean.getQueues()));
+		if (queueNames.retainAll(currentQueues)) {
+			LOGGER.debug("Queues have been removed from the JMS server.");
+		}
+		for (ObjectName queueName : currentQueues) {
+			if (queueNames.add(queueName)) {
+				LOGGER.debug("Sampling new queue {}.", queueName);
+			}
+		}
+		lastQueueDiscovery = System.currentTimeMillis();
+	}
+
+	/**
+	 * Samples JMS Server status
+	 */
 	@Override
-	public void run() {
-		running = true;
+	public void sample(SamplingTick tick) throws MeasurementException {
 		try {
-			dataSource.enable();
-
-			while (running) {
-				sampleJmsServerStatistics();
-
+			if (tick.getActualTime() - lastQueueDiscovery >= queueDiscoveryInterval) {
+				discoverQueues();
+			}
+			long avgMessageSize = ((Number) connection.getAttribute(brokerName, ATTR_AVERAGE_MESSAGE_SIZE))
+					.longValue();
+			Iterator<ObjectName> queueIterator = queueNames.iterator();
+			while (queueIterator.hasNext()) {
+				ObjectName queueName = queueIterator.next();
+				Map<String, Object> values;
 				try {
-					Thread.sleep(delay);
-				} catch (InterruptedException ie) {
-					LOGGER.debug("Sleeptime interrupted.");
-					running = false;
+					values = getAttributes(queueName);
+				} catch (InstanceNotFoundException e) {
+					// the queue has been removed since the last discovery
+					queueIterator.remove();
+					continue;
 				}
+				JmsServerRecord record = new JmsServerRecord();
+				record.setQueueName((String) values.get(ATTR_NAME));
+				record.setTimeStamp(tick.getActualTime());
+				record.setAverageEnqueueTime(((Number) values.get(ATTR_AVERAGE_ENQUEUE_TIME)).doubleValue());
+				record.setDequeueCount(((Number) values.get(ATTR_DEQUEUE_COUNT)).longValue());
+				record.setDispatchCount(((Number) values.get(ATTR_DISPATCH_COUNT)).longValue());
+				record.setEnqueueCount(((Number) values.get(ATTR_ENQUEUE_COUNT)).longValue());
+				record.setMemoryPercentUsage(((Number) values.get(ATTR_MEMORY_PERCENT_USAGE)).intValue());
+				record.setMemoryUsage(((Number) values.get(ATTR_MEMORY_USAGE)).longValue());
+				record.setQueueSize(((Number) values.get(ATTR_QUEUE_SIZE)).longValue());
+				record.setAvgMessageSize(avgMessageSize);
+				dataSource.newRecord(record);
 			}
-
-			dataSource.disable();
-		} catch (MeasurementException e) {
-
-			throw new RuntimeException(e);
+		} catch (IOException | JMException e) {
+			throw new MeasurementException(e);
 		}
 	}
 
 	/**
-	 * Samples JMS Server status
+	 * Reads the statistics of a queue in one round trip.
 	 */
-	private void sampleJmsServerStatistics() {
-		for (QueueViewMBean tempBean : queueMbeans) {
-			JmsServerRecord record = new JmsServerRecord();
-			record.setQueueName(tempBean.getName());
-			record.setTimeStamp(System.currentTimeMillis());
-			record.setAverageEnqueueTime(tempBean.getAverageEnqueueTime());
-			record.setDequeueCount(tempBean.getDequeueCount());
-			record.setDispatchCount(tempBean.getDispatchCount());
-			record.setEnqueueCount(tempBean.getEnqueueCount());
-			record.setMemoryPercentUsage(tempBean.getMemoryPercentUsage());
-			record.setMemoryUsage(tempBean.getMemoryUsageByteCount());
-			record.setQueueSize(tempBean.getQueueSize());
-			record.setAvgMessageSize(mbean.getAverageMessageSize());
-			dataSource.newRecord(record);
+	private Map<String, Object> getAttributes(ObjectName queueName) throws IOException, JMException,
+			MeasurementException {
+		AttributeList attributes = connection.getAttributes(queueName, QUEUE_ATTRIBUTES);
+		Map<String, Object> values = new HashMap<>();
+		for (Attribute attribute : attributes.asList()) {
+			values.put(attribute.getName(), attribute.getValue());
+		}
+		if (values.size() < QUEUE_ATTRIBUTES.length) {
+			throw new MeasurementException("Missing statistics of queue " + queueName + ".");
 		}
+		return values;
 	}
 
 	@Override
@@ -59,9 +59,22 @@ public class JmsServerMeasurementExtension extends AbstractMeasurmentExtension {
 		return collectorTypeParameter;
 	}
 
+	private ConfigParameterDescription createQueueDiscoveryIntervalParameter() {
+		ConfigParameterDescription discoveryIntervalParameter = new ConfigParameterDescription(
+				JmsServerMeasurement.QUEUE_DISCOVERY_INTERVAL, LpeSupportedTypes.Long);
+		discoveryIntervalParameter.setMandatory(false);
+		discoveryIntervalParameter.setDefaultValue(String
+				.valueOf(JmsServerMeasurement.DEFAULT_QUEUE_DISCOVERY_INTERVAL));
+		discoveryIntervalParameter.setDescription("Interval in milliseconds in which the set of sampled queues "
+				+ "is refreshed, so that queues created during an experiment are sampled as well.");
+
+		return discoveryIntervalParameter;
+	}
+
 	@Override
 	protected void initializeConfigurationParameters() {
 		addConfigParameter(createServerConnectionStringParameter());
+		addConfigParameter(createQueueDiscoveryIntervalParameter());
 		addConfigParameter(ConfigParameterDescription.createExtensionDescription(EXTENSION_DESCRIPTION));
 	}
 
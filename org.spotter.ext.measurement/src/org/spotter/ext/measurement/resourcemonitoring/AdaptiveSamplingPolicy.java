@@ -0,0 +1,210 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.resourcemonitoring;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.artifacts.records.CPUUtilizationRecord;
+import org.aim.artifacts.records.NetworkRecord;
+import org.aim.artifacts.sampler.CPUSampler;
+import org.aim.artifacts.sampler.NetworkIOSampler;
+
+/**
+ * Adapts the sampling delays between experiment steps to the variability of
+ * the sampled metrics: samplers whose metric varied strongly during the last
+ * step sample twice as often in the next step, samplers whose metric was
+ * steady sample half as often. The delays stay within the configured bounds,
+ * and the sampling rate of all samplers is limited so that the estimated
+ * sampling overhead does not exceed the CPU budget, as far as the maximal
+ * delay permits.
+ * 
+ * The variability is the coefficient of variation of the aggregated CPU
+ * utilization of each process for the {@link CPUSampler} and of the
+ * throughput of each network interface for the {@link NetworkIOSampler}; the
+ * most variable process or interface determines the delay of the sampler.
+ * Other samplers keep their configured delay.
+ * 
+ * @author agent
+ * 
+ */
+public class AdaptiveSamplingPolicy {
+	/**
+	 * Coefficient of variation above which the sampling rate is raised.
+	 */
+	public static final double HIGH_VARIATION = 0.25;
+
+	/**
+	 * Coefficient of variation below which the sampling rate is lowered.
+	 */
+	public static final double LOW_VARIATION = 0.05;
+
+	private static final int MIN_OBSERVATIONS = 3;
+
+	private final long minDelay;
+	private final long maxDelay;
+	private final double cpuBudget;
+	private final double sampleCost;
+
+	private final Map<String, Map<String, Variation>> variations = new HashMap<>();
+	private final Map<String, NetworkRecord> lastNetworkRecords = new HashMap<>();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param minDelay
+	 *            minimal sampling delay in milliseconds
+	 * @param maxDelay
+	 *            maximal sampling delay in milliseconds
+	 * @param cpuBudget
+	 *            share of one CPU the sampling may use, e.g. 0.01 for 1%
+	 * @param sampleCost
+	 *            estimated CPU time of taking one sample in milliseconds
+	 */
+	public AdaptiveSamplingPolicy(long minDelay, long maxDelay, double cpuBudget, double sampleCost) {
+		if (minDelay <= 0L || maxDelay < minDelay) {
+			throw new IllegalArgumentException("Invalid sampling delay bounds [" + minDelay + ", " + maxDelay + "].");
+		}
+		if (cpuBudget <= 0.0 || sampleCost < 0.0) {
+			throw new IllegalArgumentException("CPU budget must be positive and sample cost must not be negative.");
+		}
+		this.minDelay = minDelay;
+		this.maxDelay = maxDelay;
+		this.cpuBudget = cpuBudget;
+		this.sampleCost = sampleCost;
+	}
+
+	/**
+	 * Takes a sampled record into account for the next adaptation.
+	 * 
+	 * @param record
+	 *            record delivered by the satellite
+	 */
+	public synchronized void observe(AbstractRecord record) {
+		if (record instanceof CPUUtilizationRecord) {
+			CPUUtilizationRecord cpuRecord = (CPUUtilizationRecord) record;
+			if (CPUUtilizationRecord.RES_CPU_AGGREGATED.equals(cpuRecord.getCpuId())) {
+				getVariation(CPUSampler.class.getName(), cpuRecord.getProcessId()).add(cpuRecord.getUtilization());
+			}
+		} else if (record instanceof NetworkRecord) {
+			NetworkRecord nwRecord = (NetworkRecord) record;
+			String key = nwRecord.getProcessId() + "/" + nwRecord.getNetworkInterface();
+			NetworkRecord last = lastNetworkRecords.put(key, nwRecord);
+			if (last != null && nwRecord.getTimeStamp() > last.getTimeStamp()) {
+				// the counters are cumulative, the throughput is the
+				// difference between two samples
+				double bytes = nwRecord.getReceivedBytes() - last.getReceivedBytes() + nwRecord.getTransferredBytes()
+						- last.getTransferredBytes();
+				getVariation(NetworkIOSampler.class.getName(), key).add(
+						bytes / (nwRecord.getTimeStamp() - last.getTimeStamp()));
+			}
+		}
+	}
+
+	private Variation getVariation(String samplerClass, String series) {
+		Map<String, Variation> samplerVariations = variations.get(samplerClass);
+		if (samplerVariations == null) {
+			samplerVariations = new HashMap<>();
+			variations.put(samplerClass, samplerVariations);
+		}
+		Variation variation = samplerVariations.get(series);
+		if (variation == null) {
+			variation = new Variation();
+			samplerVariations.put(series, variation);
+		}
+		return variation;
+	}
+
+	/**
+	 * @return largest coefficient of variation of the series with enough
+	 *         observations, NaN if there is none
+	 */
+	private static double getMaxCoefficientOfVariation(Map<String, Variation> samplerVariations) {
+		double max = Double.NaN;
+		if (samplerVariations == null) {
+			return max;
+		}
+		for (Variation variation : samplerVariations.values()) {
+			if (variation.count >= MIN_OBSERVATIONS) {
+				double coefficient = variation.getCoefficientOfVariation();
+				max = Double.isNaN(max) ? coefficient : Math.max(max, coefficient);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Adapts the delays to the records observed since the last adaptation
+	 * and starts a new observation period.
+	 * 
+	 * @param settings
+	 *            settings to adapt
+	 */
+	public synchronized void adapt(List<SamplerSetting> settings) {
+		double overhead = 0.0;
+		for (SamplerSetting setting : settings) {
+			double coefficient = getMaxCoefficientOfVariation(variations.get(setting.getSamplerClass()));
+			long delay = setting.getDelay();
+			if (!Double.isNaN(coefficient)) {
+				if (coefficient > HIGH_VARIATION) {
+					delay = delay / 2L;
+				} else if (coefficient < LOW_VARIATION) {
+					delay = delay * 2L;
+				}
+				delay = Math.max(minDelay, Math.min(maxDelay, delay));
+				setting.setDelay(delay);
+			}
+			overhead += sampleCost / delay;
+		}
+
+		if (overhead > cpuBudget) {
+			// slow down all samplers evenly until the budget is met, but not
+			// beyond the maximal delay
+			double factor = overhead / cpuBudget;
+			for (SamplerSetting setting : settings) {
+				long delay = Math.min(maxDelay, (long) Math.ceil(setting.getDelay() * factor));
+				setting.setDelay(Math.max(setting.getDelay(), delay));
+			}
+		}
+		variations.clear();
+		lastNetworkRecords.clear();
+	}
+
+	/**
+	 * Running mean and variance (Welford).
+	 */
+	private static final class Variation {
+		private long count;
+		private double mean;
+		private double m2;
+
+		void add(double value) {
+			count++;
+			double delta = value - mean;
+			mean += delta / count;
+			m2 += delta * (value - mean);
+		}
+
+		double getCoefficientOfVariation() {
+			if (mean == 0.0) {
+				return m2 == 0.0 ? 0.0 : Double.POSITIVE_INFINITY;
+			}
+			return Math.sqrt(m2 / (count - 1)) / Math.abs(mean);
+		}
+	}
+}
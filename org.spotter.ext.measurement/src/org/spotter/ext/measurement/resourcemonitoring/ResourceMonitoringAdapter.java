@@ -15,21 +15,35 @@
  */
 package org.spotter.ext.measurement.resourcemonitoring;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Properties;
 
 import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
 import org.aim.api.measurement.MeasurementData;
-import org.aim.artifacts.sampler.CPUSampler;
-import org.aim.artifacts.sampler.NetworkIOSampler;
 import org.aim.description.InstrumentationDescription;
 import org.aim.description.builder.InstrumentationDescriptionBuilder;
 import org.aim.resourcemonitoring.ResourceMonitoringClient;
 import org.lpe.common.extension.IExtension;
 import org.spotter.core.measurement.AbstractMeasurementAdapter;
+import org.spotter.ext.measurement.clock.ClockSynchronizer;
+import org.spotter.ext.measurement.clock.IClock;
+import org.spotter.ext.measurement.codec.PipeFormat;
+import org.spotter.ext.measurement.codec.RecordSource;
+import org.spotter.ext.measurement.codec.RecordStreams;
 
 /**
- * REST client for the resource monitoring service.
+ * REST client for the resource monitoring service. The installed samplers
+ * and their delays are configured via {@link #SAMPLERS}, see
+ * {@link SamplerSetting}. With {@link #ADAPTIVE} enabled, the delays are
+ * adapted after each experiment step, see {@link AdaptiveSamplingPolicy}.
+ * With {@link ClockSynchronizer#PERIOD_KEY} set, the timestamps of the
+ * records are converted to the local timebase.
  * 
  * @author Alexander Wert
  * 
@@ -37,11 +51,26 @@ import org.spotter.core.measurement.AbstractMeasurementAdapter;
 public class ResourceMonitoringAdapter extends AbstractMeasurementAdapter {
 
 	public static final String SAMPLING_DELAY = "org.spotter.sampling.delay";
+	public static final String SAMPLERS = "org.spotter.sampling.samplers";
+	public static final String ADAPTIVE = "org.spotter.sampling.adaptive";
+	public static final String MIN_DELAY = "org.spotter.sampling.minDelay";
+	public static final String MAX_DELAY = "org.spotter.sampling.maxDelay";
+	public static final String CPU_BUDGET = "org.spotter.sampling.cpuBudget";
+	public static final String SAMPLE_COST = "org.spotter.sampling.sampleCost";
+
+	private static final String SATELLITE_CLOCK = "satellite";
 
 	private ResourceMonitoringClient client;
+	private ClockSynchronizer clockSynchronizer;
+	private long clockSyncPeriod;
 
-	private long samplingDelay;
+	private List<SamplerSetting> samplerSettings;
+	private AdaptiveSamplingPolicy samplingPolicy;
 	protected static final long DEFAULT_DELAY = 1000;
+	protected static final long DEFAULT_MIN_DELAY = 100;
+	protected static final long DEFAULT_MAX_DELAY = 10000;
+	protected static final double DEFAULT_CPU_BUDGET = 0.01;
+	protected static final double DEFAULT_SAMPLE_COST = 0.5;
 
 	/**
 	 * Construcotr.
@@ -58,16 +87,25 @@ public class ResourceMonitoringAdapter extends AbstractMeasurementAdapter {
 	public void enableMonitoring() throws MeasurementException {
 
 		InstrumentationDescriptionBuilder idBuilder = new InstrumentationDescriptionBuilder();
-		idBuilder.newSampling(CPUSampler.class.getName(), samplingDelay);
-		idBuilder.newSampling(NetworkIOSampler.class.getName(), samplingDelay);
+		for (SamplerSetting setting : samplerSettings) {
+			idBuilder.newSampling(setting.getSamplerClass(), setting.getDelay());
+		}
 
 		client.enableMonitoring(idBuilder.build());
+		if (clockSynchronizer != null) {
+			clockSynchronizer.synchronize();
+			clockSynchronizer.start(clockSyncPeriod);
+		}
 
 	}
 
 	@Override
 	public void disableMonitoring() throws MeasurementException {
 		client.disableMonitoring();
+		if (clockSynchronizer != null) {
+			clockSynchronizer.stop();
+			clockSynchronizer.synchronize();
+		}
 
 	}
 
@@ -75,12 +113,25 @@ public class ResourceMonitoringAdapter extends AbstractMeasurementAdapter {
 	public MeasurementData getMeasurementData() throws MeasurementException {
 
 		MeasurementData measurementData = client.getMeasurementData();
+		if (clockSynchronizer != null) {
+			clockSynchronizer.align(SATELLITE_CLOCK, measurementData.getRecords());
+		}
+		if (samplingPolicy != null) {
+			for (AbstractRecord record : measurementData.getRecords()) {
+				samplingPolicy.observe(record);
+			}
+			samplingPolicy.adapt(samplerSettings);
+		}
 
 		return measurementData;
 	}
 
 	@Override
 	public long getCurrentTime() {
+		if (clockSynchronizer != null) {
+			// the records are converted to the local timebase
+			return System.currentTimeMillis();
+		}
 		return client.getCurrentTime();
 	}
 
@@ -95,18 +146,63 @@ public class ResourceMonitoringAdapter extends AbstractMeasurementAdapter {
 
 			Properties measurementProperties = getProperties();
 
+			long samplingDelay;
 			if (measurementProperties.containsKey(SAMPLING_DELAY)) {
 				samplingDelay = Long.valueOf(measurementProperties.getProperty(SAMPLING_DELAY));
 			} else {
 				samplingDelay = DEFAULT_DELAY;
 			}
+
+			try {
+				samplerSettings = SamplerSetting.parse(measurementProperties.getProperty(SAMPLERS), samplingDelay);
+				if (Boolean.parseBoolean(measurementProperties.getProperty(ADAPTIVE))) {
+					samplingPolicy = createSamplingPolicy(measurementProperties);
+				}
+				clockSyncPeriod = Long.parseLong(measurementProperties.getProperty(ClockSynchronizer.PERIOD_KEY, "0"));
+			} catch (IllegalArgumentException e) {
+				throw new MeasurementException(e);
+			}
+			if (clockSyncPeriod > 0L) {
+				clockSynchronizer = new ClockSynchronizer();
+				clockSynchronizer.addSatellite(SATELLITE_CLOCK, new IClock() {
+					@Override
+					public long getCurrentTime() {
+						return client.getCurrentTime();
+					}
+				});
+			}
 		}
 	}
 
+	private AdaptiveSamplingPolicy createSamplingPolicy(Properties measurementProperties) {
+		long minDelay = Long.parseLong(measurementProperties.getProperty(MIN_DELAY,
+				String.valueOf(DEFAULT_MIN_DELAY)));
+		long maxDelay = Long.parseLong(measurementProperties.getProperty(MAX_DELAY,
+				String.valueOf(DEFAULT_MAX_DELAY)));
+		double cpuBudget = Double.parseDouble(measurementProperties.getProperty(CPU_BUDGET,
+				String.valueOf(DEFAULT_CPU_BUDGET)));
+		double sampleCost = Double.parseDouble(measurementProperties.getProperty(SAMPLE_COST,
+				String.valueOf(DEFAULT_SAMPLE_COST)));
+		return new AdaptiveSamplingPolicy(minDelay, maxDelay, cpuBudget, sampleCost);
+	}
+
 	@Override
 	public void pipeToOutputStream(OutputStream oStream) throws MeasurementException {
-		client.pipeToOutputStream(oStream);
-
+		OutputStream target = samplingPolicy == null ? oStream : new ObservingOutputStream(oStream, samplingPolicy);
+		if (clockSynchronizer == null) {
+			client.pipeToOutputStream(target);
+		} else {
+			RecordSource source = new RecordSource() {
+				@Override
+				public void pipeToOutputStream(OutputStream clientStream) throws MeasurementException {
+					client.pipeToOutputStream(clientStream);
+				}
+			};
+			RecordStreams.transcode(source, target, PipeFormat.TEXT, clockSynchronizer.getModel(SATELLITE_CLOCK));
+		}
+		if (samplingPolicy != null) {
+			samplingPolicy.adapt(samplerSettings);
+		}
 	}
 
 	@Override
@@ -126,4 +222,60 @@ public class ResourceMonitoringAdapter extends AbstractMeasurementAdapter {
 		
 	}
 
+	/**
+	 * Passes the piped records to the sampling policy while writing them
+	 * through. The satellite pipes one record per line.
+	 */
+	private static class ObservingOutputStream extends FilterOutputStream {
+		private final AdaptiveSamplingPolicy policy;
+		private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+		ObservingOutputStream(OutputStream out, AdaptiveSamplingPolicy policy) {
+			super(out);
+			this.policy = policy;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			if (b == '\n') {
+				observeLine();
+			} else {
+				line.write(b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			int start = off;
+			for (int i = off; i < off + len; i++) {
+				if (b[i] == '\n') {
+					line.write(b, start, i - start);
+					observeLine();
+					start = i + 1;
+				}
+			}
+			line.write(b, start, off + len - start);
+		}
+
+		@Override
+		public void close() throws IOException {
+			observeLine();
+			super.close();
+		}
+
+		private void observeLine() {
+			String text = new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+			line.reset();
+			if (text.isEmpty()) {
+				return;
+			}
+			try {
+				policy.observe(AbstractRecord.fromString(text));
+			} catch (RuntimeException e) {
+				// records the policy cannot parse do not affect the sampling
+			}
+		}
+	}
 }
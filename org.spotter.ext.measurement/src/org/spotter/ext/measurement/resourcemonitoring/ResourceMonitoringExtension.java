@@ -20,6 +20,7 @@ import org.lpe.common.config.ConfigParameterDescription;
 import org.lpe.common.util.LpeSupportedTypes;
 import org.spotter.core.measurement.AbstractMeasurmentExtension;
 import org.spotter.core.measurement.IMeasurementAdapter;
+import org.spotter.ext.measurement.clock.ClockSynchronizer;
 
 /**
  * Extension for the resource monitoring client.
@@ -51,9 +52,39 @@ public class ResourceMonitoringExtension extends AbstractMeasurmentExtension {
 		return samplingDelayParameter;
 	}
 
+	private ConfigParameterDescription createParameter(String name, LpeSupportedTypes type, String defaultValue,
+			String description) {
+		ConfigParameterDescription parameter = new ConfigParameterDescription(name, type);
+		parameter.setMandatory(false);
+		parameter.setDefaultValue(defaultValue);
+		parameter.setDescription(description);
+		return parameter;
+	}
+
 	@Override
 	protected void initializeConfigurationParameters() {
 		addConfigParameter(createSamplingDelayParameter());
+		addConfigParameter(createParameter(ResourceMonitoringAdapter.SAMPLERS, LpeSupportedTypes.String,
+				SamplerSetting.DEFAULT_SAMPLERS, "Comma separated list of samplers to install, each as "
+						+ "sampler[:interval]. A sampler is either 'cpu', 'network' or the fully qualified class "
+						+ "name of a sampler available on the satellite, the interval in milliseconds defaults "
+						+ "to the sampling interval."));
+		addConfigParameter(createParameter(ResourceMonitoringAdapter.ADAPTIVE, LpeSupportedTypes.Boolean,
+				String.valueOf(false), "Adapts the sampling intervals after each experiment step: samplers "
+						+ "of strongly varying metrics sample more often, samplers of steady metrics less often."));
+		addConfigParameter(createParameter(ResourceMonitoringAdapter.MIN_DELAY, LpeSupportedTypes.Long,
+				String.valueOf(ResourceMonitoringAdapter.DEFAULT_MIN_DELAY),
+				"Minimal sampling interval in milliseconds for adaptive sampling."));
+		addConfigParameter(createParameter(ResourceMonitoringAdapter.MAX_DELAY, LpeSupportedTypes.Long,
+				String.valueOf(ResourceMonitoringAdapter.DEFAULT_MAX_DELAY),
+				"Maximal sampling interval in milliseconds for adaptive sampling."));
+		addConfigParameter(createParameter(ResourceMonitoringAdapter.CPU_BUDGET, LpeSupportedTypes.Double,
+				String.valueOf(ResourceMonitoringAdapter.DEFAULT_CPU_BUDGET),
+				"Share of one CPU the adaptive sampling may use, e.g. 0.01 for 1%."));
+		addConfigParameter(createParameter(ResourceMonitoringAdapter.SAMPLE_COST, LpeSupportedTypes.Double,
+				String.valueOf(ResourceMonitoringAdapter.DEFAULT_SAMPLE_COST),
+				"Estimated CPU time in milliseconds of taking one sample, used for the CPU budget."));
+		addConfigParameter(ClockSynchronizer.createPeriodParameter());
 		addConfigParameter(ConfigParameterDescription.createExtensionDescription(EXTENSION_DESCRIPTION));
 	}
 
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.resourcemonitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aim.artifacts.sampler.CPUSampler;
+import org.aim.artifacts.sampler.NetworkIOSampler;
+
+/**
+ * A sampler to install on the resource monitoring satellite together with
+ * its sampling delay. Samplers are configured as a comma separated list of
+ * entries {@code sampler[:delay]}, where sampler is an alias ("cpu",
+ * "network") or the fully qualified class name of a sampler available on the
+ * satellite, e.g. for memory, disk I/O or per-process sampling, and delay is
+ * the sampling delay in milliseconds.
+ * 
+ * @author agent
+ * 
+ */
+public final class SamplerSetting {
+	/**
+	 * Alias of the {@link CPUSampler}.
+	 */
+	public static final String CPU = "cpu";
+
+	/**
+	 * Alias of the {@link NetworkIOSampler}.
+	 */
+	public static final String NETWORK = "network";
+
+	/**
+	 * Samplers installed if none are configured.
+	 */
+	public static final String DEFAULT_SAMPLERS = CPU + "," + NETWORK;
+
+	private static final Map<String, String> ALIASES = new HashMap<>();
+	static {
+		ALIASES.put(CPU, CPUSampler.class.getName());
+		ALIASES.put(NETWORK, NetworkIOSampler.class.getName());
+	}
+
+	private final String samplerClass;
+	private long delay;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param samplerClass
+	 *            fully qualified class name of the sampler
+	 * @param delay
+	 *            sampling delay in milliseconds
+	 */
+	public SamplerSetting(String samplerClass, long delay) {
+		if (delay <= 0L) {
+			throw new IllegalArgumentException("Sampling delay of " + samplerClass + " must be positive.");
+		}
+		this.samplerClass = samplerClass;
+		this.delay = delay;
+	}
+
+	/**
+	 * Parses a sampler configuration.
+	 * 
+	 * @param samplers
+	 *            comma separated entries {@code sampler[:delay]}, the default
+	 *            samplers are used if null or empty
+	 * @param defaultDelay
+	 *            delay of entries without delay
+	 * @return settings in the configured order
+	 */
+	public static List<SamplerSetting> parse(String samplers, long defaultDelay) {
+		String spec = samplers == null || samplers.trim().isEmpty() ? DEFAULT_SAMPLERS : samplers;
+		List<SamplerSetting> settings = new ArrayList<>();
+		for (String entry : spec.split(",")) {
+			String trimmed = entry.trim();
+			if (trimmed.isEmpty()) {
+				continue;
+			}
+			int separator = trimmed.lastIndexOf(':');
+			String sampler = separator < 0 ? trimmed : trimmed.substring(0, separator).trim();
+			long delay = defaultDelay;
+			if (separator >= 0) {
+				try {
+					delay = Long.parseLong(trimmed.substring(separator + 1).trim());
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid sampling delay in sampler entry: " + trimmed, e);
+				}
+			}
+			String samplerClass = ALIASES.get(sampler.toLowerCase());
+			settings.add(new SamplerSetting(samplerClass != null ? samplerClass : sampler, delay));
+		}
+		if (settings.isEmpty()) {
+			throw new IllegalArgumentException("No samplers configured: " + samplers);
+		}
+		return Collections.unmodifiableList(settings);
+	}
+
+	/**
+	 * 
+	 * @return fully qualified class name of the sampler
+	 */
+	public String getSamplerClass() {
+		return samplerClass;
+	}
+
+	/**
+	 * 
+	 * @return sampling delay in milliseconds
+	 */
+	public synchronized long getDelay() {
+		return delay;
+	}
+
+	/**
+	 * 
+	 * @param delay
+	 *            sampling delay in milliseconds
+	 */
+	synchronized void setDelay(long delay) {
+		this.delay = delay;
+	}
+
+	@Override
+	public String toString() {
+		return samplerClass + ":" + getDelay();
+	}
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.sampling;
+
+import org.aim.api.exceptions.MeasurementException;
+
+/**
+ * Takes one sample per tick of a {@link SamplingTask}.
+ * 
+ * @author agent
+ * 
+ */
+public interface ISampler {
+	/**
+	 * Takes a sample. Samples should be timestamped with
+	 * {@link SamplingTick#getActualTime()}, the time they have actually been
+	 * taken, so that rates derived from consecutive samples are correct
+	 * even if a tick was late.
+	 * 
+	 * @param tick
+	 *            the current tick
+	 * @throws MeasurementException
+	 *             if sampling fails, stops the sampling task
+	 */
+	void sample(SamplingTick tick) throws MeasurementException;
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.sampling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aim.api.measurement.AbstractRecord;
+
+/**
+ * Bounded buffer of sampled records. If the buffer is full, the oldest
+ * record is dropped, so that a producer is never blocked by a slow consumer.
+ * 
+ * @author agent
+ * 
+ */
+public final class RecordRing {
+	private final AbstractRecord[] records;
+	private int head = 0;
+	private int size = 0;
+	private long numDropped = 0;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param capacity
+	 *            maximum number of buffered records
+	 */
+	public RecordRing(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive.");
+		}
+		records = new AbstractRecord[capacity];
+	}
+
+	/**
+	 * Adds a record, dropping the oldest record if the buffer is full.
+	 * 
+	 * @param record
+	 *            record to add
+	 */
+	public synchronized void add(AbstractRecord record) {
+		if (size == records.length) {
+			records[head] = null;
+			head = (head + 1) % records.length;
+			size--;
+			numDropped++;
+		}
+		records[(head + size) % records.length] = record;
+		size++;
+	}
+
+	/**
+	 * Removes all buffered records.
+	 * 
+	 * @return the removed records, oldest first
+	 */
+	public synchronized List<AbstractRecord> drain() {
+		List<AbstractRecord> drained = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			int index = (head + i) % records.length;
+			drained.add(records[index]);
+			records[index] = null;
+		}
+		head = 0;
+		size = 0;
+		return drained;
+	}
+
+	/**
+	 * 
+	 * @return number of buffered records
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * 
+	 * @return number of records dropped since the creation of the buffer
+	 */
+	public synchronized long getNumDropped() {
+		return numDropped;
+	}
+}
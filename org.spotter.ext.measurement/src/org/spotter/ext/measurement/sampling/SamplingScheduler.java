@@ -0,0 +1,96 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.sampling;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.lpe.common.config.GlobalConfiguration;
+
+/**
+ * Runs the samplers of all sampling measurement adapters, such as the
+ * database and JMS server adapters, as fixed-rate {@link SamplingTask}s on a
+ * small, shared thread pool instead of one sleeping thread per adapter.
+ * 
+ * @author agent
+ * 
+ */
+public final class SamplingScheduler {
+	/**
+	 * Number of threads running the samplers.
+	 */
+	public static final String NUM_THREADS_KEY = "org.spotter.measurement.sampling.numThreads";
+
+	/**
+	 * Default number of threads running the samplers.
+	 */
+	public static final int DEFAULT_NUM_THREADS = 2;
+
+	private static SamplingScheduler instance;
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	private SamplingScheduler(int numThreads) {
+		executor = new ScheduledThreadPoolExecutor(numThreads, new SamplerThreadFactory());
+		executor.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * 
+	 * @return the scheduler, created with the configured number of threads
+	 */
+	public static synchronized SamplingScheduler getInstance() {
+		if (instance == null) {
+			GlobalConfiguration configuration = GlobalConfiguration.getInstance();
+			String numThreads = configuration != null ? configuration.getProperty(NUM_THREADS_KEY) : null;
+			instance = new SamplingScheduler(numThreads == null ? DEFAULT_NUM_THREADS : Integer.parseInt(numThreads
+					.trim()));
+		}
+		return instance;
+	}
+
+	/**
+	 * Starts a sampler. The first sample is taken immediately.
+	 * 
+	 * @param name
+	 *            name of the task used in log messages
+	 * @param period
+	 *            sampling period in milliseconds
+	 * @param sampler
+	 *            sampler to run
+	 * @return the running task, has to be stopped by the caller
+	 */
+	public SamplingTask schedule(String name, long period, ISampler sampler) {
+		SamplingTask task = new SamplingTask(name, period, sampler, executor);
+		task.start();
+		return task;
+	}
+
+	/**
+	 * Names the sampler threads.
+	 */
+	private static class SamplerThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "spotter-sampler-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
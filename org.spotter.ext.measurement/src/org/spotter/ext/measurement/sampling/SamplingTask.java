@@ -0,0 +1,183 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.sampling;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.aim.api.exceptions.MeasurementException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A sampler running at a fixed rate on the {@link SamplingScheduler}. Tick k
+ * is intended for start time + k * period, independent of how long previous
+ * samples took, so the period does not drift. A tick never runs while the
+ * previous one of the same task is still running: if a sample takes longer
+ * than the period (an overrun), the ticks missed meanwhile are skipped and
+ * the task continues with the next tick in the future. Overruns, skipped
+ * ticks and the maximal lateness are reported when the task is stopped.
+ * 
+ * @author agent
+ * 
+ */
+public final class SamplingTask {
+	private static final Logger LOGGER = LoggerFactory.getLogger(SamplingTask.class);
+
+	private final String name;
+	private final long period;
+	private final long periodNanos;
+	private final ISampler sampler;
+	private final ScheduledExecutorService executor;
+
+	private final Object lock = new Object();
+	private long startTime;
+	private long startNanos;
+	private ScheduledFuture<?> nextTick;
+	private boolean running = false;
+	private boolean stopped = false;
+	private Exception failure;
+
+	private long numSamples = 0;
+	private long numOverruns = 0;
+	private long numSkippedTicks = 0;
+	private long maxLateness = 0;
+
+	SamplingTask(String name, long period, ISampler sampler, ScheduledExecutorService executor) {
+		if (period <= 0L) {
+			throw new IllegalArgumentException("Sampling period of " + name + " must be positive.");
+		}
+		this.name = name;
+		this.period = period;
+		this.periodNanos = TimeUnit.MILLISECONDS.toNanos(period);
+		this.sampler = sampler;
+		this.executor = executor;
+	}
+
+	void start() {
+		synchronized (lock) {
+			startTime = System.currentTimeMillis();
+			startNanos = System.nanoTime();
+			scheduleTick(0L);
+		}
+	}
+
+	private void scheduleTick(final long sequence) {
+		long delay = startNanos + sequence * periodNanos - System.nanoTime();
+		nextTick = executor.schedule(new Runnable() {
+			@Override
+			public void run() {
+				runTick(sequence);
+			}
+		}, Math.max(delay, 0L), TimeUnit.NANOSECONDS);
+	}
+
+	private void runTick(long sequence) {
+		synchronized (lock) {
+			if (stopped) {
+				return;
+			}
+			running = true;
+		}
+
+		long intendedTime = startTime + sequence * period;
+		long actualTime = System.currentTimeMillis();
+		long begin = System.nanoTime();
+		Exception error = null;
+		try {
+			sampler.sample(new SamplingTick(sequence, intendedTime, actualTime));
+		} catch (MeasurementException | RuntimeException e) {
+			error = e;
+		}
+		long end = System.nanoTime();
+
+		synchronized (lock) {
+			running = false;
+			recordTick(intendedTime, actualTime, end - begin);
+			if (error != null) {
+				LOGGER.error("Sampling task {} failed and has been stopped.", name, error);
+				failure = error;
+				stopped = true;
+			}
+			if (!stopped) {
+				// continue with the next tick which has not yet passed
+				long nextSequence = Math.max(sequence + 1L, (end - startNanos) / periodNanos + 1L);
+				numSkippedTicks += nextSequence - sequence - 1L;
+				scheduleTick(nextSequence);
+			}
+			lock.notifyAll();
+		}
+	}
+
+	private void recordTick(long intendedTime, long actualTime, long durationNanos) {
+		numSamples++;
+		maxLateness = Math.max(maxLateness, actualTime - intendedTime);
+		if (durationNanos > periodNanos) {
+			numOverruns++;
+			LOGGER.debug("Sampling task {} overran its period of {} ms.", name, period);
+		}
+	}
+
+	/**
+	 * Stops the task and waits until a running tick has completed.
+	 * 
+	 * @throws MeasurementException
+	 *             if the sampler failed or if interrupted while waiting
+	 */
+	public void stop() throws MeasurementException {
+		synchronized (lock) {
+			stopped = true;
+			if (nextTick != null) {
+				nextTick.cancel(false);
+			}
+			while (running) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new MeasurementException(e);
+				}
+			}
+			if (numSkippedTicks > 0L) {
+				LOGGER.warn("Sampling task {} stopped: {} samples, {} overruns, {} skipped ticks, "
+						+ "max lateness {} ms.", name, numSamples, numOverruns, numSkippedTicks, maxLateness);
+			} else {
+				LOGGER.debug("Sampling task {} stopped: {} samples, {} overruns, max lateness {} ms.", name,
+						numSamples, numOverruns, maxLateness);
+			}
+			if (failure != null) {
+				throw new MeasurementException(failure);
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @return name of the task
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 
+	 * @return period in milliseconds
+	 */
+	public long getPeriod() {
+		return period;
+	}
+}
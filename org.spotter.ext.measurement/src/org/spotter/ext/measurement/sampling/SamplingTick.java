@@ -0,0 +1,73 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.sampling;
+
+/**
+ * A tick of a {@link SamplingTask}: the time the sample is intended for and
+ * the time the sampler has actually been invoked.
+ * 
+ * @author agent
+ * 
+ */
+public final class SamplingTick {
+	private final long sequence;
+	private final long intendedTime;
+	private final long actualTime;
+
+	SamplingTick(long sequence, long intendedTime, long actualTime) {
+		this.sequence = sequence;
+		this.intendedTime = intendedTime;
+		this.actualTime = actualTime;
+	}
+
+	/**
+	 * 
+	 * @return index of the tick, starting with 0; skipped ticks leave gaps
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * 
+	 * @return intended time of the tick in milliseconds: start time plus
+	 *         sequence times period
+	 */
+	public long getIntendedTime() {
+		return intendedTime;
+	}
+
+	/**
+	 * 
+	 * @return time in milliseconds the sampler has been invoked
+	 */
+	public long getActualTime() {
+		return actualTime;
+	}
+
+	/**
+	 * 
+	 * @return delay of the actual behind the intended time in milliseconds
+	 */
+	public long getLateness() {
+		return actualTime - intendedTime;
+	}
+
+	@Override
+	public String toString() {
+		return sequence + ":" + intendedTime + "+" + getLateness();
+	}
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.clock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.artifacts.records.ResponseTimeRecord;
+import org.junit.Test;
+
+public class ClockSynchronizerTest {
+	private static final long START = 1400000000000L;
+	private static final long MINUTE = 60000L;
+
+	@Test
+	public void testOffsetEstimation() {
+		SimulatedTime time = new SimulatedTime();
+		SkewedClock satellite = new SkewedClock(time, 5000L, 0.0, 2L, 40L);
+		ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+		for (int i = 0; i < 30; i++) {
+			exchange(time, satellite, estimator);
+			time.now += 1000L;
+		}
+		assertEquals(5000.0, estimator.getModel().getOffset(), 2.0);
+		assertEquals(0.0, estimator.getModel().getDrift(), 0.0);
+	}
+
+	@Test
+	public void testDriftEstimation() {
+		SimulatedTime time = new SimulatedTime();
+		SkewedClock satellite = new SkewedClock(time, -1200L, 80e-6, 2L, 40L);
+		ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+		for (int i = 0; i < 10 * 60; i++) {
+			exchange(time, satellite, estimator);
+			time.now += 1000L;
+		}
+		ClockModel model = estimator.getModel();
+		assertEquals(80e-6, model.getDrift(), 10e-6);
+		for (long local = START; local <= time.now; local += MINUTE) {
+			assertEquals(local, model.toLocal(satellite.remoteTime(local)), 3L);
+		}
+	}
+
+	@Test
+	public void testAlignment() {
+		SimulatedTime time = new SimulatedTime();
+		SkewedClock dbms = new SkewedClock(time, 3000L, 50e-6, 1L, 10L);
+		SkewedClock jms = new SkewedClock(time, -7000L, -30e-6, 5L, 100L);
+		ClockSynchronizer synchronizer = new ClockSynchronizer(time);
+		synchronizer.addSatellite("dbms", dbms);
+		synchronizer.addSatellite("jms", jms);
+		for (int i = 0; i < 5 * 60; i++) {
+			synchronizer.synchronize();
+			time.now += 1000L;
+		}
+
+		List<AbstractRecord> dbmsRecords = new ArrayList<>();
+		List<AbstractRecord> jmsRecords = new ArrayList<>();
+		for (long local = START; local <= time.now; local += MINUTE) {
+			dbmsRecords.add(new ResponseTimeRecord(dbms.remoteTime(local), "query", 1L));
+			jmsRecords.add(new ResponseTimeRecord(jms.remoteTime(local), "send", 1L));
+		}
+		synchronizer.align("dbms", dbmsRecords);
+		synchronizer.align("jms", jmsRecords);
+		for (int i = 0; i < dbmsRecords.size(); i++) {
+			long local = START + i * MINUTE;
+			assertEquals(local, dbmsRecords.get(i).getTimeStamp(), 3L);
+			assertEquals(local, jmsRecords.get(i).getTimeStamp(), 10L);
+		}
+		assertSame(ClockModel.IDENTITY, synchronizer.getModel("unknown"));
+	}
+
+	private static void exchange(SimulatedTime time, SkewedClock satellite, ClockOffsetEstimator estimator) {
+		long localSend = time.now;
+		long remoteTime = satellite.getCurrentTime();
+		estimator.addExchange(localSend, remoteTime, time.now);
+	}
+
+	/**
+	 * Local clock of the simulation.
+	 */
+	private static class SimulatedTime implements IClock {
+		private long now = START;
+
+		@Override
+		public long getCurrentTime() {
+			return now;
+		}
+	}
+
+	/**
+	 * Satellite clock with offset and drift, read over a network with random,
+	 * asymmetric delays.
+	 */
+	private static class SkewedClock implements IClock {
+		private final SimulatedTime time;
+		private final long offset;
+		private final double drift;
+		private final long minDelay;
+		private final long maxDelay;
+		private final Random random = new Random(42L);
+
+		SkewedClock(SimulatedTime time, long offset, double drift, long minDelay, long maxDelay) {
+			this.time = time;
+			this.offset = offset;
+			this.drift = drift;
+			this.minDelay = minDelay;
+			this.maxDelay = maxDelay;
+		}
+
+		long remoteTime(long localTime) {
+			return Math.round(localTime + offset + drift * (localTime - START));
+		}
+
+		private long delay() {
+			// mostly short delays, occasionally congested
+			double jitter = Math.pow(random.nextDouble(), 4.0);
+			return minDelay + Math.round(jitter * (maxDelay - minDelay));
+		}
+
+		@Override
+		public long getCurrentTime() {
+			time.now += delay();
+			long remoteTime = remoteTime(time.now);
+			time.now += delay();
+			return remoteTime;
+		}
+	}
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.artifacts.records.ResponseTimeRecord;
+import org.junit.Test;
+
+public class BinaryRecordCodecTest {
+	private static final int NUM_RECORDS = 10000;
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		List<AbstractRecord> records = createRecords(NUM_RECORDS);
+		assertRecordsEqual(records, roundTrip(records, false));
+	}
+
+	@Test
+	public void testDeflate() throws Exception {
+		List<AbstractRecord> records = createRecords(NUM_RECORDS);
+		byte[] plain = write(records, false);
+		byte[] deflated = write(records, true);
+		assertTrue(deflated.length < plain.length);
+		assertRecordsEqual(records, read(deflated));
+	}
+
+	@Test
+	public void testNullStrings() throws Exception {
+		List<AbstractRecord> records = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			ResponseTimeRecord record = new ResponseTimeRecord(i, i % 2 == 0 ? null : "op", i);
+			record.setProcessId(null);
+			records.add(record);
+		}
+		List<AbstractRecord> result = roundTrip(records, false);
+		assertRecordsEqual(records, result);
+		assertNull(((ResponseTimeRecord) result.get(0)).getOperation());
+		assertNull(result.get(0).getProcessId());
+	}
+
+	@Test
+	public void testDictionaryOverflow() throws Exception {
+		// unique operations fill the dictionary, the remaining ones are
+		// written as literals
+		int numRecords = BinaryRecordWriter.MAX_DICTIONARY_SIZE + 1000;
+		List<AbstractRecord> records = new ArrayList<>();
+		for (int i = 0; i < numRecords; i++) {
+			records.add(new ResponseTimeRecord(i, "select * from t where id = " + i, i % 100));
+		}
+		// strings of the dictionary are still referenced after the overflow
+		records.add(new ResponseTimeRecord(numRecords, "select * from t where id = 0", 1L));
+
+		assertRecordsEqual(records, roundTrip(records, false));
+		assertRecordsEqual(records, roundTrip(records, true));
+	}
+
+	@Test
+	public void testTextFallback() throws Exception {
+		List<AbstractRecord> records = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			TaggedRecord tagged = new TaggedRecord();
+			tagged.setTimeStamp(100L + i);
+			tagged.setCallId(i);
+			tagged.setTags(new String[] { "tag" });
+			records.add(tagged);
+			records.add(new ResponseTimeRecord(i, "op", i));
+		}
+		assertTrue(!RecordSchema.of(TaggedRecord.class).isComplete());
+
+		List<AbstractRecord> result = roundTrip(records, false);
+		assertEquals(records.size(), result.size());
+		List<AbstractRecord> tagged = new ArrayList<>();
+		List<AbstractRecord> responseTimes = new ArrayList<>();
+		for (AbstractRecord record : result) {
+			if (record instanceof TaggedRecord) {
+				tagged.add(record);
+			} else {
+				responseTimes.add(record);
+			}
+		}
+		// records of different types do not keep their relative order
+		for (int i = 0; i < tagged.size(); i++) {
+			assertEquals(100L + i, tagged.get(i).getTimeStamp());
+			assertEquals(i, tagged.get(i).getCallId());
+		}
+		assertEquals(10, responseTimes.size());
+		for (int i = 0; i < responseTimes.size(); i++) {
+			assertEquals(i, responseTimes.get(i).getTimeStamp());
+		}
+	}
+
+	private List<AbstractRecord> createRecords(int numRecords) {
+		List<AbstractRecord> records = new ArrayList<>();
+		for (int i = 0; i < numRecords; i++) {
+			ResponseTimeRecord record = new ResponseTimeRecord(1400000000000L + i * 3, "op-" + (i % 20), i % 500);
+			record.setCallId(-i);
+			record.setProcessId("4711@host");
+			records.add(record);
+		}
+		return records;
+	}
+
+	private List<AbstractRecord> roundTrip(List<AbstractRecord> records, boolean deflate) throws IOException {
+		return read(write(records, deflate));
+	}
+
+	private byte[] write(List<AbstractRecord> records, boolean deflate) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		// small blocks, thus deltas and the dictionary span several blocks
+		BinaryRecordWriter writer = new BinaryRecordWriter(bytes, deflate, 1000);
+		for (AbstractRecord record : records) {
+			writer.write(record);
+		}
+		writer.close();
+		return bytes.toByteArray();
+	}
+
+	private List<AbstractRecord> read(byte[] bytes) throws IOException {
+		List<AbstractRecord> records = new ArrayList<>();
+		BinaryRecordReader reader = new BinaryRecordReader(new ByteArrayInputStream(bytes));
+		AbstractRecord record;
+		while ((record = reader.read()) != null) {
+			records.add(record);
+		}
+		reader.close();
+		return records;
+	}
+
+	private void assertRecordsEqual(List<AbstractRecord> expected, List<AbstractRecord> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			ResponseTimeRecord expectedRecord = (ResponseTimeRecord) expected.get(i);
+			ResponseTimeRecord actualRecord = (ResponseTimeRecord) actual.get(i);
+			assertEquals(expectedRecord.getTimeStamp(), actualRecord.getTimeStamp());
+			assertEquals(expectedRecord.getCallId(), actualRecord.getCallId());
+			assertEquals(expectedRecord.getProcessId(), actualRecord.getProcessId());
+			assertEquals(expectedRecord.getOperation(), actualRecord.getOperation());
+			assertEquals(expectedRecord.getResponseTime(), actualRecord.getResponseTime());
+		}
+	}
+
+	/**
+	 * Record with a property the binary format cannot encode.
+	 */
+	public static class TaggedRecord extends AbstractRecord {
+		private static final long serialVersionUID = 1L;
+
+		private String[] tags;
+
+		public String[] getTags() {
+			return tags;
+		}
+
+		public void setTags(String[] tags) {
+			this.tags = tags;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.measurement.collector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.artifacts.records.ResponseTimeRecord;
+import org.junit.Test;
+
+public class MappedRingDataSourceTest {
+	private static final int NUM_RECORDS = 200000;
+	private static final int NUM_SLOTS = 64;
+
+	@Test
+	public void testConcurrentDrainWithSpill() throws Exception {
+		MappedRingDataSource dataSource = createDataSource(OverflowPolicy.SPILL, NUM_SLOTS);
+		try {
+			List<AbstractRecord> records = produceAndDrain(dataSource);
+			boolean[] seen = new boolean[NUM_RECORDS];
+			for (AbstractRecord record : records) {
+				int index = (int) record.getTimeStamp();
+				assertTrue("duplicate record " + index, !seen[index]);
+				seen[index] = true;
+			}
+			assertEquals(NUM_RECORDS, records.size());
+			assertEquals(0L, dataSource.getNumOverwritten());
+		} finally {
+			dataSource.close();
+		}
+	}
+
+	@Test
+	public void testConcurrentDrainWithOverwrite() throws Exception {
+		MappedRingDataSource dataSource = createDataSource(OverflowPolicy.OVERWRITE, NUM_SLOTS);
+		try {
+			List<AbstractRecord> records = produceAndDrain(dataSource);
+			long previous = -1L;
+			for (AbstractRecord record : records) {
+				// only the oldest records are overwritten, thus the
+				// remaining ones arrive in order and without duplicates
+				assertTrue(record.getTimeStamp() > previous);
+				previous = record.getTimeStamp();
+			}
+			assertEquals(NUM_RECORDS, records.size() + dataSource.getNumOverwritten());
+			assertEquals(0L, dataSource.getNumSpilled());
+		} finally {
+			dataSource.close();
+		}
+	}
+
+	@Test
+	public void testOversizedRecordDoesNotOverwrite() throws Exception {
+		MappedRingDataSource dataSource = createDataSource(OverflowPolicy.OVERWRITE, 4);
+		try {
+			for (int i = 0; i < 4; i++) {
+				dataSource.newRecord(new ResponseTimeRecord(i, "op", 1L));
+			}
+			StringBuilder operation = new StringBuilder();
+			for (int i = 0; i < MappedRingDataSource.DEFAULT_SLOT_SIZE; i++) {
+				operation.append('x');
+			}
+			dataSource.newRecord(new ResponseTimeRecord(4, operation.toString(), 1L));
+
+			List<AbstractRecord> records = dataSource.drain();
+			assertEquals(0L, dataSource.getNumOverwritten());
+			assertEquals(1L, dataSource.getNumSpilled());
+			assertEquals(5, records.size());
+			for (int i = 0; i < records.size(); i++) {
+				assertEquals(i, records.get(i).getTimeStamp());
+			}
+		} finally {
+			dataSource.close();
+		}
+	}
+
+	@Test
+	public void testReinitAfterClose() throws Exception {
+		MappedRingDataSource dataSource = createDataSource(OverflowPolicy.SPILL, NUM_SLOTS);
+		dataSource.newRecord(new ResponseTimeRecord(1L, "op", 1L));
+		dataSource.close();
+		dataSource.close();
+		// records added after closing are ignored
+		dataSource.newRecord(new ResponseTimeRecord(2L, "op", 1L));
+
+		dataSource.init(new Properties());
+		dataSource.enable();
+		dataSource.newRecord(new ResponseTimeRecord(3L, "op", 1L));
+		List<AbstractRecord> records = dataSource.drain();
+		assertEquals(1, records.size());
+		assertEquals(3L, records.get(0).getTimeStamp());
+		dataSource.close();
+	}
+
+	private MappedRingDataSource createDataSource(OverflowPolicy policy, int numSlots) throws MeasurementException {
+		Properties properties = new Properties();
+		properties.setProperty(MappedRingDataSource.NUM_SLOTS_KEY, String.valueOf(numSlots));
+		properties.setProperty(MappedRingDataSource.OVERFLOW_POLICY_KEY, policy.toString());
+		MappedRingDataSource dataSource = new MappedRingDataSource();
+		dataSource.init(properties);
+		dataSource.enable();
+		return dataSource;
+	}
+
+	/**
+	 * Adds records in one thread while draining the data source in another.
+	 */
+	private List<AbstractRecord> produceAndDrain(final MappedRingDataSource dataSource) throws Exception {
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < NUM_RECORDS; i++) {
+					dataSource.newRecord(new ResponseTimeRecord(i, "op", i % 100));
+				}
+			}
+		});
+		List<AbstractRecord> records = new ArrayList<>();
+		producer.start();
+		while (producer.isAlive()) {
+			records.addAll(dataSource.drain());
+		}
+		producer.join();
+		dataSource.disable();
+		records.addAll(dataSource.drain());
+		return records;
+	}
+}
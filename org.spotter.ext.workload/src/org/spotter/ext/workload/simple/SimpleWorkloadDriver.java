@@ -19,7 +19,9 @@ import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -31,6 +33,9 @@ import org.slf4j.LoggerFactory;
 import org.spotter.core.workload.AbstractWorkloadAdapter;
 import org.spotter.core.workload.LoadConfig;
 import org.spotter.exceptions.WorkloadException;
+import org.spotter.ext.workload.simple.timing.TimingPhase;
+import org.spotter.ext.workload.simple.timing.VUserTimer;
+import org.spotter.ext.workload.simple.timing.WorkloadTimings;
 
 /**
  * Generates a simple closed workload.
@@ -53,6 +58,21 @@ public class SimpleWorkloadDriver extends AbstractWorkloadAdapter {
 	 */
 	public static final String USER_SCRIPT_CLASS_NAME = "org.spotter.workload.simple.userScriptClassName";
 
+	/**
+	 * The configuration key to the intended interval between two iteration
+	 * starts of a vUser in milliseconds. 0 for a closed loop.
+	 */
+	public static final String ITERATION_INTERVAL = "org.spotter.workload.simple.iterationInterval";
+
+	/**
+	 * The configuration key to the length of the intervals client-side
+	 * timings are aggregated in, in milliseconds.
+	 */
+	public static final String TIMING_INTERVAL = "org.spotter.workload.simple.timingInterval";
+
+	protected static final long DEFAULT_ITERATION_INTERVAL = 0L;
+	protected static final long DEFAULT_TIMING_INTERVAL = 1000L;
+
 	/**
 	 * The monitor helps to enable the possible for others threads, to passivly
 	 * wait (warmUpMonitor.wait()) for this thread till the warm-up phase is
@@ -88,6 +108,11 @@ public class SimpleWorkloadDriver extends AbstractWorkloadAdapter {
 	 */
 	private int numActiveUsers = 0;
 
+	/**
+	 * Timers of all started vUsers.
+	 */
+	private final List<VUserTimer> vUserTimers = new CopyOnWriteArrayList<>();
+
 	/**
 	 * Constructor.
 	 * 
@@ -105,6 +130,8 @@ public class SimpleWorkloadDriver extends AbstractWorkloadAdapter {
 		warmupPhaseFinished = false;
 		experimentPhaseFinished = false;
 		numActiveUsers = 0;
+		vUserTimers.clear();
+		WorkloadTimings.getInstance().reset();
 		final Object wlDriver = this;
 		Runnable task = new Runnable() {
 
@@ -122,6 +149,10 @@ public class SimpleWorkloadDriver extends AbstractWorkloadAdapter {
 					String userScriptClassNAme = getProperties().getProperty(USER_SCRIPT_CLASS_NAME);
 
 					final long experimentDuration = loadConfig.getExperimentDuration() * _1000L; // [ms]
+					final long iterationInterval = Long.parseLong(getProperties().getProperty(ITERATION_INTERVAL,
+							String.valueOf(DEFAULT_ITERATION_INTERVAL)));
+					final long timingInterval = Long.parseLong(getProperties().getProperty(TIMING_INTERVAL,
+							String.valueOf(DEFAULT_TIMING_INTERVAL)));
 
 					// load one virutal user
 					Class<?> vUserClass;
@@ -140,7 +171,8 @@ public class SimpleWorkloadDriver extends AbstractWorkloadAdapter {
 							timeOffsetMultiplicatorCoolDown++;
 						}
 
-						startVUser(vUserClass, loadConfig.getCoolDownIntervalLength() * timeOffsetMultiplicatorCoolDown);
+						startVUser(vUserClass, loadConfig.getCoolDownIntervalLength() * timeOffsetMultiplicatorCoolDown,
+								new VUserTimer(WorkloadTimings.getInstance(), iterationInterval, timingInterval));
 
 						// We put "rampUpUsersPerInterval" into the system. When
 						// we
@@ -162,6 +194,7 @@ public class SimpleWorkloadDriver extends AbstractWorkloadAdapter {
 						warmupPhaseFinished = true;
 						warmUpMonitor.notifyAll();
 					}
+					flushTimers();
 
 					// In the experimentation time, the users are just executing
 					// their task. In this time
@@ -174,6 +207,7 @@ public class SimpleWorkloadDriver extends AbstractWorkloadAdapter {
 						experimentPhaseFinished = true;
 						experimentMonitor.notifyAll();
 					}
+					flushTimers();
 
 					LOGGER.info("Simple load with " + numberUsers + " vUsers terminated");
 				} catch (Throwable e) {
@@ -212,8 +246,11 @@ public class SimpleWorkloadDriver extends AbstractWorkloadAdapter {
 	 * @param vUserClass
 	 *            the users class with all properties set
 	 * @param coolDownDelay
+	 * @param timer
+	 *            timer of the user
 	 */
-	private void startVUser(final Class<?> vUserClass, final long coolDownDelay) {
+	private void startVUser(final Class<?> vUserClass, final long coolDownDelay, final VUserTimer timer) {
+		vUserTimers.add(timer);
 		LpeSystemUtils.submitTask(new Runnable() {
 			public void run() {
 				ISimpleVUser vUser;
@@ -225,19 +262,53 @@ public class SimpleWorkloadDriver extends AbstractWorkloadAdapter {
 
 				increaseNumActiveUsers();
 
-				while (!experimentPhaseFinished) {
-					vUser.executeIteration();
-				}
-				long coolDownPhaseStart = System.currentTimeMillis();
-				while ((System.currentTimeMillis() - coolDownPhaseStart) < coolDownDelay) {
-					vUser.executeIteration();
+				timer.bind();
+				try {
+					while (!experimentPhaseFinished) {
+						executeIteration(vUser, timer);
+					}
+					long coolDownPhaseStart = System.currentTimeMillis();
+					while ((System.currentTimeMillis() - coolDownPhaseStart) < coolDownDelay) {
+						executeIteration(vUser, timer);
+					}
+				} finally {
+					timer.flush();
+					timer.unbind();
+					decreaseNumActiveUsers();
 				}
-				decreaseNumActiveUsers();
 
 			}
 		});
 	}
 
+	private void executeIteration(ISimpleVUser vUser, VUserTimer timer) {
+		try {
+			timer.beginIteration(getCurrentPhase());
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+		vUser.executeIteration();
+		timer.endIteration();
+	}
+
+	private TimingPhase getCurrentPhase() {
+		if (!warmupPhaseFinished) {
+			return TimingPhase.WARM_UP;
+		} else if (!experimentPhaseFinished) {
+			return TimingPhase.EXPERIMENT;
+		}
+		return TimingPhase.COOL_DOWN;
+	}
+
+	/**
+	 * Merges the timings of all vUsers at the end of a phase.
+	 */
+	private void flushTimers() {
+		for (VUserTimer timer : vUserTimers) {
+			timer.flush();
+		}
+	}
+
 	private Class<?> loadVUserScript(File userScriptFile, String userScriptClassNAme) throws WorkloadException {
 		URL url;
 		final Class<?> vUserClass;
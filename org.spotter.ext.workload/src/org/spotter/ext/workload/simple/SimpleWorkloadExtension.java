@@ -68,10 +68,35 @@ public class SimpleWorkloadExtension extends AbstractWorkloadExtension {
 		return classParameter;
 	}
 
+	private ConfigParameterDescription createIterationIntervalParameter() {
+		ConfigParameterDescription intervalParameter = new ConfigParameterDescription(
+				SimpleWorkloadDriver.ITERATION_INTERVAL, LpeSupportedTypes.Long);
+		intervalParameter.setMandatory(false);
+		intervalParameter.setDefaultValue(String.valueOf(SimpleWorkloadDriver.DEFAULT_ITERATION_INTERVAL));
+		intervalParameter.setDescription("Intended interval between two iteration starts of a vUser in milliseconds. "
+				+ "Response times are measured from the intended start, so that stalls of the vUser are not hidden. "
+				+ "0 runs the iterations in a closed loop.");
+
+		return intervalParameter;
+	}
+
+	private ConfigParameterDescription createTimingIntervalParameter() {
+		ConfigParameterDescription intervalParameter = new ConfigParameterDescription(
+				SimpleWorkloadDriver.TIMING_INTERVAL, LpeSupportedTypes.Long);
+		intervalParameter.setMandatory(false);
+		intervalParameter.setDefaultValue(String.valueOf(SimpleWorkloadDriver.DEFAULT_TIMING_INTERVAL));
+		intervalParameter.setDescription("Length of the intervals client-side response times are aggregated in, "
+				+ "in milliseconds.");
+
+		return intervalParameter;
+	}
+
 	@Override
 	protected void initializeConfigurationParameters() {
 		addConfigParameter(createScriptPathParameter());
 		addConfigParameter(createScriptClassParameter());
+		addConfigParameter(createIterationIntervalParameter());
+		addConfigParameter(createTimingIntervalParameter());
 		addConfigParameter(ConfigParameterDescription.createExtensionDescription(EXTENSION_DESCRIPTION));
 	}
 
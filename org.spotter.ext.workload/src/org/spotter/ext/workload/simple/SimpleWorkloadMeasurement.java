@@ -0,0 +1,148 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.workload.simple;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aim.api.exceptions.MeasurementException;
+import org.aim.api.measurement.AbstractRecord;
+import org.aim.api.measurement.MeasurementData;
+import org.aim.artifacts.records.ResponseTimeRecord;
+import org.aim.description.InstrumentationDescription;
+import org.lpe.common.extension.IExtension;
+import org.spotter.core.measurement.AbstractMeasurementAdapter;
+import org.spotter.ext.workload.simple.timing.TimingSnapshot;
+import org.spotter.ext.workload.simple.timing.WorkloadTimings;
+import org.spotter.ext.workload.simple.timing.WorkloadTimings.IntervalTiming;
+
+/**
+ * Provides the client-side response times of the simple workload driver as
+ * response time records. The timings are aggregated per interval, thus the
+ * records of an interval are spread evenly over the interval and their
+ * response times carry the precision of the histograms.
+ * 
+ * @author agent
+ * 
+ */
+public class SimpleWorkloadMeasurement extends AbstractMeasurementAdapter {
+	private static final double MICROS_PER_MILLI = 1000.0;
+	private static final String REPORT_FILE = "SimpleWorkloadTimings.tsv";
+
+	private long monitoringStart = Long.MIN_VALUE;
+	private long monitoringEnd = Long.MAX_VALUE;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param provider
+	 *            extension provider
+	 */
+	public SimpleWorkloadMeasurement(IExtension<?> provider) {
+		super(provider);
+	}
+
+	@Override
+	public void initialize() throws MeasurementException {
+		// nothing to do here
+	}
+
+	@Override
+	public void enableMonitoring() throws MeasurementException {
+		monitoringStart = System.currentTimeMillis();
+		monitoringEnd = Long.MAX_VALUE;
+	}
+
+	@Override
+	public void disableMonitoring() throws MeasurementException {
+		monitoringEnd = System.currentTimeMillis();
+	}
+
+	@Override
+	public MeasurementData getMeasurementData() throws MeasurementException {
+		List<AbstractRecord> records = new ArrayList<>();
+		for (IntervalTiming interval : WorkloadTimings.getInstance().getIntervals(monitoringStart, monitoringEnd)) {
+			addRecords(interval, records);
+		}
+		MeasurementData data = new MeasurementData();
+		data.setRecords(records);
+		return data;
+	}
+
+	private void addRecords(IntervalTiming interval, List<AbstractRecord> records) {
+		TimingSnapshot snapshot = interval.getSnapshot();
+		long total = snapshot.getTotalCount();
+		long position = 0L;
+		for (int bucket = 0; bucket < snapshot.size(); bucket++) {
+			long responseTime = Math.round(snapshot.getValue(bucket) / MICROS_PER_MILLI);
+			for (long i = 0L; i < snapshot.getCount(bucket); i++) {
+				long timestamp = interval.getStart() + position * interval.getLength() / total;
+				records.add(new ResponseTimeRecord(timestamp, interval.getName(), responseTime));
+				position++;
+			}
+		}
+	}
+
+	@Override
+	public void pipeToOutputStream(OutputStream oStream) throws MeasurementException {
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(oStream, StandardCharsets.UTF_8))) {
+			for (IntervalTiming interval : WorkloadTimings.getInstance().getIntervals(monitoringStart, monitoringEnd)) {
+				List<AbstractRecord> records = new ArrayList<>();
+				addRecords(interval, records);
+				for (AbstractRecord record : records) {
+					writer.write(record.toString());
+					writer.write('\n');
+				}
+			}
+		} catch (IOException e) {
+			throw new MeasurementException(e);
+		}
+	}
+
+	@Override
+	public long getCurrentTime() {
+		return System.currentTimeMillis();
+	}
+
+	@Override
+	public void storeReport(String path) throws MeasurementException {
+		File reportFile = new File(path, REPORT_FILE);
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(reportFile), StandardCharsets.UTF_8)) {
+			writer.write(WorkloadTimings.getInstance().createReport());
+		} catch (IOException e) {
+			throw new MeasurementException(e);
+		}
+	}
+
+	@Override
+	public void prepareMonitoring(InstrumentationDescription monitoringDescription) throws MeasurementException {
+		// nothing to do here
+	}
+
+	@Override
+	public void resetMonitoring() throws MeasurementException {
+		monitoringStart = Long.MIN_VALUE;
+		monitoringEnd = Long.MAX_VALUE;
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.workload.simple;
+
+import org.lpe.common.config.ConfigParameterDescription;
+import org.spotter.core.measurement.AbstractMeasurmentExtension;
+import org.spotter.core.measurement.IMeasurementAdapter;
+
+/**
+ * Extension providing the client-side response times of the simple workload
+ * driver.
+ * 
+ * @author agent
+ * 
+ */
+public class SimpleWorkloadMeasurementExtension extends AbstractMeasurmentExtension {
+
+	private static final String EXTENSION_DESCRIPTION = "The customized workload measurement satellite adapter "
+			+ "provides the response times of iterations and transactions measured by the customized workload "
+			+ "satellite adapter on the client side. Named transactions are timed in the client class via "
+			+ "org.spotter.ext.workload.simple.timing.Transaction.";
+
+	@Override
+	public String getName() {
+		return "measurement.satellite.adapter.customized";
+	}
+
+	@Override
+	protected String getDefaultSatelleiteExtensionName() {
+		return "Customized Workload Measurement Satellite Adapter";
+	}
+
+	@Override
+	protected void initializeConfigurationParameters() {
+		addConfigParameter(ConfigParameterDescription.createExtensionDescription(EXTENSION_DESCRIPTION));
+	}
+
+	@Override
+	public IMeasurementAdapter createExtensionArtifact() {
+		return new SimpleWorkloadMeasurement(this);
+	}
+
+	@Override
+	public boolean testConnection(String host, String port) {
+		return true;
+	}
+
+	@Override
+	public boolean isRemoteExtension() {
+		return false;
+	}
+
+}
@@ -0,0 +1,303 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.workload.simple.timing;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of timing values with a bounded relative error, following the
+ * layout of HDR histograms: values are grouped into buckets of exponentially
+ * growing width, each split into linear sub-buckets. Thus, recording is a
+ * constant time array increment and the memory footprint does not depend on
+ * the number of recorded values.
+ * 
+ * Values are expected in microseconds. Values above the highest trackable
+ * value are recorded as the highest trackable value, negative values as 0.
+ * 
+ * @author agent
+ * 
+ */
+public class TimingHistogram {
+	/**
+	 * Default highest trackable value, one hour in microseconds.
+	 */
+	public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = 60L * 60L * 1000L * 1000L;
+
+	/**
+	 * Default number of significant decimal digits, i.e. a relative error of
+	 * 1%.
+	 */
+	public static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+
+	private static final double PERCENT = 100.0;
+
+	private final long highestTrackableValue;
+	private final int significantDigits;
+	private final int subBucketHalfCountMagnitude;
+	private final int subBucketHalfCount;
+	private final long subBucketMask;
+	private final int leadingZeroCountBase;
+	private final long[] counts;
+	private long totalCount;
+	private long maxValue;
+
+	/**
+	 * Constructor with default range and precision.
+	 */
+	public TimingHistogram() {
+		this(DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_SIGNIFICANT_DIGITS);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param highestTrackableValue
+	 *            highest value to be tracked, at least 2
+	 * @param significantDigits
+	 *            number of significant decimal digits, 1 to 5
+	 */
+	public TimingHistogram(long highestTrackableValue, int significantDigits) {
+		if (highestTrackableValue < 2L) {
+			throw new IllegalArgumentException("Highest trackable value must be at least 2.");
+		}
+		if (significantDigits < 1 || significantDigits > 5) {
+			throw new IllegalArgumentException("Number of significant digits must be between 1 and 5.");
+		}
+		this.highestTrackableValue = highestTrackableValue;
+		this.significantDigits = significantDigits;
+
+		long largestValueWithSingleUnitResolution = 2L * (long) Math.pow(10, significantDigits);
+		int subBucketCountMagnitude = (int) Math.ceil(Math.log(largestValueWithSingleUnitResolution) / Math.log(2));
+		subBucketHalfCountMagnitude = subBucketCountMagnitude - 1;
+		int subBucketCount = 1 << subBucketCountMagnitude;
+		subBucketHalfCount = subBucketCount / 2;
+		subBucketMask = subBucketCount - 1;
+		leadingZeroCountBase = Long.SIZE - subBucketHalfCountMagnitude - 1;
+
+		long smallestUntrackableValue = subBucketCount;
+		int bucketCount = 1;
+		while (smallestUntrackableValue <= highestTrackableValue) {
+			if (smallestUntrackableValue > Long.MAX_VALUE / 2) {
+				bucketCount++;
+				break;
+			}
+			smallestUntrackableValue <<= 1;
+			bucketCount++;
+		}
+		counts = new long[(bucketCount + 1) * subBucketHalfCount];
+	}
+
+	/**
+	 * Records a value.
+	 * 
+	 * @param value
+	 *            value to record
+	 */
+	public void recordValue(long value) {
+		recordValue(value, 1L);
+	}
+
+	/**
+	 * Records a value several times.
+	 * 
+	 * @param value
+	 *            value to record
+	 * @param count
+	 *            number of times to record the value
+	 */
+	public void recordValue(long value, long count) {
+		long clamped = Math.max(0L, Math.min(value, highestTrackableValue));
+		counts[countsIndex(clamped)] += count;
+		totalCount += count;
+		maxValue = Math.max(maxValue, clamped);
+	}
+
+	/**
+	 * Records a value and corrects for coordinated omission: if the value
+	 * exceeds the expected interval between two values, the recorder has
+	 * been stalled and values which would have been measured meanwhile are
+	 * missing. These are added as linearly decreasing values.
+	 * 
+	 * @param value
+	 *            value to record
+	 * @param expectedInterval
+	 *            expected interval between two values, no correction if not
+	 *            positive
+	 */
+	public void recordValueWithExpectedInterval(long value, long expectedInterval) {
+		recordValue(value);
+		if (expectedInterval <= 0L) {
+			return;
+		}
+		for (long missingValue = value - expectedInterval; missingValue >= expectedInterval; missingValue -= expectedInterval) {
+			recordValue(missingValue);
+		}
+	}
+
+	/**
+	 * Adds the counts of another histogram with the same range and
+	 * precision.
+	 * 
+	 * @param other
+	 *            histogram to add
+	 */
+	public void add(TimingHistogram other) {
+		if (other.highestTrackableValue != highestTrackableValue || other.significantDigits != significantDigits) {
+			throw new IllegalArgumentException("Histograms differ in range or precision.");
+		}
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		totalCount += other.totalCount;
+		maxValue = Math.max(maxValue, other.maxValue);
+	}
+
+	/**
+	 * Removes all values.
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0L);
+		totalCount = 0L;
+		maxValue = 0L;
+	}
+
+	/**
+	 * 
+	 * @return a new, empty histogram with the same range and precision
+	 */
+	public TimingHistogram createEmptyCopy() {
+		return new TimingHistogram(highestTrackableValue, significantDigits);
+	}
+
+	/**
+	 * 
+	 * @return a copy of this histogram
+	 */
+	public TimingHistogram copy() {
+		TimingHistogram copy = createEmptyCopy();
+		copy.add(this);
+		return copy;
+	}
+
+	/**
+	 * 
+	 * @return number of recorded values
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * 
+	 * @return largest recorded value
+	 */
+	public long getMaxValue() {
+		return maxValue;
+	}
+
+	/**
+	 * 
+	 * @return mean of the recorded values, 0 if empty
+	 */
+	public double getMean() {
+		if (totalCount == 0L) {
+			return 0.0;
+		}
+		double sum = 0.0;
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0L) {
+				sum += (double) medianEquivalentValue(i) * counts[i];
+			}
+		}
+		return sum / totalCount;
+	}
+
+	/**
+	 * 
+	 * @param percentile
+	 *            percentile between 0 and 100
+	 * @return the largest value of the bucket holding the percentile, 0 if
+	 *         empty
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (totalCount == 0L) {
+			return 0L;
+		}
+		double requested = Math.max(0.0, Math.min(percentile, PERCENT));
+		long countAtPercentile = Math.max(1L, (long) Math.ceil(requested / PERCENT * totalCount));
+		long count = 0L;
+		for (int i = 0; i < counts.length; i++) {
+			count += counts[i];
+			if (count >= countAtPercentile) {
+				return Math.min(highestEquivalentValue(i), maxValue);
+			}
+		}
+		return maxValue;
+	}
+
+	/**
+	 * 
+	 * @return the non-empty buckets, each represented by the middle of its
+	 *         value range
+	 */
+	public TimingSnapshot snapshot() {
+		int size = 0;
+		for (long count : counts) {
+			if (count > 0L) {
+				size++;
+			}
+		}
+		long[] values = new long[size];
+		long[] valueCounts = new long[size];
+		int position = 0;
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0L) {
+				values[position] = Math.min(medianEquivalentValue(i), maxValue);
+				valueCounts[position] = counts[i];
+				position++;
+			}
+		}
+		return new TimingSnapshot(values, valueCounts);
+	}
+
+	private int countsIndex(long value) {
+		int bucketIndex = leadingZeroCountBase - Long.numberOfLeadingZeros(value | subBucketMask);
+		int subBucketIndex = (int) (value >>> bucketIndex);
+		return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+	}
+
+	private int bucketIndexOf(int index) {
+		return Math.max(0, (index >> subBucketHalfCountMagnitude) - 1);
+	}
+
+	private long lowestEquivalentValue(int index) {
+		int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+		int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+		if (bucketIndex < 0) {
+			subBucketIndex -= subBucketHalfCount;
+			bucketIndex = 0;
+		}
+		return (long) subBucketIndex << bucketIndex;
+	}
+
+	private long highestEquivalentValue(int index) {
+		return lowestEquivalentValue(index) + (1L << bucketIndexOf(index)) - 1L;
+	}
+
+	private long medianEquivalentValue(int index) {
+		return lowestEquivalentValue(index) + ((1L << bucketIndexOf(index)) >> 1);
+	}
+}
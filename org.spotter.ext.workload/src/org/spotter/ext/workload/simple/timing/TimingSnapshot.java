@@ -0,0 +1,107 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.workload.simple.timing;
+
+import java.util.Arrays;
+
+/**
+ * Compact, immutable copy of the non-empty buckets of a
+ * {@link TimingHistogram}.
+ * 
+ * @author agent
+ * 
+ */
+public final class TimingSnapshot {
+	private final long[] values;
+	private final long[] counts;
+
+	TimingSnapshot(long[] values, long[] counts) {
+		this.values = values;
+		this.counts = counts;
+	}
+
+	/**
+	 * 
+	 * @return number of non-empty buckets
+	 */
+	public int size() {
+		return values.length;
+	}
+
+	/**
+	 * 
+	 * @param bucket
+	 *            index of the bucket
+	 * @return representative value of the bucket
+	 */
+	public long getValue(int bucket) {
+		return values[bucket];
+	}
+
+	/**
+	 * 
+	 * @param bucket
+	 *            index of the bucket
+	 * @return number of values in the bucket
+	 */
+	public long getCount(int bucket) {
+		return counts[bucket];
+	}
+
+	/**
+	 * Merges two snapshots, combining buckets with equal values.
+	 * 
+	 * @param other
+	 *            snapshot to merge with
+	 * @return merged snapshot
+	 */
+	TimingSnapshot merge(TimingSnapshot other) {
+		long[] mergedValues = new long[values.length + other.values.length];
+		long[] mergedCounts = new long[mergedValues.length];
+		int i = 0;
+		int j = 0;
+		int size = 0;
+		while (i < values.length || j < other.values.length) {
+			if (j == other.values.length || (i < values.length && values[i] < other.values[j])) {
+				mergedValues[size] = values[i];
+				mergedCounts[size] = counts[i++];
+			} else if (i == values.length || other.values[j] < values[i]) {
+				mergedValues[size] = other.values[j];
+				mergedCounts[size] = other.counts[j++];
+			} else {
+				mergedValues[size] = values[i];
+				mergedCounts[size] = counts[i++] + other.counts[j++];
+			}
+			size++;
+		}
+		if (size == mergedValues.length) {
+			return new TimingSnapshot(mergedValues, mergedCounts);
+		}
+		return new TimingSnapshot(Arrays.copyOf(mergedValues, size), Arrays.copyOf(mergedCounts, size));
+	}
+
+	/**
+	 * 
+	 * @return total number of values
+	 */
+	public long getTotalCount() {
+		long total = 0L;
+		for (long count : counts) {
+			total += count;
+		}
+		return total;
+	}
+}
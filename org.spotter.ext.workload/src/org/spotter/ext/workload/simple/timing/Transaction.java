@@ -0,0 +1,84 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.workload.simple.timing;
+
+/**
+ * A named transaction of a vUser script, timed on the client side. Usage
+ * within {@link org.spotter.ext.workload.simple.ISimpleVUser#executeIteration()}:
+ * 
+ * <pre>
+ * Transaction transaction = Transaction.start(&quot;login&quot;);
+ * ... // request
+ * transaction.end();
+ * </pre>
+ * 
+ * Outside of a vUser of the simple workload driver, transactions are not
+ * recorded.
+ * 
+ * @author agent
+ * 
+ */
+public final class Transaction {
+	private static final ThreadLocal<VUserTimer> TIMER = new ThreadLocal<>();
+
+	private final VUserTimer timer;
+	private final String name;
+	private final long startTime;
+	private final long startNanos;
+	private boolean ended = false;
+
+	private Transaction(VUserTimer timer, String name) {
+		this.timer = timer;
+		this.name = name;
+		startTime = System.currentTimeMillis();
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Starts a transaction.
+	 * 
+	 * @param name
+	 *            name of the transaction, used as operation of the response
+	 *            time records
+	 * @return running transaction
+	 */
+	public static Transaction start(String name) {
+		return new Transaction(TIMER.get(), name);
+	}
+
+	/**
+	 * Ends the transaction and records its duration. Further calls have no
+	 * effect.
+	 */
+	public void end() {
+		long duration = System.nanoTime() - startNanos;
+		if (ended) {
+			return;
+		}
+		ended = true;
+		if (timer != null) {
+			timer.recordTransaction(name, startTime, duration);
+		}
+	}
+
+	static void bind(VUserTimer timer) {
+		if (timer == null) {
+			TIMER.remove();
+		} else {
+			TIMER.set(timer);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.workload.simple.timing;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the iterations and transactions of one vUser. Timings are recorded
+ * into histograms of the vUser, which are merged into the
+ * {@link WorkloadTimings} at the end of each time interval and each phase.
+ * 
+ * If an iteration interval is given, iterations are started on a fixed
+ * schedule and their response times are measured from the intended instead
+ * of the actual start. Thus, stalls of the vUser which delay the issue of
+ * requests are not hidden (coordinated omission). Transaction response
+ * times are corrected by the iteration interval, see
+ * {@link TimingHistogram#recordValueWithExpectedInterval(long, long)}.
+ * Without iteration interval, iterations run in a closed loop and timings
+ * are not corrected.
+ * 
+ * @author agent
+ * 
+ */
+public final class VUserTimer {
+	private static final long NANOS_PER_MICRO = 1000L;
+	private static final long NANOS_PER_MILLI = 1000L * 1000L;
+
+	private final WorkloadTimings timings;
+	private final long iterationInterval;
+	private final long timingInterval;
+	private final Map<String, TimingHistogram> histograms = new HashMap<>();
+
+	private TimingPhase phase = TimingPhase.WARM_UP;
+	private long intervalStart = -1L;
+	private long intendedStartNanos = -1L;
+	private long iterationStartNanos;
+	private long iterationStartTime;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param timings
+	 *            timings to merge into
+	 * @param iterationInterval
+	 *            intended interval between iteration starts in milliseconds,
+	 *            0 for a closed loop
+	 * @param timingInterval
+	 *            length of the time intervals in milliseconds
+	 */
+	public VUserTimer(WorkloadTimings timings, long iterationInterval, long timingInterval) {
+		if (iterationInterval < 0L || timingInterval <= 0L) {
+			throw new IllegalArgumentException("Invalid intervals.");
+		}
+		this.timings = timings;
+		this.iterationInterval = iterationInterval * NANOS_PER_MILLI;
+		this.timingInterval = timingInterval;
+	}
+
+	/**
+	 * Binds this timer to the calling thread, so that {@link Transaction}s
+	 * of the thread are recorded.
+	 */
+	public void bind() {
+		Transaction.bind(this);
+	}
+
+	/**
+	 * Unbinds this timer from the calling thread.
+	 */
+	public void unbind() {
+		Transaction.bind(null);
+	}
+
+	/**
+	 * Starts an iteration, waiting for its intended start if iterations are
+	 * paced.
+	 * 
+	 * @param currentPhase
+	 *            phase of the load
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	public void beginIteration(TimingPhase currentPhase) throws InterruptedException {
+		synchronized (this) {
+			if (currentPhase != phase) {
+				flush();
+				phase = currentPhase;
+			}
+		}
+		long now = System.nanoTime();
+		if (iterationInterval == 0L) {
+			iterationStartNanos = now;
+			iterationStartTime = System.currentTimeMillis();
+			return;
+		}
+		if (intendedStartNanos < 0L) {
+			intendedStartNanos = now;
+		}
+		if (intendedStartNanos > now) {
+			TimeUnit.NANOSECONDS.sleep(intendedStartNanos - now);
+		}
+		iterationStartNanos = intendedStartNanos;
+		iterationStartTime = System.currentTimeMillis() - (System.nanoTime() - intendedStartNanos) / NANOS_PER_MILLI;
+		// iterations behind schedule are not skipped, the backlog shows up in
+		// the response times
+		intendedStartNanos += iterationInterval;
+	}
+
+	/**
+	 * Ends the current iteration and records its response time.
+	 */
+	public void endIteration() {
+		record(WorkloadTimings.ITERATION, iterationStartTime, System.nanoTime() - iterationStartNanos, 0L);
+	}
+
+	void recordTransaction(String name, long startTime, long duration) {
+		record(name, startTime, duration, iterationInterval);
+	}
+
+	private synchronized void record(String name, long timestamp, long duration, long expectedInterval) {
+		long start = timestamp - timestamp % timingInterval;
+		if (start != intervalStart) {
+			flush();
+			intervalStart = start;
+		}
+		TimingHistogram histogram = histograms.get(name);
+		if (histogram == null) {
+			histogram = new TimingHistogram();
+			histograms.put(name, histogram);
+		}
+		histogram.recordValueWithExpectedInterval(duration / NANOS_PER_MICRO, expectedInterval / NANOS_PER_MICRO);
+	}
+
+	/**
+	 * Merges the timings recorded since the last flush into the workload
+	 * timings.
+	 */
+	public synchronized void flush() {
+		for (Map.Entry<String, TimingHistogram> entry : histograms.entrySet()) {
+			TimingHistogram histogram = entry.getValue();
+			if (histogram.getTotalCount() > 0L) {
+				timings.add(phase, entry.getKey(), intervalStart, timingInterval, histogram);
+				histogram.reset();
+			}
+		}
+	}
+}
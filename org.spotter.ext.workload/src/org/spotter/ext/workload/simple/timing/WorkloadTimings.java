@@ -0,0 +1,229 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.workload.simple.timing;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Client-side timings of the simple workload driver, merged from the
+ * histograms of all vUsers. Timings are kept per phase and transaction and,
+ * for the conversion into response time records, per time interval; the
+ * timings of all vUsers in the same interval are merged.
+ * 
+ * @author agent
+ * 
+ */
+public final class WorkloadTimings {
+	/**
+	 * Name of the transaction covering a whole vUser iteration.
+	 */
+	public static final String ITERATION = "iteration";
+
+	private static final WorkloadTimings INSTANCE = new WorkloadTimings();
+	private static final double MICROS_PER_MILLI = 1000.0;
+	private static final double[] REPORTED_PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+
+	private final Map<TimingPhase, Map<String, TimingHistogram>> histograms = new EnumMap<>(TimingPhase.class);
+	private final TreeMap<Long, List<IntervalTiming>> intervals = new TreeMap<>();
+
+	private WorkloadTimings() {
+		reset();
+	}
+
+	/**
+	 * 
+	 * @return timings of the simple workload driver
+	 */
+	public static WorkloadTimings getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Removes all timings, e.g. when a new load starts.
+	 */
+	public synchronized void reset() {
+		for (TimingPhase phase : TimingPhase.values()) {
+			histograms.put(phase, new TreeMap<String, TimingHistogram>());
+		}
+		intervals.clear();
+	}
+
+	/**
+	 * Adds the timings of a vUser in an interval.
+	 * 
+	 * @param phase
+	 *            phase of the timings
+	 * @param name
+	 *            name of the transaction
+	 * @param start
+	 *            start of the interval
+	 * @param length
+	 *            length of the interval in milliseconds
+	 * @param histogram
+	 *            timings in microseconds
+	 */
+	synchronized void add(TimingPhase phase, String name, long start, long length, TimingHistogram histogram) {
+		Map<String, TimingHistogram> phaseHistograms = histograms.get(phase);
+		TimingHistogram phaseHistogram = phaseHistograms.get(name);
+		if (phaseHistogram == null) {
+			phaseHistogram = histogram.createEmptyCopy();
+			phaseHistograms.put(name, phaseHistogram);
+		}
+		phaseHistogram.add(histogram);
+
+		List<IntervalTiming> startIntervals = intervals.get(start);
+		if (startIntervals == null) {
+			startIntervals = new ArrayList<>();
+			intervals.put(start, startIntervals);
+		}
+		for (int i = 0; i < startIntervals.size(); i++) {
+			IntervalTiming interval = startIntervals.get(i);
+			if (interval.phase == phase && interval.name.equals(name)) {
+				startIntervals.set(i, new IntervalTiming(phase, name, start, Math.max(length, interval.length),
+						interval.snapshot.merge(histogram.snapshot())));
+				return;
+			}
+		}
+		startIntervals.add(new IntervalTiming(phase, name, start, length, histogram.snapshot()));
+	}
+
+	/**
+	 * 
+	 * @param phase
+	 *            phase of interest
+	 * @return copies of the histograms of the phase per transaction, in
+	 *         microseconds
+	 */
+	public synchronized Map<String, TimingHistogram> getHistograms(TimingPhase phase) {
+		Map<String, TimingHistogram> copies = new TreeMap<>();
+		for (Map.Entry<String, TimingHistogram> entry : histograms.get(phase).entrySet()) {
+			copies.put(entry.getKey(), entry.getValue().copy());
+		}
+		return copies;
+	}
+
+	/**
+	 * Returns the intervals overlapping a time range, including the
+	 * intervals containing its bounds.
+	 * 
+	 * @param from
+	 *            start of the range, intervals ending at or before it are
+	 *            excluded
+	 * @param to
+	 *            end of the range, exclusive
+	 * @return interval timings, sorted by interval start
+	 */
+	public synchronized List<IntervalTiming> getIntervals(long from, long to) {
+		List<IntervalTiming> result = new ArrayList<>();
+		for (List<IntervalTiming> startIntervals : intervals.headMap(to, false).values()) {
+			for (IntervalTiming interval : startIntervals) {
+				if (interval.start + interval.length > from) {
+					result.add(interval);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the report: one line per phase and transaction with tab
+	 * separated columns, times in milliseconds.
+	 * 
+	 * @return report
+	 */
+	public synchronized String createReport() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("phase\ttransaction\tcount\tmean[ms]");
+		for (double percentile : REPORTED_PERCENTILES) {
+			builder.append("\tp").append(percentile).append("[ms]");
+		}
+		builder.append("\tmax[ms]\n");
+		for (TimingPhase phase : TimingPhase.values()) {
+			for (Map.Entry<String, TimingHistogram> entry : histograms.get(phase).entrySet()) {
+				TimingHistogram histogram = entry.getValue();
+				builder.append(phase).append('\t');
+				builder.append(entry.getKey()).append('\t');
+				builder.append(histogram.getTotalCount()).append('\t');
+				builder.append(String.format("%.3f", histogram.getMean() / MICROS_PER_MILLI));
+				for (double percentile : REPORTED_PERCENTILES) {
+					builder.append('\t').append(
+							String.format("%.3f", histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI));
+				}
+				builder.append('\t').append(String.format("%.3f", histogram.getMaxValue() / MICROS_PER_MILLI));
+				builder.append('\n');
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Timings of a transaction of all vUsers in a time interval.
+	 */
+	public static final class IntervalTiming {
+		private final TimingPhase phase;
+		private final String name;
+		private final long start;
+		private final long length;
+		private final TimingSnapshot snapshot;
+
+		private IntervalTiming(TimingPhase phase, String name, long start, long length, TimingSnapshot snapshot) {
+			this.phase = phase;
+			this.name = name;
+			this.start = start;
+			this.length = length;
+			this.snapshot = snapshot;
+		}
+
+		/**
+		 * @return phase of the timings
+		 */
+		public TimingPhase getPhase() {
+			return phase;
+		}
+
+		/**
+		 * @return name of the transaction
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return start of the interval
+		 */
+		public long getStart() {
+			return start;
+		}
+
+		/**
+		 * @return length of the interval in milliseconds
+		 */
+		public long getLength() {
+			return length;
+		}
+
+		/**
+		 * @return timings in microseconds
+		 */
+		public TimingSnapshot getSnapshot() {
+			return snapshot;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.workload.simple.timing;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimingHistogramTest {
+	private static final double RELATIVE_ERROR = 0.01;
+
+	private static void assertWithinPrecision(long expected, long actual) {
+		Assert.assertEquals(expected, actual, expected * RELATIVE_ERROR);
+	}
+
+	@Test
+	public void testPercentiles() {
+		TimingHistogram histogram = new TimingHistogram();
+		for (long value = 1; value <= 10000; value++) {
+			histogram.recordValue(value);
+		}
+		Assert.assertEquals(10000, histogram.getTotalCount());
+		Assert.assertEquals(10000, histogram.getMaxValue());
+		assertWithinPrecision(5000, histogram.getValueAtPercentile(50.0));
+		assertWithinPrecision(9000, histogram.getValueAtPercentile(90.0));
+		assertWithinPrecision(9900, histogram.getValueAtPercentile(99.0));
+		assertWithinPrecision(10000, histogram.getValueAtPercentile(100.0));
+		Assert.assertEquals(5000.5, histogram.getMean(), 5000.5 * RELATIVE_ERROR);
+	}
+
+	@Test
+	public void testLargeValues() {
+		TimingHistogram histogram = new TimingHistogram();
+		histogram.recordValue(TimingHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE * 2);
+		Assert.assertEquals(TimingHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE, histogram.getMaxValue());
+		histogram.recordValue(1234567L);
+		assertWithinPrecision(1234567L, histogram.getValueAtPercentile(50.0));
+	}
+
+	@Test
+	public void testCoordinatedOmissionCorrection() {
+		TimingHistogram histogram = new TimingHistogram();
+		for (int i = 0; i < 99; i++) {
+			histogram.recordValueWithExpectedInterval(10, 100);
+		}
+		// a stall of one second hides the nine requests which would have
+		// been issued meanwhile
+		histogram.recordValueWithExpectedInterval(1000, 100);
+		Assert.assertEquals(109, histogram.getTotalCount());
+		assertWithinPrecision(500, histogram.getValueAtPercentile(95.0));
+
+		TimingHistogram uncorrected = new TimingHistogram();
+		uncorrected.recordValueWithExpectedInterval(1000, 0);
+		Assert.assertEquals(1, uncorrected.getTotalCount());
+	}
+
+	@Test
+	public void testMerge() {
+		TimingHistogram first = new TimingHistogram();
+		TimingHistogram second = first.createEmptyCopy();
+		first.recordValue(100, 3);
+		second.recordValue(200, 1);
+		first.add(second);
+		Assert.assertEquals(4, first.getTotalCount());
+		Assert.assertEquals(200, first.getMaxValue());
+		assertWithinPrecision(100, first.getValueAtPercentile(75.0));
+		assertWithinPrecision(200, first.getValueAtPercentile(100.0));
+
+		TimingSnapshot snapshot = first.snapshot();
+		Assert.assertEquals(2, snapshot.size());
+		Assert.assertEquals(4, snapshot.getTotalCount());
+		Assert.assertEquals(3, snapshot.getCount(0));
+
+		TimingHistogram copy = first.copy();
+		first.reset();
+		Assert.assertEquals(0, first.getTotalCount());
+		Assert.assertEquals(4, copy.getTotalCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMergeDifferentPrecision() {
+		new TimingHistogram().add(new TimingHistogram(TimingHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE, 3));
+	}
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2014 SAP AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.spotter.ext.workload.simple.timing;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spotter.ext.workload.simple.timing.WorkloadTimings.IntervalTiming;
+
+/**
+ * Tests the collection of the simple workload timings.
+ * 
+ * @author agent
+ * 
+ */
+public class WorkloadTimingsTest {
+
+	private final WorkloadTimings timings = WorkloadTimings.getInstance();
+
+	@After
+	public void reset() {
+		timings.reset();
+	}
+
+	@Test
+	public void testIntervalsOfVUsersAreMerged() {
+		TimingHistogram first = new TimingHistogram();
+		first.recordValue(100, 2);
+		TimingHistogram second = first.createEmptyCopy();
+		second.recordValue(100, 1);
+		second.recordValue(300, 1);
+		timings.add(TimingPhase.WARM_UP, "tx", 1000, 1000, first);
+		timings.add(TimingPhase.WARM_UP, "tx", 1000, 1000, second);
+		timings.add(TimingPhase.WARM_UP, "other", 1000, 1000, second);
+
+		List<IntervalTiming> intervals = timings.getIntervals(0, Long.MAX_VALUE);
+		Assert.assertEquals(2, intervals.size());
+		TimingSnapshot snapshot = intervals.get(0).getSnapshot();
+		Assert.assertEquals("tx", intervals.get(0).getName());
+		Assert.assertEquals(2, snapshot.size());
+		Assert.assertEquals(3, snapshot.getCount(0));
+		Assert.assertEquals(1, snapshot.getCount(1));
+		Assert.assertEquals(4, snapshot.getTotalCount());
+	}
+
+	@Test
+	public void testIntervalsOverlappingRange() {
+		TimingHistogram histogram = new TimingHistogram();
+		histogram.recordValue(100);
+		timings.add(TimingPhase.WARM_UP, "tx", 0, 1000, histogram);
+		timings.add(TimingPhase.WARM_UP, "tx", 1000, 1000, histogram);
+		timings.add(TimingPhase.WARM_UP, "tx", 2000, 1000, histogram);
+		timings.add(TimingPhase.WARM_UP, "tx", 3000, 1000, histogram);
+
+		List<IntervalTiming> intervals = timings.getIntervals(1500, 3000);
+		Assert.assertEquals(2, intervals.size());
+		Assert.assertEquals(1000, intervals.get(0).getStart());
+		Assert.assertEquals(2000, intervals.get(1).getStart());
+	}
+}